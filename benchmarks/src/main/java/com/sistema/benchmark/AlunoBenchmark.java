@@ -0,0 +1,82 @@
+package com.sistema.benchmark;
+
+import com.sistema.model.Aluno;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão CSV e cálculo de idade de um aluno.
+ *
+ * Cada chamada usa o próximo aluno de um conjunto fixo de 1024, para que os
+ * nomes e as datas variem sem que o JIT possa tratar a entrada como constante.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dfile.encoding=UTF-8")
+@State(Scope.Thread)
+public class AlunoBenchmark {
+
+    private static final int QUANTIDADE = 1024;
+
+    private Aluno[] alunos;
+    private String[] linhas;
+    private int proximo;
+
+    @Setup
+    public void preparar() {
+        List<Aluno> gerados = DadosBenchmark.gerarAlunos(0, QUANTIDADE, DadosBenchmark.SEMENTE);
+        alunos = gerados.toArray(new Aluno[0]);
+        linhas = new String[QUANTIDADE];
+        for (int i = 0; i < QUANTIDADE; i++) {
+            linhas[i] = alunos[i].toCSV();
+        }
+    }
+
+    private int proximo() {
+        proximo = (proximo + 1) & (QUANTIDADE - 1);
+        return proximo;
+    }
+
+    @Benchmark
+    public Aluno fromCSV() throws ParseException {
+        return Aluno.fromCSV(linhas[proximo()]);
+    }
+
+    @Benchmark
+    public String toCSV() {
+        return alunos[proximo()].toCSV();
+    }
+
+    /**
+     * Idade já calculada hoje para o aluno (caso comum da listagem).
+     */
+    @Benchmark
+    public int getIdade() {
+        return alunos[proximo()].getIdade();
+    }
+
+    /**
+     * Idade logo depois de a data de nascimento mudar, sem o valor em cache.
+     * A data alterna entre dois dias vizinhos a cada chamada.
+     */
+    @Benchmark
+    public int getIdadeSemCache() {
+        Aluno aluno = alunos[proximo()];
+        aluno.setDiaNascimento(aluno.getDiaNascimento() ^ 1);
+        return aluno.getIdade();
+    }
+}
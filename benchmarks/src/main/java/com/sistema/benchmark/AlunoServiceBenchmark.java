@@ -0,0 +1,134 @@
+package com.sistema.benchmark;
+
+import com.sistema.exception.CpfDuplicadoException;
+import com.sistema.exception.MatriculaDuplicadaException;
+import com.sistema.model.Aluno;
+import com.sistema.service.AlunoService;
+import com.sistema.service.OrdemListagem;
+import com.sistema.util.HibernateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações do AlunoService com a lista já carregada.
+ *
+ * A lista vem de um CSV gerado em um diretório temporário (a carga não passa
+ * pelo banco) e o banco é um HSQLDB em memória. Com escritaAdiada=true a
+ * medição cobre só a parte em memória; com false inclui a gravação no banco
+ * e no journal a cada alteração.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx4g",
+        "-Dfile.encoding=UTF-8",
+        "-Dalunos.db.url=jdbc:hsqldb:mem:benchmark",
+        "-Dalunos.db.mostrarSql=false"
+})
+@State(Scope.Benchmark)
+public class AlunoServiceBenchmark {
+
+    // Matrículas consultadas, sorteadas uma vez para não medir o sorteio
+    private static final int CONSULTAS = 4096;
+
+    @Param({"10000", "100000", "1000000"})
+    public int tamanho;
+
+    @Param({"true", "false"})
+    public boolean escritaAdiada;
+
+    private Path diretorio;
+    private PrintStream saidaOriginal;
+    private AlunoService alunoService;
+    private String[] matriculas;
+    private int proximaConsulta;
+    private int proximoNovo;
+    private SplittableRandom aleatorio;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        diretorio = Files.createTempDirectory("benchmark-alunos");
+        Path csv = diretorio.resolve("ListagemAlunos.txt");
+        List<Aluno> alunos = DadosBenchmark.gerarAlunos(0, tamanho, DadosBenchmark.SEMENTE);
+        DadosBenchmark.gravarCSV(csv, alunos);
+
+        saidaOriginal = System.out;
+        System.setOut(DadosBenchmark.saidaDescartada());
+
+        System.setProperty(AlunoService.PROPRIEDADE_ARQUIVO_CSV, csv.toString());
+        HibernateUtil.getSessionFactory();
+        alunoService = new AlunoService(escritaAdiada);
+
+        aleatorio = new SplittableRandom(DadosBenchmark.SEMENTE);
+        matriculas = new String[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            matriculas[i] = DadosBenchmark.matricula(aleatorio.nextInt(tamanho));
+        }
+        proximoNovo = tamanho;
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        // Grava o pendente antes de apagar o diretório (o gancho de encerramento não terá o que fazer)
+        alunoService.encerrar();
+        HibernateUtil.shutdown();
+        System.setOut(saidaOriginal);
+        DadosBenchmark.apagar(diretorio);
+    }
+
+    @Benchmark
+    public Aluno obterAlunoPorMatricula() {
+        proximaConsulta = (proximaConsulta + 1) & (CONSULTAS - 1);
+        return alunoService.obterAlunoPorMatricula(matriculas[proximaConsulta]);
+    }
+
+    /**
+     * Inclui um aluno novo no fim da lista e o remove em seguida, para que o
+     * tamanho não mude durante a medição.
+     */
+    @Benchmark
+    public boolean adicionarERemover() throws MatriculaDuplicadaException, CpfDuplicadoException {
+        Aluno aluno = DadosBenchmark.gerarAluno(proximoNovo++, aleatorio);
+        alunoService.adicionarAluno(aluno);
+        return alunoService.removerAlunoPorMatricula(aluno.getMatricula());
+    }
+
+    @Benchmark
+    public List<Aluno> listarOrdenadosPorNome() {
+        return alunoService.listarOrdenados(OrdemListagem.NOME);
+    }
+
+    /**
+     * Uma página de 50 alunos no meio da ordem por nome, como na listagem.
+     */
+    @Benchmark
+    public List<Aluno> paginaOrdenadaPorNome() {
+        return alunoService.listarIntervalo(OrdemListagem.NOME, tamanho / 2, 50);
+    }
+
+    @Benchmark
+    public Aluno[] identificarAlunosMaisNovoEMaisVelho() {
+        return alunoService.identificarAlunosMaisNovoEMaisVelho();
+    }
+}
@@ -0,0 +1,116 @@
+package com.sistema.benchmark;
+
+import com.sistema.model.Aluno;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Alunos sintéticos para os benchmarks. A mesma semente gera sempre os
+ * mesmos alunos, para que execuções em commits diferentes sejam comparáveis.
+ */
+final class DadosBenchmark {
+
+    static final long SEMENTE = 20240901L;
+
+    private static final String[] PRENOMES = {
+        "Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela", "Heitor",
+        "Isabela", "João", "Karina", "Lucas", "Maria", "Nicolas", "Olívia", "Paulo",
+        "Rafaela", "Samuel", "Tatiane", "Vinícius"
+    };
+
+    private static final String[] SOBRENOMES = {
+        "Silva", "Santos", "Oliveira", "Souza", "Lima", "Pereira", "Ferreira", "Costa",
+        "Rodrigues", "Almeida", "Nascimento", "Carvalho", "Araújo", "Ribeiro", "Conceição"
+    };
+
+    // 01/01/1950 a 31/12/2015
+    private static final long PRIMEIRO_DIA = LocalDate.of(1950, 1, 1).toEpochDay();
+    private static final long DIAS = LocalDate.of(2015, 12, 31).toEpochDay() - PRIMEIRO_DIA + 1;
+
+    private DadosBenchmark() {
+    }
+
+    /**
+     * "quantidade" alunos com matrículas e CPFs distintos, a partir do número
+     * "primeiro".
+     */
+    static List<Aluno> gerarAlunos(int primeiro, int quantidade, long semente) {
+        SplittableRandom aleatorio = new SplittableRandom(semente);
+        List<Aluno> alunos = new ArrayList<>(quantidade);
+        for (int i = primeiro; i < primeiro + quantidade; i++) {
+            alunos.add(gerarAluno(i, aleatorio));
+        }
+        return alunos;
+    }
+
+    static Aluno gerarAluno(int numero, SplittableRandom aleatorio) {
+        Aluno aluno = new Aluno();
+        aluno.setMatricula(matricula(numero));
+        aluno.setNome(PRENOMES[aleatorio.nextInt(PRENOMES.length)] + " "
+                + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)] + " "
+                + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)]);
+        aluno.setDiaNascimento((int) (PRIMEIRO_DIA + aleatorio.nextLong(DIAS)));
+        aluno.setTelefone(String.format("(86)9%04d-%04d", aleatorio.nextInt(10_000), aleatorio.nextInt(10_000)));
+        aluno.setCpf(cpf(numero));
+        aluno.calcularIdade();
+        return aluno;
+    }
+
+    static String matricula(int numero) {
+        return String.format("%09d", numero);
+    }
+
+    private static String cpf(int numero) {
+        String digitos = String.format("%011d", numero);
+        return digitos.substring(0, 3) + "." + digitos.substring(3, 6) + "."
+                + digitos.substring(6, 9) + "-" + digitos.substring(9);
+    }
+
+    /**
+     * Grava os alunos em um CSV no formato do AlunoService, que o carrega
+     * sem passar pelo banco.
+     */
+    static void gravarCSV(Path arquivo, List<Aluno> alunos) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo, Charset.defaultCharset())) {
+            for (Aluno aluno : alunos) {
+                writer.write(aluno.toCSV());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Apaga um diretório temporário criado pelos benchmarks e o que houver nele.
+     */
+    static void apagar(Path diretorio) throws IOException {
+        if (diretorio == null || !Files.exists(diretorio)) {
+            return;
+        }
+        List<Path> arquivos = new ArrayList<>();
+        try (Stream<Path> conteudo = Files.walk(diretorio)) {
+            conteudo.forEach(arquivos::add);
+        }
+        for (int i = arquivos.size() - 1; i >= 0; i--) {
+            Files.deleteIfExists(arquivos.get(i));
+        }
+    }
+
+    /**
+     * Saída que descarta tudo. O serviço e o DAO registram cada operação no
+     * console; sem isso a medição seria dominada pela escrita no terminal.
+     */
+    static PrintStream saidaDescartada() {
+        return new PrintStream(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,44 @@
+package com.sistema.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada do benchmarks.jar.
+ *
+ * Aceita os mesmos argumentos do JMH e acrescenta, quando não informados, o
+ * profiler de alocação (-prof gc) e a gravação dos resultados em JSON
+ * (-rf json -rff jmh-resultado.json). Para comparar dois commits, rode nos
+ * dois e compare os arquivos, ex.: em https://jmh.morethan.net.
+ */
+public class ExecutarBenchmarks {
+
+    private static final String ARQUIVO_RESULTADO = "jmh-resultado.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linhaDeComando = new CommandLineOptions(args);
+        if (linhaDeComando.shouldHelp() || linhaDeComando.shouldList()
+                || linhaDeComando.shouldListProfilers() || linhaDeComando.shouldListResultFormats()) {
+            // Ajuda e listagens ficam com o tratamento padrão do JMH
+            Main.main(args);
+            return;
+        }
+
+        OptionsBuilder opcoes = new OptionsBuilder();
+        opcoes.parent(linhaDeComando);
+        if (linhaDeComando.getProfilers().isEmpty()) {
+            opcoes.addProfiler(GCProfiler.class);
+        }
+        if (!linhaDeComando.getResultFormat().hasValue()) {
+            opcoes.resultFormat(ResultFormatType.JSON);
+        }
+        if (!linhaDeComando.getResult().hasValue()) {
+            opcoes.result(ARQUIVO_RESULTADO);
+        }
+        new Runner(opcoes.build()).run();
+    }
+}
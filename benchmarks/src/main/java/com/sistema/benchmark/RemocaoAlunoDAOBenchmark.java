@@ -0,0 +1,136 @@
+package com.sistema.benchmark;
+
+import com.sistema.dao.RemocaoAlunoDAO;
+import com.sistema.model.Aluno;
+import com.sistema.util.HibernateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações do RemocaoAlunoDAO em um HSQLDB em memória, com o cache de
+ * segundo nível na configuração padrão.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx2g",
+        "-Dfile.encoding=UTF-8",
+        "-Dalunos.db.url=jdbc:hsqldb:mem:benchmark",
+        "-Dalunos.db.mostrarSql=false"
+})
+@State(Scope.Benchmark)
+public class RemocaoAlunoDAOBenchmark {
+
+    private static final int CONSULTAS = 4096;
+    private static final int TAMANHO_LOTE = 1000;
+    private static final int TAMANHO_PAGINA = 100;
+
+    @Param({"10000", "100000"})
+    public int tamanho;
+
+    private PrintStream saidaOriginal;
+    private RemocaoAlunoDAO dao;
+    private String[] matriculas;
+    private int proximaConsulta;
+    private int proximoNovo;
+    private SplittableRandom aleatorio;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        saidaOriginal = System.out;
+        System.setOut(DadosBenchmark.saidaDescartada());
+
+        dao = new RemocaoAlunoDAO();
+        dao.removerTodos();
+        dao.salvarTodos(DadosBenchmark.gerarAlunos(0, tamanho, DadosBenchmark.SEMENTE));
+
+        aleatorio = new SplittableRandom(DadosBenchmark.SEMENTE);
+        matriculas = new String[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            matriculas[i] = DadosBenchmark.matricula(aleatorio.nextInt(tamanho));
+        }
+        proximoNovo = tamanho;
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        HibernateUtil.shutdown();
+        System.setOut(saidaOriginal);
+    }
+
+    private String proximaMatricula() {
+        proximaConsulta = (proximaConsulta + 1) & (CONSULTAS - 1);
+        return matriculas[proximaConsulta];
+    }
+
+    @Benchmark
+    public Aluno buscarPorMatricula() {
+        return dao.buscarPorMatricula(proximaMatricula());
+    }
+
+    @Benchmark
+    public boolean existePorMatricula() {
+        return dao.existePorMatricula(proximaMatricula());
+    }
+
+    /**
+     * Uma página de 100 alunos a partir de uma matrícula sorteada.
+     */
+    @Benchmark
+    public List<Aluno> listarPagina() {
+        return dao.listarPagina(proximaMatricula(), TAMANHO_PAGINA);
+    }
+
+    /**
+     * Grava e remove um aluno, uma transação para cada operação.
+     */
+    @Benchmark
+    public void salvarERemover() {
+        Aluno aluno = DadosBenchmark.gerarAluno(proximoNovo++, aleatorio);
+        dao.salvar(aluno);
+        dao.remover(aluno);
+    }
+
+    @Benchmark
+    public void atualizar() {
+        Aluno aluno = dao.buscarPorMatricula(proximaMatricula());
+        aluno.setTelefone(aluno.getTelefone());
+        dao.atualizar(aluno);
+    }
+
+    /**
+     * Grava um lote de 1000 alunos e remove o lote pelas matrículas.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int salvarTodosERemoverPorMatriculas() {
+        List<Aluno> lote = new ArrayList<>(TAMANHO_LOTE);
+        List<String> matriculasLote = new ArrayList<>(TAMANHO_LOTE);
+        for (int i = 0; i < TAMANHO_LOTE; i++) {
+            Aluno aluno = DadosBenchmark.gerarAluno(proximoNovo++, aleatorio);
+            lote.add(aluno);
+            matriculasLote.add(aluno.getMatricula());
+        }
+        dao.salvarTodos(lote);
+        return dao.removerPorMatriculas(matriculasLote);
+    }
+}
@@ -0,0 +1,77 @@
+package com.sistema.api;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executores para atender as requisições da API.
+ *
+ * - "limitado": pool com quantidade fixa de threads e fila limitada. Com a
+ *   fila cheia, a própria thread do servidor atende a requisição, o que
+ *   segura a aceitação de novas conexões até o pool se recuperar.
+ * - "virtual": uma thread virtual por requisição (Java 21+). O método é
+ *   localizado por reflexão, então o projeto continua compilando para Java 11.
+ * - "auto": virtual quando disponível, senão limitado.
+ */
+public final class ExecutoresApi {
+
+    private ExecutoresApi() {
+    }
+
+    /**
+     * @param tipo "auto", "virtual" ou "limitado"
+     * @param threads threads do pool limitado
+     * @param fila tamanho da fila do pool limitado
+     */
+    public static ExecutorService criar(String tipo, int threads, int fila) {
+        ExecutorService virtual;
+        switch (tipo) {
+            case "auto":
+                virtual = threadsVirtuais();
+                return virtual != null ? virtual : limitado(threads, fila);
+            case "virtual":
+                virtual = threadsVirtuais();
+                if (virtual != null) {
+                    return virtual;
+                }
+                System.err.println("Threads virtuais não disponíveis nesta JVM. Usando pool limitado.");
+                return limitado(threads, fila);
+            case "limitado":
+                return limitado(threads, fila);
+            default:
+                throw new IllegalArgumentException("Executor desconhecido: " + tipo + " (use auto, virtual ou limitado)");
+        }
+    }
+
+    /**
+     * Pool com "threads" threads e fila de "fila" requisições.
+     */
+    public static ExecutorService limitado(int threads, int fila) {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fila),
+                tarefa -> new Thread(tarefa, "api-" + contador.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor(), ou null se a JVM não tiver
+     * threads virtuais (ou só as tiver como recurso em preview desligado).
+     */
+    public static ExecutorService threadsVirtuais() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.sistema.api;
+
+import com.sistema.exception.CpfDuplicadoException;
+import com.sistema.exception.MatriculaDuplicadaException;
+import com.sistema.model.Aluno;
+import com.sistema.service.AlunoService;
+import com.sistema.service.OrdemListagem;
+import com.sistema.service.ResultadoImportacao;
+import com.sistema.service.ResultadoReconciliacao;
+import com.sistema.util.AlunoJsonCodec;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rotas da API de alunos.
+ *
+ * GET    /alunos?ordem=NOME&inicio=0&quantidade=50&nome=ana  listagem paginada
+ * POST   /alunos[?posicao=N]                                 inclusão (JSON)
+ * GET    /alunos/{matricula}                                 consulta
+ * PUT    /alunos/{matricula}                                 atualização (JSON)
+ * DELETE /alunos/{matricula}                                 remoção
+ * GET    /extremos                                           mais novo e mais velho
+ * GET    /exportacao                                         todos os alunos (NDJSON)
+ * POST   /importacao                                         importação em lote (NDJSON)
+ * POST   /reconciliacao[?forcar=true]                        corrige o banco a partir do CSV
+ *
+ * Erros voltam como {"erro": "..."} com 400 (requisição inválida), 404
+ * (não encontrado), 405 (método), 409 (matrícula ou CPF repetido, ou
+ * reconciliação recusada com a lista vazia) ou 500.
+ */
+class RotasAlunos implements HttpHandler {
+
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String NDJSON = "application/x-ndjson; charset=utf-8";
+
+    // Limites de paginação e do corpo de uma inclusão/atualização
+    private static final int QUANTIDADE_PADRAO = 50;
+    private static final int QUANTIDADE_MAXIMA = 1000;
+    // A busca por nome pagina sobre o resultado, que é montado desde o começo
+    private static final int INICIO_MAXIMO_BUSCA = 10_000;
+    // Alunos copiados da lista por vez na exportação
+    private static final int JANELA_EXPORTACAO = 1000;
+    private static final int TAMANHO_MAXIMO_CORPO = 64 * 1024;
+
+    private final AlunoService alunoService;
+
+    RotasAlunos(AlunoService alunoService) {
+        this.alunoService = alunoService;
+    }
+
+    @Override
+    public void handle(HttpExchange troca) throws IOException {
+        try {
+            rotear(troca);
+        } catch (RequisicaoInvalida e) {
+            enviarErro(troca, e.status, e.getMessage());
+        } catch (MatriculaDuplicadaException | CpfDuplicadoException e) {
+            enviarErro(troca, 409, e.getMessage());
+        } catch (ParseException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            enviarErro(troca, 400, e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Erro na requisição " + troca.getRequestMethod() + " "
+                    + troca.getRequestURI() + ": " + e.getMessage());
+            enviarErro(troca, 500, "Erro interno: " + e.getMessage());
+        } finally {
+            troca.close();
+        }
+    }
+
+    private void rotear(HttpExchange troca) throws Exception {
+        String caminho = troca.getRequestURI().getRawPath();
+        String metodo = troca.getRequestMethod();
+
+        if (caminho.equals("/alunos") || caminho.equals("/alunos/")) {
+            switch (metodo) {
+                case "GET":
+                    listar(troca);
+                    return;
+                case "POST":
+                    incluir(troca);
+                    return;
+                default:
+                    throw metodoNaoPermitido(troca, "GET, POST");
+            }
+        }
+
+        if (caminho.startsWith("/alunos/")) {
+            String matricula = URLDecoder.decode(caminho.substring("/alunos/".length()), StandardCharsets.UTF_8);
+            switch (metodo) {
+                case "GET":
+                    consultar(troca, matricula);
+                    return;
+                case "PUT":
+                    atualizar(troca, matricula);
+                    return;
+                case "DELETE":
+                    remover(troca, matricula);
+                    return;
+                default:
+                    throw metodoNaoPermitido(troca, "GET, PUT, DELETE");
+            }
+        }
+
+        switch (caminho) {
+            case "/extremos":
+                exigirMetodo(troca, "GET");
+                extremos(troca);
+                return;
+            case "/exportacao":
+                exigirMetodo(troca, "GET");
+                exportar(troca);
+                return;
+            case "/importacao":
+                exigirMetodo(troca, "POST");
+                importar(troca);
+                return;
+            case "/reconciliacao":
+                exigirMetodo(troca, "POST");
+                reconciliar(troca);
+                return;
+            default:
+                throw new RequisicaoInvalida(404, "Recurso não encontrado: " + caminho);
+        }
+    }
+
+    // ==================== ALUNOS ====================
+
+    private void listar(HttpExchange troca) throws IOException {
+        Map<String, String> parametros = parametros(troca);
+        int inicio = inteiro(parametros, "inicio", 0);
+        int quantidade = Math.min(inteiro(parametros, "quantidade", QUANTIDADE_PADRAO), QUANTIDADE_MAXIMA);
+        if (inicio < 0 || quantidade < 0) {
+            throw new RequisicaoInvalida(400, "inicio e quantidade não podem ser negativos");
+        }
+
+        String nome = parametros.get("nome");
+        OrdemListagem ordem = ordem(parametros.get("ordem"));
+        List<Aluno> alunos;
+        int total;
+
+        if (nome != null && !nome.trim().isEmpty()) {
+            // Busca por trecho do nome: a página sai do começo do resultado
+            if (inicio > INICIO_MAXIMO_BUSCA) {
+                throw new RequisicaoInvalida(400, "Na busca por nome, inicio vai até " + INICIO_MAXIMO_BUSCA);
+            }
+            int limite = (int) Math.min((long) inicio + quantidade, Integer.MAX_VALUE);
+            List<Aluno> encontrados = alunoService.buscarPorNome(nome, limite);
+            alunos = encontrados.subList(Math.min(inicio, encontrados.size()), encontrados.size());
+            total = -1;
+        } else {
+            total = alunoService.getQuantidadeAlunos();
+            alunos = alunoService.listarIntervalo(ordem, inicio, quantidade);
+        }
+
+        StringBuilder json = new StringBuilder(64 + alunos.size() * 160);
+        json.append('{');
+        if (total >= 0) {
+            json.append("\"total\":").append(total).append(',');
+        }
+        json.append("\"inicio\":").append(inicio)
+                .append(",\"quantidade\":").append(alunos.size())
+                .append(",\"ordem\":\"").append(ordem.name()).append("\"")
+                .append(",\"alunos\":[");
+        for (int i = 0; i < alunos.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            AlunoJsonCodec.codificar(alunos.get(i), json);
+        }
+        json.append("]}");
+        enviarJson(troca, 200, json.toString());
+    }
+
+    private void incluir(HttpExchange troca) throws Exception {
+        Aluno aluno = lerAluno(troca);
+        validar(aluno);
+
+        String posicao = parametros(troca).get("posicao");
+        if (posicao == null) {
+            alunoService.adicionarAluno(aluno);
+        } else {
+            alunoService.inserirAlunoNaPosicao(aluno, inteiro(posicao, "posicao"));
+        }
+
+        troca.getResponseHeaders().set("Location",
+                "/alunos/" + URLEncoder.encode(aluno.getMatricula(), StandardCharsets.UTF_8));
+        enviarJson(troca, 201, AlunoJsonCodec.codificar(aluno));
+    }
+
+    private void consultar(HttpExchange troca, String matricula) throws IOException {
+        enviarJson(troca, 200, AlunoJsonCodec.codificar(exigirAluno(matricula)));
+    }
+
+    private void atualizar(HttpExchange troca, String matricula) throws Exception {
+        exigirAluno(matricula);
+
+        // A matrícula vem do caminho; a do corpo, se houver, é ignorada
+        Aluno dados = lerAluno(troca);
+        dados.setMatricula(matricula);
+        validar(dados);
+
+        alunoService.atualizarAluno(dados);
+        enviarJson(troca, 200, AlunoJsonCodec.codificar(exigirAluno(matricula)));
+    }
+
+    private void remover(HttpExchange troca, String matricula) throws IOException {
+        if (!alunoService.removerAlunoPorMatricula(matricula)) {
+            throw new RequisicaoInvalida(404, "Aluno não encontrado: " + matricula);
+        }
+        troca.sendResponseHeaders(204, -1);
+    }
+
+    private void extremos(HttpExchange troca) throws IOException {
+        StringBuilder json = new StringBuilder(400);
+        json.append("{\"maisNovo\":");
+        escreverAluno(alunoService.obterAlunoMaisNovo(), json);
+        json.append(",\"maisVelho\":");
+        escreverAluno(alunoService.obterAlunoMaisVelho(), json);
+        json.append('}');
+        enviarJson(troca, 200, json.toString());
+    }
+
+    // ==================== LOTE (NDJSON) ====================
+
+    /**
+     * Um aluno por linha, em ordem de cadastro, enviado à medida que é gerado.
+     * A lista é copiada em janelas de JANELA_EXPORTACAO alunos, então a
+     * memória usada não cresce com o cadastro. Cada janela é lida de uma vez;
+     * uma inclusão ou remoção feita no meio da exportação pode deslocar as
+     * janelas seguintes.
+     */
+    private void exportar(HttpExchange troca) throws IOException {
+        troca.getResponseHeaders().set("Content-Type", NDJSON);
+        troca.sendResponseHeaders(200, 0);
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(troca.getResponseBody(), StandardCharsets.UTF_8), 64 * 1024)) {
+            int inicio = 0;
+            List<Aluno> janela;
+            do {
+                janela = alunoService.listarIntervalo(inicio, JANELA_EXPORTACAO);
+                for (Aluno aluno : janela) {
+                    AlunoJsonCodec.codificar(aluno, writer);
+                    writer.write('\n');
+                }
+                inicio += janela.size();
+            } while (janela.size() == JANELA_EXPORTACAO);
+        }
+    }
+
+    /**
+     * Importa um aluno por linha com as mesmas validações da importação de
+     * CSV. O corpo é gravado em um arquivo temporário antes de importar, para
+     * que um cliente lento não segure as escritas do serviço.
+     */
+    private void importar(HttpExchange troca) throws IOException {
+        Path recebido = Files.createTempFile("importacao-api", ".ndjson");
+        Path rejeitados = recebido.resolveSibling(recebido.getFileName() + ".rejeitados");
+        try {
+            try (InputStream corpo = troca.getRequestBody()) {
+                Files.copy(corpo, recebido, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            ResultadoImportacao resultado;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Files.newInputStream(recebido), StandardCharsets.UTF_8))) {
+                resultado = alunoService.importar(reader, AlunoJsonCodec::decodificar, rejeitados, parcial -> { });
+            }
+
+            StringBuilder json = new StringBuilder(256);
+            json.append("{\"linhasLidas\":").append(resultado.getLinhasLidas())
+                    .append(",\"importados\":").append(resultado.getImportados())
+                    .append(",\"rejeitados\":").append(resultado.getRejeitados())
+                    .append(",\"primeirasRejeicoes\":[");
+            List<ResultadoImportacao.Rejeicao> rejeicoes = resultado.getPrimeirasRejeicoes();
+            for (int i = 0; i < rejeicoes.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"linha\":").append(rejeicoes.get(i).getLinha()).append(",\"motivo\":");
+                AlunoJsonCodec.escreverTexto(rejeicoes.get(i).getMotivo(), json);
+                json.append('}');
+            }
+            json.append("]}");
+            enviarJson(troca, 200, json.toString());
+        } finally {
+            Files.deleteIfExists(recebido);
+            Files.deleteIfExists(rejeitados);
+        }
+    }
+
+    private void reconciliar(HttpExchange troca) throws IOException {
+        boolean forcar = Boolean.parseBoolean(parametros(troca).get("forcar"));
+        ResultadoReconciliacao resultado;
+        try {
+            resultado = alunoService.reconciliarBanco(forcar);
+        } catch (IllegalStateException e) {
+            throw new RequisicaoInvalida(409, e.getMessage());
+        }
+        String json = "{\"alunosMemoria\":" + resultado.getAlunosMemoria()
+                + ",\"alunosBanco\":" + resultado.getAlunosBanco()
+                + ",\"baldes\":" + resultado.getBaldes()
+                + ",\"baldesDiferentes\":" + resultado.getBaldesDiferentes()
+                + ",\"comparacoes\":" + resultado.getComparacoes()
+                + ",\"inseridos\":" + resultado.getInseridos()
+                + ",\"atualizados\":" + resultado.getAtualizados()
+                + ",\"removidos\":" + resultado.getRemovidos()
+                + ",\"remocoesAdiadas\":" + resultado.getRemocoesAdiadas()
+                + ",\"falhas\":" + resultado.getFalhas()
+                + ",\"duracaoMs\":" + resultado.getDuracaoMs() + "}";
+        enviarJson(troca, 200, json);
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private Aluno exigirAluno(String matricula) {
+        Aluno aluno = alunoService.obterAlunoPorMatricula(matricula);
+        if (aluno == null) {
+            throw new RequisicaoInvalida(404, "Aluno não encontrado: " + matricula);
+        }
+        return aluno;
+    }
+
+    /**
+     * Mesmos campos obrigatórios do formulário de cadastro.
+     */
+    private static void validar(Aluno aluno) {
+        if (aluno.getMatricula() == null || aluno.getMatricula().trim().isEmpty()) {
+            throw new RequisicaoInvalida(400, "Matrícula não informada");
+        }
+        if (aluno.getNome() == null || aluno.getNome().trim().isEmpty()) {
+            throw new RequisicaoInvalida(400, "Nome não informado");
+        }
+        if (!aluno.temDataNascimento()) {
+            throw new RequisicaoInvalida(400, "Data de nascimento não informada");
+        }
+    }
+
+    private static Aluno lerAluno(HttpExchange troca) throws IOException, ParseException {
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream entrada = troca.getRequestBody()) {
+            int lidos;
+            while ((lidos = entrada.read(buffer)) > 0) {
+                corpo.write(buffer, 0, lidos);
+                if (corpo.size() > TAMANHO_MAXIMO_CORPO) {
+                    throw new RequisicaoInvalida(413, "Corpo da requisição muito grande");
+                }
+            }
+        }
+        Aluno aluno = AlunoJsonCodec.decodificar(new String(corpo.toByteArray(), StandardCharsets.UTF_8));
+        aluno.calcularIdade();
+        return aluno;
+    }
+
+    private static void escreverAluno(Aluno aluno, StringBuilder json) throws IOException {
+        if (aluno == null) {
+            json.append("null");
+        } else {
+            AlunoJsonCodec.codificar(aluno, json);
+        }
+    }
+
+    private static OrdemListagem ordem(String valor) {
+        if (valor == null || valor.isEmpty()) {
+            return OrdemListagem.INSERCAO;
+        }
+        try {
+            return OrdemListagem.valueOf(valor.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RequisicaoInvalida(400, "Ordem inválida: " + valor + " (use INSERCAO, NOME, MATRICULA ou IDADE)");
+        }
+    }
+
+    private static Map<String, String> parametros(HttpExchange troca) {
+        Map<String, String> parametros = new HashMap<>();
+        String consulta = troca.getRequestURI().getRawQuery();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String chave = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            parametros.put(URLDecoder.decode(chave, StandardCharsets.UTF_8),
+                    URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+
+    private static int inteiro(Map<String, String> parametros, String nome, int padrao) {
+        String valor = parametros.get(nome);
+        return valor == null || valor.isEmpty() ? padrao : inteiro(valor, nome);
+    }
+
+    private static int inteiro(String valor, String nome) {
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new RequisicaoInvalida(400, "Parâmetro " + nome + " inválido: " + valor);
+        }
+    }
+
+    private static void exigirMetodo(HttpExchange troca, String metodo) {
+        if (!troca.getRequestMethod().equals(metodo)) {
+            throw metodoNaoPermitido(troca, metodo);
+        }
+    }
+
+    private static RequisicaoInvalida metodoNaoPermitido(HttpExchange troca, String permitidos) {
+        troca.getResponseHeaders().set("Allow", permitidos);
+        return new RequisicaoInvalida(405, "Método " + troca.getRequestMethod() + " não permitido");
+    }
+
+    private static void enviarJson(HttpExchange troca, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", JSON);
+        troca.sendResponseHeaders(status, bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+    }
+
+    private static void enviarErro(HttpExchange troca, int status, String mensagem) throws IOException {
+        // Se a resposta já começou (ex.: exportação interrompida), só resta fechar
+        if (troca.getResponseCode() != -1) {
+            return;
+        }
+        StringBuilder json = new StringBuilder("{\"erro\":");
+        AlunoJsonCodec.escreverTexto(mensagem, json);
+        json.append('}');
+        enviarJson(troca, status, json.toString());
+    }
+
+    /**
+     * Erro de requisição com o status HTTP a devolver.
+     */
+    private static final class RequisicaoInvalida extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        RequisicaoInvalida(int status, String mensagem) {
+            super(mensagem);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.sistema.api;
+
+import com.sistema.metricas.RegistroMetricas;
+import com.sistema.service.AlunoService;
+import com.sistema.util.Encerramento;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servidor HTTP sem interface gráfica sobre o AlunoService.
+ *
+ * As rotas estão descritas em {@link RotasAlunos} e não têm autenticação,
+ * por isso o servidor só atende a própria máquina. Configuração por
+ * propriedades de sistema:
+ * -Dalunos.api.endereco=127.0.0.1 (0.0.0.0 abre a API para outras máquinas)
+ * -Dalunos.api.porta=8080
+ * -Dalunos.api.executor=auto|virtual|limitado (ver {@link ExecutoresApi})
+ * -Dalunos.api.threads=N e -Dalunos.api.fila=N (pool limitado)
+ */
+public class ServidorApi {
+
+    public static final String PROPRIEDADE_ENDERECO = "alunos.api.endereco";
+    public static final String PROPRIEDADE_PORTA = "alunos.api.porta";
+    public static final String PROPRIEDADE_EXECUTOR = "alunos.api.executor";
+    public static final String PROPRIEDADE_THREADS = "alunos.api.threads";
+    public static final String PROPRIEDADE_FILA = "alunos.api.fila";
+
+    private static final int PORTA_PADRAO = 8080;
+    private static final int FILA_PADRAO = 1000;
+
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+
+    /**
+     * Servidor que só aceita conexões da própria máquina.
+     * @param porta porta TCP; 0 escolhe uma porta livre
+     * @param executor executor das requisições, encerrado junto com o servidor
+     */
+    public ServidorApi(AlunoService alunoService, int porta, ExecutorService executor) throws IOException {
+        this(alunoService, InetAddress.getLoopbackAddress(), porta, executor);
+    }
+
+    /**
+     * @param endereco interface em que o servidor escuta
+     * @param porta porta TCP; 0 escolhe uma porta livre
+     * @param executor executor das requisições, encerrado junto com o servidor
+     */
+    public ServidorApi(AlunoService alunoService, InetAddress endereco, int porta, ExecutorService executor)
+            throws IOException {
+        this.executor = executor;
+        this.servidor = HttpServer.create(new InetSocketAddress(endereco, porta), 0);
+        this.servidor.createContext("/", new RotasAlunos(alunoService));
+        this.servidor.setExecutor(executor);
+    }
+
+    public void iniciar() {
+        servidor.start();
+        InetAddress endereco = servidor.getAddress().getAddress();
+        System.out.println("API de alunos ouvindo em " + endereco.getHostAddress() + ":" + getPorta());
+        if (!endereco.isLoopbackAddress()) {
+            System.err.println("Aviso: a API não tem autenticação e está aberta a outras máquinas ("
+                    + PROPRIEDADE_ENDERECO + "=" + endereco.getHostAddress() + ")");
+        }
+    }
+
+    /**
+     * Para de aceitar conexões, espera até "segundos" pelas requisições em
+     * andamento e encerra o executor.
+     */
+    public void parar(int segundos) {
+        servidor.stop(segundos);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(segundos, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("API de alunos encerrada.");
+        System.out.println(RegistroMetricas.resumo());
+    }
+
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String propriedadeEndereco = System.getProperty(PROPRIEDADE_ENDERECO);
+        InetAddress endereco = propriedadeEndereco == null
+                ? InetAddress.getLoopbackAddress()
+                : InetAddress.getByName(propriedadeEndereco);
+        int porta = Integer.getInteger(PROPRIEDADE_PORTA, PORTA_PADRAO);
+        String tipoExecutor = System.getProperty(PROPRIEDADE_EXECUTOR, "auto");
+        int threads = Integer.getInteger(PROPRIEDADE_THREADS,
+                Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+        int fila = Integer.getInteger(PROPRIEDADE_FILA, FILA_PADRAO);
+
+        ExecutorService executor = ExecutoresApi.criar(tipoExecutor, threads, fila);
+        System.out.println("Executor da API: " + executor.getClass().getSimpleName());
+
+        AlunoService alunoService = new AlunoService();
+        ServidorApi servidor = new ServidorApi(alunoService, endereco, porta, executor);
+
+        // Para antes de o AlunoService gravar o pendente e de o Hibernate fechar
+        Encerramento.daAplicacao().registrar(Encerramento.Fase.ENTRADA, "api", () -> servidor.parar(5));
+
+        servidor.iniciar();
+    }
+}
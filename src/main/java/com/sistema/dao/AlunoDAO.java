@@ -1,7 +1,10 @@
 package com.sistema.dao;
 
 import com.sistema.model.Aluno;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 public interface AlunoDAO {
@@ -18,5 +21,60 @@ public interface AlunoDAO {
 
     List<Aluno> listarTodos();
 
+    /**
+     * Paginação por chave (keyset): até "limite" alunos com matrícula maior que
+     * "aposMatricula", em ordem de matrícula. Use null para a primeira página e
+     * a matrícula do último aluno recebido para as seguintes. Uma falha de
+     * leitura é lançada: uma página vazia sempre quer dizer que não há mais
+     * alunos.
+     */
+    List<Aluno> listarPagina(String aposMatricula, int limite);
+
+    /**
+     * Alunos com matrícula em [de, ate), em ordem de matrícula, lidos do banco
+     * sem passar pelo cache. null em um dos limites deixa a faixa aberta.
+     * Uma falha de leitura é lançada.
+     */
+    List<Aluno> listarFaixa(String de, String ate);
+
+    /**
+     * Soma dos hashes (ver HashAluno) e quantidade dos alunos com matrícula em
+     * [de, ate), calculadas no banco por uma consulta agregada, sem trazer as
+     * linhas. null em um dos limites deixa a faixa aberta. A soma é módulo
+     * 2^64. Lança exceção se o banco não tiver a função hash_aluno (esquema
+     * não migrado).
+     *
+     * @return {soma dos hashes, quantidade}
+     */
+    long[] resumirFaixa(String de, String ate);
+
+    /**
+     * Percorre a tabela inteira em ordem de matrícula sem carregá-la na memória.
+     * O Stream mantém uma sessão aberta e deve ser fechado (try-with-resources).
+     */
+    Stream<Aluno> listarEmFluxo();
+
+    /**
+     * Igual a listarEmFluxo(), buscando "tamanhoBusca" linhas por ida ao banco.
+     */
+    Stream<Aluno> listarEmFluxo(int tamanhoBusca);
+
     boolean existePorMatricula(String matricula);
+
+    /**
+     * Insere todos os alunos do iterador, consumindo-o aos poucos,
+     * para cargas grandes que não cabem em uma única lista.
+     */
+    void salvarEmFluxo(Iterator<Aluno> alunos);
+
+    /**
+     * Operações em lote: cada chamada usa uma única transação.
+     */
+    void salvarTodos(Collection<Aluno> alunos);
+
+    void atualizarTodos(Collection<Aluno> alunos);
+
+    int removerPorMatriculas(Collection<String> matriculas);
+
+    int removerTodos();
 }
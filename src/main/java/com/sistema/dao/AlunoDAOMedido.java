@@ -0,0 +1,150 @@
+package com.sistema.dao;
+
+import com.sistema.metricas.MetricaOperacao;
+import com.sistema.metricas.RegistroMetricas;
+import com.sistema.model.Aluno;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Decorador que mede cada chamada de outro AlunoDAO (tempo, quantidade e
+ * falhas), publicando as métricas no JMX na camada "dao".
+ *
+ * Em listarEmFluxo() só a abertura do fluxo é medida; a leitura acontece
+ * depois, no ritmo de quem consome o Stream.
+ */
+public class AlunoDAOMedido implements AlunoDAO {
+
+    private static final String CAMADA = "dao";
+
+    private static final MetricaOperacao REMOVER_ALUNO = RegistroMetricas.operacao(CAMADA, "removerAluno");
+    private static final MetricaOperacao SALVAR = RegistroMetricas.operacao(CAMADA, "salvar");
+    private static final MetricaOperacao ATUALIZAR = RegistroMetricas.operacao(CAMADA, "atualizar");
+    private static final MetricaOperacao REMOVER = RegistroMetricas.operacao(CAMADA, "remover");
+    private static final MetricaOperacao BUSCAR_POR_MATRICULA = RegistroMetricas.operacao(CAMADA, "buscarPorMatricula");
+    private static final MetricaOperacao LISTAR_TODOS = RegistroMetricas.operacao(CAMADA, "listarTodos");
+    private static final MetricaOperacao LISTAR_PAGINA = RegistroMetricas.operacao(CAMADA, "listarPagina");
+    private static final MetricaOperacao LISTAR_FAIXA = RegistroMetricas.operacao(CAMADA, "listarFaixa");
+    private static final MetricaOperacao RESUMIR_FAIXA = RegistroMetricas.operacao(CAMADA, "resumirFaixa");
+    private static final MetricaOperacao LISTAR_EM_FLUXO = RegistroMetricas.operacao(CAMADA, "listarEmFluxo");
+    private static final MetricaOperacao EXISTE_POR_MATRICULA = RegistroMetricas.operacao(CAMADA, "existePorMatricula");
+    private static final MetricaOperacao SALVAR_EM_FLUXO = RegistroMetricas.operacao(CAMADA, "salvarEmFluxo");
+    private static final MetricaOperacao SALVAR_TODOS = RegistroMetricas.operacao(CAMADA, "salvarTodos");
+    private static final MetricaOperacao ATUALIZAR_TODOS = RegistroMetricas.operacao(CAMADA, "atualizarTodos");
+    private static final MetricaOperacao REMOVER_POR_MATRICULAS = RegistroMetricas.operacao(CAMADA, "removerPorMatriculas");
+    private static final MetricaOperacao REMOVER_TODOS = RegistroMetricas.operacao(CAMADA, "removerTodos");
+
+    private final AlunoDAO dao;
+
+    public AlunoDAOMedido(AlunoDAO dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    public List<Aluno> removerAluno(List<Aluno> alunos, Aluno a) {
+        return medir(REMOVER_ALUNO, () -> dao.removerAluno(alunos, a));
+    }
+
+    @Override
+    public void salvar(Aluno aluno) {
+        medir(SALVAR, () -> dao.salvar(aluno));
+    }
+
+    @Override
+    public void atualizar(Aluno aluno) {
+        medir(ATUALIZAR, () -> dao.atualizar(aluno));
+    }
+
+    @Override
+    public void remover(Aluno aluno) {
+        medir(REMOVER, () -> dao.remover(aluno));
+    }
+
+    @Override
+    public Aluno buscarPorMatricula(String matricula) {
+        return medir(BUSCAR_POR_MATRICULA, () -> dao.buscarPorMatricula(matricula));
+    }
+
+    @Override
+    public List<Aluno> listarTodos() {
+        return medir(LISTAR_TODOS, dao::listarTodos);
+    }
+
+    @Override
+    public List<Aluno> listarPagina(String aposMatricula, int limite) {
+        return medir(LISTAR_PAGINA, () -> dao.listarPagina(aposMatricula, limite));
+    }
+
+    @Override
+    public List<Aluno> listarFaixa(String de, String ate) {
+        return medir(LISTAR_FAIXA, () -> dao.listarFaixa(de, ate));
+    }
+
+    @Override
+    public long[] resumirFaixa(String de, String ate) {
+        return medir(RESUMIR_FAIXA, () -> dao.resumirFaixa(de, ate));
+    }
+
+    @Override
+    public Stream<Aluno> listarEmFluxo() {
+        return medir(LISTAR_EM_FLUXO, () -> dao.listarEmFluxo());
+    }
+
+    @Override
+    public Stream<Aluno> listarEmFluxo(int tamanhoBusca) {
+        return medir(LISTAR_EM_FLUXO, () -> dao.listarEmFluxo(tamanhoBusca));
+    }
+
+    @Override
+    public boolean existePorMatricula(String matricula) {
+        return medir(EXISTE_POR_MATRICULA, () -> dao.existePorMatricula(matricula));
+    }
+
+    @Override
+    public void salvarEmFluxo(Iterator<Aluno> alunos) {
+        medir(SALVAR_EM_FLUXO, () -> dao.salvarEmFluxo(alunos));
+    }
+
+    @Override
+    public void salvarTodos(Collection<Aluno> alunos) {
+        medir(SALVAR_TODOS, () -> dao.salvarTodos(alunos));
+    }
+
+    @Override
+    public void atualizarTodos(Collection<Aluno> alunos) {
+        medir(ATUALIZAR_TODOS, () -> dao.atualizarTodos(alunos));
+    }
+
+    @Override
+    public int removerPorMatriculas(Collection<String> matriculas) {
+        return medir(REMOVER_POR_MATRICULAS, () -> dao.removerPorMatriculas(matriculas));
+    }
+
+    @Override
+    public int removerTodos() {
+        return medir(REMOVER_TODOS, dao::removerTodos);
+    }
+
+    private static <T> T medir(MetricaOperacao metrica, Supplier<T> operacao) {
+        long inicio = System.nanoTime();
+        try {
+            return operacao.get();
+        } catch (RuntimeException | Error e) {
+            metrica.falha();
+            throw e;
+        } finally {
+            metrica.registrar(inicio);
+        }
+    }
+
+    private static void medir(MetricaOperacao metrica, Runnable operacao) {
+        medir(metrica, () -> {
+            operacao.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.sistema.dao;
+
+import com.sistema.model.Aluno;
+import com.sistema.util.HibernateUtil;
+
+import java.sql.Timestamp;
+import java.time.ZoneId;
+
+/**
+ * Hash de 64 bits das colunas de um aluno, usado pela reconciliação para
+ * comparar a memória com o banco.
+ *
+ * O mesmo cálculo roda dentro do banco como a função SQL hash_aluno (criada
+ * pelo MigradorEsquema), de modo que a soma dos hashes de uma faixa de
+ * matrículas sai de uma consulta agregada, sem trazer as linhas (ver
+ * AlunoDAO.resumirFaixa). A soma não depende da ordem das linhas.
+ *
+ * A idade não entra no hash: ela é calculada a partir da data de nascimento.
+ */
+public final class HashAluno {
+
+    private static final int SEM_DATA = Aluno.SEM_DATA;
+
+    // O Hibernate grava a data neste fuso; o HSQLDB entrega a coluna no fuso da JVM
+    private static final ZoneId FUSO_JDBC = ZoneId.of(HibernateUtil.FUSO_JDBC);
+
+    private HashAluno() {
+    }
+
+    public static long hash(Aluno aluno) {
+        return hash(aluno.getMatricula(), aluno.getNome(), aluno.getDiaNascimento(),
+                aluno.getTelefone(), aluno.getCpf());
+    }
+
+    /**
+     * Ponto de entrada da função SQL hash_aluno, com os tipos das colunas. A
+     * data é convertida como na leitura pelo Hibernate (DataNascimentoConverter).
+     */
+    public static long hashLinha(String matricula, String nome, Timestamp dataNascimento,
+                                 String telefone, String cpf) {
+        int diaNascimento = dataNascimento == null
+                ? SEM_DATA
+                : (int) dataNascimento.toLocalDateTime().atZone(FUSO_JDBC)
+                        .withZoneSameInstant(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+        return hash(matricula, nome, diaNascimento, telefone, cpf);
+    }
+
+    private static long hash(String matricula, String nome, int diaNascimento, String telefone, String cpf) {
+        long h = 0xcbf29ce484222325L;
+        h = misturar(h, matricula);
+        h = misturar(h, nome);
+        h = misturar(h ^ diaNascimento);
+        h = misturar(h, telefone);
+        h = misturar(h, cpf);
+        return misturar(h);
+    }
+
+    // FNV-1a de 64 bits sobre os caracteres; texto nulo e vazio têm hashes diferentes
+    private static long misturar(long h, String texto) {
+        if (texto == null) {
+            return misturar(h ^ 0x9e3779b97f4a7c15L);
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            h = (h ^ texto.charAt(i)) * 0x100000001b3L;
+        }
+        return misturar(h ^ texto.length());
+    }
+
+    // Finalizador do SplitMix64
+    private static long misturar(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
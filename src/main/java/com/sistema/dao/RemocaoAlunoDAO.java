@@ -2,16 +2,40 @@ package com.sistema.dao;
 
 import com.sistema.model.Aluno;
 import com.sistema.util.HibernateUtil;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 public class RemocaoAlunoDAO implements AlunoDAO {
 
+    // Quantidade de inserções confirmadas por transação nas cargas em fluxo
+    private static final int REGISTROS_POR_TRANSACAO = 10_000;
+    
+    // Igual ao hibernate.jdbc.batch_size: a cada lote a sessão é enviada e limpa
+    private static final int TAMANHO_LOTE = 50;
+    
+    // Máximo de matrículas em um único IN da remoção em lote
+    private static final int MATRICULAS_POR_DELETE = 1_000;
+    
+    // Linhas buscadas por ida ao banco (JDBC fetch size) nas leituras em fluxo
+    private static final int TAMANHO_BUSCA_PADRAO = 500;
+
     @Override
     public List<Aluno> removerAluno(List<Aluno> alunos, Aluno a) {
         if (alunos == null) {
@@ -187,6 +211,9 @@ public class RemocaoAlunoDAO implements AlunoDAO {
             // Cria uma query HQL para buscar todos os alunos
             Query<Aluno> query = session.createQuery("FROM Aluno", Aluno.class);
             
+            // O resultado fica no cache de consultas até a tabela ser alterada
+            query.setCacheable(true);
+            
             // Executa a query e obtém a lista de alunos
             alunos = query.list();
             
@@ -204,8 +231,448 @@ public class RemocaoAlunoDAO implements AlunoDAO {
         return alunos;
     }
     
+    @Override
+    public List<Aluno> listarPagina(String aposMatricula, int limite) {
+        Session session = null;
+        
+        try {
+            // Abre uma nova sessão do Hibernate
+            session = HibernateUtil.getSessionFactory().openSession();
+            
+            // A condição na chave primária usa o índice: o custo de cada página
+            // não depende de quantas páginas vieram antes (ao contrário do OFFSET)
+            Query<Aluno> query;
+            if (aposMatricula == null) {
+                query = session.createQuery("FROM Aluno a ORDER BY a.matricula", Aluno.class);
+            } else {
+                query = session.createQuery("FROM Aluno a WHERE a.matricula > :apos ORDER BY a.matricula", Aluno.class)
+                        .setParameter("apos", aposMatricula);
+            }
+            
+            return query.setMaxResults(limite).list();
+            
+        } catch (Exception e) {
+            System.err.println("Erro ao listar página de alunos: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Erro ao ler alunos do banco de dados", e);
+            
+        } finally {
+            // Fecha a sessão
+            if (session != null) {
+                session.close();
+            }
+        }
+    }
+    
+    @Override
+    public List<Aluno> listarFaixa(String de, String ate) {
+        Session session = null;
+        
+        try {
+            // Abre uma nova sessão do Hibernate
+            session = HibernateUtil.getSessionFactory().openSession();
+            
+            // Leitura do conteúdo atual da tabela: fora do cache de segundo nível
+            session.setDefaultReadOnly(true);
+            session.setCacheMode(CacheMode.IGNORE);
+            
+            // Faixa na chave primária, resolvida pelo índice
+            StringBuilder hql = new StringBuilder("FROM Aluno a WHERE 1 = 1");
+            if (de != null) {
+                hql.append(" AND a.matricula >= :de");
+            }
+            if (ate != null) {
+                hql.append(" AND a.matricula < :ate");
+            }
+            hql.append(" ORDER BY a.matricula");
+            
+            Query<Aluno> query = session.createQuery(hql.toString(), Aluno.class);
+            if (de != null) {
+                query.setParameter("de", de);
+            }
+            if (ate != null) {
+                query.setParameter("ate", ate);
+            }
+            return query.list();
+            
+        } catch (Exception e) {
+            System.err.println("Erro ao listar faixa de alunos: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Erro ao ler alunos do banco de dados", e);
+            
+        } finally {
+            // Fecha a sessão
+            if (session != null) {
+                session.close();
+            }
+        }
+    }
+    
+    /**
+     * Consulta agregada na chave primária: o banco aplica hash_aluno a cada
+     * linha da faixa e devolve só a soma e a contagem.
+     */
+    @Override
+    public long[] resumirFaixa(String de, String ate) {
+        Session session = null;
+        
+        try {
+            session = HibernateUtil.getSessionFactory().openSession();
+            session.setDefaultReadOnly(true);
+            
+            StringBuilder sql = new StringBuilder("SELECT SUM(hash_aluno(matricula, nome, data_nascimento, telefone, cpf)),"
+                    + " COUNT(*) FROM alunos WHERE 1 = 1");
+            if (de != null) {
+                sql.append(" AND matricula >= :de");
+            }
+            if (ate != null) {
+                sql.append(" AND matricula < :ate");
+            }
+            
+            NativeQuery<?> query = session.createNativeQuery(sql.toString());
+            if (de != null) {
+                query.setParameter("de", de);
+            }
+            if (ate != null) {
+                query.setParameter("ate", ate);
+            }
+            Object[] linha = (Object[]) query.getSingleResult();
+            
+            // A soma vem como DECIMAL (sem estouro); longValue guarda os 64 bits baixos
+            long soma = linha[0] == null ? 0 : ((Number) linha[0]).longValue();
+            return new long[] {soma, ((Number) linha[1]).longValue()};
+            
+        } catch (Exception e) {
+            System.err.println("Erro ao resumir faixa de alunos: " + e.getMessage());
+            throw new RuntimeException("Erro ao resumir alunos no banco de dados", e);
+            
+        } finally {
+            if (session != null) {
+                session.close();
+            }
+        }
+    }
+    
+    @Override
+    public Stream<Aluno> listarEmFluxo() {
+        return listarEmFluxo(TAMANHO_BUSCA_PADRAO);
+    }
+    
+    /**
+     * Lê a tabela com um cursor (ScrollableResults) somente para frente. A cada
+     * "tamanhoBusca" alunos a sessão é limpa, então a memória usada não cresce
+     * com o tamanho da tabela. Os alunos entregues já estão desligados da sessão
+     * (ou serão na limpeza seguinte) e não devem ser alterados esperando gravação.
+     */
+    @Override
+    public Stream<Aluno> listarEmFluxo(int tamanhoBusca) {
+        Session session = HibernateUtil.getSessionFactory().openSession();
+        
+        try {
+            // Somente leitura e fora do cache de segundo nível, para não
+            // substituir o conteúdo do cache pela tabela inteira
+            session.setDefaultReadOnly(true);
+            session.setCacheMode(CacheMode.IGNORE);
+            
+            ScrollableResults resultados = session.createQuery("FROM Aluno a ORDER BY a.matricula", Aluno.class)
+                    .setFetchSize(tamanhoBusca)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            
+            Spliterator<Aluno> alunos = new Spliterators.AbstractSpliterator<Aluno>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                
+                private long lidos;
+                
+                @Override
+                public boolean tryAdvance(Consumer<? super Aluno> acao) {
+                    if (lidos > 0 && lidos % tamanhoBusca == 0) {
+                        session.clear();
+                    }
+                    if (!resultados.next()) {
+                        return false;
+                    }
+                    lidos++;
+                    acao.accept((Aluno) resultados.get(0));
+                    return true;
+                }
+            };
+            
+            return StreamSupport.stream(alunos, false).onClose(() -> {
+                // Fecha o cursor e a sessão quando o Stream for fechado
+                resultados.close();
+                session.close();
+            });
+            
+        } catch (Exception e) {
+            session.close();
+            System.err.println("Erro ao ler alunos em fluxo: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Erro ao ler alunos do banco de dados", e);
+        }
+    }
+    
     @Override
     public boolean existePorMatricula(String matricula) {
         return buscarPorMatricula(matricula) != null;
     }
+
+    /**
+     * Insere os alunos em uma StatelessSession, sem contexto de persistência:
+     * nada fica guardado na sessão, então a memória não cresce com a carga.
+     * Os INSERTs são agrupados em lotes JDBC (hibernate.jdbc.batch_size) e a
+     * transação é confirmada a cada REGISTROS_POR_TRANSACAO alunos.
+     */
+    @Override
+    public void salvarEmFluxo(Iterator<Aluno> alunos) {
+        Transaction transaction = null;
+        StatelessSession session = null;
+        long total = 0;
+        
+        try {
+            // Abre uma sessão sem estado do Hibernate
+            session = HibernateUtil.getSessionFactory().openStatelessSession();
+            
+            // Inicia uma transação
+            transaction = session.beginTransaction();
+            
+            while (alunos.hasNext()) {
+                session.insert(alunos.next());
+                total++;
+                
+                // Confirma periodicamente para não acumular uma transação enorme
+                if (total % REGISTROS_POR_TRANSACAO == 0) {
+                    transaction.commit();
+                    transaction = session.beginTransaction();
+                }
+            }
+            
+            // Confirma o restante
+            transaction.commit();
+            
+            System.out.println(total + " alunos salvos em lote no banco de dados");
+            
+        } catch (Exception e) {
+            // Em caso de erro, desfaz apenas a transação em andamento
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            System.err.println("Erro ao salvar alunos em lote: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Erro ao salvar alunos em lote no banco de dados", e);
+            
+        } finally {
+            // Fecha a sessão
+            if (session != null) {
+                session.close();
+                
+                // A StatelessSession não passa pelo cache: as consultas em cache
+                // não sabem das inserções e precisam ser descartadas
+                HibernateUtil.getSessionFactory().getCache().evictQueryRegions();
+            }
+        }
+    }
+
+    /**
+     * Salva vários alunos em uma única transação.
+     * A sessão é enviada ao banco (flush) e limpa (clear) a cada lote, para que
+     * os INSERTs saiam agrupados em lotes JDBC e a sessão não cresça.
+     */
+    @Override
+    public void salvarTodos(Collection<Aluno> alunos) {
+        Transaction transaction = null;
+        Session session = null;
+        
+        try {
+            // Abre uma nova sessão do Hibernate
+            session = HibernateUtil.getSessionFactory().openSession();
+            
+            // Inicia uma transação
+            transaction = session.beginTransaction();
+            
+            int contador = 0;
+            for (Aluno aluno : alunos) {
+                session.save(aluno);
+                
+                if (++contador % TAMANHO_LOTE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            
+            // Confirma a transação
+            transaction.commit();
+            
+            System.out.println(alunos.size() + " alunos salvos com sucesso no banco de dados");
+            
+        } catch (Exception e) {
+            // Em caso de erro, desfaz a transação
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            System.err.println("Erro ao salvar alunos: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Erro ao salvar alunos no banco de dados", e);
+            
+        } finally {
+            // Fecha a sessão
+            if (session != null) {
+                session.close();
+            }
+        }
+    }
+    
+    /**
+     * Atualiza vários alunos em uma única transação, com UPDATEs em lotes JDBC.
+     */
+    @Override
+    public void atualizarTodos(Collection<Aluno> alunos) {
+        Transaction transaction = null;
+        Session session = null;
+        
+        try {
+            // Abre uma nova sessão do Hibernate
+            session = HibernateUtil.getSessionFactory().openSession();
+            
+            // Inicia uma transação
+            transaction = session.beginTransaction();
+            
+            int contador = 0;
+            for (Aluno aluno : alunos) {
+                session.update(aluno);
+                
+                if (++contador % TAMANHO_LOTE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            
+            // Confirma a transação
+            transaction.commit();
+            
+            System.out.println(alunos.size() + " alunos atualizados com sucesso no banco de dados");
+            
+        } catch (Exception e) {
+            // Em caso de erro, desfaz a transação
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            System.err.println("Erro ao atualizar alunos: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Erro ao atualizar alunos no banco de dados", e);
+            
+        } finally {
+            // Fecha a sessão
+            if (session != null) {
+                session.close();
+            }
+        }
+    }
+    
+    /**
+     * Remove os alunos das matrículas informadas com DELETEs em massa (HQL),
+     * sem carregar as entidades. Cada grupo de até MATRICULAS_POR_DELETE
+     * matrículas vira um único comando, todos na mesma transação.
+     * 
+     * @return quantidade de alunos removidos
+     */
+    @Override
+    public int removerPorMatriculas(Collection<String> matriculas) {
+        Transaction transaction = null;
+        Session session = null;
+        int removidos = 0;
+        
+        try {
+            // Abre uma nova sessão do Hibernate
+            session = HibernateUtil.getSessionFactory().openSession();
+            
+            // Inicia uma transação
+            transaction = session.beginTransaction();
+            
+            List<String> grupo = new ArrayList<>(Math.min(matriculas.size(), MATRICULAS_POR_DELETE));
+            for (String matricula : matriculas) {
+                grupo.add(matricula);
+                
+                if (grupo.size() == MATRICULAS_POR_DELETE) {
+                    removidos += removerGrupo(session, grupo);
+                    grupo.clear();
+                }
+            }
+            if (!grupo.isEmpty()) {
+                removidos += removerGrupo(session, grupo);
+            }
+            
+            // Confirma a transação
+            transaction.commit();
+            
+            System.out.println(removidos + " alunos removidos com sucesso do banco de dados");
+            
+        } catch (Exception e) {
+            // Em caso de erro, desfaz a transação
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            System.err.println("Erro ao remover alunos: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Erro ao remover alunos do banco de dados", e);
+            
+        } finally {
+            // Fecha a sessão
+            if (session != null) {
+                session.close();
+            }
+        }
+        
+        return removidos;
+    }
+    
+    private int removerGrupo(Session session, List<String> matriculas) {
+        return session.createQuery("DELETE FROM Aluno a WHERE a.matricula IN (:matriculas)")
+                .setParameterList("matriculas", matriculas)
+                .executeUpdate();
+    }
+    
+    /**
+     * Remove todos os alunos do banco com um único DELETE.
+     * 
+     * @return quantidade de alunos removidos
+     */
+    @Override
+    public int removerTodos() {
+        Transaction transaction = null;
+        Session session = null;
+        int removidos = 0;
+        
+        try {
+            // Abre uma nova sessão do Hibernate
+            session = HibernateUtil.getSessionFactory().openSession();
+            
+            // Inicia uma transação
+            transaction = session.beginTransaction();
+            
+            // Remove todos os registros sem carregar as entidades
+            removidos = session.createQuery("DELETE FROM Aluno").executeUpdate();
+            
+            // Confirma a transação
+            transaction.commit();
+            
+            System.out.println(removidos + " alunos removidos do banco de dados");
+            
+        } catch (Exception e) {
+            // Em caso de erro, desfaz a transação
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            System.err.println("Erro ao remover todos os alunos: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Erro ao remover todos os alunos do banco de dados", e);
+            
+        } finally {
+            // Fecha a sessão
+            if (session != null) {
+                session.close();
+            }
+        }
+        
+        return removidos;
+    }
 }
@@ -0,0 +1,49 @@
+package com.sistema.exception;
+
+
+public class CpfDuplicadoException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * CPF que causou o problema
+     */
+    private String cpf;
+
+    /**
+     * Construtor padrão
+     */
+    public CpfDuplicadoException() {
+        super("CPF duplicado no sistema");
+    }
+
+    /**
+     * Construtor com mensagem personalizada
+     */
+    public CpfDuplicadoException(String mensagem) {
+        super(mensagem);
+    }
+
+    /**
+     * Construtor com CPF duplicado
+     */
+    public CpfDuplicadoException(String cpf, boolean incluirCpf) {
+        super("Já existe um aluno cadastrado com o CPF: " + cpf);
+        this.cpf = cpf;
+    }
+
+    /**
+     * Construtor completo com mensagem e causa
+     */
+    public CpfDuplicadoException(String mensagem, Throwable causa) {
+        super(mensagem, causa);
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public void setCpf(String cpf) {
+        this.cpf = cpf;
+    }
+}
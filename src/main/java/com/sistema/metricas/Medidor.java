@@ -0,0 +1,21 @@
+package com.sistema.metricas;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Medidor publicado no JMX; o valor é lido a cada consulta.
+ * Obtenha as instâncias por {@link RegistroMetricas#medidor(String, LongSupplier)}.
+ */
+public final class Medidor implements MedidorMBean {
+
+    private final LongSupplier valor;
+
+    Medidor(LongSupplier valor) {
+        this.valor = valor;
+    }
+
+    @Override
+    public long getValor() {
+        return valor.getAsLong();
+    }
+}
@@ -0,0 +1,9 @@
+package com.sistema.metricas;
+
+/**
+ * Valor instantâneo (ex.: quantidade de alunos) visto pelo JMX.
+ */
+public interface MedidorMBean {
+
+    long getValor();
+}
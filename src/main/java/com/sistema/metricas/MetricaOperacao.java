@@ -0,0 +1,128 @@
+package com.sistema.metricas;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Quantidade, falhas e latências de uma operação.
+ *
+ * Uso típico (a falha também entra no histograma de latência):
+ * <pre>
+ * long inicio = System.nanoTime();
+ * try {
+ *     ...
+ * } catch (Throwable e) {
+ *     metrica.falha();
+ *     throw e;
+ * } finally {
+ *     metrica.registrar(inicio);
+ * }
+ * </pre>
+ * Obtenha as instâncias por {@link RegistroMetricas#operacao(String, String)}.
+ */
+public final class MetricaOperacao implements MetricaOperacaoMBean {
+
+    private static final double NANOS_POR_MICRO = 1_000.0;
+
+    private final String camada;
+    private final String nome;
+
+    private final LongAdder quantidade = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maximoNanos = new LongAccumulator(Math::max, 0);
+    private final HistogramaLatencia histograma = new HistogramaLatencia();
+
+    MetricaOperacao(String camada, String nome) {
+        this.camada = camada;
+        this.nome = nome;
+    }
+
+    /**
+     * Registra uma execução iniciada em "inicioNanos" (System.nanoTime()).
+     */
+    public void registrar(long inicioNanos) {
+        registrarDuracao(System.nanoTime() - inicioNanos);
+    }
+
+    /**
+     * Registra uma execução que durou "nanos" nanossegundos.
+     */
+    public void registrarDuracao(long nanos) {
+        quantidade.increment();
+        totalNanos.add(nanos);
+        maximoNanos.accumulate(nanos);
+        histograma.registrar(nanos);
+    }
+
+    /**
+     * Conta uma falha; a execução ainda deve ser registrada com registrar().
+     */
+    public void falha() {
+        falhas.increment();
+    }
+
+    public String getCamada() {
+        return camada;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public long getQuantidade() {
+        return quantidade.sum();
+    }
+
+    @Override
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    @Override
+    public double getMediaMicros() {
+        long n = quantidade.sum();
+        return n == 0 ? 0 : totalNanos.sum() / NANOS_POR_MICRO / n;
+    }
+
+    @Override
+    public double getMaximoMicros() {
+        return maximoNanos.get() / NANOS_POR_MICRO;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return histograma.percentil(0.50) / NANOS_POR_MICRO;
+    }
+
+    @Override
+    public double getP95Micros() {
+        return histograma.percentil(0.95) / NANOS_POR_MICRO;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return histograma.percentil(0.99) / NANOS_POR_MICRO;
+    }
+
+    /**
+     * Recomeça a contagem. Registros feitos durante o zerar() podem ficar
+     * parcialmente contados.
+     */
+    @Override
+    public void zerar() {
+        quantidade.reset();
+        falhas.reset();
+        totalNanos.reset();
+        maximoNanos.reset();
+        histograma.zerar();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s.%s: %d execuções, %d falhas, média %.1f µs, p50 %.1f µs, p95 %.1f µs, p99 %.1f µs, máx %.1f µs",
+                camada, nome, getQuantidade(), getFalhas(), getMediaMicros(),
+                getP50Micros(), getP95Micros(), getP99Micros(), getMaximoMicros());
+    }
+}
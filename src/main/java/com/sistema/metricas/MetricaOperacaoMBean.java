@@ -0,0 +1,24 @@
+package com.sistema.metricas;
+
+/**
+ * Atributos de uma operação vistos pelo JMX (jconsole, VisualVM etc.).
+ * Tempos em microssegundos, desde o início da aplicação ou do último zerar().
+ */
+public interface MetricaOperacaoMBean {
+
+    long getQuantidade();
+
+    long getFalhas();
+
+    double getMediaMicros();
+
+    double getMaximoMicros();
+
+    double getP50Micros();
+
+    double getP95Micros();
+
+    double getP99Micros();
+
+    void zerar();
+}
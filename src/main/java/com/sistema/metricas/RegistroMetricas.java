@@ -0,0 +1,85 @@
+package com.sistema.metricas;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Registro das métricas da aplicação, publicadas como MBeans da plataforma
+ * no domínio "com.sistema":
+ * - com.sistema:type=Operacao,camada=servico,nome=adicionarAluno
+ * - com.sistema:type=Medidor,nome=quantidadeAlunos
+ *
+ * As métricas ficam sempre ligadas: registrar uma execução custa duas
+ * leituras do relógio e alguns incrementos sem trava.
+ */
+public final class RegistroMetricas {
+
+    public static final String DOMINIO = "com.sistema";
+
+    private static final Map<String, MetricaOperacao> OPERACOES = new ConcurrentHashMap<>();
+
+    private RegistroMetricas() {
+    }
+
+    /**
+     * Métrica da operação, criada e publicada no JMX na primeira chamada.
+     * Chamadas seguintes com a mesma camada e nome devolvem a mesma instância.
+     */
+    public static MetricaOperacao operacao(String camada, String nome) {
+        return OPERACOES.computeIfAbsent(camada + "." + nome, chave -> {
+            MetricaOperacao metrica = new MetricaOperacao(camada, nome);
+            publicar(DOMINIO + ":type=Operacao,camada=" + camada + ",nome=" + nome, metrica);
+            return metrica;
+        });
+    }
+
+    /**
+     * Publica um valor lido na hora pelo JMX. Um medidor com o mesmo nome
+     * publicado antes é substituído (ex.: um novo AlunoService).
+     */
+    public static void medidor(String nome, LongSupplier valor) {
+        publicar(DOMINIO + ":type=Medidor,nome=" + nome, new Medidor(valor));
+    }
+
+    /**
+     * Métricas das operações executadas ao menos uma vez, em ordem de camada e nome.
+     */
+    public static List<MetricaOperacao> listarOperacoes() {
+        List<MetricaOperacao> metricas = new ArrayList<>(OPERACOES.values());
+        metricas.removeIf(metrica -> metrica.getQuantidade() == 0);
+        metricas.sort((a, b) -> (a.getCamada() + "." + a.getNome()).compareTo(b.getCamada() + "." + b.getNome()));
+        return metricas;
+    }
+
+    /**
+     * Resumo das operações executadas, uma por linha.
+     */
+    public static String resumo() {
+        StringBuilder resumo = new StringBuilder("Métricas das operações:");
+        for (MetricaOperacao metrica : listarOperacoes()) {
+            resumo.append("\n  ").append(metrica);
+        }
+        return resumo.toString();
+    }
+
+    private static void publicar(String nome, Object mbean) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(nome);
+            if (servidor.isRegistered(objectName)) {
+                servidor.unregisterMBean(objectName);
+            }
+            servidor.registerMBean(mbean, objectName);
+        } catch (JMException | SecurityException e) {
+            // Sem JMX a métrica continua sendo coletada, só não é publicada
+            System.err.println("Não foi possível publicar a métrica " + nome + " no JMX: " + e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.sistema.model;
 
+import com.sistema.util.AlunoCSVCodec;
+import com.sistema.util.DataUtil;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.io.Serializable;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Objects;
 
 /**
@@ -19,12 +23,16 @@ import java.util.Objects;
  */
 @Entity
 @Table(name = "alunos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "aluno")
 public class Aluno implements Serializable {
     
     private static final long serialVersionUID = 1L;
     
-    // Formato de data usado no sistema: dd/mm/yyyy
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy");
+    /**
+     * Valor de diaNascimento quando a data não foi informada.
+     */
+    public static final int SEM_DATA = Integer.MIN_VALUE;
     
     @Id
     @Column(name = "matricula", nullable = false, unique = true)
@@ -36,9 +44,24 @@ public class Aluno implements Serializable {
     @Column(name = "idade", nullable = false)
     private int idade;
     
-    @Temporal(TemporalType.DATE)
+    /**
+     * Data de nascimento como dia da época (dias desde 01/01/1970), ou SEM_DATA.
+     */
+    @Convert(converter = DataNascimentoConverter.class)
     @Column(name = "data_nascimento", nullable = false)
-    private Date dataNascimento;
+    private int diaNascimento = SEM_DATA;
+    
+    // Idade calculada junto com a data de nascimento e o dia a que ela se
+    // refere, em um long volatile para ser lido e gravado de uma vez, mesmo
+    // por leitores sem trava: nascimento nos 32 bits altos, dia de hoje nos
+    // 20 seguintes e idade nos 12 baixos. Uma gravação atrasada, feita com a
+    // data antiga, não vale para a data nova
+    @Transient
+    private transient volatile long idadeEmCache = IDADE_NAO_CALCULADA;
+    
+    private static final long IDADE_NAO_CALCULADA = Long.MIN_VALUE;
+    private static final int BITS_HOJE = 20;
+    private static final int BITS_IDADE = 12;
     
     @Column(name = "telefone", nullable = false, length = 20)
     private String telefone;
@@ -56,12 +79,12 @@ public class Aluno implements Serializable {
     public Aluno() {
     }
     
-    public Aluno(String matricula, String nome, int idade, Date dataNascimento, 
+    public Aluno(String matricula, String nome, int idade, LocalDate dataNascimento, 
                  String telefone, String cpf) {
         this.matricula = matricula;
         this.nome = nome;
         this.idade = idade;
-        this.dataNascimento = dataNascimento;
+        setDataNascimento(dataNascimento);
         this.telefone = telefone;
         this.cpf = cpf;
     }
@@ -86,20 +109,26 @@ public class Aluno implements Serializable {
         this.nome = nome;
     }
     
+    /**
+     * Idade em anos completos hoje. Só é recalculada quando a data de
+     * nascimento muda ou o dia vira; não aloca objetos.
+     */
     public int getIdade() {
-        if (dataNascimento == null) {
+        if (diaNascimento == SEM_DATA) {
             return 0;
         }
-        Calendar calAtual = Calendar.getInstance();
-        Calendar calNasc = Calendar.getInstance();
-        calNasc.setTime(dataNascimento);
-        int idade = calAtual.get(Calendar.YEAR) - (calNasc.get(Calendar.YEAR));
-
-        if (calAtual.get(Calendar.DAY_OF_YEAR) < calNasc.get(Calendar.DAY_OF_YEAR)) {
-            idade--;
+        int nascimento = diaNascimento;
+        long hoje = DataUtil.hoje();
+        long chave = ((long) nascimento << 32) | (hoje << BITS_IDADE);
+        long cache = idadeEmCache;
+        if ((cache & ~((1L << BITS_IDADE) - 1)) == chave) {
+            return (int) (cache & ((1L << BITS_IDADE) - 1));
         }
-
-        return Math.max(0, idade);
+        int idadeAtual = Math.max(0, DataUtil.idade(nascimento, hoje));
+        if (hoje >= 0 && hoje < (1L << BITS_HOJE) && idadeAtual < (1 << BITS_IDADE)) {
+            idadeEmCache = chave | idadeAtual;
+        }
+        return idadeAtual;
     }
     
     public void setIdade(int idade) {
@@ -107,12 +136,31 @@ public class Aluno implements Serializable {
     }
     
 
-    public Date getDataNascimento() {
-        return dataNascimento;
+    public LocalDate getDataNascimento() {
+        return diaNascimento == SEM_DATA ? null : LocalDate.ofEpochDay(diaNascimento);
     }
     
-    public void setDataNascimento(Date dataNascimento) {
-        this.dataNascimento = dataNascimento;
+    public void setDataNascimento(LocalDate dataNascimento) {
+        setDiaNascimento(dataNascimento == null ? SEM_DATA : (int) dataNascimento.toEpochDay());
+    }
+    
+    /**
+     * Data de nascimento como dia da época, ou SEM_DATA. Evita criar um LocalDate.
+     */
+    public int getDiaNascimento() {
+        return diaNascimento;
+    }
+    
+    /**
+     * A idade em cache guarda a data com que foi calculada (ver getIdade):
+     * trocar a data basta para que ela seja recalculada.
+     */
+    public void setDiaNascimento(int diaNascimento) {
+        this.diaNascimento = diaNascimento;
+    }
+    
+    public boolean temDataNascimento() {
+        return diaNascimento != SEM_DATA;
     }
     
     public String getTelefone() {
@@ -134,55 +182,44 @@ public class Aluno implements Serializable {
     // ==================== MÉTODOS AUXILIARES ====================
     
     public String getDataNascimentoFormatada() {
-        if (dataNascimento == null) {
+        if (diaNascimento == SEM_DATA) {
             return "";
         }
-        return DATE_FORMAT.format(dataNascimento);
+        return DataUtil.FORMATO_DATA.format(LocalDate.ofEpochDay(diaNascimento));
     }
     
     public void setDataNascimentoFromString(String dataString) throws ParseException {
         if (dataString != null && !dataString.trim().isEmpty()) {
-            this.dataNascimento = DATE_FORMAT.parse(dataString);
+            try {
+                setDataNascimento(LocalDate.parse(dataString.trim(), DataUtil.FORMATO_DATA));
+            } catch (DateTimeParseException e) {
+                throw new ParseException(e.getMessage(), e.getErrorIndex());
+            }
         }
     }
     
+    /**
+     * Gera a linha CSV do aluno.
+     * A conversão é feita pelo AlunoCSVCodec.
+     */
     public String toCSV() {
-        return String.format("%s,%s,%s,%s,%s",
-                matricula,
-                nome,
-                getDataNascimentoFormatada(),
-                telefone,
-                cpf);
+        return AlunoCSVCodec.codificar(this);
     }
     
+    /**
+     * Cria um aluno a partir de uma linha CSV.
+     * A conversão é feita pelo AlunoCSVCodec.
+     */
     public static Aluno fromCSV(String csvLine) throws ParseException {
-        String[] campos = csvLine.split(",");
-        
-        if (campos.length != 5) {
-            throw new IllegalArgumentException("Linha CSV inválida. Esperado 5 campos, encontrado " + campos.length);
-        }
-        
-        Aluno aluno = new Aluno();
-        aluno.setMatricula(campos[0].trim());
-        aluno.setNome(campos[1].trim());
-        aluno.setDataNascimentoFromString(campos[2].trim());
-        aluno.setTelefone(campos[3].trim());
-        aluno.setCpf(campos[4].trim());
-        
-        // Calcula a idade aproximada baseada na data de nascimento
-        aluno.calcularIdade();
-        
-        return aluno;
+        return AlunoCSVCodec.decodificar(csvLine);
     }
     
     /**
      * Calcula e atualiza a idade do aluno baseado na data de nascimento
      */
     public void calcularIdade() {
-        if (dataNascimento != null) {
-            Date hoje = new Date();
-            long diff = hoje.getTime() - dataNascimento.getTime();
-            this.idade = (int) (diff / (1000L * 60 * 60 * 24 * 365));
+        if (diaNascimento != SEM_DATA) {
+            this.idade = getIdade();
         }
     }
     
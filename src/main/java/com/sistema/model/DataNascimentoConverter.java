@@ -0,0 +1,33 @@
+package com.sistema.model;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Converte a data de nascimento guardada em Aluno (dia da época) para a
+ * coluna data_nascimento e vice-versa. Aluno.SEM_DATA corresponde a NULL.
+ *
+ * Sem @Temporal, o Hibernate mapeia o java.sql.Date como TIMESTAMP: a coluna
+ * guarda a meia-noite do dia (ver MigradorEsquema e HashAluno.hashLinha).
+ */
+@Converter
+public class DataNascimentoConverter implements AttributeConverter<Integer, Date> {
+
+    @Override
+    public Date convertToDatabaseColumn(Integer diaNascimento) {
+        if (diaNascimento == null || diaNascimento == Aluno.SEM_DATA) {
+            return null;
+        }
+        return Date.valueOf(LocalDate.ofEpochDay(diaNascimento));
+    }
+
+    @Override
+    public Integer convertToEntityAttribute(Date data) {
+        if (data == null) {
+            return Aluno.SEM_DATA;
+        }
+        return (int) data.toLocalDate().toEpochDay();
+    }
+}
@@ -1,15 +1,39 @@
 package com.sistema.service;
 
 import com.sistema.dao.AlunoDAO;
+import com.sistema.dao.AlunoDAOMedido;
 import com.sistema.dao.RemocaoAlunoDAO;
+import com.sistema.exception.CpfDuplicadoException;
 import com.sistema.exception.MatriculaDuplicadaException;
+import com.sistema.metricas.MetricaOperacao;
+import com.sistema.metricas.RegistroMetricas;
 import com.sistema.model.Aluno;
+import com.sistema.util.AlunoCSVCodec;
+import com.sistema.util.CarregadorCSV;
+import com.sistema.util.DataUtil;
+import com.sistema.util.Encerramento;
 
-import java.io.*;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.ParseException;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 /**
  * Classe de serviço responsável por gerenciar todas as operações com Alunos.
@@ -21,131 +45,320 @@ import java.util.List;
  * - Requisito 1.e: Identificar aluno mais novo e mais velho
  * - Requisito 1.f: Inserir aluno em posição específica
  * - Requisito 2: Salvar registros em arquivo CSV
+ * 
+ * Concorrência: uma mesma instância pode ser usada ao mesmo tempo pela
+ * interface, por importações em segundo plano e por outros clientes.
+ * - As escritas são feitas uma de cada vez, de modo que a lista, o banco e o
+ *   journal recebem as alterações na mesma ordem (inclusive as inserções em
+ *   posição).
+ * - A lista e os índices só ficam travados durante a alteração em memória; a
+ *   gravação no banco e no CSV acontece depois, sem bloquear as leituras.
+ * - As leituras por matrícula, na ordem de cadastro e por trecho do nome
+ *   não travam: fazem uma leitura otimista (StampedLock), repetida com a
+ *   trava de leitura se uma escrita acontecer no meio. As demais usam a
+ *   trava de leitura, que só espera uma alteração em memória em andamento.
+ * - No armazenamento padrão (ArmazemObjetos) os objetos Aluno devolvidos são
+ *   os da lista: uma atualização posterior altera os seus campos. No
+ *   colunar (ArmazemColunar) são cópias montadas a cada consulta.
  */
 public class AlunoService {
     
-    // Lista em memória para armazenar os alunos
-    private List<Aluno> listaAlunos;
+    // Propriedade de sistema com o armazenamento em memória: "objetos" (padrão) ou "colunar"
+    public static final String PROPRIEDADE_ARMAZENAMENTO = "alunos.armazenamento";
+    
+    public static final String ARMAZENAMENTO_OBJETOS = "objetos";
+    public static final String ARMAZENAMENTO_COLUNAR = "colunar";
+    
+    // Maior idade considerada em listarPorIdade: idades maiores são tratadas como
+    // ela, para que a data de nascimento calculada não saia da faixa do LocalDate
+    static final int IDADE_MAXIMA = 200;
+    
+    // Lista em memória e índices (matrícula, CPF, nome, idade), ver ArmazemAlunos
+    private final ArmazemAlunos armazem;
+    
+    // Uma escrita de cada vez: memória, banco e journal recebem as alterações na mesma ordem
+    private final ReentrantLock travaEscrita = new ReentrantLock();
+    
+    // Protege a lista e os índices; travada para escrita só durante a alteração em memória
+    private final StampedLock travaMemoria = new StampedLock();
     
     // DAO para operações de banco de dados
-    private AlunoDAO alunoDAO;
+    private final AlunoDAO alunoDAO;
+    
+    // Propriedade de sistema com o arquivo CSV de persistência
+    public static final String PROPRIEDADE_ARQUIVO_CSV = "alunos.arquivoCsv";
     
     // Nome do arquivo CSV para persistência
-    private static final String ARQUIVO_CSV = "ListagemAlunos.txt";
+    private final String arquivoCsv;
+    
+    // Cópia binária do CSV, lida na inicialização no lugar dele quando está em dia
+    private final SnapshotAlunos snapshot;
+    
+    // Journal com as alterações ainda não incorporadas ao CSV
+    private final JournalCSV journal;
+    
+    // Intervalo de linhas entre duas notificações de progresso da importação
+    private static final int INTERVALO_PROGRESSO = 10_000;
+    
+    // Alunos gravados no banco por transação na importação; só entram na lista
+    // depois de confirmados (menor que a transação do salvarEmFluxo)
+    private static final int LOTE_IMPORTACAO = 5_000;
+    
+    // Propriedade de sistema que liga a gravação adiada no construtor padrão
+    public static final String PROPRIEDADE_ESCRITA_ADIADA = "alunos.escritaAdiada";
+    
+    // Gravação adiada do banco e do journal (null = gravação síncrona)
+    private final GravadorAdiado gravador;
+    
+    // Etapa de encerramento registrada no construtor; sai quando encerrar() é chamado antes
+    private final Encerramento.Etapa etapaEncerramento;
+    
+    // Propriedade de sistema que reconcilia o banco com o CSV ao iniciar, em segundo plano
+    public static final String PROPRIEDADE_RECONCILIAR = "alunos.reconciliarAoIniciar";
+    
+    // Propriedade de sistema com o máximo de alunos removidos do banco por reconciliação
+    public static final String PROPRIEDADE_MAXIMO_REMOCOES = "alunos.reconciliar.maxRemocoes";
+    
+    private static final int MAXIMO_REMOCOES_PADRAO = 1_000;
+    
+    // Evita enfileirar uma nova compactação enquanto a anterior não foi executada
+    private volatile boolean compactacaoPendente;
+    
+    // Métricas das operações públicas, publicadas no JMX (ver RegistroMetricas).
+    // As sobrecargas que só delegam contam na operação para a qual delegam.
+    private static final MetricaOperacao METRICA_ADICIONAR = metrica("adicionarAluno");
+    private static final MetricaOperacao METRICA_OBTER = metrica("obterAlunoPorMatricula");
+    private static final MetricaOperacao METRICA_REMOVER = metrica("removerAlunoPorMatricula");
+    private static final MetricaOperacao METRICA_EXTREMOS = metrica("identificarAlunosMaisNovoEMaisVelho");
+    private static final MetricaOperacao METRICA_MAIS_NOVO = metrica("obterAlunoMaisNovo");
+    private static final MetricaOperacao METRICA_MAIS_VELHO = metrica("obterAlunoMaisVelho");
+    private static final MetricaOperacao METRICA_MAIS_NOVOS = metrica("listarMaisNovos");
+    private static final MetricaOperacao METRICA_MAIS_VELHOS = metrica("listarMaisVelhos");
+    private static final MetricaOperacao METRICA_NASCIDOS_ENTRE = metrica("listarNascidosEntre");
+    private static final MetricaOperacao METRICA_INSERIR = metrica("inserirAlunoNaPosicao");
+    private static final MetricaOperacao METRICA_IMPORTAR = metrica("importar");
+    private static final MetricaOperacao METRICA_LISTAR_TODOS = metrica("listarTodosAlunos");
+    private static final MetricaOperacao METRICA_LISTAR_INTERVALO = metrica("listarIntervalo");
+    private static final MetricaOperacao METRICA_LISTAR_ORDENADOS = metrica("listarOrdenados");
+    private static final MetricaOperacao METRICA_LISTAR_POR_NOME = metrica("listarPorNome");
+    private static final MetricaOperacao METRICA_LISTAR_POR_MATRICULA = metrica("listarPorMatricula");
+    private static final MetricaOperacao METRICA_BUSCAR_POR_NOME = metrica("buscarPorNome");
+    private static final MetricaOperacao METRICA_ATUALIZAR = metrica("atualizarAluno");
+    private static final MetricaOperacao METRICA_LIMPAR = metrica("limparTodos");
+    private static final MetricaOperacao METRICA_FLUSH = metrica("flush");
+    private static final MetricaOperacao METRICA_RECONCILIAR = metrica("reconciliarBanco");
+    
+    private static MetricaOperacao metrica(String operacao) {
+        return RegistroMetricas.operacao("servico", operacao);
+    }
     
     /**
-     * Construtor: inicializa a lista de alunos e o DAO
+     * Construtor: inicializa a lista de alunos e o DAO.
+     * A gravação adiada é ligada com -Dalunos.escritaAdiada=true e o arquivo
+     * CSV pode ser trocado com -Dalunos.arquivoCsv=caminho. Com
+     * -Dalunos.reconciliarAoIniciar=true o banco é reconciliado com o CSV em
+     * segundo plano (ver {@link #reconciliarBanco()}). Com
+     * -Dalunos.armazenamento=colunar os alunos ficam em memória no formato
+     * compacto do ArmazemColunar.
+     * Concorrência: a instância só deve ser compartilhada depois que o
+     * construtor terminar.
      */
     public AlunoService() {
-        this.listaAlunos = new ArrayList<>();
-        this.alunoDAO = new RemocaoAlunoDAO();
-        
-        // Carrega alunos do arquivo CSV ao iniciar
-        carregarAlunosDoCSV();
+        this(Boolean.getBoolean(PROPRIEDADE_ESCRITA_ADIADA));
     }
     
-    // ==================== REQUISITO 1.B ====================
-    public void adicionarAluno(Aluno aluno) throws MatriculaDuplicadaException {
-        // Verifica se já existe um aluno com esta matrícula
-        if (existeAlunoPorMatricula(aluno.getMatricula())) {
-            // Lança exceção personalizada
-            throw new MatriculaDuplicadaException(aluno.getMatricula(), true);
-        }
+    /**
+     * @param escritaAdiada se true, as alterações são aplicadas na memória na
+     *        hora e gravadas no banco e no CSV em lotes por uma thread própria
+     *        (ver {@link #flush()})
+     */
+    public AlunoService(boolean escritaAdiada) {
+        this(escritaAdiada, new AlunoDAOMedido(new RemocaoAlunoDAO()));
+    }
+    
+    /**
+     * Igual a AlunoService(escritaAdiada), gravando no banco pelo DAO informado.
+     */
+    AlunoService(boolean escritaAdiada, AlunoDAO alunoDAO) {
+        this.armazem = criarArmazem(System.getProperty(PROPRIEDADE_ARMAZENAMENTO, ARMAZENAMENTO_OBJETOS));
+        this.alunoDAO = alunoDAO;
+        this.arquivoCsv = System.getProperty(PROPRIEDADE_ARQUIVO_CSV, "ListagemAlunos.txt");
+        this.snapshot = new SnapshotAlunos(arquivoCsv);
+        this.journal = new JournalCSV(arquivoCsv, snapshot);
         
-        // Adiciona o aluno na lista
-        listaAlunos.add(aluno);
+        // Carrega alunos do snapshot ou do arquivo CSV ao iniciar
+        carregarAlunosDoCSV();
         
-        // Salva o aluno no banco de dados usando Hibernate
-        try {
-            alunoDAO.salvar(aluno);
-        } catch (Exception e) {
-            System.err.println("Erro ao salvar no banco de dados: " + e.getMessage());
+        this.gravador = escritaAdiada ? new GravadorAdiado(alunoDAO, journal) : null;
+        
+        // Grava o que estiver pendente e atualiza o CSV e o snapshot antes de a JVM
+        // terminar: depois de a API parar e antes de o Hibernate fechar
+        this.etapaEncerramento = Encerramento.daAplicacao()
+                .registrar(Encerramento.Fase.SERVICO, "alunos", this::encerrar);
+        
+        // Tamanho da lista e fila da gravação adiada no JMX
+        RegistroMetricas.medidor("quantidadeAlunos", this::getQuantidadeAlunos);
+        if (gravador != null) {
+            RegistroMetricas.medidor("gravacoesPendentes", gravador::getPendentes);
         }
         
-        // Salva a lista atualizada no arquivo CSV
-        salvarAlunosNoCSV();
+        // Por último: a thread usa a instância já construída
+        if (Boolean.getBoolean(PROPRIEDADE_RECONCILIAR)) {
+            Thread reconciliacao = new Thread(() -> {
+                try {
+                    reconciliarBanco();
+                } catch (RuntimeException e) {
+                    System.err.println("Erro na reconciliação com o banco: " + e.getMessage());
+                }
+            }, "reconciliacao-alunos");
+            reconciliacao.setDaemon(true);
+            reconciliacao.start();
+        }
+    }
+    
+    private static ArmazemAlunos criarArmazem(String tipo) {
+        if (ARMAZENAMENTO_COLUNAR.equals(tipo)) {
+            System.out.println("Armazenamento em memória: colunar");
+            return new ArmazemColunar();
+        }
+        if (!ARMAZENAMENTO_OBJETOS.equals(tipo)) {
+            System.err.println("Armazenamento desconhecido: " + tipo + ". Usando " + ARMAZENAMENTO_OBJETOS + ".");
+        }
+        return new ArmazemObjetos();
+    }
+    
+    // ==================== REQUISITO 1.B ====================
+    
+    /**
+     * Adiciona o aluno no fim da lista e o grava no banco e no CSV.
+     * Concorrência: seguro entre threads; espera as outras escritas terminarem.
+     */
+    public void adicionarAluno(Aluno aluno) throws MatriculaDuplicadaException, CpfDuplicadoException {
+        this.<Void, MatriculaDuplicadaException, CpfDuplicadoException>escrever(METRICA_ADICIONAR, () -> {
+            // Verifica se já existe um aluno com esta matrícula
+            if (existeAlunoPorMatricula(aluno.getMatricula())) {
+                // Lança exceção personalizada
+                throw new MatriculaDuplicadaException(aluno.getMatricula(), true);
+            }
+            
+            // Verifica se já existe um aluno com este CPF
+            if (existeAlunoPorCpf(aluno.getCpf())) {
+                throw new CpfDuplicadoException(aluno.getCpf(), true);
+            }
+            
+            // Adiciona o aluno na lista
+            alterarMemoria(() -> armazem.inserir(armazem.tamanho(), aluno));
+            
+            // Salva no banco de dados e registra a inclusão no journal do CSV
+            persistirInclusao(aluno, -1);
+            return null;
+        });
         
         System.out.println("Aluno adicionado com sucesso: " + aluno.getMatricula());
     }
     
     private boolean existeAlunoPorMatricula(String matricula) {
-        for (Aluno aluno : listaAlunos) {
-            if (aluno.getMatricula().equals(matricula)) {
-                return true;
-            }
-        }
-        return false;
+        return armazem.contemMatricula(matricula);
+    }
+    
+    private boolean existeAlunoPorCpf(String cpf) {
+        return armazem.contemCpf(cpf);
     }
     
     // ==================== REQUISITO 1.C ====================
+    
+    /**
+     * Aluno com a matrícula informada, ou null.
+     * Concorrência: seguro entre threads; não trava.
+     */
     public Aluno obterAlunoPorMatricula(String matricula) {
-        for (Aluno aluno : listaAlunos) {
-            if (aluno.getMatricula().equals(matricula)) {
+        long inicio = System.nanoTime();
+        try {
+            Aluno aluno = lerOtimista(() -> armazem.obter(matricula));
+            
+            if (aluno != null) {
                 // Imprime a quantidade de elementos da lista
-                System.out.println("Aluno encontrado! Quantidade de alunos na lista: " + listaAlunos.size());
+                System.out.println("Aluno encontrado! Quantidade de alunos na lista: " + getQuantidadeAlunos());
                 return aluno;
             }
+            
+            System.out.println("Aluno não encontrado. Quantidade de alunos na lista: " + getQuantidadeAlunos());
+            return null;
+        } finally {
+            METRICA_OBTER.registrar(inicio);
         }
-        
-        System.out.println("Aluno não encontrado. Quantidade de alunos na lista: " + listaAlunos.size());
-        return null;
     }
     
+    /**
+     * Concorrência: seguro entre threads; não trava.
+     */
     public int getQuantidadeAlunos() {
-        return listaAlunos.size();
+        return lerOtimista(armazem::tamanho);
     }
     
     // ==================== REQUISITO 1.D ====================
+    
+    /**
+     * Remove o aluno da lista, do banco e do CSV.
+     * Concorrência: seguro entre threads; espera as outras escritas terminarem.
+     * 
+     * @return false se não houver aluno com a matrícula
+     */
     public boolean removerAlunoPorMatricula(String matricula) {
-        // Busca o aluno pela matrícula
-        Aluno alunoParaRemover = obterAlunoPorMatricula(matricula);
+        boolean removido = escrever(METRICA_REMOVER, () -> {
+            // Busca o aluno pela matrícula
+            Aluno alunoParaRemover = armazem.obter(matricula);
+            
+            if (alunoParaRemover == null) {
+                return false;
+            }
+            
+            // Usa o método removerAluno da interface AlunoDAO (REQUISITO 5)
+            alterarMemoria(() -> armazem.remover(alunoParaRemover, alunoDAO::removerAluno));
+            
+            // Remove do banco de dados e do arquivo CSV
+            persistirRemocao(alunoParaRemover);
+            return true;
+        });
         
-        if (alunoParaRemover == null) {
+        if (!removido) {
             System.out.println("Aluno não encontrado para remoção: " + matricula);
             return false;
         }
-        
-        // Usa o método removerAluno da interface AlunoDAO (REQUISITO 5)
-        listaAlunos = alunoDAO.removerAluno(listaAlunos, alunoParaRemover);
-        
-        // Remove do banco de dados
-        try {
-            alunoDAO.remover(alunoParaRemover);
-        } catch (Exception e) {
-            System.err.println("Erro ao remover do banco de dados: " + e.getMessage());
-        }
-        
-        // Atualiza o arquivo CSV
-        salvarAlunosNoCSV();
-        
         System.out.println("Aluno removido com sucesso: " + matricula);
         return true;
     }
     
     // ==================== REQUISITO 1.E ====================
     
+    /**
+     * Identifica o aluno mais novo e o mais velho em O(log n), pelo índice de
+     * data de nascimento. Alunos sem data de nascimento não são considerados.
+     * Concorrência: seguro entre threads; os dois vêm do mesmo estado da lista.
+     */
     public Aluno[] identificarAlunosMaisNovoEMaisVelho() {
-        if (listaAlunos.isEmpty()) {
-            System.out.println("Lista vazia. Não há alunos para identificar.");
-            return new Aluno[]{null, null};
-        }
-        
-        Aluno maisNovo = listaAlunos.get(0);
-        Aluno maisVelho = listaAlunos.get(0);
-        
-        // Percorre toda a lista comparando idades
-        for (Aluno aluno : listaAlunos) {
-            // Aluno mais novo = menor idade
-            if (aluno.getIdade() < maisNovo.getIdade()) {
-                maisNovo = aluno;
+        Aluno[] extremos = lerTravado(METRICA_EXTREMOS, () -> {
+            if (armazem.tamanho() == 0) {
+                return null;
             }
             
-            // Aluno mais velho = maior idade
-            if (aluno.getIdade() > maisVelho.getIdade()) {
-                maisVelho = aluno;
+            // Ninguém tem data de nascimento: todos têm idade 0
+            List<Aluno> maisNovo = armazem.maisNovos(1);
+            if (maisNovo.isEmpty()) {
+                Aluno primeiro = armazem.intervalo(OrdemListagem.INSERCAO, 0, 1).get(0);
+                return new Aluno[]{primeiro, primeiro};
             }
+            return new Aluno[]{maisNovo.get(0), armazem.maisVelhos(1).get(0)};
+        });
+        
+        if (extremos == null) {
+            System.out.println("Lista vazia. Não há alunos para identificar.");
+            return new Aluno[]{null, null};
         }
         
+        Aluno maisNovo = extremos[0];
+        Aluno maisVelho = extremos[1];
+        
         System.out.println("\n=== IDENTIFICAÇÃO DE ALUNOS ===");
         System.out.println("Aluno MAIS NOVO:");
         System.out.println("  Nome: " + maisNovo.getNome());
@@ -161,166 +374,1065 @@ public class AlunoService {
         return new Aluno[]{maisNovo, maisVelho};
     }
     
-    // ==================== REQUISITO 1.F ====================
-
-    public void inserirAlunoNaPosicao(Aluno aluno, int posicao) 
-            throws MatriculaDuplicadaException, IndexOutOfBoundsException {
-        
-        // Verifica se já existe um aluno com esta matrícula
-        if (existeAlunoPorMatricula(aluno.getMatricula())) {
-            throw new MatriculaDuplicadaException(aluno.getMatricula(), true);
-        }
-        
-        // Valida a posição
-        if (posicao < 0 || posicao > listaAlunos.size()) {
-            throw new IndexOutOfBoundsException(
-                "Posição inválida: " + posicao + 
-                ". A lista tem " + listaAlunos.size() + " elementos."
-            );
+    // ==================== CONSULTAS POR IDADE ====================
+    // Concorrência: todas são seguras entre threads e usam a trava de leitura,
+    // que só espera uma escrita em memória em andamento.
+    
+    /**
+     * Aluno com a data de nascimento mais recente, ou null se nenhum tiver data.
+     */
+    public Aluno obterAlunoMaisNovo() {
+        return lerTravado(METRICA_MAIS_NOVO, () -> primeiroOuNull(armazem.maisNovos(1)));
+    }
+    
+    /**
+     * Aluno com a data de nascimento mais antiga, ou null se nenhum tiver data.
+     */
+    public Aluno obterAlunoMaisVelho() {
+        return lerTravado(METRICA_MAIS_VELHO, () -> primeiroOuNull(armazem.maisVelhos(1)));
+    }
+    
+    /**
+     * Os k alunos mais novos, do mais novo para o mais velho.
+     */
+    public List<Aluno> listarMaisNovos(int k) {
+        return lerTravado(METRICA_MAIS_NOVOS, () -> armazem.maisNovos(k));
+    }
+    
+    /**
+     * Os k alunos mais velhos, do mais velho para o mais novo.
+     */
+    public List<Aluno> listarMaisVelhos(int k) {
+        return lerTravado(METRICA_MAIS_VELHOS, () -> armazem.maisVelhos(k));
+    }
+    
+    /**
+     * Alunos com idade (em anos completos, hoje) entre os limites, inclusive,
+     * do mais novo para o mais velho. As idades são limitadas a 0..IDADE_MAXIMA.
+     *
+     * @throws IllegalArgumentException se a idade mínima passar da máxima
+     */
+    public List<Aluno> listarPorIdade(int idadeMinima, int idadeMaxima) {
+        if (idadeMinima > idadeMaxima) {
+            throw new IllegalArgumentException("Idade mínima " + idadeMinima + " maior que a máxima " + idadeMaxima);
         }
-        
-        // Insere o aluno na posição especificada
-        listaAlunos.add(posicao, aluno);
-        
-        // Salva no banco de dados
-        try {
-            alunoDAO.salvar(aluno);
-        } catch (Exception e) {
-            System.err.println("Erro ao salvar no banco de dados: " + e.getMessage());
+        int minima = Math.max(0, Math.min(idadeMinima, IDADE_MAXIMA));
+        int maxima = Math.max(0, Math.min(idadeMaxima, IDADE_MAXIMA));
+        LocalDate hoje = LocalDate.ofEpochDay(DataUtil.hoje());
+        // Tem pelo menos idadeMinima anos quem nasceu até hoje - idadeMinima anos;
+        // tem no máximo idadeMaxima anos quem nasceu depois de hoje - (idadeMaxima + 1) anos
+        return listarNascidosEntre(hoje.minusYears(maxima + 1L).plusDays(1), hoje.minusYears(minima));
+    }
+    
+    /**
+     * Alunos nascidos entre as datas, inclusive, do mais novo para o mais velho.
+     * Datas fora da faixa de dias guardada no aluno são trazidas para ela.
+     *
+     * @throws IllegalArgumentException se "de" for depois de "ate"
+     */
+    public List<Aluno> listarNascidosEntre(LocalDate de, LocalDate ate) {
+        if (de.isAfter(ate)) {
+            throw new IllegalArgumentException("Data inicial " + de + " depois da final " + ate);
         }
         
-        // Atualiza o arquivo CSV
-        salvarAlunosNoCSV();
+        int primeiroDia = diaNascimento(de.toEpochDay());
+        int ultimoDia = diaNascimento(ate.toEpochDay());
+        return lerTravado(METRICA_NASCIDOS_ENTRE, () -> armazem.nascidosEntre(primeiroDia, ultimoDia));
+    }
+    
+    /**
+     * Dia desde a época limitado aos valores do Aluno (SEM_DATA fica de fora).
+     */
+    private static int diaNascimento(long diaEpoca) {
+        return (int) Math.max(Aluno.SEM_DATA + 1L, Math.min(diaEpoca, Integer.MAX_VALUE));
+    }
+    
+    private static Aluno primeiroOuNull(List<Aluno> alunos) {
+        return alunos.isEmpty() ? null : alunos.get(0);
+    }
+    
+    // ==================== REQUISITO 1.F ====================
+
+    /**
+     * Insere o aluno na posição informada da lista (0 = primeiro).
+     * Concorrência: seguro entre threads; espera as outras escritas terminarem.
+     * A posição é validada e aplicada dentro da mesma escrita, e o journal
+     * registra a inserção na mesma ordem em que ela ocorreu na lista.
+     */
+    public void inserirAlunoNaPosicao(Aluno aluno, int posicao) 
+            throws MatriculaDuplicadaException, CpfDuplicadoException, IndexOutOfBoundsException {
+        this.<Void, MatriculaDuplicadaException, CpfDuplicadoException>escrever(METRICA_INSERIR, () -> {
+            // Verifica se já existe um aluno com esta matrícula
+            if (existeAlunoPorMatricula(aluno.getMatricula())) {
+                throw new MatriculaDuplicadaException(aluno.getMatricula(), true);
+            }
+            
+            // Verifica se já existe um aluno com este CPF
+            if (existeAlunoPorCpf(aluno.getCpf())) {
+                throw new CpfDuplicadoException(aluno.getCpf(), true);
+            }
+            
+            // Valida a posição
+            if (posicao < 0 || posicao > armazem.tamanho()) {
+                throw new IndexOutOfBoundsException(
+                    "Posição inválida: " + posicao + 
+                    ". A lista tem " + armazem.tamanho() + " elementos."
+                );
+            }
+            
+            // Insere o aluno na posição especificada
+            alterarMemoria(() -> armazem.inserir(posicao, aluno));
+            
+            // Salva no banco de dados e atualiza o arquivo CSV
+            persistirInclusao(aluno, posicao);
+            return null;
+        });
         
         System.out.println("Aluno inserido na posição " + posicao + ": " + aluno.getMatricula());
     }
     
+    /**
+     * Insere na terceira posição ou, se a lista tiver menos de 3 alunos, no fim.
+     * Concorrência: seguro entre threads; a escolha entre as duas é atômica.
+     */
     public void inserirAlunoNaTerceiraPosicao(Aluno aluno) 
-            throws MatriculaDuplicadaException {
+            throws MatriculaDuplicadaException, CpfDuplicadoException {
+        travaEscrita.lock();
         try {
-            inserirAlunoNaPosicao(aluno, 2); // Índice 2 = terceira posição
-        } catch (IndexOutOfBoundsException e) {
-            System.out.println("Lista tem menos de 3 elementos. Adicionando no final.");
-            adicionarAluno(aluno);
+            // Confere o tamanho antes, para que a posição inválida não conte
+            // como falha na métrica de inserção
+            if (armazem.tamanho() < 3) {
+                System.out.println("Lista tem menos de 3 elementos. Adicionando no final.");
+                adicionarAluno(aluno);
+            } else {
+                inserirAlunoNaPosicao(aluno, 2); // Índice 2 = terceira posição
+            }
+        } finally {
+            travaEscrita.unlock();
         }
     }
     
     // ==================== REQUISITO 2 ====================
-    private void salvarAlunosNoCSV() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(ARQUIVO_CSV))) {
-            
-            // Escreve cada aluno no arquivo CSV
-            for (Aluno aluno : listaAlunos) {
-                writer.write(aluno.toCSV());
-                writer.newLine();
-            }
-            
-            System.out.println("Alunos salvos no arquivo CSV: " + ARQUIVO_CSV);
-            
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar arquivo CSV: " + e.getMessage());
-            e.printStackTrace();
+    
+    /**
+     * Compacta o journal no arquivo CSV quando ele passa do limite.
+     * A gravação do CSV é feita em segundo plano.
+     */
+    private void compactarSeNecessario() {
+        if (!compactacaoPendente && journal.precisaCompactar(armazem.tamanho())) {
+            compactar();
+        }
+    }
+    
+    /**
+     * Reescreve o CSV com a lista atual. Na gravação adiada a compactação entra
+     * na fila, depois das alterações que a antecederam.
+     * Chamado com a travaEscrita em mãos (a lista não muda durante a cópia).
+     */
+    private void compactar() {
+        List<Aluno> copia = armazem.copia(OrdemListagem.INSERCAO);
+        
+        if (gravador == null) {
+            journal.compactar(copia);
+            return;
         }
+        
+        compactacaoPendente = true;
+        gravador.registrarJournal(j -> {
+            j.compactar(copia);
+            compactacaoPendente = false;
+        });
     }
     
     /**
      * Carrega os alunos do arquivo CSV para a lista em memória.
-     * Este método é chamado ao iniciar o serviço.
+     * Este método é chamado ao iniciar o serviço, antes de a instância ser
+     * compartilhada, por isso não usa as travas.
      */
     private void carregarAlunosDoCSV() {
-        File arquivo = new File(ARQUIVO_CSV);
+        File arquivo = new File(arquivoCsv);
         
-        // Se o arquivo não existir, não há nada para carregar
+        // Se o arquivo não existir, só o journal pode ter alunos
         if (!arquivo.exists()) {
             System.out.println("Arquivo CSV não encontrado. Iniciando com lista vazia.");
+            journal.reproduzir(new ReproducaoJournal());
             return;
         }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(ARQUIVO_CSV))) {
-            
-            String linha;
-            int linhaNumero = 0;
+        // O snapshot em dia tem os mesmos alunos do CSV, já sem linhas inválidas
+        // nem matrículas repetidas, e dispensa a conversão do texto
+        if (snapshot.carregar(aluno -> armazem.inserir(armazem.tamanho(), aluno))) {
+            System.out.println("Carregados " + armazem.tamanho() + " alunos do snapshot " + snapshot.getArquivo());
+            journal.reproduzir(new ReproducaoJournal());
+            return;
+        }
+        // Um snapshot que falhou no meio pode ter entregado parte dos alunos
+        armazem.limpar();
+        
+        try {
+            // Lê e converte as linhas em paralelo, preservando a ordem do arquivo
+            CarregadorCSV.Resultado resultado = CarregadorCSV.carregar(arquivo.toPath());
+            List<Aluno> alunos = resultado.getAlunos();
+            List<CarregadorCSV.ErroLinha> erros = resultado.getErros();
+            int proximoErro = 0;
             
-            while ((linha = reader.readLine()) != null) {
-                linhaNumero++;
+            for (int i = 0; i < alunos.size(); i++) {
+                Aluno aluno = alunos.get(i);
+                int linhaNumero = resultado.getLinha(i);
                 
-                try {
-                    // Cria um aluno a partir da linha CSV
-                    Aluno aluno = Aluno.fromCSV(linha);
-                    
-                    // Adiciona na lista (sem verificar duplicatas aqui, pois é a carga inicial)
-                    listaAlunos.add(aluno);
-                    
-                } catch (ParseException | IllegalArgumentException e) {
-                    System.err.println("Erro ao processar linha " + linhaNumero + " do CSV: " + e.getMessage());
+                // Mensagens de erro saem na ordem das linhas do arquivo
+                while (proximoErro < erros.size() && erros.get(proximoErro).getLinha() < linhaNumero) {
+                    reportarErroCSV(erros.get(proximoErro++));
                 }
+                
+                // Matrículas repetidas no arquivo são ignoradas para manter
+                // a lista e o índice em sincronia
+                if (existeAlunoPorMatricula(aluno.getMatricula())) {
+                    System.err.println("Linha " + linhaNumero + " do CSV ignorada: matrícula repetida " + aluno.getMatricula());
+                    continue;
+                }
+                
+                // CPFs repetidos são mantidos (os dados são do arquivo), mas avisados
+                if (existeAlunoPorCpf(aluno.getCpf())) {
+                    System.err.println("Linha " + linhaNumero + " do CSV: CPF repetido " + aluno.getCpf());
+                }
+                
+                armazem.inserir(armazem.tamanho(), aluno);
+            }
+            
+            while (proximoErro < erros.size()) {
+                reportarErroCSV(erros.get(proximoErro++));
             }
             
-            System.out.println("Carregados " + listaAlunos.size() + " alunos do arquivo CSV");
+            System.out.println("Carregados " + armazem.tamanho() + " alunos do arquivo CSV");
             
         } catch (IOException e) {
             System.err.println("Erro ao ler arquivo CSV: " + e.getMessage());
         }
+        
+        // Reaplica as alterações registradas depois da última gravação do CSV
+        journal.reproduzir(new ReproducaoJournal());
     }
     
-    // ==================== MÉTODOS AUXILIARES ====================
+    private static void reportarErroCSV(CarregadorCSV.ErroLinha erro) {
+        System.err.println("Erro ao processar linha " + erro.getLinha() + " do CSV: " + erro.getMensagem());
+    }
     
-    public List<Aluno> listarTodosAlunos() {
-        return new ArrayList<>(listaAlunos);
+    // ==================== IMPORTAÇÃO EM LOTE ====================
+    
+    /**
+     * Igual a importar(arquivo, progresso), sem notificações de progresso.
+     */
+    public ResultadoImportacao importar(Path arquivo) throws IOException {
+        return importar(arquivo, parcial -> { });
     }
     
-    public void atualizarAluno(Aluno aluno) {
-        // Busca o aluno na lista pela matrícula
-        for (int i = 0; i < listaAlunos.size(); i++) {
-            if (listaAlunos.get(i).getMatricula().equals(aluno.getMatricula())) {
-                // Substitui o aluno antigo pelo atualizado
-                listaAlunos.set(i, aluno);
-                
-                // Atualiza no banco de dados
+    /**
+     * Importa um arquivo CSV de qualquer tamanho, lendo-o em fluxo.
+     * 
+     * Cada linha é validada (formato, campos obrigatórios, matrícula e CPF
+     * repetidos). As válidas seguem direto para o banco em lotes JDBC e só
+     * entram na lista depois que o lote é confirmado; as rejeitadas vão para
+     * "arquivo.rejeitados" com o número da linha e o motivo. Se o banco
+     * falhar, a importação para: as linhas do lote que falhou e as seguintes
+     * também vão para as rejeitadas, para serem importadas de novo. O CSV do
+     * sistema é reescrito uma única vez, no final.
+     * 
+     * Concorrência: seguro entre threads. As outras escritas esperam a
+     * importação terminar; as leituras continuam e veem os alunos importados
+     * a cada lote gravado. O progresso é notificado na thread que importa.
+     */
+    public ResultadoImportacao importar(Path arquivo, ProgressoImportacao progresso) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(arquivo), Charset.defaultCharset()))) {
+            return importar(reader, AlunoCSVCodec::decodificar, Paths.get(arquivo + ".rejeitados"), progresso);
+        }
+    }
+    
+    /**
+     * Igual a importar(arquivo, progresso), lendo as linhas de qualquer origem
+     * e convertendo cada uma com o decodificador (por exemplo, um objeto JSON
+     * por linha). As linhas rejeitadas vão para arquivoRejeitados. A origem
+     * não é fechada.
+     * 
+     * Concorrência: a mesma de importar(arquivo, progresso).
+     */
+    public ResultadoImportacao importar(BufferedReader origem, DecodificadorLinha decodificador,
+                                        Path arquivoRejeitados, ProgressoImportacao progresso) throws IOException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        
+        escrever(METRICA_IMPORTAR, () -> {
+            importar(origem, decodificador, arquivoRejeitados, resultado, progresso);
+            return null;
+        });
+        
+        progresso.atualizar(resultado);
+        System.out.println("Importação concluída: " + resultado.getImportados() + " importados, "
+                + resultado.getRejeitados() + " rejeitados de " + resultado.getLinhasLidas() + " linhas");
+        
+        return resultado;
+    }
+    
+    private void importar(BufferedReader reader, DecodificadorLinha decodificador, Path arquivoRejeitados,
+                          ResultadoImportacao resultado, ProgressoImportacao progresso) throws IOException {
+        // A importação grava direto no banco: as alterações anteriores vão antes
+        flush();
+        Files.deleteIfExists(arquivoRejeitados);
+        
+        try (LinhasRejeitadas rejeitadas = new LinhasRejeitadas(arquivoRejeitados)) {
+            
+            LeitorImportacao leitor = new LeitorImportacao(reader, decodificador, rejeitadas, resultado, progresso);
+            
+            // Salva no banco de dados à medida que o arquivo é lido; cada lote só
+            // entra na lista depois de confirmado, para que os dois não divirjam
+            List<Aluno> lote;
+            while (!(lote = leitor.lerLote(LOTE_IMPORTACAO)).isEmpty()) {
                 try {
-                    alunoDAO.atualizar(aluno);
+                    alunoDAO.salvarEmFluxo(lote.iterator());
                 } catch (Exception e) {
-                    System.err.println("Erro ao atualizar no banco de dados: " + e.getMessage());
+                    System.err.println("Erro ao salvar importação no banco de dados: " + e.getMessage());
+                    leitor.rejeitarRestante("Não importada: erro ao gravar no banco de dados (" + e.getMessage() + ")");
+                    break;
                 }
                 
-                // Atualiza o arquivo CSV
-                salvarAlunosNoCSV();
-                
-                System.out.println("Aluno atualizado com sucesso: " + aluno.getMatricula());
-                return;
+                List<Aluno> confirmados = lote;
+                alterarMemoria(() -> {
+                    for (Aluno aluno : confirmados) {
+                        armazem.inserir(armazem.tamanho(), aluno);
+                    }
+                });
+                resultado.importados(confirmados.size());
             }
+            
+            if (leitor.erroLeitura != null) {
+                throw leitor.erroLeitura;
+            }
+            if (resultado.getRejeitados() > 0) {
+                resultado.setArquivoRejeitados(arquivoRejeitados);
+            }
+            
+        } finally {
+            // Reescreve o CSV uma única vez, com tudo o que entrou na lista
+            if (resultado.getImportados() > 0) {
+                compactar();
+            }
+        }
+    }
+    
+    /**
+     * Verifica se um aluno lido na importação pode entrar na lista.
+     * 
+     * @return o motivo da rejeição, ou null se o aluno for válido
+     */
+    private String validarImportacao(Aluno aluno) {
+        if (aluno.getMatricula() == null || aluno.getMatricula().isEmpty()) {
+            return "Matrícula não informada";
+        }
+        if (aluno.getNome() == null || aluno.getNome().isEmpty()) {
+            return "Nome não informado";
         }
+        if (!aluno.temDataNascimento()) {
+            return "Data de nascimento não informada";
+        }
+        if (existeAlunoPorMatricula(aluno.getMatricula())) {
+            return "Já existe um aluno cadastrado com a matrícula: " + aluno.getMatricula();
+        }
+        if (existeAlunoPorCpf(aluno.getCpf())) {
+            return "Já existe um aluno cadastrado com o CPF: " + aluno.getCpf();
+        }
+        return null;
+    }
+    
+    /**
+     * Lê o arquivo sob demanda, em lotes de alunos válidos. Os alunos de um
+     * lote ainda não estão na lista: as matrículas e CPFs dele são conferidos
+     * à parte, e as linhas ficam guardadas até o lote ser confirmado.
+     */
+    private class LeitorImportacao {
+        
+        private final BufferedReader reader;
+        private final DecodificadorLinha decodificador;
+        private final LinhasRejeitadas rejeitadas;
+        private final ResultadoImportacao resultado;
+        private final ProgressoImportacao progresso;
+        
+        // Lote atual: alunos, números e textos das linhas, matrículas e CPFs
+        private final List<Aluno> lote = new ArrayList<>();
+        private final List<Long> numerosLote = new ArrayList<>();
+        private final List<String> linhasLote = new ArrayList<>();
+        private final Set<String> matriculasLote = new HashSet<>();
+        private final Set<String> cpfsLote = new HashSet<>();
         
-        System.out.println("Aluno não encontrado para atualização: " + aluno.getMatricula());
+        private boolean terminou;
+        private IOException erroLeitura;
+        
+        LeitorImportacao(BufferedReader reader, DecodificadorLinha decodificador, LinhasRejeitadas rejeitadas,
+                         ResultadoImportacao resultado, ProgressoImportacao progresso) {
+            this.reader = reader;
+            this.decodificador = decodificador;
+            this.rejeitadas = rejeitadas;
+            this.resultado = resultado;
+            this.progresso = progresso;
+        }
+        
+        /**
+         * Lê até "tamanho" alunos válidos. O lote anterior é descartado.
+         * 
+         * @return o lote, vazio no fim do arquivo
+         */
+        List<Aluno> lerLote(int tamanho) {
+            lote.clear();
+            numerosLote.clear();
+            linhasLote.clear();
+            matriculasLote.clear();
+            cpfsLote.clear();
+            
+            while (lote.size() < tamanho && !terminou) {
+                lerProximo();
+            }
+            return lote;
+        }
+        
+        /**
+         * Rejeita, com o motivo, as linhas do lote atual e todas as que faltam ler.
+         */
+        void rejeitarRestante(String motivo) {
+            for (int i = 0; i < lote.size(); i++) {
+                rejeitadas.registrar(numerosLote.get(i), motivo, linhasLote.get(i));
+                resultado.rejeitado(numerosLote.get(i), motivo);
+            }
+            lote.clear();
+            
+            try {
+                String linha;
+                while ((linha = reader.readLine()) != null) {
+                    resultado.linhaLida();
+                    if (!linha.trim().isEmpty()) {
+                        rejeitadas.registrar(resultado.getLinhasLidas(), motivo, linha);
+                        resultado.rejeitado(resultado.getLinhasLidas(), motivo);
+                    }
+                }
+            } catch (IOException e) {
+                erroLeitura = e;
+            } catch (UncheckedIOException e) {
+                erroLeitura = e.getCause();
+            }
+            terminou = true;
+        }
+        
+        /**
+         * Lê linhas até colocar um aluno válido no lote ou chegar ao fim.
+         */
+        private void lerProximo() {
+            try {
+                String linha;
+                while ((linha = reader.readLine()) != null) {
+                    resultado.linhaLida();
+                    long linhaNumero = resultado.getLinhasLidas();
+                    
+                    if (linhaNumero % INTERVALO_PROGRESSO == 0) {
+                        progresso.atualizar(resultado);
+                    }
+                    
+                    // Linhas em branco (por exemplo, no fim do arquivo) são ignoradas
+                    if (linha.trim().isEmpty()) {
+                        continue;
+                    }
+                    
+                    try {
+                        Aluno aluno = decodificador.decodificar(linha);
+                        String motivo = validarImportacao(aluno);
+                        if (motivo == null) {
+                            motivo = validarNoLote(aluno);
+                        }
+                        
+                        if (motivo != null) {
+                            rejeitadas.registrar(linhaNumero, motivo, linha);
+                            resultado.rejeitado(linhaNumero, motivo);
+                            continue;
+                        }
+                        
+                        lote.add(aluno);
+                        numerosLote.add(linhaNumero);
+                        linhasLote.add(linha);
+                        matriculasLote.add(aluno.getMatricula());
+                        String cpf = ArmazemObjetos.normalizarCpf(aluno.getCpf());
+                        if (!cpf.isEmpty()) {
+                            cpfsLote.add(cpf);
+                        }
+                        return;
+                        
+                    } catch (ParseException | IllegalArgumentException e) {
+                        rejeitadas.registrar(linhaNumero, e.getMessage(), linha);
+                        resultado.rejeitado(linhaNumero, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                erroLeitura = e;
+            } catch (UncheckedIOException e) {
+                erroLeitura = e.getCause();
+            }
+            
+            terminou = true;
+        }
+        
+        /**
+         * Matrícula e CPF repetidos dentro do lote, que ainda não está na lista.
+         */
+        private String validarNoLote(Aluno aluno) {
+            if (matriculasLote.contains(aluno.getMatricula())) {
+                return "Já existe um aluno cadastrado com a matrícula: " + aluno.getMatricula();
+            }
+            if (cpfsLote.contains(ArmazemObjetos.normalizarCpf(aluno.getCpf()))) {
+                return "Já existe um aluno cadastrado com o CPF: " + aluno.getCpf();
+            }
+            return null;
+        }
     }
     
     /**
-     * Limpa todos os alunos da lista (use com cuidado!).
+     * Arquivo CSV (linha,motivo,conteudo) com as linhas rejeitadas na importação.
+     * Só é criado quando a primeira linha é rejeitada.
      */
-    public void limparTodos() {
-        listaAlunos.clear();
-        salvarAlunosNoCSV();
-        System.out.println("Todos os alunos foram removidos da lista.");
+    private static class LinhasRejeitadas implements Closeable {
+        
+        private final Path arquivo;
+        private BufferedWriter writer;
+        
+        LinhasRejeitadas(Path arquivo) {
+            this.arquivo = arquivo;
+        }
+        
+        void registrar(long linhaNumero, String motivo, String conteudo) {
+            try {
+                if (writer == null) {
+                    writer = new BufferedWriter(new OutputStreamWriter(
+                            Files.newOutputStream(arquivo), Charset.defaultCharset()));
+                    writer.write("linha,motivo,conteudo");
+                    writer.newLine();
+                }
+                writer.write(Long.toString(linhaNumero));
+                writer.write(',');
+                AlunoCSVCodec.escreverCampo(motivo, writer);
+                writer.write(',');
+                AlunoCSVCodec.escreverCampo(conteudo, writer);
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+    
+    // ==================== MÉTODOS AUXILIARES ====================
+    // Concorrência: as listagens são seguras entre threads e devolvem cópias
+    // feitas a partir de um único estado da lista.
+    
+    /**
+     * Cópia da lista inteira, na ordem de cadastro. Não trava.
+     */
+    public List<Aluno> listarTodosAlunos() {
+        return lerOtimista(METRICA_LISTAR_TODOS, () -> armazem.intervalo(OrdemListagem.INSERCAO, 0, Integer.MAX_VALUE));
+    }
+    
+    /**
+     * Cópia dos alunos nas posições [inicio, inicio + quantidade) da lista,
+     * limitada ao tamanho atual. Permite exibir a lista em janelas, sem copiá-la inteira.
+     */
+    public List<Aluno> listarIntervalo(int inicio, int quantidade) {
+        return listarIntervalo(OrdemListagem.INSERCAO, inicio, quantidade);
+    }
+    
+    /**
+     * Igual a listarIntervalo(inicio, quantidade), com as posições contadas na
+     * ordem pedida. Na ordem de cadastro não trava; nas demais usa a trava de leitura.
+     */
+    public List<Aluno> listarIntervalo(OrdemListagem ordem, int inicio, int quantidade) {
+        return listarIntervalo(METRICA_LISTAR_INTERVALO, ordem, inicio, quantidade);
+    }
+    
+    private List<Aluno> listarIntervalo(MetricaOperacao metrica, OrdemListagem ordem, int inicio, int quantidade) {
+        if (ordem != OrdemListagem.INSERCAO) {
+            return lerTravado(metrica, () -> armazem.intervalo(ordem, inicio, quantidade));
+        }
+        return lerOtimista(metrica, () -> armazem.intervalo(ordem, inicio, quantidade));
+    }
+    
+    /**
+     * Cópia de todos os alunos na ordem pedida. A lista principal não é alterada.
+     */
+    public List<Aluno> listarOrdenados(OrdemListagem ordem) {
+        return listarIntervalo(METRICA_LISTAR_ORDENADOS, ordem, 0, Integer.MAX_VALUE);
     }
     
     /**
-     * Ordena a lista de alunos por nome.
+     * Passa a ordem de cadastro a ser a ordem por nome.
+     *
+     * Efeito colateral: reescreve o arquivo CSV inteiro nessa ordem (a mesma
+     * compactação do journal, O(n) em disco). O journal só registra as
+     * alterações, não a ordem: sem a reescrita a ordem nova se perderia na
+     * próxima inicialização. Sem a gravação adiada, as outras escritas esperam
+     * a reescrita terminar; com ela, a reescrita entra na fila.
+     *
+     * @deprecated para exibir em outra ordem use listarOrdenados(OrdemListagem.NOME)
+     * ou listarIntervalo(OrdemListagem.NOME, ...), que não alteram a lista nem o CSV
      */
+    @Deprecated
     public void ordenarPorNome() {
-        listaAlunos.sort(Comparator.comparing(Aluno::getNome));
+        reordenar(OrdemListagem.NOME);
     }
     
     /**
-     * Ordena a lista de alunos por matrícula.
+     * Como {@link #ordenarPorNome()}, por matrícula: também reescreve o CSV inteiro.
+     * @deprecated use listarOrdenados(OrdemListagem.MATRICULA)
      */
+    @Deprecated
     public void ordenarPorMatricula() {
-        listaAlunos.sort(Comparator.comparing(Aluno::getMatricula));
+        reordenar(OrdemListagem.MATRICULA);
     }
     
     /**
-     * Ordena a lista de alunos por idade.
+     * Como {@link #ordenarPorNome()}, por idade: também reescreve o CSV inteiro.
+     * @deprecated use listarOrdenados(OrdemListagem.IDADE)
      */
+    @Deprecated
     public void ordenarPorIdade() {
-        listaAlunos.sort(Comparator.comparingInt(Aluno::getIdade));
+        reordenar(OrdemListagem.IDADE);
+    }
+    
+    /**
+     * Reinsere os alunos na ordem pedida, como faziam os antigos ordenarPor*,
+     * e reescreve o CSV (ver ordenarPorNome).
+     * Concorrência: seguro entre threads; espera as outras escritas terminarem.
+     */
+    private void reordenar(OrdemListagem ordem) {
+        travaEscrita.lock();
+        try {
+            alterarMemoria(() -> {
+                List<Aluno> ordenados = armazem.copia(ordem);
+                armazem.limpar();
+                for (int i = 0; i < ordenados.size(); i++) {
+                    armazem.inserir(i, ordenados.get(i));
+                }
+            });
+            compactar();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+    
+    /**
+     * Alunos cujo nome começa entre os prefixos informados (inclusive), em ordem
+     * alfabética sem diferenciar maiúsculas. Ex.: de "M" até "P" traz de
+     * "Maria" a "Pedro", mas não "Quitéria".
+     */
+    public List<Aluno> listarPorNome(String de, String ate) {
+        return lerTravado(METRICA_LISTAR_POR_NOME, () -> armazem.porNome(de, ate));
+    }
+    
+    /**
+     * Alunos com matrícula entre os limites informados (inclusive), em ordem de matrícula.
+     */
+    public List<Aluno> listarPorMatricula(String de, String ate) {
+        return lerTravado(METRICA_LISTAR_POR_MATRICULA, () -> armazem.porMatricula(de, ate));
+    }
+    
+    /**
+     * Até "limite" alunos cujo nome contém o texto, sem diferenciar maiúsculas
+     * nem acentos ("joao" encontra "João"). Os nomes que começam com o texto
+     * vêm primeiro. Não trava.
+     */
+    public List<Aluno> buscarPorNome(String texto, int limite) {
+        return lerOtimista(METRICA_BUSCAR_POR_NOME, () -> armazem.buscarPorNome(texto, limite));
+    }
+    
+    /**
+     * Substitui o aluno da lista com a mesma matrícula pelos dados do aluno e
+     * grava a alteração no banco e no CSV.
+     * Concorrência: seguro entre threads; espera as outras escritas terminarem.
+     * Quem já tinha o objeto da lista continua com os valores anteriores.
+     */
+    public void atualizarAluno(Aluno aluno) throws CpfDuplicadoException {
+        boolean atualizou = escrever(METRICA_ATUALIZAR, () -> {
+            // Busca o aluno pelo índice de matrícula
+            if (!existeAlunoPorMatricula(aluno.getMatricula())) {
+                return false;
+            }
+            
+            // O novo CPF não pode pertencer a outro aluno
+            if (armazem.cpfDeOutroAluno(aluno.getCpf(), aluno.getMatricula())) {
+                throw new CpfDuplicadoException(aluno.getCpf(), true);
+            }
+            
+            Aluno[] atualizado = new Aluno[1];
+            alterarMemoria(() -> atualizado[0] = armazem.atualizar(aluno));
+            
+            // Atualiza no banco de dados e no arquivo CSV
+            persistirAtualizacao(atualizado[0]);
+            return true;
+        });
+        
+        if (!atualizou) {
+            System.out.println("Aluno não encontrado para atualização: " + aluno.getMatricula());
+            return;
+        }
+        System.out.println("Aluno atualizado com sucesso: " + aluno.getMatricula());
+    }
+    
+    /**
+     * Limpa todos os alunos da lista, do banco e do CSV (use com cuidado!).
+     * Concorrência: seguro entre threads; espera as outras escritas terminarem.
+     */
+    public void limparTodos() {
+        escrever(METRICA_LIMPAR, () -> {
+            alterarMemoria(armazem::limpar);
+            
+            if (gravador != null) {
+                // Alterações ainda pendentes no banco deixam de ter efeito
+                gravador.registrarLimpeza(JournalCSV::registrarLimpeza);
+                compactar();
+            } else {
+                // Remove do banco de dados com um único comando
+                try {
+                    alunoDAO.removerTodos();
+                } catch (Exception e) {
+                    System.err.println("Erro ao remover do banco de dados: " + e.getMessage());
+                }
+                
+                journal.registrarLimpeza();
+                journal.compactar(new ArrayList<>());
+            }
+            return null;
+        });
+        
+        System.out.println("Todos os alunos foram removidos da lista.");
+    }
+    
+    /**
+     * Grava imediatamente todas as alterações pendentes da gravação adiada e
+     * espera a gravação terminar. Na gravação síncrona não faz nada.
+     * Concorrência: seguro entre threads; espera só o que já estava na fila
+     * quando foi chamado.
+     */
+    public void flush() {
+        if (gravador != null) {
+            long inicio = System.nanoTime();
+            try {
+                gravador.flush();
+            } finally {
+                METRICA_FLUSH.registrar(inicio);
+            }
+        }
+    }
+    
+    /**
+     * Grava o que estiver pendente e, se o journal tiver registros ou o
+     * snapshot estiver desatualizado, reescreve o CSV e o snapshot, para que
+     * a próxima inicialização só precise ler o snapshot.
+     * Chamado ao encerrar a JVM, ou antes por quem descarta a instância
+     * (que deixa de ser encerrada com a JVM); depois dele a instância não
+     * deve receber mais escritas.
+     * Concorrência: seguro entre threads; espera as outras escritas terminarem.
+     */
+    public void encerrar() {
+        Encerramento.daAplicacao().remover(etapaEncerramento);
+        travaEscrita.lock();
+        try {
+            if (gravador != null) {
+                // Depois disso o journal só é usado por esta thread
+                gravador.encerrar();
+            }
+            if (journal.temRegistros() || !snapshot.isAtualizado()) {
+                journal.compactar(armazem.copia(OrdemListagem.INSERCAO));
+            }
+            journal.aguardarCompactacoes();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+    
+    // ==================== RECONCILIAÇÃO ====================
+    
+    /**
+     * Compara o banco com os alunos em memória (os do CSV) por faixas de
+     * matrícula e corrige só as faixas diferentes: insere o que falta,
+     * atualiza o que mudou e remove o que sobra (ver ReconciliadorBanco).
+     * Use depois de falhas de gravação no banco, que não interrompem as
+     * operações do serviço.
+     * Concorrência: seguro entre threads; as escritas esperam a reconciliação
+     * terminar, as leituras não.
+     *
+     * @throws IllegalStateException se a memória estiver vazia e o banco não
+     *         (provável CSV perdido); use {@link #reconciliarBanco(boolean)}
+     *         para esvaziar o banco mesmo assim
+     */
+    public ResultadoReconciliacao reconciliarBanco() {
+        return reconciliarBanco(false);
+    }
+    
+    /**
+     * Como {@link #reconciliarBanco()}. Sem forcar, a reconciliação se recusa
+     * a rodar com a memória vazia e o banco não, e remove no máximo
+     * alunos.reconciliar.maxRemocoes alunos (padrão 1000; o resto sai nas
+     * próximas, ver ResultadoReconciliacao.getRemocoesAdiadas). Com forcar,
+     * a memória vale sempre e não há limite de remoções.
+     */
+    public ResultadoReconciliacao reconciliarBanco(boolean forcar) {
+        return escrever(METRICA_RECONCILIAR, () -> {
+            // O que está na fila da gravação adiada ainda não chegou ao banco
+            if (gravador != null) {
+                gravador.flush();
+            }
+            
+            // Com a travaEscrita a memória não muda: a cópia é lida sem trava.
+            // Alunos sem matrícula ficam no começo da ordem e não vão para o banco
+            List<Aluno> memoria = armazem.copia(OrdemListagem.MATRICULA);
+            int semMatricula = 0;
+            while (semMatricula < memoria.size() && memoria.get(semMatricula).getMatricula() == null) {
+                semMatricula++;
+            }
+            memoria = memoria.subList(semMatricula, memoria.size());
+            
+            if (memoria.isEmpty() && !forcar && !alunoDAO.listarPagina(null, 1).isEmpty()) {
+                throw new IllegalStateException("A lista em memória está vazia e o banco não; "
+                        + "use reconciliarBanco(true) para esvaziar o banco");
+            }
+            
+            int maximoRemocoes = forcar
+                    ? Integer.MAX_VALUE
+                    : Integer.getInteger(PROPRIEDADE_MAXIMO_REMOCOES, MAXIMO_REMOCOES_PADRAO);
+            ResultadoReconciliacao resultado = new ReconciliadorBanco(alunoDAO, maximoRemocoes).reconciliar(memoria);
+            System.out.println("Reconciliação com o banco: " + resultado);
+            return resultado;
+        });
+    }
+    
+    // ==================== CONCORRÊNCIA ====================
+    
+    /**
+     * Corpo de uma escrita; pode lançar até dois tipos de exceção verificada.
+     */
+    @FunctionalInterface
+    private interface Escrita<T, E1 extends Exception, E2 extends Exception> {
+        T executar() throws E1, E2;
+    }
+    
+    /**
+     * Executa a escrita com a travaEscrita e registra o tempo na métrica,
+     * contando como falha qualquer exceção que saia dela.
+     */
+    private <T, E1 extends Exception, E2 extends Exception> T escrever(
+            MetricaOperacao metrica, Escrita<T, E1, E2> escrita) throws E1, E2 {
+        long inicio = System.nanoTime();
+        travaEscrita.lock();
+        try {
+            return escrita.executar();
+        } catch (Throwable e) {
+            metrica.falha();
+            throw e;
+        } finally {
+            travaEscrita.unlock();
+            metrica.registrar(inicio);
+        }
+    }
+    
+    /**
+     * Aplica uma alteração na lista e nos índices com a trava de escrita da
+     * memória. Deve ser chamado com a travaEscrita em mãos.
+     */
+    private void alterarMemoria(Runnable alteracao) {
+        long stamp = travaMemoria.writeLock();
+        try {
+            alteracao.run();
+        } finally {
+            travaMemoria.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Executa a leitura sem travar e confere se alguma escrita aconteceu no
+     * meio. Se aconteceu (ou a leitura falhou por ver uma estrutura alterada
+     * pela metade), o resultado é descartado e a leitura é repetida com a
+     * trava de leitura.
+     * 
+     * Só serve para leituras que sempre terminam, como percorrer a lista ou os
+     * vetores do índice de nomes.
+     */
+    private <T> T lerOtimista(Supplier<T> leitura) {
+        long stamp = travaMemoria.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T valor = leitura.get();
+                if (travaMemoria.validate(stamp)) {
+                    return valor;
+                }
+            } catch (RuntimeException e) {
+                // Estado inconsistente visto durante uma escrita: repete abaixo
+            }
+        }
+        return lerTravado(leitura);
+    }
+    
+    /**
+     * Executa a leitura com a trava de leitura, que é compartilhada entre os
+     * leitores e só espera uma alteração em memória em andamento. Usada nos
+     * índices ordenados: as buscas binárias comparam campos dos alunos, e uma
+     * escrita no meio (um bloco sendo dividido, um aluno sendo atualizado)
+     * levaria a leitura otimista a ser descartada e refeita.
+     */
+    private <T> T lerTravado(Supplier<T> leitura) {
+        long stamp = travaMemoria.readLock();
+        try {
+            return leitura.get();
+        } finally {
+            travaMemoria.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * lerOtimista(leitura), registrando o tempo na métrica da operação.
+     */
+    private <T> T lerOtimista(MetricaOperacao metrica, Supplier<T> leitura) {
+        long inicio = System.nanoTime();
+        try {
+            return lerOtimista(leitura);
+        } catch (RuntimeException | Error e) {
+            metrica.falha();
+            throw e;
+        } finally {
+            metrica.registrar(inicio);
+        }
+    }
+    
+    /**
+     * lerTravado(leitura), registrando o tempo na métrica da operação.
+     */
+    private <T> T lerTravado(MetricaOperacao metrica, Supplier<T> leitura) {
+        long inicio = System.nanoTime();
+        try {
+            return lerTravado(leitura);
+        } catch (RuntimeException | Error e) {
+            metrica.falha();
+            throw e;
+        } finally {
+            metrica.registrar(inicio);
+        }
+    }
+    
+    // ==================== PERSISTÊNCIA ====================
+    
+    /**
+     * Grava a inclusão de um aluno no banco e no journal do CSV.
+     * 
+     * @param posicao posição da inserção, ou -1 para inclusão no final da lista
+     */
+    private void persistirInclusao(Aluno aluno, int posicao) {
+        if (gravador != null) {
+            // A thread de gravação recebe uma cópia, imune a alterações posteriores
+            Aluno copia = ArmazemAlunos.copiar(aluno);
+            gravador.registrar(GravadorAdiado.Tipo.INCLUSAO, copia, posicao < 0
+                    ? j -> j.registrarAdicao(copia)
+                    : j -> j.registrarInsercao(posicao, copia));
+            compactarSeNecessario();
+            return;
+        }
+        
+        // Salva o aluno no banco de dados usando Hibernate
+        try {
+            alunoDAO.salvar(aluno);
+        } catch (Exception e) {
+            System.err.println("Erro ao salvar no banco de dados: " + e.getMessage());
+        }
+        
+        // Registra a inclusão no journal do arquivo CSV
+        if (posicao < 0) {
+            journal.registrarAdicao(aluno);
+        } else {
+            journal.registrarInsercao(posicao, aluno);
+        }
+        compactarSeNecessario();
+    }
+    
+    private void persistirAtualizacao(Aluno aluno) {
+        if (gravador != null) {
+            Aluno copia = ArmazemAlunos.copiar(aluno);
+            gravador.registrar(GravadorAdiado.Tipo.ATUALIZACAO, copia, j -> j.registrarAtualizacao(copia));
+            compactarSeNecessario();
+            return;
+        }
+        
+        try {
+            alunoDAO.atualizar(aluno);
+        } catch (Exception e) {
+            System.err.println("Erro ao atualizar no banco de dados: " + e.getMessage());
+        }
+        
+        journal.registrarAtualizacao(aluno);
+        compactarSeNecessario();
+    }
+    
+    private void persistirRemocao(Aluno aluno) {
+        String matricula = aluno.getMatricula();
+        
+        if (gravador != null) {
+            gravador.registrar(GravadorAdiado.Tipo.REMOCAO, ArmazemAlunos.copiar(aluno), j -> j.registrarRemocao(matricula));
+            compactarSeNecessario();
+            return;
+        }
+        
+        try {
+            alunoDAO.remover(aluno);
+        } catch (Exception e) {
+            System.err.println("Erro ao remover do banco de dados: " + e.getMessage());
+        }
+        
+        journal.registrarRemocao(matricula);
+        compactarSeNecessario();
+    }
+    
+    /**
+     * Reaplica os registros do journal na lista e nos índices.
+     * Cada operação é idempotente: reaplicar um registro já incorporado ao CSV
+     * não duplica nem perde alunos. Só roda no construtor, sem as travas.
+     */
+    private class ReproducaoJournal implements JournalCSV.Reproducao {
+        
+        @Override
+        public void adicionar(Aluno aluno) {
+            inserir(armazem.tamanho(), aluno);
+        }
+        
+        @Override
+        public void inserir(int posicao, Aluno aluno) {
+            if (existeAlunoPorMatricula(aluno.getMatricula())) {
+                atualizar(aluno);
+                return;
+            }
+            armazem.inserir(Math.min(Math.max(posicao, 0), armazem.tamanho()), aluno);
+        }
+        
+        @Override
+        public void atualizar(Aluno aluno) {
+            armazem.atualizar(aluno);
+        }
+        
+        @Override
+        public void remover(String matricula) {
+            Aluno existente = armazem.obter(matricula);
+            if (existente != null) {
+                armazem.remover(existente);
+            }
+        }
+        
+        @Override
+        public void limpar() {
+            armazem.limpar();
+        }
     }
 }
@@ -0,0 +1,142 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Armazenamento em memória dos alunos do AlunoService: a lista na ordem de
+ * cadastro e os índices por matrícula, CPF, nome e idade.
+ *
+ * Há duas implementações, escolhidas com -Dalunos.armazenamento:
+ * - {@link ArmazemObjetos} (padrão): um objeto Aluno por aluno, devolvido
+ *   diretamente nas consultas;
+ * - {@link ArmazemColunar}: os campos em vetores de tipos primitivos; as
+ *   consultas devolvem objetos Aluno montados na hora.
+ *
+ * Concorrência: nenhum método trava. O AlunoService faz as alterações com a
+ * trava de escrita da memória e as leituras com leitura otimista ou com a
+ * trava de leitura, como indicado em cada método. Uma leitura otimista pode
+ * ver a estrutura alterada pela metade, mas sempre termina.
+ */
+interface ArmazemAlunos {
+
+    /**
+     * Quantidade de alunos. Leitura otimista.
+     */
+    int tamanho();
+
+    /**
+     * Aluno com a matrícula, ou null. Leitura otimista.
+     */
+    Aluno obter(String matricula);
+
+    boolean contemMatricula(String matricula);
+
+    /**
+     * Indica se algum aluno tem um CPF com os mesmos dígitos.
+     */
+    boolean contemCpf(String cpf);
+
+    /**
+     * Indica se os dígitos do CPF pertencem a um aluno de outra matrícula.
+     */
+    boolean cpfDeOutroAluno(String cpf, String matricula);
+
+    /**
+     * Insere o aluno na posição da ordem de cadastro (tamanho() = no fim).
+     * A matrícula não pode estar em uso.
+     */
+    void inserir(int posicao, Aluno aluno);
+
+    /**
+     * Grava os dados no aluno com a mesma matrícula. Os objetos Aluno já
+     * devolvidos pelo armazém não são alterados.
+     *
+     * @return o aluno atualizado, ou null se a matrícula não existir
+     */
+    Aluno atualizar(Aluno dados);
+
+    /**
+     * Remove o aluno com a mesma matrícula. A retirada da lista na ordem de
+     * cadastro é feita por "retirada" (ex.: AlunoDAO.removerAluno), que
+     * recebe a lista e o aluno e devolve a lista resultante.
+     */
+    void remover(Aluno aluno, BiFunction<List<Aluno>, Aluno, List<Aluno>> retirada);
+
+    default void remover(Aluno aluno) {
+        remover(aluno, (lista, removido) -> {
+            lista.remove(removido);
+            return lista;
+        });
+    }
+
+    void limpar();
+
+    /**
+     * Cópia dos alunos nas posições [inicio, inicio + quantidade) da ordem.
+     * Leitura otimista na ordem de cadastro; trava de leitura nas demais.
+     */
+    List<Aluno> intervalo(OrdemListagem ordem, int inicio, int quantidade);
+
+    /**
+     * Todos os alunos na ordem, em uma lista que não muda com as alterações
+     * posteriores (ex.: para gravar o CSV em outra thread). Deve ser chamado
+     * com a travaEscrita em mãos.
+     */
+    List<Aluno> copia(OrdemListagem ordem);
+
+    /**
+     * Os k alunos com data de nascimento mais recente, do mais novo para o
+     * mais velho. Trava de leitura.
+     */
+    List<Aluno> maisNovos(int k);
+
+    /**
+     * Os k alunos com data de nascimento mais antiga, do mais velho para o
+     * mais novo. Trava de leitura.
+     */
+    List<Aluno> maisVelhos(int k);
+
+    /**
+     * Alunos nascidos entre os dias da época, inclusive, do mais novo para o
+     * mais velho. Trava de leitura.
+     */
+    List<Aluno> nascidosEntre(int primeiroDia, int ultimoDia);
+
+    /**
+     * Alunos cujo nome começa entre os prefixos (inclusive), em ordem
+     * alfabética sem diferenciar maiúsculas. Trava de leitura.
+     */
+    List<Aluno> porNome(String de, String ate);
+
+    /**
+     * Alunos com matrícula entre os limites (inclusive). Trava de leitura.
+     */
+    List<Aluno> porMatricula(String de, String ate);
+
+    /**
+     * Até "limite" alunos cujo nome contém o texto (ver IndiceNomes).
+     * Leitura otimista.
+     */
+    List<Aluno> buscarPorNome(String texto, int limite);
+
+    /**
+     * Copia os dados de um aluno para outro com a mesma matrícula.
+     */
+    static void copiarDados(Aluno origem, Aluno destino) {
+        destino.setNome(origem.getNome());
+        destino.setIdade(origem.getIdade());
+        destino.setDiaNascimento(origem.getDiaNascimento());
+        destino.setTelefone(origem.getTelefone());
+        destino.setCpf(origem.getCpf());
+    }
+
+    static Aluno copiar(Aluno aluno) {
+        Aluno copia = new Aluno();
+        copia.setMatricula(aluno.getMatricula());
+        copiarDados(aluno, copia);
+        return copia;
+    }
+}
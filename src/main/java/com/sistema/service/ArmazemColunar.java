@@ -0,0 +1,1336 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Armazenamento compacto: os campos dos alunos ficam em vetores de tipos
+ * primitivos (colunas), e os objetos Aluno só são montados nas consultas.
+ *
+ * Cada aluno ocupa um slot, o mesmo em todas as colunas:
+ * - matrícula, telefone e CPF: um long com os dígitos e o número da
+ *   "máscara" do texto (ex.: "999.999.999-99"), ver {@link ColunaTexto};
+ * - data de nascimento: int com o dia da época;
+ * - nome: posição em uma arena de bytes, sem repetir nomes iguais.
+ * A ordem de cadastro é um vetor de slots, e os índices (matrícula, CPF,
+ * ordenados e busca por nome) também guardam slots.
+ *
+ * Medido com 300 mil alunos (nomes de uns 30 caracteres, telefone e CPF
+ * formatados), ocupa cerca de 200 bytes por aluno, índices incluídos, contra
+ * uns 450 do ArmazemObjetos (um objeto Aluno e quatro Strings por aluno, mais
+ * os nós dos índices): 2,2 vezes menos, não mais. Os maiores gastos que
+ * sobram são as tabelas de matrícula e CPF, os nomes e a busca por nome
+ * (uns 40 bytes cada).
+ *
+ * Os objetos devolvidos são cópias: alterá-los não muda o armazém, e uma
+ * atualização posterior não muda os objetos já devolvidos.
+ */
+class ArmazemColunar implements ArmazemAlunos {
+
+    private static final int SEM_NOME = -1;
+
+    // Espaço descartado (bytes de nomes e caracteres de textos fora de máscara)
+    // abaixo do qual não vale a pena compactar a arena
+    private static final int MINIMO_COMPACTACAO = 64 * 1024;
+
+    // Ordem de cadastro: slot de cada posição
+    private int[] ordem = new int[16];
+    private int tamanho;
+
+    // Colunas, indexadas pelo slot
+    private long[] matriculas = new long[16];
+    private int[] nomes = new int[16];
+    private int[] dias = new int[16];
+    private long[] telefones = new long[16];
+    private long[] cpfs = new long[16];
+
+    // Slots ainda não usados começam em proximoSlot; os liberados são reaproveitados
+    private int proximoSlot;
+    private int[] livres = new int[16];
+    private int quantidadeLivres;
+
+    private final ColunaTexto codigosMatricula = new ColunaTexto();
+    private final ColunaTexto codigosTelefone = new ColunaTexto();
+    private final ColunaTexto codigosCpf = new ColunaTexto();
+    private final ArenaNomes arena = new ArenaNomes();
+    private long descartados;
+
+    // Matrícula → slot: pelo código da matrícula ou, fora de máscara, pelo texto
+    private final TabelaLongInt slotPorMatricula = new TabelaLongInt();
+    private final Map<String, Integer> slotPorMatriculaTexto = new ConcurrentHashMap<>();
+
+    // Dígitos do CPF → slot, como o índice de CPF normalizado do ArmazemObjetos
+    private final TabelaLongInt slotPorCpf = new TabelaLongInt();
+    private final Map<String, Integer> slotPorCpfTexto = new ConcurrentHashMap<>();
+
+    // Dígitos do CPF → demais slots com o mesmo CPF (só o CSV carregado pode repeti-lo)
+    private final Map<String, List<Integer>> outrosSlotsCpf = new HashMap<>();
+
+    private final IndiceOrdenadoCompacto porNome;
+    private final IndiceOrdenadoCompacto porMatricula;
+    private final IndiceOrdenadoCompacto porIdade;
+    private final BuscaNomes buscaNomes = new BuscaNomes();
+
+    ArmazemColunar() {
+        // Mesmos critérios do ArmazemObjetos; o slot só desempata alunos sem matrícula
+        porNome = new IndiceOrdenadoCompacto((a, b) -> {
+            int c = compararNomes(nomes[a], arena.bytes, nomes[b]);
+            return c != 0 ? c : desempatar(a, b);
+        });
+        porMatricula = new IndiceOrdenadoCompacto(this::desempatar);
+        porIdade = new IndiceOrdenadoCompacto((a, b) -> {
+            int c = Integer.compare(dias[b], dias[a]);
+            return c != 0 ? c : desempatar(a, b);
+        });
+    }
+
+    // ==================== CONSULTAS ====================
+
+    @Override
+    public int tamanho() {
+        return tamanho;
+    }
+
+    @Override
+    public Aluno obter(String matricula) {
+        int slot = slot(matricula);
+        return slot < 0 ? null : materializar(slot);
+    }
+
+    @Override
+    public boolean contemMatricula(String matricula) {
+        return slot(matricula) >= 0;
+    }
+
+    @Override
+    public boolean contemCpf(String cpf) {
+        return slotDoCpf(cpf) >= 0;
+    }
+
+    /**
+     * Como no ArmazemObjetos, um CPF repetido no CSV não barra nenhum dos donos.
+     */
+    @Override
+    public boolean cpfDeOutroAluno(String cpf, String matricula) {
+        int dono = slotDoCpf(cpf);
+        int slot = slot(matricula);
+        if (dono < 0 || dono == slot) {
+            return false;
+        }
+        List<Integer> outros = outrosSlotsCpf.get(digitos(cpf));
+        return outros == null || !outros.contains(slot);
+    }
+
+    @Override
+    public List<Aluno> intervalo(OrdemListagem ordemListagem, int inicio, int quantidade) {
+        int primeiro = Math.max(0, inicio);
+        int fim = (int) Math.min(tamanho, (long) primeiro + quantidade);
+        List<Aluno> resultado = new ArrayList<>(Math.max(0, fim - primeiro));
+
+        if (ordemListagem == OrdemListagem.INSERCAO) {
+            for (int i = primeiro; i < fim; i++) {
+                resultado.add(materializar(ordem[i]));
+            }
+        } else {
+            indice(ordemListagem).percorrer(primeiro, fim, slot -> resultado.add(materializar(slot)));
+        }
+        return resultado;
+    }
+
+    @Override
+    public List<Aluno> copia(OrdemListagem ordemListagem) {
+        int[] slots;
+        if (ordemListagem == OrdemListagem.INSERCAO) {
+            slots = Arrays.copyOf(ordem, tamanho);
+        } else {
+            int[] ordenados = new int[tamanho];
+            int[] proximo = new int[1];
+            indice(ordemListagem).percorrer(0, tamanho, slot -> ordenados[proximo[0]++] = slot);
+            slots = ordenados;
+        }
+        return new CopiaColunar(this, slots);
+    }
+
+    @Override
+    public List<Aluno> maisNovos(int k) {
+        int comData = porIdade.contar(slot -> dias[slot] != Aluno.SEM_DATA);
+        return slotsParaAlunos(porIdade, 0, Math.min(comData, Math.max(0, k)));
+    }
+
+    @Override
+    public List<Aluno> maisVelhos(int k) {
+        int comData = porIdade.contar(slot -> dias[slot] != Aluno.SEM_DATA);
+        List<Aluno> alunos = slotsParaAlunos(porIdade, comData - Math.min(comData, Math.max(0, k)), comData);
+        Collections.reverse(alunos);
+        return alunos;
+    }
+
+    @Override
+    public List<Aluno> nascidosEntre(int primeiroDia, int ultimoDia) {
+        // O índice está em ordem decrescente de nascimento
+        int inicio = porIdade.contar(slot -> dias[slot] > ultimoDia);
+        int fim = porIdade.contar(slot -> dias[slot] >= primeiroDia);
+        return slotsParaAlunos(porIdade, inicio, fim);
+    }
+
+    @Override
+    public List<Aluno> porNome(String de, String ate) {
+        byte[] inicio = de == null ? null : ArenaNomes.registro(de);
+        // Maior que qualquer nome que comece com o prefixo
+        byte[] fim = ArenaNomes.registro(ate + Character.MAX_VALUE);
+        byte[] bytes = arena.bytes;
+
+        int primeiro = inicio == null ? 0 : porNome.contar(slot -> compararNome(nomes[slot], bytes, inicio) < 0);
+        int ultimo = porNome.contar(slot -> compararNome(nomes[slot], bytes, fim) < 0);
+        return slotsParaAlunos(porNome, primeiro, ultimo);
+    }
+
+    @Override
+    public List<Aluno> porMatricula(String de, String ate) {
+        int primeiro = porMatricula.contar(slot -> codigosMatricula.comparar(matriculas[slot], de) < 0);
+        int ultimo = porMatricula.contar(slot -> codigosMatricula.comparar(matriculas[slot], ate) <= 0);
+        return slotsParaAlunos(porMatricula, primeiro, ultimo);
+    }
+
+    @Override
+    public List<Aluno> buscarPorNome(String texto, int limite) {
+        return buscaNomes.buscar(texto, limite);
+    }
+
+    private IndiceOrdenadoCompacto indice(OrdemListagem ordemListagem) {
+        switch (ordemListagem) {
+            case NOME:
+                return porNome;
+            case MATRICULA:
+                return porMatricula;
+            default:
+                return porIdade;
+        }
+    }
+
+    private List<Aluno> slotsParaAlunos(IndiceOrdenadoCompacto indice, int inicio, int fim) {
+        List<Aluno> alunos = new ArrayList<>(Math.max(0, Math.min(fim - inicio, 1024)));
+        indice.percorrer(inicio, fim, slot -> alunos.add(materializar(slot)));
+        return alunos;
+    }
+
+    /**
+     * Monta um Aluno com os valores atuais do slot.
+     */
+    private Aluno materializar(int slot) {
+        return montar(codigosMatricula.decodificar(matriculas[slot]), arena.texto(nomes[slot]), dias[slot],
+                codigosTelefone.decodificar(telefones[slot]), codigosCpf.decodificar(cpfs[slot]));
+    }
+
+    private static Aluno montar(String matricula, String nome, int dia, String telefone, String cpf) {
+        Aluno aluno = new Aluno();
+        aluno.setMatricula(matricula);
+        aluno.setNome(nome);
+        aluno.setDiaNascimento(dia);
+        aluno.setTelefone(telefone);
+        aluno.setCpf(cpf);
+        aluno.calcularIdade();
+        return aluno;
+    }
+
+    // ==================== ALTERAÇÕES ====================
+
+    @Override
+    public void inserir(int posicao, Aluno aluno) {
+        int slot = novoSlot();
+        matriculas[slot] = codigosMatricula.codificar(aluno.getMatricula());
+        // Um slot reaproveitado ainda tem os códigos do aluno anterior
+        telefones[slot] = ColunaTexto.NULO;
+        cpfs[slot] = ColunaTexto.NULO;
+        gravarDados(slot, aluno);
+
+        if (tamanho == ordem.length) {
+            ordem = Arrays.copyOf(ordem, tamanho + (tamanho >> 1));
+        }
+        System.arraycopy(ordem, posicao, ordem, posicao + 1, tamanho - posicao);
+        ordem[posicao] = slot;
+        tamanho++;
+
+        long codigo = matriculas[slot];
+        if (codigo >= 0) {
+            slotPorMatricula.colocar(codigo, slot);
+        } else if (codigo != ColunaTexto.NULO) {
+            slotPorMatriculaTexto.put(aluno.getMatricula(), slot);
+        }
+        indexarDados(slot);
+    }
+
+    @Override
+    public Aluno atualizar(Aluno dados) {
+        int slot = slot(dados.getMatricula());
+        if (slot < 0) {
+            return null;
+        }
+        int nome = nomes[slot];
+        long telefone = telefones[slot];
+        long cpf = cpfs[slot];
+        desindexarDados(slot);
+        gravarDados(slot, dados);
+        // Só conta como descartado o texto que mudou
+        descartar(nomes[slot] == nome ? SEM_NOME : nome, telefones[slot] == telefone ? ColunaTexto.NULO : telefone,
+                cpfs[slot] == cpf ? ColunaTexto.NULO : cpf);
+        indexarDados(slot);
+        compactarSeNecessario();
+        return materializar(slot);
+    }
+
+    @Override
+    public void remover(Aluno aluno, BiFunction<List<Aluno>, Aluno, List<Aluno>> retirada) {
+        retirada.apply(new ListaCadastro(), aluno);
+    }
+
+    /**
+     * Tira o aluno da posição da ordem de cadastro, dos índices e das colunas.
+     */
+    private void retirar(int posicao) {
+        int slot = ordem[posicao];
+        System.arraycopy(ordem, posicao + 1, ordem, posicao, tamanho - posicao - 1);
+        tamanho--;
+
+        long codigo = matriculas[slot];
+        if (codigo >= 0) {
+            slotPorMatricula.remover(codigo, slot);
+        } else if (codigo != ColunaTexto.NULO) {
+            String matricula = codigosMatricula.decodificar(codigo);
+            slotPorMatriculaTexto.remove(matricula, slot);
+            descartados += matricula.length();
+        }
+        desindexarDados(slot);
+        descartar(nomes[slot], telefones[slot], cpfs[slot]);
+
+        if (quantidadeLivres == livres.length) {
+            livres = Arrays.copyOf(livres, quantidadeLivres * 2);
+        }
+        livres[quantidadeLivres++] = slot;
+        compactarSeNecessario();
+    }
+
+    @Override
+    public void limpar() {
+        // Vetores novos em vez de apagar os atuais: as cópias continuam válidas
+        ordem = new int[16];
+        tamanho = 0;
+        matriculas = new long[16];
+        nomes = new int[16];
+        dias = new int[16];
+        telefones = new long[16];
+        cpfs = new long[16];
+        proximoSlot = 0;
+        livres = new int[16];
+        quantidadeLivres = 0;
+
+        codigosMatricula.limpar();
+        codigosTelefone.limpar();
+        codigosCpf.limpar();
+        arena.limpar();
+        descartados = 0;
+
+        slotPorMatricula.limpar();
+        slotPorMatriculaTexto.clear();
+        slotPorCpf.limpar();
+        slotPorCpfTexto.clear();
+        outrosSlotsCpf.clear();
+        porNome.limpar();
+        porMatricula.limpar();
+        porIdade.limpar();
+        buscaNomes.limpar();
+    }
+
+    private int novoSlot() {
+        if (quantidadeLivres > 0) {
+            return livres[--quantidadeLivres];
+        }
+        if (proximoSlot == matriculas.length) {
+            int capacidade = proximoSlot + (proximoSlot >> 1);
+            matriculas = Arrays.copyOf(matriculas, capacidade);
+            nomes = Arrays.copyOf(nomes, capacidade);
+            dias = Arrays.copyOf(dias, capacidade);
+            telefones = Arrays.copyOf(telefones, capacidade);
+            cpfs = Arrays.copyOf(cpfs, capacidade);
+        }
+        return proximoSlot++;
+    }
+
+    /**
+     * Grava no slot os campos que podem mudar (todos menos a matrícula). Um
+     * texto igual ao que o slot já tem mantém o código (e o nome, a posição).
+     */
+    private void gravarDados(int slot, Aluno aluno) {
+        nomes[slot] = aluno.getNome() == null ? SEM_NOME : arena.guardar(aluno.getNome());
+        dias[slot] = aluno.getDiaNascimento();
+        telefones[slot] = codigosTelefone.codificar(aluno.getTelefone(), telefones[slot]);
+        cpfs[slot] = codigosCpf.codificar(aluno.getCpf(), cpfs[slot]);
+    }
+
+    /**
+     * Contabiliza o espaço que um nome e textos fora de máscara deixam de
+     * usar na arena e nas colunas (SEM_NOME e NULO não contam).
+     */
+    private void descartar(int nome, long telefone, long cpf) {
+        if (nome != SEM_NOME) {
+            descartados += ArenaNomes.ocupados(arena.bytes, nome) + ArenaNomes.CABECALHO;
+        }
+        descartados += codigosTelefone.tamanhoForaDeMascara(telefone);
+        descartados += codigosCpf.tamanhoForaDeMascara(cpf);
+    }
+
+    /**
+     * Registra o slot nos índices que dependem de campos alteráveis.
+     */
+    private void indexarDados(int slot) {
+        String cpf = codigosCpf.decodificar(cpfs[slot]);
+        if (chaveCpf(cpf) != CPF_SEM_DIGITOS) {
+            int dono = slotDoCpf(cpf);
+            if (dono < 0) {
+                indexarCpf(cpf, slot);
+            } else if (dono != slot) {
+                outrosSlotsCpf.computeIfAbsent(digitos(cpf), c -> new ArrayList<>()).add(slot);
+            }
+        }
+
+        porNome.adicionar(slot);
+        porMatricula.adicionar(slot);
+        porIdade.adicionar(slot);
+        buscaNomes.adicionar(slot);
+    }
+
+    private void desindexarDados(int slot) {
+        String cpf = codigosCpf.decodificar(cpfs[slot]);
+        long chave = chaveCpf(cpf);
+        if (chave != CPF_SEM_DIGITOS) {
+            String digitos = digitos(cpf);
+            List<Integer> outros = outrosSlotsCpf.get(digitos);
+            if (slotDoCpf(cpf) == slot) {
+                if (chave >= 0) {
+                    slotPorCpf.remover(chave, slot);
+                } else {
+                    slotPorCpfTexto.remove(digitos, slot);
+                }
+                // O CPF continua em uso enquanto houver outro dono
+                if (outros != null) {
+                    indexarCpf(cpf, outros.remove(0));
+                }
+            } else if (outros != null) {
+                outros.remove(Integer.valueOf(slot));
+            }
+            if (outros != null && outros.isEmpty()) {
+                outrosSlotsCpf.remove(digitos);
+            }
+        }
+
+        porNome.remover(slot);
+        porMatricula.remover(slot);
+        porIdade.remover(slot);
+        buscaNomes.remover(slot);
+    }
+
+    private void indexarCpf(String cpf, int slot) {
+        long chave = chaveCpf(cpf);
+        if (chave >= 0) {
+            slotPorCpf.colocar(chave, slot);
+        } else {
+            slotPorCpfTexto.put(digitos(cpf), slot);
+        }
+    }
+
+    /**
+     * Refaz a arena e as listas de textos fora de máscara só com o que os
+     * alunos atuais usam, quando o descartado passa da metade do usado.
+     */
+    private void compactarSeNecessario() {
+        long limite = Math.max(MINIMO_COMPACTACAO, Math.max(arena.usado / 2, tamanho));
+        if (descartados <= limite) {
+            return;
+        }
+
+        byte[] nomesAntigos = arena.bytes;
+        arena.limpar();
+        String[] telefonesAntigos = codigosTelefone.recomecarTextos();
+        String[] cpfsAntigos = codigosCpf.recomecarTextos();
+        String[] matriculasAntigas = codigosMatricula.recomecarTextos();
+
+        for (int i = 0; i < tamanho; i++) {
+            int slot = ordem[i];
+            if (nomes[slot] != SEM_NOME) {
+                nomes[slot] = arena.guardar(nomesAntigos, nomes[slot]);
+            }
+            telefones[slot] = codigosTelefone.recodificar(telefones[slot], telefonesAntigos);
+            cpfs[slot] = codigosCpf.recodificar(cpfs[slot], cpfsAntigos);
+            // O índice de matrículas fora de máscara é pelo texto: não muda
+            matriculas[slot] = codigosMatricula.recodificar(matriculas[slot], matriculasAntigas);
+        }
+        descartados = 0;
+    }
+
+    // ==================== CHAVES ====================
+
+    /**
+     * Slot do aluno com a matrícula, ou -1.
+     */
+    private int slot(String matricula) {
+        if (matricula == null) {
+            return -1;
+        }
+        long codigo = codigosMatricula.empacotar(matricula, false);
+        if (codigo >= 0) {
+            return slotPorMatricula.obter(codigo);
+        }
+        Integer slot = slotPorMatriculaTexto.get(matricula);
+        return slot == null ? -1 : slot;
+    }
+
+    private int slotDoCpf(String cpf) {
+        long chave = chaveCpf(cpf);
+        if (chave >= 0) {
+            return slotPorCpf.obter(chave);
+        }
+        if (chave == CPF_LONGO) {
+            Integer slot = slotPorCpfTexto.get(digitos(cpf));
+            return slot == null ? -1 : slot;
+        }
+        return -1;
+    }
+
+    private static final long CPF_SEM_DIGITOS = -1;
+    private static final long CPF_LONGO = -2;
+
+    /**
+     * Dígitos do CPF em um long (quantidade de dígitos nos bits altos, para
+     * que zeros à esquerda contem), CPF_SEM_DIGITOS ou CPF_LONGO (mais de
+     * 17 dígitos, indexado pelo texto dos dígitos).
+     */
+    private static long chaveCpf(String cpf) {
+        if (cpf == null) {
+            return CPF_SEM_DIGITOS;
+        }
+        long valor = 0;
+        int quantidade = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++quantidade > ColunaTexto.MAXIMO_DIGITOS) {
+                    return CPF_LONGO;
+                }
+                valor = valor * 10 + (c - '0');
+            }
+        }
+        return quantidade == 0 ? CPF_SEM_DIGITOS : (long) quantidade << ColunaTexto.BITS_VALOR | valor;
+    }
+
+    private static String digitos(String texto) {
+        StringBuilder digitos = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos.append(c);
+            }
+        }
+        return digitos.toString();
+    }
+
+    // ==================== COMPARAÇÕES ====================
+
+    /**
+     * Matrícula e, para alunos sem matrícula, o slot.
+     */
+    private int desempatar(int a, int b) {
+        int c = codigosMatricula.comparar(matriculas[a], matriculas[b]);
+        return c != 0 ? c : Integer.compare(a, b);
+    }
+
+    private static int compararNomes(int a, byte[] bytes, int b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == SEM_NOME || b == SEM_NOME) {
+            return a == SEM_NOME ? -1 : 1;
+        }
+        return compararNomes(bytes, a, bytes, b);
+    }
+
+    /**
+     * Compara o nome da posição com um registro de ArenaNomes.registro.
+     */
+    private static int compararNome(int posicao, byte[] bytes, byte[] registro) {
+        if (posicao == SEM_NOME) {
+            return -1;
+        }
+        return compararNomes(bytes, posicao, registro, ArenaNomes.CABECALHO);
+    }
+
+    /**
+     * Mesma ordem de String.CASE_INSENSITIVE_ORDER seguida da ordem natural,
+     * sem criar as Strings.
+     */
+    private static int compararNomes(byte[] a, int inicioA, byte[] b, int inicioB) {
+        int tamanhoA = ArenaNomes.comprimento(a, inicioA);
+        int tamanhoB = ArenaNomes.comprimento(b, inicioB);
+        boolean largoA = ArenaNomes.largo(a, inicioA);
+        boolean largoB = ArenaNomes.largo(b, inicioB);
+        int n = Math.min(tamanhoA, tamanhoB);
+        int natural = 0;
+        for (int i = 0; i < n; i++) {
+            char c1 = ArenaNomes.caractere(a, inicioA, largoA, i);
+            char c2 = ArenaNomes.caractere(b, inicioB, largoB, i);
+            if (c1 == c2) {
+                continue;
+            }
+            if (natural == 0) {
+                natural = c1 - c2;
+            }
+            c1 = Character.toUpperCase(c1);
+            c2 = Character.toUpperCase(c2);
+            if (c1 != c2) {
+                c1 = Character.toLowerCase(c1);
+                c2 = Character.toLowerCase(c2);
+                if (c1 != c2) {
+                    return c1 - c2;
+                }
+            }
+        }
+        if (tamanhoA != tamanhoB) {
+            return tamanhoA - tamanhoB;
+        }
+        return natural;
+    }
+
+    // ==================== VISÕES DA LISTA ====================
+
+    /**
+     * Lista na ordem de cadastro entregue a quem retira o aluno (ex.:
+     * AlunoDAO.removerAluno). A remoção tira o aluno de tudo.
+     */
+    private final class ListaCadastro extends AbstractList<Aluno> implements RandomAccess {
+
+        @Override
+        public Aluno get(int posicao) {
+            if (posicao < 0 || posicao >= tamanho) {
+                throw new IndexOutOfBoundsException("Posição: " + posicao + ", tamanho: " + tamanho);
+            }
+            return materializar(ordem[posicao]);
+        }
+
+        @Override
+        public int size() {
+            return tamanho;
+        }
+
+        // Pelo índice de matrícula, sem montar os alunos da lista
+        @Override
+        public int indexOf(Object objeto) {
+            int slot = objeto instanceof Aluno ? slot(((Aluno) objeto).getMatricula()) : -1;
+            for (int i = 0; slot >= 0 && i < tamanho; i++) {
+                if (ordem[i] == slot) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean remove(Object objeto) {
+            int posicao = indexOf(objeto);
+            if (posicao < 0) {
+                return false;
+            }
+            retirar(posicao);
+            return true;
+        }
+
+        @Override
+        public Aluno remove(int posicao) {
+            Aluno removido = get(posicao);
+            retirar(posicao);
+            return removido;
+        }
+    }
+
+    /**
+     * Cópia dos alunos de um momento: guarda os valores das colunas e as
+     * referências à arena e aos textos daquele momento, que o armazém nunca
+     * altera no lugar (só acrescenta ou troca por vetores novos). Os alunos
+     * são montados a cada get(), em vez de ficarem todos na memória.
+     */
+    private static final class CopiaColunar extends AbstractList<Aluno> implements RandomAccess {
+
+        private final long[] matriculas;
+        private final int[] nomes;
+        private final int[] dias;
+        private final long[] telefones;
+        private final long[] cpfs;
+        private final byte[] bytesNomes;
+        private final ColunaTexto.Leitor leitorMatricula;
+        private final ColunaTexto.Leitor leitorTelefone;
+        private final ColunaTexto.Leitor leitorCpf;
+
+        CopiaColunar(ArmazemColunar armazem, int[] slots) {
+            int quantidade = slots.length;
+            matriculas = new long[quantidade];
+            nomes = new int[quantidade];
+            dias = new int[quantidade];
+            telefones = new long[quantidade];
+            cpfs = new long[quantidade];
+            for (int i = 0; i < quantidade; i++) {
+                int slot = slots[i];
+                matriculas[i] = armazem.matriculas[slot];
+                nomes[i] = armazem.nomes[slot];
+                dias[i] = armazem.dias[slot];
+                telefones[i] = armazem.telefones[slot];
+                cpfs[i] = armazem.cpfs[slot];
+            }
+            bytesNomes = armazem.arena.bytes;
+            leitorMatricula = armazem.codigosMatricula.leitor();
+            leitorTelefone = armazem.codigosTelefone.leitor();
+            leitorCpf = armazem.codigosCpf.leitor();
+        }
+
+        @Override
+        public Aluno get(int i) {
+            return montar(leitorMatricula.texto(matriculas[i]), ArenaNomes.texto(bytesNomes, nomes[i]), dias[i],
+                    leitorTelefone.texto(telefones[i]), leitorCpf.texto(cpfs[i]));
+        }
+
+        @Override
+        public int size() {
+            return matriculas.length;
+        }
+    }
+
+    // ==================== BUSCA POR NOME ====================
+
+    /**
+     * Mesma busca do IndiceNomes (trigramas do nome normalizado), com slots
+     * no lugar dos objetos. Os nomes normalizados não são guardados: cada
+     * candidato é normalizado a partir da arena na hora da conferência.
+     */
+    private final class BuscaNomes {
+
+        private static final int MINIMO_COMPACTACAO = 1024;
+
+        // Slot de cada número (-1 = removido) e número de cada slot (-1 = fora)
+        private int[] slots = new int[16];
+        private int[] numeros = semNumeros(16);
+        private int proximo;
+        private int removidos;
+
+        private IndiceNomes.TabelaTrigramas trigramas = new IndiceNomes.TabelaTrigramas();
+
+        void adicionar(int slot) {
+            if (slot >= numeros.length) {
+                int[] maior = semNumeros(Math.max(slot + 1, numeros.length * 2));
+                System.arraycopy(numeros, 0, maior, 0, numeros.length);
+                numeros = maior;
+            }
+            if (proximo == slots.length) {
+                slots = Arrays.copyOf(slots, proximo * 2);
+            }
+
+            int numero = proximo++;
+            String nome = IndiceNomes.normalizar(arena.texto(nomes[slot]));
+            slots[numero] = slot;
+            numeros[slot] = numero;
+            trigramas.adicionar(nome, numero);
+        }
+
+        void remover(int slot) {
+            int numero = slot < numeros.length ? numeros[slot] : -1;
+            if (numero < 0) {
+                return;
+            }
+            trigramas.remover(IndiceNomes.normalizar(arena.texto(nomes[slot])));
+            slots[numero] = -1;
+            numeros[slot] = -1;
+            removidos++;
+
+            if (removidos > MINIMO_COMPACTACAO && removidos > proximo / 2) {
+                compactar();
+            }
+        }
+
+        void limpar() {
+            slots = new int[16];
+            numeros = semNumeros(16);
+            proximo = 0;
+            removidos = 0;
+            trigramas = new IndiceNomes.TabelaTrigramas();
+        }
+
+        List<Aluno> buscar(String texto, int limite) {
+            List<Aluno> resultado = new ArrayList<>();
+            String procurado = IndiceNomes.normalizar(texto);
+            if (procurado.isEmpty() || limite <= 0) {
+                return resultado;
+            }
+
+            List<Aluno> noMeio = new ArrayList<>();
+            trigramas.percorrerCandidatos(procurado, numero -> {
+                classificar(numero, procurado, resultado, noMeio, limite);
+                return resultado.size() < limite;
+            });
+
+            for (int i = 0; i < noMeio.size() && resultado.size() < limite; i++) {
+                resultado.add(noMeio.get(i));
+            }
+            return resultado;
+        }
+
+        private void classificar(int numero, String procurado, List<Aluno> noInicio, List<Aluno> noMeio, int limite) {
+            int slot = slots[numero];
+            if (slot < 0) {
+                return;
+            }
+            int posicao = IndiceNomes.normalizar(arena.texto(nomes[slot])).indexOf(procurado);
+            if (posicao == 0) {
+                noInicio.add(materializar(slot));
+            } else if (posicao > 0 && noMeio.size() < limite) {
+                noMeio.add(materializar(slot));
+            }
+        }
+
+        /**
+         * Renumera os slots restantes e refaz as listas sem as posições vazias.
+         */
+        private void compactar() {
+            int[] restantes = new int[proximo - removidos];
+            int j = 0;
+            for (int i = 0; i < proximo; i++) {
+                if (slots[i] >= 0) {
+                    restantes[j++] = slots[i];
+                }
+            }
+
+            limpar();
+            for (int slot : restantes) {
+                adicionar(slot);
+            }
+        }
+
+        private int[] semNumeros(int tamanho) {
+            int[] vazios = new int[tamanho];
+            Arrays.fill(vazios, -1);
+            return vazios;
+        }
+    }
+
+    // ==================== ESTRUTURAS ====================
+
+    /**
+     * Codifica os textos de uma coluna em longs. Um texto cujos dígitos
+     * cabem em um long (até 17) vira a máscara do texto, com os dígitos
+     * trocados por um marcador, e o valor dos dígitos:
+     *   bit 63 = 0 | número da máscara (6 bits) | valor dos dígitos (57 bits)
+     * "123.456.789-09" e "(11) 98765-4321" usam uma máscara por formato, e
+     * uma matrícula só com dígitos vira o próprio número. A máscara guarda a
+     * quantidade de dígitos, então zeros à esquerda são preservados e o
+     * texto volta exatamente igual.
+     *
+     * Só um texto em que os dígitos são pelo menos metade dos caracteres cria
+     * máscara: um telefone escrito por extenso ou um texto livre ficaria com
+     * uma máscara só para ele e esgotaria as 64 sem ganho. Esses textos, e os
+     * que não cabem (mais de 17 dígitos ou máscaras esgotadas), ficam em uma
+     * lista, e o código é -1 - posição; null é NULO. Máscaras e textos
+     * só são acrescentados: um código continua válido com os vetores da época
+     * em que foi criado (ver CopiaColunar).
+     */
+    static final class ColunaTexto {
+
+        static final long NULO = Long.MIN_VALUE;
+        static final int BITS_VALOR = 57;
+        static final int MAXIMO_DIGITOS = 17;
+
+        private static final long MASCARA_VALOR = (1L << BITS_VALOR) - 1;
+        private static final int MAXIMO_MASCARAS = 64;
+
+        // Marca a posição de um dígito na máscara; um texto com ele não é empacotado
+        private static final char DIGITO = '\uFFFF';
+
+        private String[] mascaras = new String[4];
+        private int quantidadeMascaras;
+        private String[] textos = new String[4];
+        private int quantidadeTextos;
+
+        long codificar(String texto) {
+            if (texto == null) {
+                return NULO;
+            }
+            long codigo = empacotar(texto, true);
+            if (codigo >= 0) {
+                return codigo;
+            }
+            return -1L - adicionarTexto(texto);
+        }
+
+        /**
+         * Como codificar(texto), mas mantém o código anterior se ele já for do
+         * mesmo texto: um texto fora de máscara não é acrescentado de novo.
+         */
+        long codificar(String texto, long anterior) {
+            if (anterior < 0 && anterior != NULO && decodificar(anterior).equals(texto)) {
+                return anterior;
+            }
+            return codificar(texto);
+        }
+
+        /**
+         * Código do texto com as máscaras existentes (ou com uma nova, se
+         * "criarMascara"), ou -1 se ele não puder ser empacotado.
+         */
+        long empacotar(String texto, boolean criarMascara) {
+            long valor = 0;
+            int digitos = 0;
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    if (++digitos > MAXIMO_DIGITOS) {
+                        return -1;
+                    }
+                    valor = valor * 10 + (c - '0');
+                } else if (c == DIGITO) {
+                    return -1;
+                }
+            }
+
+            int mascara = mascara(texto);
+            if (mascara < 0) {
+                if (!criarMascara || quantidadeMascaras == MAXIMO_MASCARAS || digitos * 2 < texto.length()) {
+                    return -1;
+                }
+                mascara = novaMascara(texto);
+            }
+            return (long) mascara << BITS_VALOR | valor;
+        }
+
+        String decodificar(long codigo) {
+            return texto(codigo, mascaras, textos);
+        }
+
+        /**
+         * Compara os textos de dois códigos como String.compareTo, com null
+         * antes de tudo. Na mesma máscara basta comparar os dígitos.
+         */
+        int comparar(long a, long b) {
+            if (a >= 0 && b >= 0 && (a >>> BITS_VALOR) == (b >>> BITS_VALOR)) {
+                return Long.compare(a, b);
+            }
+            return comparar(a, decodificar(b));
+        }
+
+        int comparar(long codigo, String texto) {
+            if (codigo == NULO || texto == null) {
+                return codigo == NULO ? (texto == null ? 0 : -1) : 1;
+            }
+            if (codigo >= 0) {
+                long outro = empacotar(texto, false);
+                if (outro >= 0 && (outro >>> BITS_VALOR) == (codigo >>> BITS_VALOR)) {
+                    return Long.compare(codigo, outro);
+                }
+            }
+            return decodificar(codigo).compareTo(texto);
+        }
+
+        /**
+         * Caracteres que o texto do código ocupa na lista de textos (0 se
+         * estiver empacotado).
+         */
+        int tamanhoForaDeMascara(long codigo) {
+            return codigo < 0 && codigo != NULO ? decodificar(codigo).length() : 0;
+        }
+
+        /**
+         * Troca a lista de textos por uma vazia e devolve a antiga, para que
+         * os códigos em uso sejam refeitos com recodificar.
+         */
+        String[] recomecarTextos() {
+            String[] antigos = textos;
+            textos = new String[4];
+            quantidadeTextos = 0;
+            return antigos;
+        }
+
+        long recodificar(long codigo, String[] textosAntigos) {
+            if (codigo >= 0 || codigo == NULO) {
+                return codigo;
+            }
+            return -1L - adicionarTexto(textosAntigos[(int) (-1L - codigo)]);
+        }
+
+        void limpar() {
+            mascaras = new String[4];
+            quantidadeMascaras = 0;
+            textos = new String[4];
+            quantidadeTextos = 0;
+        }
+
+        /**
+         * Leitor com as máscaras e os textos atuais, que continua lendo os
+         * códigos de agora mesmo depois de a coluna mudar.
+         */
+        Leitor leitor() {
+            return new Leitor(mascaras, textos);
+        }
+
+        static final class Leitor {
+
+            private final String[] mascaras;
+            private final String[] textos;
+
+            Leitor(String[] mascaras, String[] textos) {
+                this.mascaras = mascaras;
+                this.textos = textos;
+            }
+
+            String texto(long codigo) {
+                return ColunaTexto.texto(codigo, mascaras, textos);
+            }
+        }
+
+        private static String texto(long codigo, String[] mascaras, String[] textos) {
+            if (codigo == NULO) {
+                return null;
+            }
+            if (codigo < 0) {
+                return textos[(int) (-1L - codigo)];
+            }
+            char[] texto = mascaras[(int) (codigo >>> BITS_VALOR)].toCharArray();
+            long valor = codigo & MASCARA_VALOR;
+            for (int i = texto.length - 1; i >= 0; i--) {
+                if (texto[i] == DIGITO) {
+                    texto[i] = (char) ('0' + valor % 10);
+                    valor /= 10;
+                }
+            }
+            return new String(texto);
+        }
+
+        private int mascara(String texto) {
+            for (int i = 0; i < quantidadeMascaras; i++) {
+                if (combina(mascaras[i], texto)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean combina(String mascara, String texto) {
+            if (mascara.length() != texto.length()) {
+                return false;
+            }
+            for (int i = 0; i < texto.length(); i++) {
+                char m = mascara.charAt(i);
+                char c = texto.charAt(i);
+                if (m == DIGITO ? c < '0' || c > '9' : m != c) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int novaMascara(String texto) {
+            char[] mascara = texto.toCharArray();
+            for (int i = 0; i < mascara.length; i++) {
+                if (mascara[i] >= '0' && mascara[i] <= '9') {
+                    mascara[i] = DIGITO;
+                }
+            }
+            if (quantidadeMascaras == mascaras.length) {
+                mascaras = Arrays.copyOf(mascaras, quantidadeMascaras * 2);
+            }
+            mascaras[quantidadeMascaras] = new String(mascara);
+            return quantidadeMascaras++;
+        }
+
+        private int adicionarTexto(String texto) {
+            if (quantidadeTextos == textos.length) {
+                textos = Arrays.copyOf(textos, quantidadeTextos * 2);
+            }
+            textos[quantidadeTextos] = texto;
+            return quantidadeTextos++;
+        }
+    }
+
+    /**
+     * Nomes em um único vetor de bytes, cada um precedido de um cabeçalho de
+     * 4 bytes (quantidade de caracteres e, no bit mais alto, se o nome usa
+     * dois bytes por caractere) e guardado uma só vez: alunos com o mesmo nome
+     * apontam para a mesma posição. Nomes só com caracteres do Latin-1 (todos
+     * os acentos do português) ocupam um byte por caractere; os demais,
+     * UTF-16. Um nome que deixa de ser usado só é liberado na compactação
+     * (ver compactarSeNecessario), que cria uma arena nova.
+     */
+    private static final class ArenaNomes {
+
+        private static final int CABECALHO = 4;
+        private static final int LARGO = 0x80000000;
+
+        private byte[] bytes = new byte[1024];
+        private int usado;
+
+        // Posição + 1 de cada nome distinto, por hash do conteúdo (0 = vazia)
+        private int[] tabela = new int[256];
+        private int distintos;
+
+        int guardar(String nome) {
+            return guardar(registro(nome), CABECALHO);
+        }
+
+        /**
+         * Guarda o nome que está na posição de outro vetor no mesmo formato
+         * (outra arena ou um registro).
+         */
+        int guardar(byte[] origem, int inicio) {
+            int ocupados = ocupados(origem, inicio);
+            int mascara = tabela.length - 1;
+            int i = espalhar(hash(origem, inicio, ocupados)) & mascara;
+            while (tabela[i] != 0) {
+                int posicao = tabela[i] - 1;
+                if (iguais(bytes, posicao, origem, inicio, ocupados)) {
+                    return posicao;
+                }
+                i = (i + 1) & mascara;
+            }
+
+            if (usado + CABECALHO + ocupados > bytes.length) {
+                bytes = Arrays.copyOf(bytes,
+                        Math.max(bytes.length + (bytes.length >> 1), usado + CABECALHO + ocupados));
+            }
+            System.arraycopy(origem, inicio - CABECALHO, bytes, usado, CABECALHO + ocupados);
+            int posicao = usado + CABECALHO;
+            usado = posicao + ocupados;
+
+            tabela[i] = posicao + 1;
+            if (++distintos * 4 > tabela.length * 3) {
+                crescerTabela();
+            }
+            return posicao;
+        }
+
+        String texto(int posicao) {
+            return texto(bytes, posicao);
+        }
+
+        static String texto(byte[] bytes, int posicao) {
+            if (posicao == SEM_NOME) {
+                return null;
+            }
+            return new String(bytes, posicao, ocupados(bytes, posicao),
+                    largo(bytes, posicao) ? StandardCharsets.UTF_16BE : StandardCharsets.ISO_8859_1);
+        }
+
+        /**
+         * O nome no formato da arena, começando na posição CABECALHO, para
+         * comparar com os nomes guardados (ver compararNomes).
+         */
+        static byte[] registro(String nome) {
+            boolean largo = false;
+            for (int i = 0; i < nome.length() && !largo; i++) {
+                largo = nome.charAt(i) > 0xFF;
+            }
+            byte[] codificado = nome.getBytes(largo ? StandardCharsets.UTF_16BE : StandardCharsets.ISO_8859_1);
+            byte[] registro = new byte[CABECALHO + codificado.length];
+            int cabecalho = nome.length() | (largo ? LARGO : 0);
+            for (int i = 0; i < CABECALHO; i++) {
+                registro[i] = (byte) (cabecalho >>> (8 * (CABECALHO - 1 - i)));
+            }
+            System.arraycopy(codificado, 0, registro, CABECALHO, codificado.length);
+            return registro;
+        }
+
+        static int comprimento(byte[] bytes, int posicao) {
+            return cabecalho(bytes, posicao) & ~LARGO;
+        }
+
+        static boolean largo(byte[] bytes, int posicao) {
+            return (cabecalho(bytes, posicao) & LARGO) != 0;
+        }
+
+        /**
+         * Bytes ocupados pelos caracteres do nome (sem o cabeçalho).
+         */
+        static int ocupados(byte[] bytes, int posicao) {
+            return largo(bytes, posicao) ? comprimento(bytes, posicao) * 2 : comprimento(bytes, posicao);
+        }
+
+        static char caractere(byte[] bytes, int posicao, boolean largo, int i) {
+            if (!largo) {
+                return (char) (bytes[posicao + i] & 0xFF);
+            }
+            return (char) ((bytes[posicao + 2 * i] & 0xFF) << 8 | bytes[posicao + 2 * i + 1] & 0xFF);
+        }
+
+        void limpar() {
+            bytes = new byte[1024];
+            usado = 0;
+            tabela = new int[256];
+            distintos = 0;
+        }
+
+        private static int cabecalho(byte[] bytes, int posicao) {
+            return (bytes[posicao - 4] & 0xFF) << 24 | (bytes[posicao - 3] & 0xFF) << 16
+                    | (bytes[posicao - 2] & 0xFF) << 8 | bytes[posicao - 1] & 0xFF;
+        }
+
+        // O formato é único para cada texto, então nomes iguais têm os mesmos bytes
+        private static boolean iguais(byte[] a, int posicaoA, byte[] b, int posicaoB, int ocupados) {
+            return Arrays.equals(a, posicaoA - CABECALHO, posicaoA + ocupados,
+                    b, posicaoB - CABECALHO, posicaoB + ocupados);
+        }
+
+        private void crescerTabela() {
+            int[] nova = new int[tabela.length * 2];
+            int mascara = nova.length - 1;
+            for (int entrada : tabela) {
+                if (entrada != 0) {
+                    int posicao = entrada - 1;
+                    int i = espalhar(hash(bytes, posicao, ocupados(bytes, posicao))) & mascara;
+                    while (nova[i] != 0) {
+                        i = (i + 1) & mascara;
+                    }
+                    nova[i] = entrada;
+                }
+            }
+            tabela = nova;
+        }
+
+        private static int hash(byte[] origem, int inicio, int ocupados) {
+            int h = cabecalho(origem, inicio);
+            for (int i = 0; i < ocupados; i++) {
+                h = 31 * h + origem[inicio + i];
+            }
+            return h;
+        }
+
+        private static int espalhar(int h) {
+            return (h ^ (h >>> 16)) * 0x9E3779B9;
+        }
+    }
+
+    /**
+     * Tabela hash de long para slot, com endereçamento aberto e chaves
+     * primitivas. A remoção desloca as chaves seguintes em vez de deixar
+     * marcas, então a tabela não se degrada com inclusões e remoções.
+     * Uma consulta durante uma alteração pode errar, mas sempre termina.
+     */
+    private static final class TabelaLongInt {
+
+        private static final long VAZIA = Long.MIN_VALUE;
+
+        private long[] chaves = vazias(1024);
+        private int[] valores = new int[1024];
+        private int tamanho;
+
+        int obter(long chave) {
+            long[] chaves = this.chaves;
+            int[] valores = this.valores;
+            int mascara = chaves.length - 1;
+            int posicao = posicao(chave, mascara);
+            for (int tentativas = 0; tentativas < chaves.length && chaves[posicao] != VAZIA; tentativas++) {
+                if (chaves[posicao] == chave) {
+                    return valores[posicao];
+                }
+                posicao = (posicao + 1) & mascara;
+            }
+            return -1;
+        }
+
+        /**
+         * Remove a chave se ela estiver associada ao valor.
+         */
+        void remover(long chave, int valor) {
+            int mascara = chaves.length - 1;
+            int posicao = posicao(chave, mascara);
+            while (chaves[posicao] != chave) {
+                if (chaves[posicao] == VAZIA) {
+                    return;
+                }
+                posicao = (posicao + 1) & mascara;
+            }
+            if (valores[posicao] != valor) {
+                return;
+            }
+
+            // Puxa para o buraco as chaves seguintes que não estão na posição de origem
+            int buraco = posicao;
+            for (int i = (buraco + 1) & mascara; chaves[i] != VAZIA; i = (i + 1) & mascara) {
+                int origem = posicao(chaves[i], mascara);
+                boolean ficaOnde = buraco <= i ? buraco < origem && origem <= i : buraco < origem || origem <= i;
+                if (!ficaOnde) {
+                    chaves[buraco] = chaves[i];
+                    valores[buraco] = valores[i];
+                    buraco = i;
+                }
+            }
+            chaves[buraco] = VAZIA;
+            tamanho--;
+        }
+
+        void limpar() {
+            chaves = vazias(1024);
+            valores = new int[1024];
+            tamanho = 0;
+        }
+
+        void colocar(long chave, int valor) {
+            int mascara = chaves.length - 1;
+            int posicao = posicao(chave, mascara);
+            while (chaves[posicao] != VAZIA) {
+                if (chaves[posicao] == chave) {
+                    valores[posicao] = valor;
+                    return;
+                }
+                posicao = (posicao + 1) & mascara;
+            }
+            chaves[posicao] = chave;
+            valores[posicao] = valor;
+            if (++tamanho * 4 > chaves.length * 3) {
+                crescer();
+            }
+        }
+
+        private void crescer() {
+            long[] antigasChaves = chaves;
+            int[] antigosValores = valores;
+            long[] novasChaves = vazias(antigasChaves.length * 2);
+            int[] novosValores = new int[antigasChaves.length * 2];
+            int mascara = novasChaves.length - 1;
+            for (int i = 0; i < antigasChaves.length; i++) {
+                if (antigasChaves[i] != VAZIA) {
+                    int posicao = posicao(antigasChaves[i], mascara);
+                    while (novasChaves[posicao] != VAZIA) {
+                        posicao = (posicao + 1) & mascara;
+                    }
+                    novasChaves[posicao] = antigasChaves[i];
+                    novosValores[posicao] = antigosValores[i];
+                }
+            }
+            valores = novosValores;
+            chaves = novasChaves;
+        }
+
+        private static int posicao(long chave, int mascara) {
+            long h = chave * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+
+        private static long[] vazias(int tamanho) {
+            long[] chaves = new long[tamanho];
+            Arrays.fill(chaves, VAZIA);
+            return chaves;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Armazenamento padrão: uma lista de objetos Aluno e índices que apontam
+ * para os mesmos objetos. As consultas devolvem os objetos da lista; uma
+ * atualização troca o objeto por outro, então quem já tinha um aluno continua
+ * com os valores de quando o obteve, nunca com parte dos valores novos.
+ */
+class ArmazemObjetos implements ArmazemAlunos {
+
+    // Lista em memória para armazenar os alunos
+    private List<Aluno> listaAlunos = new ArrayList<>();
+
+    // Índice por matrícula, mantido em sincronia com a lista (busca em O(1), sem trava)
+    private final Map<String, Aluno> indiceMatricula = new ConcurrentHashMap<>();
+
+    // Índice por CPF normalizado (somente dígitos), para rejeitar CPFs repetidos
+    // antes de qualquer acesso ao banco ou ao arquivo
+    private final Map<String, Aluno> indiceCpf = new ConcurrentHashMap<>();
+
+    // Demais alunos com um CPF já indexado (só o CSV carregado pode repeti-lo).
+    // Quando o aluno indexado sai, o primeiro daqui assume o seu lugar no índice
+    private final Map<String, List<Aluno>> outrosDonosCpf = new HashMap<>();
+
+    // Índices ordenados por nome, matrícula e idade, atualizados a cada inclusão
+    // e remoção, para listar em outra ordem sem reordenar a lista principal
+    private final Map<OrdemListagem, IndiceOrdenado> indicesOrdenados = new EnumMap<>(OrdemListagem.class);
+
+    // Índice por trecho do nome (sem diferenciar maiúsculas e acentos) para a busca
+    private final IndiceNomes indiceNomes = new IndiceNomes();
+
+    private static final Comparator<Aluno> POR_NOME = Comparator
+            .comparing(Aluno::getNome, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(Aluno::getNome, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private static final Comparator<Aluno> POR_MATRICULA =
+            Comparator.comparing(Aluno::getMatricula, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    // Idade crescente = dia de nascimento decrescente. Aluno.SEM_DATA é o menor
+    // int possível, então quem não tem data de nascimento vai para o fim
+    private static final Comparator<Aluno> POR_IDADE =
+            (a, b) -> Integer.compare(b.getDiaNascimento(), a.getDiaNascimento());
+
+    // Limite do índice de idade: antes dele estão todos os alunos com data de nascimento
+    private static final Aluno FIM_DATAS_NASCIMENTO = sondaNascimento(Aluno.SEM_DATA);
+
+    ArmazemObjetos() {
+        indicesOrdenados.put(OrdemListagem.NOME, new IndiceOrdenado(POR_NOME));
+        indicesOrdenados.put(OrdemListagem.MATRICULA, new IndiceOrdenado(POR_MATRICULA));
+        indicesOrdenados.put(OrdemListagem.IDADE, new IndiceOrdenado(POR_IDADE));
+    }
+
+    @Override
+    public int tamanho() {
+        return listaAlunos.size();
+    }
+
+    @Override
+    public Aluno obter(String matricula) {
+        return matricula == null ? null : indiceMatricula.get(matricula);
+    }
+
+    @Override
+    public boolean contemMatricula(String matricula) {
+        return matricula != null && indiceMatricula.containsKey(matricula);
+    }
+
+    @Override
+    public boolean contemCpf(String cpf) {
+        String chave = normalizarCpf(cpf);
+        return !chave.isEmpty() && indiceCpf.containsKey(chave);
+    }
+
+    /**
+     * Com o CPF repetido no CSV, nenhum dos donos é barrado por ele: cada um
+     * pode manter o CPF que já tem, mas nenhum outro aluno pode usá-lo.
+     */
+    @Override
+    public boolean cpfDeOutroAluno(String cpf, String matricula) {
+        String chave = normalizarCpf(cpf);
+        Aluno dono = indiceCpf.get(chave);
+        Aluno aluno = obter(matricula);
+        if (dono == null || dono == aluno) {
+            return false;
+        }
+        List<Aluno> outros = outrosDonosCpf.get(chave);
+        return outros == null || outros.stream().noneMatch(outro -> outro == aluno);
+    }
+
+    @Override
+    public void inserir(int posicao, Aluno aluno) {
+        listaAlunos.add(posicao, aluno);
+        indexar(aluno);
+    }
+
+    /**
+     * Troca o aluno por uma cópia dos dados, na mesma posição da lista e nos
+     * índices, sem alterar a instância antiga: quem já a tinha (inclusive uma
+     * leitura otimista em andamento) continua vendo os valores anteriores,
+     * todos do mesmo momento. O índice por matrícula passa direto da instância
+     * antiga para a nova, então uma busca concorrente, que não usa trava,
+     * nunca deixa de encontrar o aluno. Procurar a posição na lista custa O(n).
+     */
+    @Override
+    public Aluno atualizar(Aluno dados) {
+        Aluno existente = obter(dados.getMatricula());
+        if (existente == null) {
+            return null;
+        }
+        Aluno novo = ArmazemAlunos.copiar(dados);
+        desindexarDados(existente);
+        listaAlunos.set(posicaoNaLista(existente), novo);
+        indiceMatricula.put(novo.getMatricula(), novo);
+        indexarDados(novo);
+        return novo;
+    }
+
+    /**
+     * Posição da instância na lista (comparando a referência, não equals).
+     */
+    private int posicaoNaLista(Aluno aluno) {
+        for (int i = 0; i < listaAlunos.size(); i++) {
+            if (listaAlunos.get(i) == aluno) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Aluno fora da lista: " + aluno.getMatricula());
+    }
+
+    /**
+     * A lista guarda a ordem de cadastro (a do CSV e a de inserirNaPosicao),
+     * então tirar um aluno dela desloca os seguintes: O(n), como procurar a
+     * posição em atualizar. Trocar o aluno pelo último, ou a lista por uma
+     * estrutura sem posições, mudaria essa ordem; e a retirada é do AlunoDAO
+     * (REQUISITO 5), que recebe a lista. Os índices saem sem percorrer os alunos.
+     */
+    @Override
+    public void remover(Aluno aluno, BiFunction<List<Aluno>, Aluno, List<Aluno>> retirada) {
+        Aluno existente = obter(aluno.getMatricula());
+        if (existente != null) {
+            listaAlunos = retirada.apply(listaAlunos, existente);
+            desindexar(existente);
+        }
+    }
+
+    @Override
+    public void limpar() {
+        listaAlunos.clear();
+        indiceMatricula.clear();
+        indiceCpf.clear();
+        outrosDonosCpf.clear();
+        for (IndiceOrdenado indice : indicesOrdenados.values()) {
+            indice.limpar();
+        }
+        indiceNomes.limpar();
+    }
+
+    @Override
+    public List<Aluno> intervalo(OrdemListagem ordem, int inicio, int quantidade) {
+        if (ordem != OrdemListagem.INSERCAO) {
+            return indicesOrdenados.get(ordem).intervalo(inicio, quantidade);
+        }
+
+        int primeiro = Math.max(0, inicio);
+        int fim = (int) Math.min(listaAlunos.size(), (long) primeiro + quantidade);
+        if (primeiro >= fim) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(listaAlunos.subList(primeiro, fim));
+    }
+
+    @Override
+    public List<Aluno> copia(OrdemListagem ordem) {
+        return intervalo(ordem, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Aluno> maisNovos(int k) {
+        int comData = alunosComDataNascimento();
+        return indicesOrdenados.get(OrdemListagem.IDADE).intervalo(0, Math.max(0, Math.min(k, comData)));
+    }
+
+    @Override
+    public List<Aluno> maisVelhos(int k) {
+        int comData = alunosComDataNascimento();
+        int quantidade = Math.max(0, Math.min(k, comData));
+        List<Aluno> alunos = indicesOrdenados.get(OrdemListagem.IDADE).intervalo(comData - quantidade, quantidade);
+        Collections.reverse(alunos);
+        return alunos;
+    }
+
+    @Override
+    public List<Aluno> nascidosEntre(int primeiroDia, int ultimoDia) {
+        List<Aluno> alunos = new ArrayList<>();
+        // O índice está em ordem decrescente de nascimento: a faixa vai do
+        // último dia até o dia anterior ao primeiro (que fica de fora)
+        indicesOrdenados.get(OrdemListagem.IDADE)
+                .faixa(sondaNascimento(ultimoDia), sondaNascimento(primeiroDia - 1), alunos);
+        return alunos;
+    }
+
+    @Override
+    public List<Aluno> porNome(String de, String ate) {
+        Aluno inicio = new Aluno();
+        inicio.setNome(de);
+        Aluno fim = new Aluno();
+        // Maior que qualquer nome que comece com o prefixo
+        fim.setNome(ate + Character.MAX_VALUE);
+
+        List<Aluno> alunos = new ArrayList<>();
+        indicesOrdenados.get(OrdemListagem.NOME).faixa(inicio, fim, alunos);
+        return alunos;
+    }
+
+    @Override
+    public List<Aluno> porMatricula(String de, String ate) {
+        Aluno inicio = new Aluno();
+        inicio.setMatricula(de);
+        Aluno fim = new Aluno();
+        fim.setMatricula(ate);
+
+        List<Aluno> alunos = new ArrayList<>();
+        indicesOrdenados.get(OrdemListagem.MATRICULA).faixa(inicio, fim, alunos);
+        return alunos;
+    }
+
+    @Override
+    public List<Aluno> buscarPorNome(String texto, int limite) {
+        return indiceNomes.buscar(texto, limite);
+    }
+
+    // ==================== ÍNDICES ====================
+
+    /**
+     * Registra o aluno nos índices em memória.
+     * Deve ser chamado sempre que um aluno entra na lista.
+     */
+    private void indexar(Aluno aluno) {
+        if (aluno.getMatricula() != null) {
+            indiceMatricula.put(aluno.getMatricula(), aluno);
+        }
+        indexarDados(aluno);
+    }
+
+    /**
+     * Registra o aluno nos índices dos campos que podem mudar (todos menos a matrícula).
+     */
+    private void indexarDados(Aluno aluno) {
+        String cpf = normalizarCpf(aluno.getCpf());
+        if (!cpf.isEmpty()) {
+            Aluno dono = indiceCpf.putIfAbsent(cpf, aluno);
+            if (dono != null && dono != aluno) {
+                outrosDonosCpf.computeIfAbsent(cpf, c -> new ArrayList<>()).add(aluno);
+            }
+        }
+
+        for (IndiceOrdenado indice : indicesOrdenados.values()) {
+            indice.adicionar(aluno);
+        }
+        indiceNomes.adicionar(aluno);
+    }
+
+    /**
+     * Remove o aluno dos índices em memória.
+     * Deve ser chamado sempre que um aluno sai da lista.
+     */
+    private void desindexar(Aluno aluno) {
+        if (aluno.getMatricula() != null) {
+            indiceMatricula.remove(aluno.getMatricula(), aluno);
+        }
+        desindexarDados(aluno);
+    }
+
+    /**
+     * Remove o aluno dos índices dos campos que podem mudar (todos menos a matrícula).
+     */
+    private void desindexarDados(Aluno aluno) {
+        String cpf = normalizarCpf(aluno.getCpf());
+        List<Aluno> outros = outrosDonosCpf.get(cpf);
+        if (indiceCpf.remove(cpf, aluno)) {
+            // O CPF continua em uso enquanto houver outro dono
+            if (outros != null) {
+                indiceCpf.put(cpf, outros.remove(0));
+            }
+        } else if (outros != null) {
+            outros.removeIf(outro -> outro == aluno);
+        }
+        if (outros != null && outros.isEmpty()) {
+            outrosDonosCpf.remove(cpf);
+        }
+
+        for (IndiceOrdenado indice : indicesOrdenados.values()) {
+            indice.remover(aluno);
+        }
+        indiceNomes.remover(aluno);
+    }
+
+    /**
+     * Quantidade de alunos com data de nascimento: eles ocupam o começo do
+     * índice de idade, do mais novo ao mais velho.
+     */
+    private int alunosComDataNascimento() {
+        return indicesOrdenados.get(OrdemListagem.IDADE).contar(FIM_DATAS_NASCIMENTO);
+    }
+
+    /**
+     * Aluno fictício, sem matrícula, usado como limite de busca no índice de
+     * idade: fica antes de todos os alunos nascidos no mesmo dia.
+     */
+    private static Aluno sondaNascimento(int diaNascimento) {
+        Aluno sonda = new Aluno();
+        sonda.setDiaNascimento(diaNascimento);
+        return sonda;
+    }
+
+    /**
+     * Mantém apenas os dígitos do CPF, para que "123.456.789-00" e
+     * "12345678900" sejam tratados como o mesmo documento.
+     */
+    static String normalizarCpf(String cpf) {
+        if (cpf == null) {
+            return "";
+        }
+        StringBuilder digitos = new StringBuilder(11);
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos.append(c);
+            }
+        }
+        return digitos.toString();
+    }
+}
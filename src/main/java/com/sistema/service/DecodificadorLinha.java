@@ -0,0 +1,19 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+
+import java.text.ParseException;
+
+/**
+ * Converte uma linha de um arquivo de importação em aluno
+ * (ex.: AlunoCSVCodec::decodificar, AlunoJsonCodec::decodificar).
+ */
+@FunctionalInterface
+public interface DecodificadorLinha {
+
+    /**
+     * @throws ParseException ou IllegalArgumentException se a linha for inválida;
+     *         a linha é rejeitada com a mensagem da exceção
+     */
+    Aluno decodificar(String linha) throws ParseException;
+}
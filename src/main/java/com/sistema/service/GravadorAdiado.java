@@ -0,0 +1,369 @@
+package com.sistema.service;
+
+import com.sistema.dao.AlunoDAO;
+import com.sistema.metricas.MetricaOperacao;
+import com.sistema.metricas.RegistroMetricas;
+import com.sistema.model.Aluno;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Gravação adiada (write-behind) das alterações do AlunoService.
+ *
+ * As alterações entram em uma fila e são gravadas por uma thread própria quando
+ * a fila chega a LIMITE_PENDENTES alterações ou quando a mais antiga passa de
+ * INTERVALO_MS milissegundos, o que acontecer primeiro.
+ *
+ * - Journal do CSV: as operações são gravadas todas, na ordem em que chegaram,
+ *   pois as inserções em posição dependem da ordem.
+ * - Banco de dados: as alterações de uma mesma matrícula são combinadas (por
+ *   exemplo, inclusão seguida de remoção não gera nenhum comando) e enviadas com
+ *   as operações em lote do AlunoDAO. Remoção seguida de inclusão vira DELETE
+ *   e INSERT, e não UPDATE: a linha pode nunca ter chegado ao banco (uma
+ *   gravação anterior que falhou), e o UPDATE não alteraria nada.
+ *
+ * Uma operação que falha é avisada e contada na métrica gravador/journal (ou
+ * nas métricas do DAO), e a thread segue com as próximas. Se mesmo assim a
+ * thread parar, flush() lança exceção em vez de dar o pendente por gravado.
+ */
+class GravadorAdiado {
+
+    enum Tipo {
+        INCLUSAO, ATUALIZACAO, REMOCAO
+    }
+
+    /**
+     * Última alteração pendente de uma matrícula no banco.
+     */
+    private static class Alteracao {
+
+        private final Tipo tipo;
+        private final Aluno aluno;
+        // Inclusão de uma matrícula removida no mesmo lote: apaga a linha antes de inserir
+        private final boolean substituir;
+
+        Alteracao(Tipo tipo, Aluno aluno, boolean substituir) {
+            this.tipo = tipo;
+            this.aluno = aluno;
+            this.substituir = substituir;
+        }
+    }
+
+    // Grava quando houver esta quantidade de alterações pendentes...
+    private static final int LIMITE_PENDENTES = 500;
+
+    // ...ou quando a alteração mais antiga estiver esperando há este tempo
+    private static final long INTERVALO_MS = 2_000;
+
+    private static final MetricaOperacao METRICA_JOURNAL = RegistroMetricas.operacao("gravador", "journal");
+
+    private final AlunoDAO alunoDAO;
+    private final JournalCSV journal;
+    private final Thread thread;
+
+    // Tudo abaixo é protegido pela trava
+    private final Object trava = new Object();
+    private List<Consumer<JournalCSV>> operacoesJournal = new ArrayList<>();
+    private Map<String, Alteracao> alteracoesBanco = new LinkedHashMap<>();
+    private boolean limparBanco;
+    private long primeiraPendenteEm;
+    private long enfileiradas;
+    private long gravadas;
+    private boolean flushSolicitado;
+    private boolean encerrando;
+    // Erro que parou a thread de gravação (null enquanto ela funciona)
+    private Throwable erroFatal;
+
+    GravadorAdiado(AlunoDAO alunoDAO, JournalCSV journal) {
+        this.alunoDAO = alunoDAO;
+        this.journal = journal;
+        this.thread = new Thread(this::executar, "gravador-alunos");
+        this.thread.setDaemon(true);
+        this.thread.setUncaughtExceptionHandler((t, e) -> {
+            synchronized (trava) {
+                erroFatal = e;
+                trava.notifyAll();
+            }
+            System.err.println("Gravação adiada interrompida: " + e);
+        });
+        this.thread.start();
+    }
+
+    /**
+     * Alterações enfileiradas que ainda não foram gravadas.
+     */
+    long getPendentes() {
+        synchronized (trava) {
+            return enfileiradas - gravadas;
+        }
+    }
+
+    // ==================== ENFILEIRAMENTO ====================
+
+    /**
+     * Enfileira uma alteração de um aluno.
+     *
+     * @param aluno cópia do aluno, que não deve mais ser alterada
+     * @param operacaoJournal registro correspondente no journal do CSV
+     */
+    void registrar(Tipo tipo, Aluno aluno, Consumer<JournalCSV> operacaoJournal) {
+        synchronized (trava) {
+            combinar(tipo, aluno);
+            enfileirarJournal(operacaoJournal);
+        }
+    }
+
+    /**
+     * Enfileira a remoção de todos os alunos do banco. As alterações de banco
+     * ainda pendentes deixam de ter efeito.
+     */
+    void registrarLimpeza(Consumer<JournalCSV> operacaoJournal) {
+        synchronized (trava) {
+            alteracoesBanco.clear();
+            limparBanco = true;
+            enfileirarJournal(operacaoJournal);
+        }
+    }
+
+    /**
+     * Enfileira uma operação que só afeta o journal do CSV (por exemplo, a compactação).
+     */
+    void registrarJournal(Consumer<JournalCSV> operacaoJournal) {
+        synchronized (trava) {
+            enfileirarJournal(operacaoJournal);
+        }
+    }
+
+    private void combinar(Tipo tipo, Aluno aluno) {
+        String matricula = aluno.getMatricula();
+        Alteracao anterior = alteracoesBanco.get(matricula);
+
+        boolean substituir = false;
+
+        if (anterior != null) {
+            if (anterior.tipo == Tipo.INCLUSAO && tipo == Tipo.REMOCAO && !anterior.substituir) {
+                // Nunca chegou ao banco: não há nada a gravar
+                alteracoesBanco.remove(matricula);
+                return;
+            }
+            if (anterior.tipo == Tipo.INCLUSAO && tipo != Tipo.REMOCAO) {
+                // Inclusão seguida de atualização continua sendo uma inclusão
+                tipo = Tipo.INCLUSAO;
+                substituir = anterior.substituir;
+            } else if (anterior.tipo == Tipo.REMOCAO && tipo == Tipo.INCLUSAO) {
+                // Apaga a linha que houver no banco e insere a nova
+                substituir = true;
+            }
+        }
+
+        alteracoesBanco.put(matricula, new Alteracao(tipo, aluno, substituir));
+    }
+
+    private void enfileirarJournal(Consumer<JournalCSV> operacaoJournal) {
+        if (operacoesJournal.isEmpty()) {
+            primeiraPendenteEm = System.currentTimeMillis();
+        }
+        operacoesJournal.add(operacaoJournal);
+        enfileiradas++;
+        trava.notifyAll();
+    }
+
+    // ==================== GRAVAÇÃO ====================
+
+    /**
+     * Bloqueia até que tudo o que foi enfileirado antes da chamada esteja gravado.
+     *
+     * @throws IllegalStateException se a thread de gravação parou com
+     *         alterações ainda pendentes, que não serão gravadas
+     */
+    void flush() {
+        synchronized (trava) {
+            long alvo = enfileiradas;
+            flushSolicitado = true;
+            trava.notifyAll();
+
+            while (gravadas < alvo) {
+                if (erroFatal != null || !thread.isAlive()) {
+                    throw new IllegalStateException("A gravação adiada parou com " + (alvo - gravadas)
+                            + " alterações pendentes", erroFatal);
+                }
+                try {
+                    // Com tempo: a thread pode terminar sem avisar (encerrar)
+                    trava.wait(INTERVALO_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Grava o que estiver pendente e encerra a thread de gravação.
+     */
+    void encerrar() {
+        synchronized (trava) {
+            encerrando = true;
+            trava.notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void executar() {
+        while (true) {
+            List<Consumer<JournalCSV>> operacoes;
+            Map<String, Alteracao> alteracoes;
+            boolean limpar;
+            long sequencia;
+
+            synchronized (trava) {
+                try {
+                    aguardarLote();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                if (operacoesJournal.isEmpty()) {
+                    // Só sai daqui vazio quando está encerrando
+                    return;
+                }
+
+                operacoes = operacoesJournal;
+                alteracoes = alteracoesBanco;
+                limpar = limparBanco;
+                sequencia = enfileiradas;
+
+                operacoesJournal = new ArrayList<>();
+                alteracoesBanco = new LinkedHashMap<>();
+                limparBanco = false;
+                flushSolicitado = false;
+            }
+
+            gravar(operacoes, alteracoes, limpar);
+
+            synchronized (trava) {
+                gravadas = sequencia;
+                trava.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Espera até haver um lote para gravar: fila cheia, tempo esgotado, flush
+     * solicitado ou encerramento.
+     */
+    private void aguardarLote() throws InterruptedException {
+        while (true) {
+            int pendentes = operacoesJournal.size();
+
+            if (pendentes > 0 && (flushSolicitado || encerrando || pendentes >= LIMITE_PENDENTES)) {
+                return;
+            }
+            if (pendentes == 0 && encerrando) {
+                return;
+            }
+
+            if (pendentes == 0) {
+                trava.wait();
+            } else {
+                long restante = primeiraPendenteEm + INTERVALO_MS - System.currentTimeMillis();
+                if (restante <= 0) {
+                    return;
+                }
+                trava.wait(restante);
+            }
+        }
+    }
+
+    private void gravar(List<Consumer<JournalCSV>> operacoes, Map<String, Alteracao> alteracoes, boolean limpar) {
+        // Journal do CSV, na ordem original. Uma operação que falha não impede
+        // as seguintes, nem o banco
+        for (Consumer<JournalCSV> operacao : operacoes) {
+            long inicio = System.nanoTime();
+            try {
+                operacao.accept(journal);
+            } catch (RuntimeException e) {
+                METRICA_JOURNAL.falha();
+                System.err.println("Erro ao gravar no journal do CSV: " + e);
+            } finally {
+                METRICA_JOURNAL.registrar(inicio);
+            }
+        }
+
+        // Banco de dados
+        if (limpar) {
+            try {
+                alunoDAO.removerTodos();
+            } catch (Exception e) {
+                System.err.println("Erro ao remover do banco de dados: " + e.getMessage());
+            }
+        }
+
+        List<String> remocoes = new ArrayList<>();
+        List<Aluno> atualizacoes = new ArrayList<>();
+        List<Aluno> inclusoes = new ArrayList<>();
+
+        for (Alteracao alteracao : alteracoes.values()) {
+            switch (alteracao.tipo) {
+                case REMOCAO:
+                    remocoes.add(alteracao.aluno.getMatricula());
+                    break;
+                case ATUALIZACAO:
+                    atualizacoes.add(alteracao.aluno);
+                    break;
+                default:
+                    if (alteracao.substituir) {
+                        remocoes.add(alteracao.aluno.getMatricula());
+                    }
+                    inclusoes.add(alteracao.aluno);
+                    break;
+            }
+        }
+
+        // Remoções primeiro, para liberar CPFs usados pelas inclusões
+        if (!remocoes.isEmpty()) {
+            try {
+                alunoDAO.removerPorMatriculas(remocoes);
+            } catch (Exception e) {
+                System.err.println("Erro ao remover do banco de dados: " + e.getMessage());
+            }
+        }
+
+        if (!atualizacoes.isEmpty()) {
+            try {
+                alunoDAO.atualizarTodos(atualizacoes);
+            } catch (Exception e) {
+                // Um aluno com problema não deve impedir a gravação dos outros
+                for (Aluno aluno : atualizacoes) {
+                    try {
+                        alunoDAO.atualizar(aluno);
+                    } catch (Exception erro) {
+                        System.err.println("Erro ao atualizar no banco de dados: " + erro.getMessage());
+                    }
+                }
+            }
+        }
+
+        if (!inclusoes.isEmpty()) {
+            try {
+                alunoDAO.salvarTodos(inclusoes);
+            } catch (Exception e) {
+                for (Aluno aluno : inclusoes) {
+                    try {
+                        alunoDAO.salvar(aluno);
+                    } catch (Exception erro) {
+                        System.err.println("Erro ao salvar no banco de dados: " + erro.getMessage());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,555 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Índice de busca por trecho do nome, sem diferenciar maiúsculas nem acentos.
+ *
+ * Cada aluno recebe um número sequencial e o nome normalizado fica em um vetor
+ * nessa posição. Para cada trigrama (três caracteres seguidos) dos nomes há uma
+ * lista crescente com os números dos alunos que o contêm. A busca percorre só
+ * a menor lista entre os trigramas do texto procurado e confirma cada
+ * candidato no nome normalizado. Um texto de um ou dois caracteres percorre,
+ * em ordem, as listas dos trigramas que o contêm (e a dos nomes com menos de
+ * três caracteres), achadas pelo caractere ou par de caracteres sem varrer a
+ * tabela: só os nomes que contêm o texto são conferidos.
+ *
+ * A remoção esvazia a posição do aluno e descarta as listas que ficam sem
+ * nenhum aluno; as demais são refeitas quando metade das posições estiver
+ * vazia.
+ */
+class IndiceNomes {
+
+    // Abaixo disso não vale a pena compactar
+    private static final int MINIMO_COMPACTACAO = 1024;
+
+    // Letras de U+00C0 a U+00FF em minúsculas e sem acento, como faria a
+    // decomposição NFD (Æ, Ø, ß etc. não se decompõem e só passam a minúsculas)
+    private static final String LATIN1_SEM_ACENTOS =
+            "aaaaaaæceeeeiiiiðnooooo×ouuuuyþß" +
+            "aaaaaaæceeeeiiiiðnooooo÷ouuuuyþy";
+
+    private Aluno[] alunos = new Aluno[16];
+    private String[] nomes = new String[16];
+    private int proximo;
+    private int removidos;
+
+    private final Map<Aluno, Integer> numeros = new IdentityHashMap<>();
+    private final TabelaTrigramas trigramas = new TabelaTrigramas();
+
+    void adicionar(Aluno aluno) {
+        if (numeros.containsKey(aluno)) {
+            return;
+        }
+        if (proximo == alunos.length) {
+            alunos = Arrays.copyOf(alunos, proximo * 2);
+            nomes = Arrays.copyOf(nomes, proximo * 2);
+        }
+
+        int numero = proximo++;
+        String nome = normalizar(aluno.getNome());
+        alunos[numero] = aluno;
+        nomes[numero] = nome;
+        numeros.put(aluno, numero);
+        trigramas.adicionar(nome, numero);
+    }
+
+    void remover(Aluno aluno) {
+        Integer numero = numeros.remove(aluno);
+        if (numero == null) {
+            return;
+        }
+        trigramas.remover(nomes[numero]);
+        alunos[numero] = null;
+        nomes[numero] = null;
+        removidos++;
+
+        if (removidos > MINIMO_COMPACTACAO && removidos > proximo / 2) {
+            compactar();
+        }
+    }
+
+    void limpar() {
+        alunos = new Aluno[16];
+        nomes = new String[16];
+        proximo = 0;
+        removidos = 0;
+        numeros.clear();
+        trigramas.limpar();
+    }
+
+    /**
+     * Até "limite" alunos cujo nome contém o texto. Os que começam com o texto
+     * vêm primeiro; dentro de cada grupo, na ordem em que foram indexados.
+     */
+    List<Aluno> buscar(String texto, int limite) {
+        List<Aluno> resultado = new ArrayList<>();
+        String procurado = normalizar(texto);
+        if (procurado.isEmpty() || limite <= 0) {
+            return resultado;
+        }
+
+        List<Aluno> noMeio = new ArrayList<>();
+        trigramas.percorrerCandidatos(procurado, numero -> {
+            classificar(numero, procurado, resultado, noMeio, limite);
+            return resultado.size() < limite;
+        });
+
+        for (int i = 0; i < noMeio.size() && resultado.size() < limite; i++) {
+            resultado.add(noMeio.get(i));
+        }
+        return resultado;
+    }
+
+    private void classificar(int numero, String procurado, List<Aluno> noInicio, List<Aluno> noMeio, int limite) {
+        String nome = nomes[numero];
+        if (nome == null) {
+            return;
+        }
+        int posicao = nome.indexOf(procurado);
+        if (posicao == 0) {
+            noInicio.add(alunos[numero]);
+        } else if (posicao > 0 && noMeio.size() < limite) {
+            noMeio.add(alunos[numero]);
+        }
+    }
+
+    /**
+     * Renumera os alunos restantes e refaz as listas sem as posições vazias.
+     */
+    private void compactar() {
+        Aluno[] restantes = new Aluno[proximo - removidos];
+        int j = 0;
+        for (int i = 0; i < proximo; i++) {
+            if (alunos[i] != null) {
+                restantes[j++] = alunos[i];
+            }
+        }
+
+        limpar();
+        for (Aluno aluno : restantes) {
+            adicionar(aluno);
+        }
+    }
+
+    /**
+     * Os três caracteres em um long. O bit 48 ligado garante que nenhum
+     * trigrama vale 0, o valor de posição vazia da tabela.
+     */
+    static long trigrama(String nome, int inicio) {
+        return 1L << 48 | (long) nome.charAt(inicio) << 32 | (long) nome.charAt(inicio + 1) << 16 | nome.charAt(inicio + 2);
+    }
+
+    /**
+     * Nome em minúsculas, sem acentos e com espaços repetidos reduzidos a um.
+     * Ex.: "  JOÃO  da Conceição" vira "joao da conceicao".
+     */
+    static String normalizar(String nome) {
+        if (nome == null) {
+            return "";
+        }
+
+        // Letras fora do Latin-1 são separadas dos acentos pelo Normalizer;
+        // as demais usam a tabela, bem mais rápida
+        for (int i = 0; i < nome.length(); i++) {
+            if (nome.charAt(i) > 0xFF) {
+                nome = Normalizer.normalize(nome, Normalizer.Form.NFD);
+                break;
+            }
+        }
+
+        StringBuilder normalizado = new StringBuilder(nome.length());
+        boolean espaco = false;
+        for (int i = 0; i < nome.length(); i++) {
+            char c = nome.charAt(i);
+            if (c <= ' ' || Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                espaco = normalizado.length() > 0;
+                continue;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            } else if (c >= 0xC0 && c <= 0xFF) {
+                c = LATIN1_SEM_ACENTOS.charAt(c - 0xC0);
+            } else if (c > 0x7F) {
+                if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                    continue;
+                }
+                c = Character.toLowerCase(c);
+            }
+            if (espaco) {
+                normalizado.append(' ');
+                espaco = false;
+            }
+            normalizado.append(c);
+        }
+        return normalizado.toString();
+    }
+
+    /**
+     * Tabela hash de trigrama para lista de números, com endereçamento aberto
+     * e chaves primitivas (sem criar um Long por consulta), mais as listas dos
+     * nomes curtos e, para os textos de um ou dois caracteres, os trigramas
+     * que contêm cada caractere e cada par de caracteres.
+     */
+    static final class TabelaTrigramas {
+
+        private long[] chaves = new long[1024];
+        private ListaNumeros[] listas = new ListaNumeros[1024];
+        private int tamanho;
+
+        // Nomes com menos de três caracteres, que não têm trigramas
+        private ListaNumeros curtos = new ListaNumeros();
+
+        // Caractere ou par de caracteres (ver trecho) → trigramas que o contêm
+        private final Map<Integer, ChavesTrigramas> trigramasDoTrecho = new ConcurrentHashMap<>();
+
+        /**
+         * Indexa o nome normalizado com o número, maior que os já indexados.
+         */
+        void adicionar(String nome, int numero) {
+            if (nome.length() < 3) {
+                curtos.adicionar(numero);
+                return;
+            }
+            for (int i = 0; i + 3 <= nome.length(); i++) {
+                obterOuCriar(trigrama(nome, i)).adicionar(numero);
+            }
+        }
+
+        /**
+         * Retira um aluno com o nome normalizado das contagens e descarta as
+         * listas que ficam sem nenhum aluno. O número continua nas listas até
+         * a compactação do índice, que refaz tudo.
+         */
+        void remover(String nome) {
+            if (nome.length() < 3) {
+                curtos.vivos--;
+                return;
+            }
+            // Um trigrama repetido no nome entrou uma só vez na lista
+            long[] doNome = new long[nome.length() - 2];
+            for (int i = 0; i < doNome.length; i++) {
+                doNome[i] = trigrama(nome, i);
+            }
+            Arrays.sort(doNome);
+            for (int i = 0; i < doNome.length; i++) {
+                if (i > 0 && doNome[i] == doNome[i - 1]) {
+                    continue;
+                }
+                ListaNumeros lista = obter(doNome[i]);
+                if (lista != null && --lista.vivos == 0) {
+                    retirar(doNome[i]);
+                }
+            }
+        }
+
+        /**
+         * Entrega ao destino, em ordem crescente e sem repetir, os números dos
+         * alunos que podem conter o texto normalizado, até ele devolver false.
+         */
+        void percorrerCandidatos(String procurado, IntPredicate destino) {
+            if (procurado.length() >= 3) {
+                ListaNumeros menor = menorLista(procurado);
+                if (menor != null) {
+                    menor.percorrer(destino);
+                }
+                return;
+            }
+
+            List<ListaNumeros> contem = new ArrayList<>();
+            if (curtos.vivos > 0) {
+                contem.add(curtos);
+            }
+            ChavesTrigramas doTrecho = trigramasDoTrecho.get(trecho(procurado));
+            for (int i = 0; doTrecho != null && i < doTrecho.tamanho; i++) {
+                ListaNumeros lista = obter(doTrecho.chaves[i]);
+                if (lista != null) {
+                    contem.add(lista);
+                }
+            }
+            unir(contem, destino);
+        }
+
+        void limpar() {
+            chaves = new long[1024];
+            listas = new ListaNumeros[1024];
+            tamanho = 0;
+            curtos = new ListaNumeros();
+            trigramasDoTrecho.clear();
+        }
+
+        ListaNumeros obter(long chave) {
+            int posicao = posicao(chaves, chave);
+            return chaves[posicao] == chave ? listas[posicao] : null;
+        }
+
+        private ListaNumeros obterOuCriar(long chave) {
+            int posicao = posicao(chaves, chave);
+            if (chaves[posicao] == chave) {
+                return listas[posicao];
+            }
+            if ((tamanho + 1) * 4 > chaves.length * 3) {
+                crescer();
+                posicao = posicao(chaves, chave);
+            }
+            ListaNumeros lista = new ListaNumeros();
+            listas[posicao] = lista;
+            chaves[posicao] = chave;
+            tamanho++;
+            for (int trecho : trechos(chave)) {
+                trigramasDoTrecho.computeIfAbsent(trecho, t -> new ChavesTrigramas()).adicionar(chave);
+            }
+            return lista;
+        }
+
+        /**
+         * Lista do trigrama menos frequente do texto, ou null se algum trigrama
+         * não aparecer em nenhum nome (nenhum aluno pode conter o texto).
+         */
+        private ListaNumeros menorLista(String procurado) {
+            ListaNumeros menor = null;
+            for (int i = 0; i + 3 <= procurado.length(); i++) {
+                ListaNumeros lista = obter(trigrama(procurado, i));
+                if (lista == null) {
+                    return null;
+                }
+                if (menor == null || lista.tamanho < menor.tamanho) {
+                    menor = lista;
+                }
+            }
+            return menor;
+        }
+
+        /**
+         * Tira o trigrama da tabela, puxando para o buraco as chaves seguintes
+         * que não estão na posição de origem (sem deixar marcas de removido).
+         */
+        private void retirar(long chave) {
+            int mascara = chaves.length - 1;
+            int buraco = posicao(chaves, chave);
+            if (chaves[buraco] != chave) {
+                return;
+            }
+            for (int i = (buraco + 1) & mascara; chaves[i] != 0; i = (i + 1) & mascara) {
+                int origem = origem(chaves[i], mascara);
+                boolean ficaOnde = buraco <= i ? buraco < origem && origem <= i : buraco < origem || origem <= i;
+                if (!ficaOnde) {
+                    chaves[buraco] = chaves[i];
+                    listas[buraco] = listas[i];
+                    buraco = i;
+                }
+            }
+            chaves[buraco] = 0;
+            listas[buraco] = null;
+            tamanho--;
+
+            for (int trecho : trechos(chave)) {
+                ChavesTrigramas doTrecho = trigramasDoTrecho.get(trecho);
+                if (doTrecho != null && doTrecho.remover(chave)) {
+                    trigramasDoTrecho.remove(trecho);
+                }
+            }
+        }
+
+        private void crescer() {
+            long[] novasChaves = new long[chaves.length * 2];
+            ListaNumeros[] novasListas = new ListaNumeros[chaves.length * 2];
+            for (int i = 0; i < chaves.length; i++) {
+                if (chaves[i] != 0) {
+                    int posicao = posicao(novasChaves, chaves[i]);
+                    novasChaves[posicao] = chaves[i];
+                    novasListas[posicao] = listas[i];
+                }
+            }
+            listas = novasListas;
+            chaves = novasChaves;
+        }
+
+        private static int posicao(long[] chaves, long chave) {
+            int mascara = chaves.length - 1;
+            int posicao = origem(chave, mascara);
+            while (chaves[posicao] != 0 && chaves[posicao] != chave) {
+                posicao = (posicao + 1) & mascara;
+            }
+            return posicao;
+        }
+
+        private static int origem(long chave, int mascara) {
+            long h = chave * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+
+        /**
+         * Um caractere ou um par de caracteres em um int. Os nomes
+         * normalizados não têm caracteres até o espaço, então um par (primeiro
+         * caractere nos 16 bits altos) nunca coincide com um caractere só.
+         */
+        private static int trecho(String texto) {
+            return texto.length() == 1 ? texto.charAt(0) : texto.charAt(0) << 16 | texto.charAt(1);
+        }
+
+        /**
+         * Caracteres e pares de caracteres do trigrama, sem repetir.
+         */
+        private static int[] trechos(long trigrama) {
+            char c0 = (char) (trigrama >>> 32);
+            char c1 = (char) (trigrama >>> 16);
+            char c2 = (char) trigrama;
+            int par01 = c0 << 16 | c1;
+            int par12 = c1 << 16 | c2;
+            return Arrays.stream(new int[] {c0, c1, c2, par01, par12}).distinct().toArray();
+        }
+
+        /**
+         * Une as listas em ordem crescente, sem repetir os números que
+         * aparecem em mais de uma, até o destino devolver false.
+         */
+        private static void unir(List<ListaNumeros> listas, IntPredicate destino) {
+            PriorityQueue<ListaNumeros.Cursor> fila =
+                    new PriorityQueue<>(Math.max(1, listas.size()), Comparator.comparingInt(cursor -> cursor.numero));
+            for (ListaNumeros lista : listas) {
+                ListaNumeros.Cursor cursor = lista.cursor();
+                if (cursor.avancar()) {
+                    fila.add(cursor);
+                }
+            }
+            int ultimo = -1;
+            while (!fila.isEmpty()) {
+                ListaNumeros.Cursor cursor = fila.poll();
+                if (cursor.numero != ultimo) {
+                    ultimo = cursor.numero;
+                    if (!destino.test(ultimo)) {
+                        return;
+                    }
+                }
+                if (cursor.avancar()) {
+                    fila.add(cursor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Trigramas (chaves da tabela) que contêm um trecho, sem ordem.
+     */
+    private static final class ChavesTrigramas {
+
+        private long[] chaves = new long[4];
+        private int tamanho;
+
+        void adicionar(long chave) {
+            if (tamanho == chaves.length) {
+                chaves = Arrays.copyOf(chaves, tamanho * 2);
+            }
+            chaves[tamanho++] = chave;
+        }
+
+        /**
+         * @return true se ficou vazia
+         */
+        boolean remover(long chave) {
+            for (int i = 0; i < tamanho; i++) {
+                if (chaves[i] == chave) {
+                    chaves[i] = chaves[--tamanho];
+                    break;
+                }
+            }
+            return tamanho == 0;
+        }
+    }
+
+    /**
+     * Lista crescente de números de alunos, sem repetições. Guarda a diferença
+     * para o número anterior em grupos de 7 bits (1 byte até 127, 2 até
+     * 16383...): nas listas dos trigramas comuns, de números próximos, cada
+     * aluno ocupa 1 ou 2 bytes em vez dos 4 de um int.
+     */
+    static final class ListaNumeros {
+
+        private byte[] bytes = new byte[4];
+        private int usados;
+        private int ultimo;
+        int tamanho;
+        // Números de alunos ainda indexados (ver TabelaTrigramas.remover)
+        int vivos;
+
+        void adicionar(int numero) {
+            // Os números só crescem; um nome com o trigrama repetido é gravado uma vez
+            if (tamanho > 0 && numero == ultimo) {
+                return;
+            }
+            if (usados + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(usados + 5, bytes.length + (bytes.length >> 1)));
+            }
+            int diferenca = numero - ultimo;
+            while (diferenca >= 0x80) {
+                bytes[usados++] = (byte) (diferenca | 0x80);
+                diferenca >>>= 7;
+            }
+            bytes[usados++] = (byte) diferenca;
+            ultimo = numero;
+            tamanho++;
+            vivos++;
+        }
+
+        /**
+         * Entrega os números ao destino, em ordem crescente, até ele devolver false.
+         */
+        void percorrer(IntPredicate destino) {
+            Cursor cursor = cursor();
+            while (cursor.avancar() && destino.test(cursor.numero)) {
+                // segue para o próximo número
+            }
+        }
+
+        Cursor cursor() {
+            return new Cursor(bytes, usados);
+        }
+
+        /**
+         * Posição de leitura na lista, com os bytes do momento em que foi criado.
+         */
+        static final class Cursor {
+
+            private final byte[] bytes;
+            private final int usados;
+            private int lidos;
+            int numero;
+
+            Cursor(byte[] bytes, int usados) {
+                this.bytes = bytes;
+                this.usados = usados;
+            }
+
+            /**
+             * Lê o próximo número para "numero"; false no fim da lista.
+             */
+            boolean avancar() {
+                if (lidos >= usados) {
+                    return false;
+                }
+                int diferenca = 0;
+                int deslocamento = 0;
+                byte b;
+                do {
+                    b = bytes[lidos++];
+                    diferenca |= (b & 0x7F) << deslocamento;
+                    deslocamento += 7;
+                } while (b < 0);
+                numero += diferenca;
+                return true;
+            }
+        }
+    }
+}
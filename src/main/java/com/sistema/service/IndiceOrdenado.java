@@ -0,0 +1,273 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Índice secundário que mantém os alunos ordenados por um critério.
+ *
+ * Os alunos ficam em blocos ordenados de até TAMANHO_BLOCO elementos, como
+ * no IndiceOrdenadoCompacto. Inclusão e remoção fazem duas buscas binárias
+ * (blocos e dentro do bloco), deslocam só o bloco e somam 1 ao início
+ * guardado de cada bloco seguinte (n / TAMANHO_BLOCO somas, sem comparar
+ * alunos). Com esses inícios, chegar à posição i da ordem e contar os alunos
+ * antes de um limite são buscas binárias, em O(log n): uma página no meio da
+ * listagem não percorre os alunos nem os blocos anteriores a ela.
+ *
+ * A matrícula desempata o critério, de modo que alunos diferentes nunca são
+ * considerados iguais. Os campos usados pelo critério não podem mudar
+ * enquanto o aluno estiver no índice: remova, altere e adicione de novo
+ * (ver ArmazemObjetos.atualizar).
+ */
+class IndiceOrdenado {
+
+    private static final int TAMANHO_BLOCO = 512;
+
+    private final Comparator<Aluno> criterio;
+
+    private Aluno[][] blocos = new Aluno[4][];
+    private int[] tamanhos = new int[4];
+    // Posição do primeiro elemento de cada bloco na ordem (soma dos tamanhos anteriores)
+    private int[] inicios = new int[4];
+    private int quantidadeBlocos;
+    private int total;
+
+    IndiceOrdenado(Comparator<Aluno> criterio) {
+        this.criterio = criterio.thenComparing(Aluno::getMatricula, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    void adicionar(Aluno aluno) {
+        if (quantidadeBlocos == 0) {
+            Aluno[] bloco = new Aluno[TAMANHO_BLOCO];
+            bloco[0] = aluno;
+            inserirBloco(0, bloco, 1, 0);
+            total = 1;
+            return;
+        }
+
+        // Primeiro bloco cujo último elemento não vem antes do aluno (ou o último bloco)
+        int b = primeiroBloco(antesDe(aluno));
+        if (b == quantidadeBlocos) {
+            b--;
+        }
+
+        Aluno[] bloco = blocos[b];
+        int posicao = primeiraPosicao(bloco, tamanhos[b], antesDe(aluno));
+        if (posicao < tamanhos[b] && criterio.compare(bloco[posicao], aluno) == 0) {
+            return;
+        }
+
+        System.arraycopy(bloco, posicao, bloco, posicao + 1, tamanhos[b] - posicao);
+        bloco[posicao] = aluno;
+        tamanhos[b]++;
+        deslocarInicios(b + 1, 1);
+        total++;
+
+        if (tamanhos[b] == TAMANHO_BLOCO) {
+            dividir(b);
+        }
+    }
+
+    void remover(Aluno aluno) {
+        int b = primeiroBloco(antesDe(aluno));
+        if (b < quantidadeBlocos) {
+            int posicao = primeiraPosicao(blocos[b], tamanhos[b], antesDe(aluno));
+            if (posicao < tamanhos[b] && criterio.compare(blocos[b][posicao], aluno) == 0) {
+                removerPosicao(b, posicao);
+                return;
+            }
+        }
+
+        // O aluno foi alterado sem sair do índice: procura pela instância
+        for (b = 0; b < quantidadeBlocos; b++) {
+            for (int i = 0; i < tamanhos[b]; i++) {
+                if (blocos[b][i] == aluno) {
+                    removerPosicao(b, i);
+                    return;
+                }
+            }
+        }
+    }
+
+    void limpar() {
+        blocos = new Aluno[4][];
+        tamanhos = new int[4];
+        inicios = new int[4];
+        quantidadeBlocos = 0;
+        total = 0;
+    }
+
+    int tamanho() {
+        return total;
+    }
+
+    /**
+     * Quantidade de alunos que vêm antes do limite na ordem do critério,
+     * ou seja, a posição em que o limite entraria: duas buscas binárias e o
+     * início guardado do bloco, em O(log n).
+     */
+    int contar(Aluno limite) {
+        Predicate<Aluno> antes = antesDe(limite);
+        int b = primeiroBloco(antes);
+        if (b == quantidadeBlocos) {
+            return total;
+        }
+        return inicios[b] + primeiraPosicao(blocos[b], tamanhos[b], antes);
+    }
+
+    /**
+     * Cópia dos alunos nas posições [inicio, inicio + quantidade) da ordem.
+     */
+    List<Aluno> intervalo(int inicio, int quantidade) {
+        int primeiro = Math.max(0, inicio);
+        int fim = (int) Math.min(total, (long) primeiro + quantidade);
+        List<Aluno> resultado = new ArrayList<>(Math.max(0, fim - primeiro));
+        percorrer(primeiro, fim, resultado::add);
+        return resultado;
+    }
+
+    /**
+     * Copia para o destino os alunos entre os limites (inclusivos) do índice.
+     */
+    void faixa(Aluno de, Aluno ate, Collection<Aluno> destino) {
+        if (criterio.compare(de, ate) > 0) {
+            return;
+        }
+        percorrer(contar(de), total, aluno -> {
+            if (criterio.compare(aluno, ate) > 0) {
+                return false;
+            }
+            destino.add(aluno);
+            return true;
+        });
+    }
+
+    /**
+     * Entrega ao destino os alunos das posições [inicio, fim), em ordem,
+     * até o destino devolver false.
+     */
+    private void percorrer(int inicio, int fim, Predicate<Aluno> destino) {
+        int posicao = inicio;
+        int b = blocoDaPosicao(posicao);
+        int base = b < quantidadeBlocos ? inicios[b] : total;
+        while (posicao < fim && b < quantidadeBlocos) {
+            if (!destino.test(blocos[b][posicao - base])) {
+                return;
+            }
+            posicao++;
+            if (posicao - base == tamanhos[b]) {
+                base += tamanhos[b++];
+            }
+        }
+    }
+
+    private Predicate<Aluno> antesDe(Aluno limite) {
+        return existente -> criterio.compare(existente, limite) < 0;
+    }
+
+    /**
+     * Primeiro bloco cujo último elemento não satisfaz "antes".
+     */
+    private int primeiroBloco(Predicate<Aluno> antes) {
+        int baixo = 0;
+        int alto = quantidadeBlocos;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (antes.test(blocos[meio][tamanhos[meio] - 1])) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private static int primeiraPosicao(Aluno[] bloco, int tamanho, Predicate<Aluno> antes) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (antes.test(bloco[meio])) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private void dividir(int b) {
+        int metade = tamanhos[b] / 2;
+        Aluno[] novo = new Aluno[TAMANHO_BLOCO];
+        System.arraycopy(blocos[b], metade, novo, 0, tamanhos[b] - metade);
+        Arrays.fill(blocos[b], metade, tamanhos[b], null);
+        inserirBloco(b + 1, novo, tamanhos[b] - metade, inicios[b] + metade);
+        tamanhos[b] = metade;
+    }
+
+    private void removerPosicao(int b, int posicao) {
+        Aluno[] bloco = blocos[b];
+        System.arraycopy(bloco, posicao + 1, bloco, posicao, tamanhos[b] - posicao - 1);
+        bloco[--tamanhos[b]] = null;
+        deslocarInicios(b + 1, -1);
+        total--;
+
+        if (tamanhos[b] == 0) {
+            System.arraycopy(blocos, b + 1, blocos, b, quantidadeBlocos - b - 1);
+            System.arraycopy(tamanhos, b + 1, tamanhos, b, quantidadeBlocos - b - 1);
+            System.arraycopy(inicios, b + 1, inicios, b, quantidadeBlocos - b - 1);
+            blocos[--quantidadeBlocos] = null;
+        }
+    }
+
+    private void inserirBloco(int b, Aluno[] bloco, int tamanho, int inicio) {
+        if (quantidadeBlocos == blocos.length) {
+            blocos = Arrays.copyOf(blocos, quantidadeBlocos * 2);
+            tamanhos = Arrays.copyOf(tamanhos, quantidadeBlocos * 2);
+            inicios = Arrays.copyOf(inicios, quantidadeBlocos * 2);
+        }
+        System.arraycopy(blocos, b, blocos, b + 1, quantidadeBlocos - b);
+        System.arraycopy(tamanhos, b, tamanhos, b + 1, quantidadeBlocos - b);
+        System.arraycopy(inicios, b, inicios, b + 1, quantidadeBlocos - b);
+        blocos[b] = bloco;
+        tamanhos[b] = tamanho;
+        inicios[b] = inicio;
+        quantidadeBlocos++;
+    }
+
+    /**
+     * Soma "delta" ao início dos blocos a partir de "primeiro".
+     */
+    private void deslocarInicios(int primeiro, int delta) {
+        for (int i = primeiro; i < quantidadeBlocos; i++) {
+            inicios[i] += delta;
+        }
+    }
+
+    /**
+     * Bloco que contém a posição (quantidadeBlocos se ela passar do fim).
+     */
+    private int blocoDaPosicao(int posicao) {
+        if (posicao >= total) {
+            return quantidadeBlocos;
+        }
+        // Último bloco que começa até a posição; os blocos nunca ficam vazios
+        int baixo = 0;
+        int alto = quantidadeBlocos - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto + 1) >>> 1;
+            if (inicios[meio] <= posicao) {
+                baixo = meio;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        return baixo;
+    }
+}
@@ -0,0 +1,236 @@
+package com.sistema.service;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Versão do IndiceOrdenado para o ArmazemColunar: guarda números de posição
+ * (slots) em vez de objetos Aluno, ordenados pelo critério.
+ *
+ * Os números ficam em blocos ordenados de até TAMANHO_BLOCO elementos
+ * (cerca de 5 bytes por aluno). Inclusão
+ * e remoção fazem duas buscas binárias (blocos e dentro do bloco), deslocam
+ * só o bloco e atualizam o início guardado dos blocos seguintes; um bloco
+ * cheio é dividido ao meio e um bloco vazio sai da lista. Contar e chegar a
+ * uma posição são buscas binárias, como no IndiceOrdenado.
+ *
+ * Como no IndiceOrdenado, os campos usados pelo critério não podem mudar
+ * enquanto o slot estiver no índice.
+ */
+class IndiceOrdenadoCompacto {
+
+    private static final int TAMANHO_BLOCO = 1024;
+
+    private final IntBinaryOperator criterio;
+
+    private int[][] blocos = new int[4][];
+    private int[] tamanhos = new int[4];
+    // Posição do primeiro elemento de cada bloco na ordem (soma dos tamanhos anteriores)
+    private int[] inicios = new int[4];
+    private int quantidadeBlocos;
+    private int total;
+
+    /**
+     * @param criterio compara dois slots; só pode dar 0 para o mesmo slot
+     */
+    IndiceOrdenadoCompacto(IntBinaryOperator criterio) {
+        this.criterio = criterio;
+    }
+
+    int tamanho() {
+        return total;
+    }
+
+    void limpar() {
+        blocos = new int[4][];
+        tamanhos = new int[4];
+        inicios = new int[4];
+        quantidadeBlocos = 0;
+        total = 0;
+    }
+
+    void adicionar(int slot) {
+        if (quantidadeBlocos == 0) {
+            int[] bloco = new int[TAMANHO_BLOCO];
+            bloco[0] = slot;
+            inserirBloco(0, bloco, 1, 0);
+            total = 1;
+            return;
+        }
+
+        // Primeiro bloco cujo último elemento vem depois do slot (ou o último bloco)
+        int b = primeiroBloco(existente -> criterio.applyAsInt(existente, slot) < 0);
+        if (b == quantidadeBlocos) {
+            b--;
+        }
+
+        int[] bloco = blocos[b];
+        int posicao = primeiraPosicao(bloco, tamanhos[b], existente -> criterio.applyAsInt(existente, slot) < 0);
+        if (posicao < tamanhos[b] && bloco[posicao] == slot) {
+            return;
+        }
+
+        System.arraycopy(bloco, posicao, bloco, posicao + 1, tamanhos[b] - posicao);
+        bloco[posicao] = slot;
+        tamanhos[b]++;
+        deslocarInicios(b + 1, 1);
+        total++;
+
+        if (tamanhos[b] == TAMANHO_BLOCO) {
+            dividir(b);
+        }
+    }
+
+    void remover(int slot) {
+        int b = primeiroBloco(existente -> criterio.applyAsInt(existente, slot) < 0);
+        if (b < quantidadeBlocos) {
+            int posicao = primeiraPosicao(blocos[b], tamanhos[b], existente -> criterio.applyAsInt(existente, slot) < 0);
+            if (posicao < tamanhos[b] && blocos[b][posicao] == slot) {
+                removerPosicao(b, posicao);
+                return;
+            }
+        }
+
+        // O aluno foi alterado sem sair do índice: procura pelo slot
+        for (b = 0; b < quantidadeBlocos; b++) {
+            for (int i = 0; i < tamanhos[b]; i++) {
+                if (blocos[b][i] == slot) {
+                    removerPosicao(b, i);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Quantidade de elementos do começo do índice para os quais "antes" é
+     * verdadeiro; "antes" deve ser verdadeiro para um prefixo do índice.
+     * É a posição da primeira ocorrência de uma sonda: duas buscas binárias
+     * e o início guardado do bloco, em O(log n).
+     */
+    int contar(IntPredicate antes) {
+        int b = primeiroBloco(antes);
+        if (b == quantidadeBlocos) {
+            return total;
+        }
+        return inicios[b] + primeiraPosicao(blocos[b], tamanhos[b], antes);
+    }
+
+    /**
+     * Entrega ao destino os slots das posições [inicio, fim), em ordem.
+     */
+    void percorrer(int inicio, int fim, IntConsumer destino) {
+        int posicao = Math.max(0, inicio);
+        fim = Math.min(fim, total);
+        int b = blocoDaPosicao(posicao);
+        int base = b < quantidadeBlocos ? inicios[b] : total;
+        while (posicao < fim && b < quantidadeBlocos) {
+            destino.accept(blocos[b][posicao - base]);
+            posicao++;
+            if (posicao - base == tamanhos[b]) {
+                base += tamanhos[b++];
+            }
+        }
+    }
+
+    /**
+     * Primeiro bloco cujo último elemento não satisfaz "antes".
+     */
+    private int primeiroBloco(IntPredicate antes) {
+        int baixo = 0;
+        int alto = quantidadeBlocos;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (antes.test(blocos[meio][tamanhos[meio] - 1])) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private static int primeiraPosicao(int[] bloco, int tamanho, IntPredicate antes) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (antes.test(bloco[meio])) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private void dividir(int b) {
+        int metade = tamanhos[b] / 2;
+        int[] novo = new int[TAMANHO_BLOCO];
+        System.arraycopy(blocos[b], metade, novo, 0, tamanhos[b] - metade);
+        inserirBloco(b + 1, novo, tamanhos[b] - metade, inicios[b] + metade);
+        tamanhos[b] = metade;
+    }
+
+    private void removerPosicao(int b, int posicao) {
+        int[] bloco = blocos[b];
+        System.arraycopy(bloco, posicao + 1, bloco, posicao, tamanhos[b] - posicao - 1);
+        tamanhos[b]--;
+        deslocarInicios(b + 1, -1);
+        total--;
+
+        if (tamanhos[b] == 0) {
+            System.arraycopy(blocos, b + 1, blocos, b, quantidadeBlocos - b - 1);
+            System.arraycopy(tamanhos, b + 1, tamanhos, b, quantidadeBlocos - b - 1);
+            System.arraycopy(inicios, b + 1, inicios, b, quantidadeBlocos - b - 1);
+            blocos[--quantidadeBlocos] = null;
+        }
+    }
+
+    private void inserirBloco(int b, int[] bloco, int tamanho, int inicio) {
+        if (quantidadeBlocos == blocos.length) {
+            blocos = Arrays.copyOf(blocos, quantidadeBlocos * 2);
+            tamanhos = Arrays.copyOf(tamanhos, quantidadeBlocos * 2);
+            inicios = Arrays.copyOf(inicios, quantidadeBlocos * 2);
+        }
+        System.arraycopy(blocos, b, blocos, b + 1, quantidadeBlocos - b);
+        System.arraycopy(tamanhos, b, tamanhos, b + 1, quantidadeBlocos - b);
+        System.arraycopy(inicios, b, inicios, b + 1, quantidadeBlocos - b);
+        blocos[b] = bloco;
+        tamanhos[b] = tamanho;
+        inicios[b] = inicio;
+        quantidadeBlocos++;
+    }
+
+    /**
+     * Soma "delta" ao início dos blocos a partir de "primeiro".
+     */
+    private void deslocarInicios(int primeiro, int delta) {
+        for (int i = primeiro; i < quantidadeBlocos; i++) {
+            inicios[i] += delta;
+        }
+    }
+
+    /**
+     * Bloco que contém a posição (quantidadeBlocos se ela passar do fim).
+     */
+    private int blocoDaPosicao(int posicao) {
+        if (posicao >= total) {
+            return quantidadeBlocos;
+        }
+        // Último bloco que começa até a posição; os blocos nunca ficam vazios
+        int baixo = 0;
+        int alto = quantidadeBlocos - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto + 1) >>> 1;
+            if (inicios[meio] <= posicao) {
+                baixo = meio;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        return baixo;
+    }
+}
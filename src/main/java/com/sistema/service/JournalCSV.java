@@ -0,0 +1,402 @@
+package com.sistema.service;
+
+import com.sistema.metricas.MetricaOperacao;
+import com.sistema.metricas.RegistroMetricas;
+import com.sistema.model.Aluno;
+import com.sistema.util.AlunoCSVCodec;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Journal de alterações do arquivo CSV.
+ *
+ * Em vez de reescrever todo o arquivo CSV a cada alteração, cada operação é
+ * acrescentada ao final de um arquivo de journal. Quando o journal fica grande
+ * demais em relação à lista, ele é compactado em segundo plano: a lista atual é
+ * gravada no CSV e os journals já incorporados são apagados.
+ *
+ * Formato de cada linha do journal:
+ *   A,linhaCSV            aluno adicionado no final da lista
+ *   I,posicao,linhaCSV    aluno inserido na posição
+ *   U,linhaCSV            aluno atualizado
+ *   R,matricula           aluno removido
+ *   L                     lista limpa
+ *
+ * Na compactação o journal atual é renomeado para "journal.N" (geração N) e um
+ * novo journal é aberto. A tarefa em segundo plano grava o CSV e apaga apenas
+ * as gerações menores ou iguais a N. A reprodução deve ser idempotente, pois se
+ * o programa parar entre a gravação do CSV e a remoção das gerações, elas serão
+ * reaplicadas sobre um CSV que já as contém.
+ *
+ * Cada gravação do CSV grava também o snapshot binário dele (SnapshotAlunos).
+ */
+class JournalCSV {
+
+    // Tempo de cada registro no journal e de cada reescrita do CSV (JMX)
+    private static final MetricaOperacao METRICA_REGISTRO = RegistroMetricas.operacao("csv", "registrarJournal");
+    private static final MetricaOperacao METRICA_GRAVACAO = RegistroMetricas.operacao("csv", "gravarCSV");
+
+    /**
+     * Recebe as operações lidas do journal durante a reprodução.
+     */
+    interface Reproducao {
+
+        void adicionar(Aluno aluno);
+
+        void inserir(int posicao, Aluno aluno);
+
+        void atualizar(Aluno aluno);
+
+        void remover(String matricula);
+
+        void limpar();
+    }
+
+    // Compacta quando o journal tiver este número de registros...
+    private static final int LIMITE_REGISTROS = 100_000;
+
+    // ...ou quando tiver mais registros que esta fração da lista
+    private static final double RAZAO_COMPACTACAO = 0.25;
+
+    private final Path arquivoCSV;
+    private final Path arquivoJournal;
+    private final SnapshotAlunos snapshot;
+    // Mesmo charset (e substituição de caracteres não representáveis) do FileReader/FileWriter
+    private final Charset charset = Charset.defaultCharset();
+
+    // Uma única thread garante que as compactações terminem na ordem em que foram pedidas
+    private final ExecutorService executorCompactacao;
+
+    private BufferedWriter writer;
+    // Lido pelo AlunoService enquanto a gravação adiada escreve em outra thread
+    private volatile int registrosDesdeCompactacao;
+    private int proximaGeracao;
+
+    JournalCSV(String arquivoCSV, SnapshotAlunos snapshot) {
+        this.arquivoCSV = Paths.get(arquivoCSV);
+        this.arquivoJournal = Paths.get(arquivoCSV + ".journal");
+        this.snapshot = snapshot;
+        this.executorCompactacao = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "compactacao-csv");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        TreeMap<Integer, Path> pendentes = geracoesPendentes();
+        this.proximaGeracao = pendentes.isEmpty() ? 1 : pendentes.lastKey() + 1;
+    }
+
+    // ==================== REPRODUÇÃO ====================
+
+    /**
+     * Reaplica as gerações pendentes e o journal atual, na ordem em que foram gravados.
+     * Deve ser chamado depois de carregar o CSV e antes de registrar novas operações.
+     */
+    void reproduzir(Reproducao reproducao) {
+        for (Path geracao : geracoesPendentes().values()) {
+            reproduzirArquivo(geracao, reproducao);
+        }
+        reproduzirArquivo(arquivoJournal, reproducao);
+
+        if (registrosDesdeCompactacao > 0) {
+            System.out.println("Reaplicados " + registrosDesdeCompactacao + " registros do journal do CSV");
+        }
+    }
+
+    private void reproduzirArquivo(Path arquivo, Reproducao reproducao) {
+        if (!Files.exists(arquivo)) {
+            return;
+        }
+
+        try {
+            descartarRegistroIncompleto(arquivo);
+        } catch (IOException e) {
+            System.err.println("Erro ao ler journal do CSV: " + e.getMessage());
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(arquivo), charset))) {
+            String linha;
+            int linhaNumero = 0;
+
+            while ((linha = reader.readLine()) != null) {
+                linhaNumero++;
+
+                if (linha.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    aplicar(linha, reproducao);
+                    registrosDesdeCompactacao++;
+                } catch (ParseException | IllegalArgumentException e) {
+                    System.err.println("Erro ao processar linha " + linhaNumero + " do journal "
+                            + arquivo.getFileName() + ": " + e.getMessage());
+                }
+            }
+
+        } catch (IOException e) {
+            System.err.println("Erro ao ler journal do CSV: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cada registro termina com uma quebra de linha, gravada junto com ele.
+     * Um journal que não termina com quebra de linha foi interrompido no meio
+     * de um registro (queda do programa): o trecho final é cortado do arquivo,
+     * em vez de ser reaplicado pela metade e de grudar no próximo registro.
+     */
+    private static void descartarRegistroIncompleto(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fim = canal.size();
+            ByteBuffer bytes = ByteBuffer.allocate(1);
+            while (fim > 0) {
+                bytes.clear();
+                canal.read(bytes, fim - 1);
+                if (bytes.get(0) == '\n') {
+                    break;
+                }
+                fim--;
+            }
+            if (fim < canal.size()) {
+                System.err.println("Registro incompleto no fim do journal " + arquivo.getFileName()
+                        + " descartado (" + (canal.size() - fim) + " bytes)");
+                canal.truncate(fim);
+            }
+        }
+    }
+
+    private static void aplicar(String linha, Reproducao reproducao) throws ParseException {
+        char tipo = linha.charAt(0);
+
+        // Só a linha "L" limpa a lista: qualquer outra coisa com L é um registro corrompido
+        if (linha.equals("L")) {
+            reproducao.limpar();
+            return;
+        }
+
+        if (linha.length() < 2 || linha.charAt(1) != ',') {
+            throw new IllegalArgumentException("Registro de journal inválido: " + linha);
+        }
+
+        switch (tipo) {
+            case 'A':
+                reproducao.adicionar(AlunoCSVCodec.decodificar(linha, 2, linha.length()));
+                break;
+            case 'I':
+                int separador = linha.indexOf(',', 2);
+                if (separador < 0) {
+                    throw new IllegalArgumentException("Registro de inserção sem posição: " + linha);
+                }
+                int posicao = Integer.parseInt(linha.substring(2, separador));
+                reproducao.inserir(posicao, AlunoCSVCodec.decodificar(linha, separador + 1, linha.length()));
+                break;
+            case 'U':
+                reproducao.atualizar(AlunoCSVCodec.decodificar(linha, 2, linha.length()));
+                break;
+            case 'R':
+                reproducao.remover(linha.substring(2));
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de registro desconhecido: " + tipo);
+        }
+    }
+
+    // ==================== REGISTRO ====================
+
+    void registrarAdicao(Aluno aluno) {
+        registrar("A,", null, aluno);
+    }
+
+    void registrarInsercao(int posicao, Aluno aluno) {
+        registrar("I,", posicao + ",", aluno);
+    }
+
+    void registrarAtualizacao(Aluno aluno) {
+        registrar("U,", null, aluno);
+    }
+
+    void registrarRemocao(String matricula) {
+        registrar("R,", matricula, null);
+    }
+
+    void registrarLimpeza() {
+        registrar("L", null, null);
+    }
+
+    /**
+     * Acrescenta um registro ao journal: o tipo, um complemento opcional e,
+     * se houver, o aluno escrito direto no arquivo pelo codec.
+     */
+    private void registrar(String tipo, String complemento, Aluno aluno) {
+        long inicio = System.nanoTime();
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(arquivoJournal,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND), charset));
+            }
+            writer.write(tipo);
+            if (complemento != null) {
+                writer.write(complemento);
+            }
+            if (aluno != null) {
+                AlunoCSVCodec.codificar(aluno, writer);
+            }
+            writer.newLine();
+            writer.flush();
+            registrosDesdeCompactacao++;
+
+        } catch (IOException e) {
+            METRICA_REGISTRO.falha();
+            System.err.println("Erro ao gravar journal do CSV: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            METRICA_REGISTRO.registrar(inicio);
+        }
+    }
+
+    // ==================== COMPACTAÇÃO ====================
+
+    /**
+     * Indica se o journal já passou do limite para uma lista deste tamanho.
+     */
+    boolean precisaCompactar(int tamanhoLista) {
+        return registrosDesdeCompactacao >= LIMITE_REGISTROS
+                || registrosDesdeCompactacao > tamanhoLista * RAZAO_COMPACTACAO;
+    }
+
+    /**
+     * Indica se há registros (reproduzidos na carga ou novos) ainda não incorporados ao CSV.
+     */
+    boolean temRegistros() {
+        return registrosDesdeCompactacao > 0;
+    }
+
+    /**
+     * Espera as compactações já agendadas terminarem de gravar o CSV.
+     */
+    void aguardarCompactacoes() {
+        try {
+            // O executor tem uma única thread: a tarefa vazia roda depois das anteriores
+            executorCompactacao.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Erro ao aguardar a gravação do CSV: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fecha o journal atual e agenda a gravação do CSV em segundo plano.
+     *
+     * @param alunos cópia da lista no momento da chamada; não deve ser alterada depois
+     */
+    void compactar(List<Aluno> alunos) {
+        Path geracao = Paths.get(arquivoJournal + "." + proximaGeracao);
+        int numeroGeracao = proximaGeracao++;
+
+        try {
+            fecharWriter();
+            if (Files.exists(arquivoJournal)) {
+                Files.move(arquivoJournal, geracao);
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao rotacionar journal do CSV: " + e.getMessage());
+            return;
+        }
+        registrosDesdeCompactacao = 0;
+
+        executorCompactacao.execute(() -> gravarCSV(alunos, numeroGeracao));
+    }
+
+    private void gravarCSV(List<Aluno> alunos, int geracao) {
+        Path temporario = Paths.get(arquivoCSV + ".tmp");
+        long inicio = System.nanoTime();
+
+        try {
+            try (BufferedWriter csv = new BufferedWriter(
+                    new OutputStreamWriter(Files.newOutputStream(temporario), charset))) {
+                for (Aluno aluno : alunos) {
+                    AlunoCSVCodec.codificar(aluno, csv);
+                    csv.newLine();
+                }
+            }
+
+            try {
+                Files.move(temporario, arquivoCSV,
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, arquivoCSV, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // O snapshot registra o tamanho e a data do CSV já no lugar
+            snapshot.gravar(alunos);
+
+            // Só depois do CSV gravado as gerações incorporadas podem ser apagadas
+            for (Path pendente : geracoesPendentes().headMap(geracao, true).values()) {
+                Files.deleteIfExists(pendente);
+            }
+
+            System.out.println("Alunos salvos no arquivo CSV: " + arquivoCSV);
+
+        } catch (IOException e) {
+            METRICA_GRAVACAO.falha();
+            System.err.println("Erro ao salvar arquivo CSV: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            METRICA_GRAVACAO.registrar(inicio);
+        }
+    }
+
+    /**
+     * Lista as gerações de journal rotacionadas que ainda não foram apagadas.
+     */
+    private TreeMap<Integer, Path> geracoesPendentes() {
+        TreeMap<Integer, Path> geracoes = new TreeMap<>();
+        Path diretorio = arquivoJournal.toAbsolutePath().getParent();
+        String prefixo = arquivoJournal.getFileName() + ".";
+
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, prefixo + "*")) {
+            for (Path arquivo : arquivos) {
+                String sufixo = arquivo.getFileName().toString().substring(prefixo.length());
+                try {
+                    geracoes.put(Integer.parseInt(sufixo), arquivo);
+                } catch (NumberFormatException e) {
+                    // Não é uma geração do journal
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao listar journals do CSV: " + e.getMessage());
+        }
+
+        return geracoes;
+    }
+
+    private void fecharWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.sistema.service;
+
+/**
+ * Ordens em que a lista de alunos pode ser percorrida.
+ *
+ * INSERCAO é a ordem da lista principal (cadastro e inserções em posição); as
+ * demais vêm de índices mantidos pelo AlunoService, sem reordenar a lista.
+ */
+public enum OrdemListagem {
+
+    INSERCAO("ordem de cadastro"),
+    NOME("nome"),
+    MATRICULA("matrícula"),
+    // Idade crescente: do nascimento mais recente para o mais antigo
+    IDADE("idade");
+
+    private final String descricao;
+
+    OrdemListagem(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,11 @@
+package com.sistema.service;
+
+/**
+ * Recebe o andamento de uma importação em lote.
+ * É chamado periodicamente durante a leitura do arquivo e uma última vez no fim.
+ */
+@FunctionalInterface
+public interface ProgressoImportacao {
+
+    void atualizar(ResultadoImportacao parcial);
+}
@@ -0,0 +1,299 @@
+package com.sistema.service;
+
+import com.sistema.dao.AlunoDAO;
+import com.sistema.dao.HashAluno;
+import com.sistema.model.Aluno;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Compara os alunos em memória (carregados do CSV) com a tabela alunos e
+ * corrige o banco, tratando a memória como a versão correta.
+ *
+ * As matrículas são divididas em faixas ("baldes") com a mesma quantidade de
+ * alunos da memória. Cada nó da árvore cobre uma faixa de baldes e tem um
+ * resumo: a soma dos hashes (HashAluno) e a quantidade de alunos da faixa.
+ * A comparação desce da raiz só pelos nós diferentes, e apenas os baldes
+ * diferentes são relidos do banco e corrigidos com o mínimo de INSERTs,
+ * UPDATEs e DELETEs.
+ *
+ * O resumo de cada nó do banco é uma consulta agregada na faixa de
+ * matrículas (AlunoDAO.resumirFaixa), calculada pela função hash_aluno
+ * dentro do banco. Com o banco já consistente, o custo é uma única consulta,
+ * a da raiz, sem trazer nenhuma linha. Se o banco não tiver a função (esquema
+ * não migrado), os resumos são calculados aqui, em uma leitura em fluxo da
+ * tabela inteira.
+ *
+ * Não é seguro entre threads: quem chama deve impedir escritas na memória e
+ * no banco durante a reconciliação (ver AlunoService.reconciliarBanco).
+ */
+class ReconciliadorBanco {
+
+    // Alunos da memória por balde; a quantidade de baldes é a potência de 2 seguinte
+    static final int ALUNOS_POR_BALDE = 1024;
+
+    private final AlunoDAO alunoDAO;
+
+    // Máximo de alunos removidos do banco por reconciliação; o excedente fica para a próxima
+    private final int maximoRemocoes;
+
+    ReconciliadorBanco(AlunoDAO alunoDAO, int maximoRemocoes) {
+        this.alunoDAO = alunoDAO;
+        this.maximoRemocoes = maximoRemocoes;
+    }
+
+    /**
+     * @param memoria alunos em memória com matrícula, em ordem de matrícula
+     */
+    ResultadoReconciliacao reconciliar(List<Aluno> memoria) {
+        long inicio = System.nanoTime();
+        ResultadoReconciliacao resultado = new ResultadoReconciliacao();
+
+        int quantidadeBaldes = quantidadeBaldes(memoria.size());
+        String[] limites = limites(memoria, quantidadeBaldes);
+        resultado.setBaldes(quantidadeBaldes);
+        resultado.setAlunosMemoria(memoria.size());
+
+        // Soma dos hashes e quantidade por nó; as folhas ficam nas posições quantidadeBaldes..
+        long[] somaMemoria = new long[2 * quantidadeBaldes];
+        long[] contagemMemoria = new long[2 * quantidadeBaldes];
+
+        // Primeira posição de cada balde na lista da memória
+        int[] inicioBalde = new int[quantidadeBaldes + 1];
+        Arrays.fill(inicioBalde, memoria.size());
+        for (int i = memoria.size() - 1; i >= 0; i--) {
+            Aluno aluno = memoria.get(i);
+            int balde = balde(limites, aluno.getMatricula());
+            somaMemoria[quantidadeBaldes + balde] += HashAluno.hash(aluno);
+            contagemMemoria[quantidadeBaldes + balde]++;
+            inicioBalde[balde] = i;
+        }
+        for (int b = quantidadeBaldes - 1; b >= 0; b--) {
+            inicioBalde[b] = Math.min(inicioBalde[b], inicioBalde[b + 1]);
+        }
+
+        montarArvore(somaMemoria, contagemMemoria);
+
+        IntFunction<long[]> resumoBanco = no -> alunoDAO.resumirFaixa(de(limites, no), ate(limites, no));
+        long[] raiz;
+        try {
+            raiz = resumoBanco.apply(1);
+            resultado.setResumoNoBanco(true);
+        } catch (RuntimeException e) {
+            System.err.println("Resumo no banco indisponível, lendo a tabela inteira: " + e.getMessage());
+            long[][] arvoreBanco = lerArvoreBanco(limites);
+            resumoBanco = no -> new long[] {arvoreBanco[0][no], arvoreBanco[1][no]};
+            raiz = resumoBanco.apply(1);
+        }
+        resultado.setAlunosBanco(raiz[1]);
+
+        // Desce da raiz só pelos nós diferentes
+        List<Integer> diferentes = new ArrayList<>();
+        int comparacoes = comparar(somaMemoria, contagemMemoria, resumoBanco, 1, raiz, diferentes);
+        resultado.setComparacoes(comparacoes);
+        resultado.setBaldesDiferentes(diferentes.size());
+
+        List<String> remover = new ArrayList<>();
+        List<Aluno> atualizar = new ArrayList<>();
+        List<Aluno> inserir = new ArrayList<>();
+        for (int balde : diferentes) {
+            String de = balde == 0 ? null : limites[balde];
+            String ate = balde == quantidadeBaldes - 1 ? null : limites[balde + 1];
+            diferencas(memoria.subList(inicioBalde[balde], inicioBalde[balde + 1]),
+                    alunoDAO.listarFaixa(de, ate), remover, atualizar, inserir);
+        }
+
+        if (remover.size() > maximoRemocoes) {
+            // Proteção contra uma memória incompleta apagar o banco de uma vez
+            resultado.setRemocoesAdiadas(remover.size() - maximoRemocoes);
+            System.err.println("Reconciliação: " + remover.size() + " alunos sobram no banco; só "
+                    + maximoRemocoes + " serão removidos nesta execução");
+            remover = new ArrayList<>(remover.subList(0, maximoRemocoes));
+        }
+
+        // Remoções primeiro: liberam CPFs que um aluno inserido pode reutilizar
+        aplicar(remover, lote -> resultado.somarRemovidos(alunoDAO.removerPorMatriculas(lote)), resultado);
+        aplicar(atualizar, lote -> {
+            alunoDAO.atualizarTodos(lote);
+            resultado.somarAtualizados(lote.size());
+        }, resultado);
+        aplicar(inserir, lote -> {
+            alunoDAO.salvarTodos(lote);
+            resultado.somarInseridos(lote.size());
+        }, resultado);
+
+        resultado.setDuracaoMs((System.nanoTime() - inicio) / 1_000_000);
+        return resultado;
+    }
+
+    static int quantidadeBaldes(int alunos) {
+        long necessarios = (alunos + ALUNOS_POR_BALDE - 1L) / ALUNOS_POR_BALDE;
+        int baldes = 1;
+        while (baldes < necessarios) {
+            baldes <<= 1;
+        }
+        return baldes;
+    }
+
+    /**
+     * Primeira matrícula de cada balde; limites[0] fica null (tudo o que vem
+     * antes de limites[1], inclusive matrículas que só existem no banco).
+     */
+    private static String[] limites(List<Aluno> memoria, int quantidadeBaldes) {
+        String[] limites = new String[quantidadeBaldes];
+        for (int b = 1; b < quantidadeBaldes; b++) {
+            limites[b] = memoria.get((int) ((long) b * memoria.size() / quantidadeBaldes)).getMatricula();
+        }
+        return limites;
+    }
+
+    /**
+     * Balde da matrícula: o último cujo limite é menor ou igual a ela.
+     * Limites repetidos (poucos alunos) deixam baldes vazios, sem problema.
+     */
+    static int balde(String[] limites, String matricula) {
+        int baixo = 1;
+        int alto = limites.length - 1;
+        int balde = 0;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (limites[meio].compareTo(matricula) <= 0) {
+                balde = meio;
+                baixo = meio + 1;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        return balde;
+    }
+
+    /**
+     * Primeira matrícula da faixa do nó, ou null se a faixa começa aberta.
+     */
+    private static String de(String[] limites, int no) {
+        int folhas = limites.length;
+        int primeiro = no;
+        while (primeiro < folhas) {
+            primeiro *= 2;
+        }
+        int balde = primeiro - folhas;
+        return balde == 0 ? null : limites[balde];
+    }
+
+    /**
+     * Matrícula logo depois da faixa do nó (exclusiva), ou null se a faixa termina aberta.
+     */
+    private static String ate(String[] limites, int no) {
+        int folhas = limites.length;
+        int ultimo = no;
+        while (ultimo < folhas) {
+            ultimo = 2 * ultimo + 1;
+        }
+        int balde = ultimo - folhas;
+        return balde == folhas - 1 ? null : limites[balde + 1];
+    }
+
+    /**
+     * Completa os nós internos: cada nó soma os resumos dos dois filhos.
+     */
+    private static void montarArvore(long[] soma, long[] contagem) {
+        for (int no = soma.length / 2 - 1; no >= 1; no--) {
+            soma[no] = soma[2 * no] + soma[2 * no + 1];
+            contagem[no] = contagem[2 * no] + contagem[2 * no + 1];
+        }
+    }
+
+    /**
+     * Resumos do banco calculados aqui, lendo a tabela inteira em fluxo.
+     *
+     * @return {somas, contagens}, no mesmo formato da árvore da memória
+     */
+    private long[][] lerArvoreBanco(String[] limites) {
+        int folhas = limites.length;
+        long[] soma = new long[2 * folhas];
+        long[] contagem = new long[2 * folhas];
+        try (Stream<Aluno> banco = alunoDAO.listarEmFluxo()) {
+            banco.forEach(aluno -> {
+                int balde = balde(limites, aluno.getMatricula());
+                soma[folhas + balde] += HashAluno.hash(aluno);
+                contagem[folhas + balde]++;
+            });
+        }
+        montarArvore(soma, contagem);
+        return new long[][] {soma, contagem};
+    }
+
+    /**
+     * Guarda em "diferentes" os baldes sob o nó cujo resumo difere. O resumo
+     * do banco de cada filho só é pedido quando o nó difere.
+     *
+     * @return quantidade de resumos comparados
+     */
+    private static int comparar(long[] soma, long[] contagem, IntFunction<long[]> resumoBanco,
+                                int no, long[] banco, List<Integer> diferentes) {
+        if (soma[no] == banco[0] && contagem[no] == banco[1]) {
+            return 1;
+        }
+        int folhas = soma.length / 2;
+        if (no >= folhas) {
+            diferentes.add(no - folhas);
+            return 1;
+        }
+        return 1
+                + comparar(soma, contagem, resumoBanco, 2 * no, resumoBanco.apply(2 * no), diferentes)
+                + comparar(soma, contagem, resumoBanco, 2 * no + 1, resumoBanco.apply(2 * no + 1), diferentes);
+    }
+
+    /**
+     * Separa o que falta, sobra ou difere no banco em um balde.
+     */
+    private static void diferencas(List<Aluno> memoria, List<Aluno> banco,
+                                   List<String> remover, List<Aluno> atualizar, List<Aluno> inserir) {
+        Map<String, Long> hashBanco = new HashMap<>(banco.size() * 2);
+        for (Aluno aluno : banco) {
+            hashBanco.put(aluno.getMatricula(), HashAluno.hash(aluno));
+        }
+
+        for (Aluno aluno : memoria) {
+            Long hash = hashBanco.remove(aluno.getMatricula());
+            if (hash == null) {
+                inserir.add(aluno);
+            } else if (hash != HashAluno.hash(aluno)) {
+                atualizar.add(aluno);
+            }
+        }
+        // O que sobrou só existe no banco
+        remover.addAll(hashBanco.keySet());
+    }
+
+    /**
+     * Aplica as correções em uma transação; se ela falhar (ex.: um CPF
+     * repetido no banco), repete aluno a aluno para corrigir os demais.
+     */
+    private static <T> void aplicar(List<T> correcoes, Consumer<List<T>> operacao, ResultadoReconciliacao resultado) {
+        if (correcoes.isEmpty()) {
+            return;
+        }
+        try {
+            operacao.accept(correcoes);
+            return;
+        } catch (RuntimeException e) {
+            System.err.println("Correção em lote falhou, repetindo uma a uma: " + e.getMessage());
+        }
+        for (T correcao : correcoes) {
+            try {
+                operacao.accept(Collections.singletonList(correcao));
+            } catch (RuntimeException e) {
+                resultado.falha();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.sistema.service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contadores de uma importação em lote.
+ */
+public class ResultadoImportacao {
+
+    // Quantidade de rejeições guardadas em memória (todas vão para o arquivo)
+    private static final int AMOSTRA_REJEICOES = 100;
+
+    private long linhasLidas;
+    private long importados;
+    private long rejeitados;
+    private Path arquivoRejeitados;
+    private final List<Rejeicao> primeirasRejeicoes = new ArrayList<>();
+
+    void linhaLida() {
+        linhasLidas++;
+    }
+
+    void importados(int quantidade) {
+        importados += quantidade;
+    }
+
+    void rejeitado(long linha, String motivo) {
+        rejeitados++;
+        if (primeirasRejeicoes.size() < AMOSTRA_REJEICOES) {
+            primeirasRejeicoes.add(new Rejeicao(linha, motivo));
+        }
+    }
+
+    void setArquivoRejeitados(Path arquivoRejeitados) {
+        this.arquivoRejeitados = arquivoRejeitados;
+    }
+
+    public long getLinhasLidas() {
+        return linhasLidas;
+    }
+
+    public long getImportados() {
+        return importados;
+    }
+
+    public long getRejeitados() {
+        return rejeitados;
+    }
+
+    /**
+     * Arquivo com as linhas rejeitadas e o motivo, ou null se nenhuma foi rejeitada.
+     */
+    public Path getArquivoRejeitados() {
+        return arquivoRejeitados;
+    }
+
+    /**
+     * As primeiras linhas rejeitadas (até 100), na ordem do arquivo.
+     */
+    public List<Rejeicao> getPrimeirasRejeicoes() {
+        return Collections.unmodifiableList(primeirasRejeicoes);
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoImportacao{" +
+                "linhasLidas=" + linhasLidas +
+                ", importados=" + importados +
+                ", rejeitados=" + rejeitados +
+                ", arquivoRejeitados=" + arquivoRejeitados +
+                '}';
+    }
+
+    /**
+     * Linha rejeitada e o motivo.
+     */
+    public static class Rejeicao {
+
+        private final long linha;
+        private final String motivo;
+
+        Rejeicao(long linha, String motivo) {
+            this.linha = linha;
+            this.motivo = motivo;
+        }
+
+        public long getLinha() {
+            return linha;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.sistema.service;
+
+/**
+ * Contadores de uma reconciliação entre a memória (CSV) e o banco.
+ */
+public class ResultadoReconciliacao {
+
+    private long alunosMemoria;
+    private long alunosBanco;
+    private int baldes;
+    private int baldesDiferentes;
+    private int comparacoes;
+    private int inseridos;
+    private int atualizados;
+    private int removidos;
+    private int remocoesAdiadas;
+    private int falhas;
+    private boolean resumoNoBanco;
+    private long duracaoMs;
+
+    void setAlunosMemoria(long alunosMemoria) {
+        this.alunosMemoria = alunosMemoria;
+    }
+
+    void setAlunosBanco(long alunosBanco) {
+        this.alunosBanco = alunosBanco;
+    }
+
+    void setBaldes(int baldes) {
+        this.baldes = baldes;
+    }
+
+    void setBaldesDiferentes(int baldesDiferentes) {
+        this.baldesDiferentes = baldesDiferentes;
+    }
+
+    void setComparacoes(int comparacoes) {
+        this.comparacoes = comparacoes;
+    }
+
+    void somarInseridos(int quantidade) {
+        inseridos += quantidade;
+    }
+
+    void somarAtualizados(int quantidade) {
+        atualizados += quantidade;
+    }
+
+    void somarRemovidos(int quantidade) {
+        removidos += quantidade;
+    }
+
+    void setRemocoesAdiadas(int remocoesAdiadas) {
+        this.remocoesAdiadas = remocoesAdiadas;
+    }
+
+    void setResumoNoBanco(boolean resumoNoBanco) {
+        this.resumoNoBanco = resumoNoBanco;
+    }
+
+    void falha() {
+        falhas++;
+    }
+
+    void setDuracaoMs(long duracaoMs) {
+        this.duracaoMs = duracaoMs;
+    }
+
+    public long getAlunosMemoria() {
+        return alunosMemoria;
+    }
+
+    public long getAlunosBanco() {
+        return alunosBanco;
+    }
+
+    /**
+     * Quantidade de faixas de matrícula em que as duas pontas foram divididas.
+     */
+    public int getBaldes() {
+        return baldes;
+    }
+
+    /**
+     * Faixas com resumo diferente, as únicas relidas do banco e corrigidas.
+     */
+    public int getBaldesDiferentes() {
+        return baldesDiferentes;
+    }
+
+    /**
+     * Resumos comparados na árvore até achar as faixas diferentes.
+     */
+    public int getComparacoes() {
+        return comparacoes;
+    }
+
+    public int getInseridos() {
+        return inseridos;
+    }
+
+    public int getAtualizados() {
+        return atualizados;
+    }
+
+    public int getRemovidos() {
+        return removidos;
+    }
+
+    /**
+     * Alunos que sobram no banco mas passaram do limite de remoções desta
+     * reconciliação; saem nas próximas.
+     */
+    public int getRemocoesAdiadas() {
+        return remocoesAdiadas;
+    }
+
+    /**
+     * true quando os resumos do banco vieram de consultas agregadas; false
+     * quando foi preciso ler a tabela inteira.
+     */
+    public boolean isResumoNoBanco() {
+        return resumoNoBanco;
+    }
+
+    /**
+     * Alunos que não puderam ser corrigidos no banco (ver o log de erros).
+     */
+    public int getFalhas() {
+        return falhas;
+    }
+
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+
+    /**
+     * true quando o banco já estava igual à memória.
+     */
+    public boolean isConsistente() {
+        return baldesDiferentes == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoReconciliacao{" +
+                "alunosMemoria=" + alunosMemoria +
+                ", alunosBanco=" + alunosBanco +
+                ", baldes=" + baldes +
+                ", baldesDiferentes=" + baldesDiferentes +
+                ", comparacoes=" + comparacoes +
+                ", inseridos=" + inseridos +
+                ", atualizados=" + atualizados +
+                ", removidos=" + removidos +
+                ", remocoesAdiadas=" + remocoesAdiadas +
+                ", falhas=" + falhas +
+                ", duracaoMs=" + duracaoMs +
+                ", resumoNoBanco=" + resumoNoBanco +
+                '}';
+    }
+}
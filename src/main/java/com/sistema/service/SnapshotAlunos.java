@@ -0,0 +1,355 @@
+package com.sistema.service;
+
+import com.sistema.metricas.MetricaOperacao;
+import com.sistema.metricas.RegistroMetricas;
+import com.sistema.model.Aluno;
+import com.sistema.util.MemoriaMapeada;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Cópia binária do arquivo CSV, carregada na inicialização no lugar dele.
+ *
+ * O snapshot é gravado junto com o CSV (compactação do journal ou
+ * encerramento do serviço) e guarda o tamanho e o CRC32 do CSV que
+ * representa. Se o conteúdo do CSV mudar por fora, mesmo mantendo o tamanho
+ * e a data de modificação, o snapshot fica desatualizado e a carga volta a
+ * ler o CSV, que continua sendo o formato de troca. Conferir o CRC lê os
+ * bytes do CSV, mas não interpreta as linhas.
+ *
+ * Formato (big-endian):
+ *   cabeçalho de 40 bytes
+ *     int   MAGICO ("ALSN")
+ *     short VERSAO
+ *     short reservado (0)
+ *     long  tamanho do CSV
+ *     long  CRC32 do CSV
+ *     int   quantidade de alunos
+ *     long  tamanho dos dados
+ *     int   CRC32 dos dados
+ *   dados, um aluno após o outro
+ *     texto  matrícula, nome
+ *     varint dia de nascimento (zigzag; Aluno.SEM_DATA sem data)
+ *     texto  telefone, CPF
+ *   texto = varint (bytes UTF-8 + 1; 0 = null) seguido dos bytes
+ *
+ * A idade não é guardada: é recalculada na carga, como na leitura do CSV.
+ */
+class SnapshotAlunos {
+
+    static final int MAGICO = 0x414C534E;
+    static final short VERSAO = 2;
+
+    private static final int TAMANHO_CABECALHO = 40;
+
+    private static final MetricaOperacao METRICA_CARREGAR = RegistroMetricas.operacao("snapshot", "carregar");
+    private static final MetricaOperacao METRICA_GRAVAR = RegistroMetricas.operacao("snapshot", "gravar");
+
+    private final Path arquivoCSV;
+    private final Path arquivo;
+
+    // O conteúdo foi conferido (carregado ou gravado) nesta execução; um
+    // snapshot corrompido tem o cabeçalho em dia, mas não pode ser mantido
+    private volatile boolean conferido;
+
+    SnapshotAlunos(String arquivoCSV) {
+        this.arquivoCSV = Paths.get(arquivoCSV);
+        this.arquivo = Paths.get(arquivoCSV + ".snapshot");
+    }
+
+    Path getArquivo() {
+        return arquivo;
+    }
+
+    // ==================== CARGA ====================
+
+    /**
+     * Entrega ao destino os alunos do snapshot, na ordem do CSV, um de cada
+     * vez (a lista inteira nunca fica na memória como objetos).
+     *
+     * @return false se o snapshot não existir, estiver desatualizado em
+     *         relação ao CSV ou corrompido (quem chama lê o CSV); nesse caso
+     *         o destino pode ter recebido parte dos alunos
+     */
+    boolean carregar(Consumer<Aluno> destino) {
+        if (!Files.exists(arquivo) || !Files.exists(arquivoCSV)) {
+            return false;
+        }
+
+        long inicio = System.nanoTime();
+        MappedByteBuffer buffer = null;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < TAMANHO_CABECALHO || tamanho > Integer.MAX_VALUE) {
+                System.err.println("Snapshot ignorado: tamanho inválido (" + tamanho + " bytes)");
+                return false;
+            }
+
+            // O arquivo é mapeado na memória: a leitura não passa por buffers
+            // intermediários. O mapeamento é liberado no fim da carga (os
+            // alunos só guardam cópias), senão o arquivo ficaria em uso até o
+            // coletor de lixo e, no Windows, gravar() não poderia substituí-lo
+            buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+            String motivo = validarCabecalho(buffer, tamanho);
+            if (motivo != null) {
+                System.out.println("Snapshot ignorado: " + motivo + ". Lendo o CSV.");
+                return false;
+            }
+
+            int quantidade = buffer.getInt(24);
+            buffer.position(TAMANHO_CABECALHO);
+            byte[] bytes = new byte[1024];
+            for (int i = 0; i < quantidade; i++) {
+                Aluno aluno = new Aluno();
+                aluno.setMatricula(lerTexto(buffer, bytes));
+                aluno.setNome(lerTexto(buffer, bytes));
+                aluno.setDiaNascimento(lerZigZag(buffer));
+                aluno.setTelefone(lerTexto(buffer, bytes));
+                aluno.setCpf(lerTexto(buffer, bytes));
+                aluno.calcularIdade();
+                destino.accept(aluno);
+            }
+            if (buffer.hasRemaining()) {
+                System.err.println("Snapshot ignorado: dados além dos " + quantidade + " alunos");
+                return false;
+            }
+            conferido = true;
+            return true;
+
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            METRICA_CARREGAR.falha();
+            System.err.println("Snapshot ignorado: " + e);
+            return false;
+        } finally {
+            MemoriaMapeada.liberar(buffer);
+            METRICA_CARREGAR.registrar(inicio);
+        }
+    }
+
+    /**
+     * Motivo para não usar o snapshot, ou null se o cabeçalho e o CRC conferem.
+     */
+    private String validarCabecalho(ByteBuffer buffer, long tamanho) throws IOException {
+        if (buffer.getInt(0) != MAGICO) {
+            return "não é um snapshot de alunos";
+        }
+        if (buffer.getShort(4) != VERSAO) {
+            return "versão " + buffer.getShort(4) + " do formato (esperada " + VERSAO + ")";
+        }
+        if (buffer.getLong(28) != tamanho - TAMANHO_CABECALHO) {
+            return "arquivo incompleto";
+        }
+        if (!representaCSV(buffer)) {
+            return "o CSV foi alterado depois do snapshot";
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer dados = buffer.duplicate();
+        dados.position(TAMANHO_CABECALHO);
+        crc.update(dados);
+        if ((int) crc.getValue() != buffer.getInt(TAMANHO_CABECALHO - 4)) {
+            return "CRC não confere";
+        }
+        return null;
+    }
+
+    /**
+     * Indica se o snapshot corresponde ao CSV atual e foi conferido nesta
+     * execução. Sem CSV não há o que representar e o snapshot é considerado em dia.
+     */
+    boolean isAtualizado() {
+        if (!Files.exists(arquivoCSV)) {
+            return true;
+        }
+        if (!conferido || !Files.exists(arquivo)) {
+            return false;
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            while (cabecalho.hasRemaining() && canal.read(cabecalho) >= 0) {
+                // lê o cabeçalho inteiro
+            }
+            return !cabecalho.hasRemaining()
+                    && cabecalho.getInt(0) == MAGICO
+                    && cabecalho.getShort(4) == VERSAO
+                    && representaCSV(cabecalho);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Confere o tamanho e, se bater, o CRC do CSV atual com os do cabeçalho.
+     */
+    private boolean representaCSV(ByteBuffer cabecalho) throws IOException {
+        return cabecalho.getLong(8) == Files.size(arquivoCSV) && cabecalho.getLong(16) == crcCSV();
+    }
+
+    private long crcCSV() throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel canal = FileChannel.open(arquivoCSV, StandardOpenOption.READ)) {
+            while (canal.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static String lerTexto(ByteBuffer buffer, byte[] bytes) {
+        int tamanho = lerVarint(buffer) - 1;
+        if (tamanho < 0) {
+            return null;
+        }
+        if (tamanho > bytes.length) {
+            bytes = new byte[tamanho];
+        }
+        buffer.get(bytes, 0, tamanho);
+        return new String(bytes, 0, tamanho, StandardCharsets.UTF_8);
+    }
+
+    private static int lerVarint(ByteBuffer buffer) {
+        int valor = 0;
+        for (int deslocamento = 0; deslocamento < 35; deslocamento += 7) {
+            byte b = buffer.get();
+            valor |= (b & 0x7F) << deslocamento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+        throw new IndexOutOfBoundsException("varint com mais de 5 bytes");
+    }
+
+    private static int lerZigZag(ByteBuffer buffer) {
+        int valor = lerVarint(buffer);
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    // ==================== GRAVAÇÃO ====================
+
+    /**
+     * Grava o snapshot da lista, que deve ser a mesma acabada de gravar no CSV.
+     * Chamado depois de o CSV estar no lugar, para registrar o tamanho e o
+     * CRC finais dele. Uma falha só é avisada: a próxima carga lê o CSV.
+     */
+    void gravar(List<Aluno> alunos) {
+        Path temporario = Paths.get(arquivo + ".tmp");
+        long inicio = System.nanoTime();
+
+        try {
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                canal.position(TAMANHO_CABECALHO);
+
+                CRC32 crc = new CRC32();
+                long tamanhoDados;
+                // O canal não é fechado aqui: ainda falta o cabeçalho
+                Escritor dados = new Escritor(new CheckedOutputStream(Channels.newOutputStream(canal), crc));
+                for (Aluno aluno : alunos) {
+                    dados.texto(aluno.getMatricula());
+                    dados.texto(aluno.getNome());
+                    dados.zigZag(aluno.getDiaNascimento());
+                    dados.texto(aluno.getTelefone());
+                    dados.texto(aluno.getCpf());
+                }
+                dados.flush();
+                tamanhoDados = dados.escritos;
+
+                ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+                cabecalho.putInt(MAGICO)
+                        .putShort(VERSAO)
+                        .putShort((short) 0)
+                        .putLong(Files.size(arquivoCSV))
+                        .putLong(crcCSV())
+                        .putInt(alunos.size())
+                        .putLong(tamanhoDados)
+                        .putInt((int) crc.getValue())
+                        .flip();
+                while (cabecalho.hasRemaining()) {
+                    canal.write(cabecalho, cabecalho.position());
+                }
+                canal.force(true);
+            }
+
+            try {
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING);
+            }
+            conferido = true;
+
+        } catch (IOException e) {
+            METRICA_GRAVAR.falha();
+            System.err.println("Erro ao gravar o snapshot dos alunos: " + e.getMessage());
+            try {
+                Files.deleteIfExists(temporario);
+            } catch (IOException ignorada) {
+                // O arquivo temporário é sobrescrito na próxima gravação
+            }
+        } finally {
+            METRICA_GRAVAR.registrar(inicio);
+        }
+    }
+
+    /**
+     * Escreve varints e textos com prefixo de tamanho, contando os bytes.
+     */
+    private static final class Escritor {
+
+        private final OutputStream saida;
+        private long escritos;
+
+        Escritor(OutputStream saida) {
+            this.saida = new BufferedOutputStream(saida, 64 * 1024);
+        }
+
+        void texto(String valor) throws IOException {
+            if (valor == null) {
+                varint(0);
+                return;
+            }
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1);
+            saida.write(bytes);
+            escritos += bytes.length;
+        }
+
+        void zigZag(int valor) throws IOException {
+            varint((valor << 1) ^ (valor >> 31));
+        }
+
+        void varint(int valor) throws IOException {
+            while ((valor & ~0x7F) != 0) {
+                saida.write((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+                escritos++;
+            }
+            saida.write(valor);
+            escritos++;
+        }
+
+        void flush() throws IOException {
+            saida.flush();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.sistema.util;
+
+import com.sistema.model.Aluno;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Conversão entre alunos e linhas CSV.
+ *
+ * A leitura percorre os caracteres diretamente do buffer, sem expressões
+ * regulares nem String.split, e aceita campos entre aspas no padrão RFC 4180
+ * (vírgulas dentro do campo e aspas duplicadas como escape). Campos sem aspas
+ * têm os espaços das pontas removidos, como no formato antigo.
+ *
+ * A escrita vai direto para um Appendable (Writer, StringBuilder...), que pode
+ * ser reaproveitado entre as linhas. Só usa aspas quando o campo precisa delas,
+ * então arquivos sem vírgulas nos nomes continuam idênticos ao formato antigo.
+ * Quebras de linha dentro de um campo são gravadas como espaço, pois o CSV é
+ * lido linha a linha. Um CPF vazio é gravado como "", para que a linha não
+ * termine em vírgula (leitores com split(",") perderiam o último campo).
+ *
+ * Formato: matricula,nome,dataNascimento(dd/MM/yyyy),telefone,cpf
+ */
+public class AlunoCSVCodec {
+
+    private static final int QUANTIDADE_CAMPOS = 5;
+
+    // Buffer para desfazer o escape de campos entre aspas (um por thread)
+    private static final ThreadLocal<StringBuilder> BUFFER_ASPAS =
+            ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    private AlunoCSVCodec() {
+    }
+
+    // ==================== LEITURA ====================
+
+    public static Aluno decodificar(CharSequence linha) throws ParseException {
+        return decodificar(linha, 0, linha.length());
+    }
+
+    /**
+     * Converte os caracteres [inicio, fim) do buffer em um aluno.
+     *
+     * @throws IllegalArgumentException se a linha não tiver exatamente 5 campos
+     * @throws ParseException se a data ou as aspas forem inválidas
+     */
+    public static Aluno decodificar(CharSequence linha, int inicio, int fim) throws ParseException {
+        StringBuilder aspas = BUFFER_ASPAS.get();
+        Aluno aluno = new Aluno();
+        int campo = 0;
+        int pos = inicio;
+
+        // A data só é convertida depois de contar os campos, para que uma linha
+        // com campos a menos seja reportada como tal
+        CharSequence data = null;
+        int inicioData = 0;
+        int fimData = 0;
+
+        while (true) {
+            // Remove os espaços do início do campo, como o trim()
+            while (pos < fim && linha.charAt(pos) <= ' ') {
+                pos++;
+            }
+
+            CharSequence valor;
+            int inicioValor;
+            int fimValor;
+
+            if (pos < fim && linha.charAt(pos) == '"') {
+                pos = lerCampoEntreAspas(linha, pos + 1, fim, aspas);
+                valor = aspas;
+                inicioValor = 0;
+                fimValor = aspas.length();
+            } else {
+                inicioValor = pos;
+                while (pos < fim && linha.charAt(pos) != ',') {
+                    pos++;
+                }
+                fimValor = pos;
+                while (fimValor > inicioValor && linha.charAt(fimValor - 1) <= ' ') {
+                    fimValor--;
+                }
+                valor = linha;
+            }
+
+            if (campo == 2) {
+                // O buffer de aspas é reaproveitado pelos campos seguintes
+                data = valor == aspas ? aspas.toString() : valor;
+                inicioData = inicioValor;
+                fimData = fimValor;
+            } else {
+                atribuirCampo(aluno, campo, valor, inicioValor, fimValor);
+            }
+            campo++;
+
+            if (pos >= fim) {
+                break;
+            }
+            pos++; // pula a vírgula
+        }
+
+        if (campo != QUANTIDADE_CAMPOS) {
+            throw new IllegalArgumentException("Linha CSV inválida. Esperado 5 campos, encontrado " + campo);
+        }
+
+        if (fimData > inicioData) {
+            aluno.setDiaNascimento((int) lerData(data, inicioData, fimData));
+        }
+
+        // Calcula a idade baseada na data de nascimento
+        aluno.calcularIdade();
+
+        return aluno;
+    }
+
+    /**
+     * Lê um campo entre aspas a partir do primeiro caractere depois da aspa de
+     * abertura. Retorna a posição da vírgula seguinte (ou o fim da linha).
+     */
+    private static int lerCampoEntreAspas(CharSequence linha, int pos, int fim, StringBuilder destino)
+            throws ParseException {
+        destino.setLength(0);
+
+        while (true) {
+            if (pos >= fim) {
+                throw new ParseException("Campo entre aspas sem aspas de fechamento", pos);
+            }
+            char c = linha.charAt(pos++);
+            if (c == '"') {
+                if (pos < fim && linha.charAt(pos) == '"') {
+                    destino.append('"');
+                    pos++;
+                } else {
+                    break;
+                }
+            } else {
+                destino.append(c);
+            }
+        }
+
+        while (pos < fim && linha.charAt(pos) <= ' ') {
+            pos++;
+        }
+        if (pos < fim && linha.charAt(pos) != ',') {
+            throw new ParseException("Caractere inesperado depois das aspas de fechamento", pos);
+        }
+        return pos;
+    }
+
+    private static void atribuirCampo(Aluno aluno, int campo, CharSequence valor, int inicio, int fim) {
+        switch (campo) {
+            case 0:
+                aluno.setMatricula(texto(valor, inicio, fim));
+                break;
+            case 1:
+                aluno.setNome(texto(valor, inicio, fim));
+                break;
+            case 3:
+                aluno.setTelefone(texto(valor, inicio, fim));
+                break;
+            case 4:
+                aluno.setCpf(texto(valor, inicio, fim));
+                break;
+            default:
+                // Campos a mais só são contados para a mensagem de erro
+                break;
+        }
+    }
+
+    private static String texto(CharSequence valor, int inicio, int fim) {
+        if (valor instanceof String) {
+            return ((String) valor).substring(inicio, fim);
+        }
+        return valor.subSequence(inicio, fim).toString();
+    }
+
+    /**
+     * Lê uma data dd/MM/yyyy e retorna o dia da época correspondente.
+     * Datas inexistentes (31/02, 29/02 fora de ano bissexto...) são rejeitadas.
+     */
+    private static long lerData(CharSequence texto, int inicio, int fim) throws ParseException {
+        int barra1 = -1;
+        int barra2 = -1;
+
+        for (int i = inicio; i < fim; i++) {
+            char c = texto.charAt(i);
+            if (c == '/' && barra1 < 0) {
+                barra1 = i;
+            } else if (c == '/' && barra2 < 0) {
+                barra2 = i;
+            } else if (c < '0' || c > '9') {
+                throw dataInvalida(texto, inicio, fim, i);
+            }
+        }
+
+        if (barra2 < 0
+                || barra1 - inicio < 1 || barra1 - inicio > 2
+                || barra2 - barra1 - 1 < 1 || barra2 - barra1 - 1 > 2
+                || fim - barra2 - 1 < 1 || fim - barra2 - 1 > 4) {
+            throw dataInvalida(texto, inicio, fim, 0);
+        }
+
+        int dia = lerNumero(texto, inicio, barra1);
+        int mes = lerNumero(texto, barra1 + 1, barra2);
+        int ano = lerNumero(texto, barra2 + 1, fim);
+
+        if (!DataUtil.dataValida(ano, mes, dia)) {
+            throw dataInvalida(texto, inicio, fim, 0);
+        }
+
+        return DataUtil.diaEpoca(ano, mes, dia);
+    }
+
+    private static int lerNumero(CharSequence texto, int inicio, int fim) {
+        int valor = 0;
+        for (int i = inicio; i < fim; i++) {
+            valor = valor * 10 + (texto.charAt(i) - '0');
+        }
+        return valor;
+    }
+
+    private static ParseException dataInvalida(CharSequence texto, int inicio, int fim, int posicao) {
+        return new ParseException("Data inválida: \"" + texto.subSequence(inicio, fim) + "\"", Math.max(0, posicao - inicio));
+    }
+
+    // ==================== ESCRITA ====================
+
+    /**
+     * Gera a linha CSV do aluno (sem quebra de linha).
+     */
+    public static String codificar(Aluno aluno) {
+        StringBuilder linha = new StringBuilder(96);
+        try {
+            codificar(aluno, linha);
+        } catch (IOException e) {
+            // StringBuilder não lança IOException
+            throw new IllegalStateException(e);
+        }
+        return linha.toString();
+    }
+
+    /**
+     * Escreve a linha CSV do aluno no destino (sem quebra de linha).
+     */
+    public static void codificar(Aluno aluno, Appendable destino) throws IOException {
+        escreverCampo(aluno.getMatricula(), destino);
+        destino.append(',');
+        escreverCampo(aluno.getNome(), destino);
+        destino.append(',');
+        escreverData(aluno.getDiaNascimento(), destino);
+        destino.append(',');
+        escreverCampo(aluno.getTelefone(), destino);
+        destino.append(',');
+        if (aluno.getCpf() == null || aluno.getCpf().isEmpty()) {
+            destino.append("\"\"");
+        } else {
+            escreverCampo(aluno.getCpf(), destino);
+        }
+    }
+
+    /**
+     * Escreve um campo de texto, entre aspas somente quando necessário.
+     */
+    public static void escreverCampo(String valor, Appendable destino) throws IOException {
+        if (valor == null || valor.isEmpty()) {
+            return;
+        }
+
+        if (!precisaAspas(valor)) {
+            destino.append(valor);
+            return;
+        }
+
+        destino.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                destino.append("\"\"");
+            } else if (c == '\n' || c == '\r') {
+                destino.append(' ');
+            } else {
+                destino.append(c);
+            }
+        }
+        destino.append('"');
+    }
+
+    /**
+     * Aspas são necessárias para vírgulas, aspas, quebras de linha e espaços nas
+     * pontas (que seriam removidos na leitura de um campo sem aspas).
+     */
+    private static boolean precisaAspas(String valor) {
+        if (valor.charAt(0) <= ' ' || valor.charAt(valor.length() - 1) <= ' ') {
+            return true;
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void escreverData(int diaNascimento, Appendable destino) throws IOException {
+        if (diaNascimento == Aluno.SEM_DATA) {
+            return;
+        }
+        int compacta = DataUtil.dataCompacta(diaNascimento);
+        escreverNumero(compacta % 100, 2, destino);
+        destino.append('/');
+        escreverNumero(compacta / 100 % 100, 2, destino);
+        destino.append('/');
+        escreverNumero(compacta / 10000, 4, destino);
+    }
+
+    private static void escreverNumero(int valor, int digitos, Appendable destino) throws IOException {
+        int divisor = 1;
+        for (int i = 1; i < digitos; i++) {
+            divisor *= 10;
+        }
+        // Anos com mais dígitos que o mínimo são escritos por inteiro
+        while (valor / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            destino.append((char) ('0' + valor / divisor % 10));
+        }
+    }
+}
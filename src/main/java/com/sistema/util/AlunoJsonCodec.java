@@ -0,0 +1,306 @@
+package com.sistema.util;
+
+import com.sistema.model.Aluno;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conversão entre alunos e objetos JSON, usada pela API HTTP.
+ *
+ * Formato:
+ * {"matricula":"123","nome":"Ana","dataNascimento":"2001-05-30","idade":23,
+ *  "telefone":"(86)3232-2525","cpf":"554.759.013-00"}
+ *
+ * A data sai no padrão ISO (yyyy-MM-dd); na leitura também é aceito
+ * dd/MM/yyyy. "idade" é só informativa e é ignorada na leitura, assim como
+ * qualquer campo desconhecido. O leitor aceita apenas objetos planos (sem
+ * objetos ou listas aninhados), que é tudo o que um aluno precisa.
+ */
+public class AlunoJsonCodec {
+
+    private AlunoJsonCodec() {
+    }
+
+    // ==================== LEITURA ====================
+
+    /**
+     * Converte um objeto JSON em aluno.
+     *
+     * @throws ParseException se o texto não for um objeto JSON plano válido ou
+     *         se a data for inválida
+     */
+    public static Aluno decodificar(CharSequence json) throws ParseException {
+        Leitor leitor = new Leitor(json);
+        Aluno aluno = new Aluno();
+
+        leitor.esperar('{');
+        if (!leitor.consumir('}')) {
+            do {
+                String chave = leitor.lerTexto();
+                leitor.esperar(':');
+                String valor = leitor.lerValor();
+                atribuir(aluno, chave, valor, leitor);
+            } while (leitor.consumir(','));
+            leitor.esperar('}');
+        }
+        leitor.esperarFim();
+        return aluno;
+    }
+
+    private static void atribuir(Aluno aluno, String chave, String valor, Leitor leitor) throws ParseException {
+        switch (chave) {
+            case "matricula":
+                aluno.setMatricula(valor);
+                break;
+            case "nome":
+                aluno.setNome(valor);
+                break;
+            case "dataNascimento":
+                aluno.setDataNascimento(valor == null || valor.isEmpty() ? null : lerData(valor, leitor));
+                break;
+            case "telefone":
+                aluno.setTelefone(valor);
+                break;
+            case "cpf":
+                aluno.setCpf(valor);
+                break;
+            default:
+                // Campos desconhecidos (inclusive "idade") são ignorados
+                break;
+        }
+    }
+
+    private static LocalDate lerData(String valor, Leitor leitor) throws ParseException {
+        DateTimeFormatter formato = valor.indexOf('/') >= 0 ? DataUtil.FORMATO_DATA : DateTimeFormatter.ISO_LOCAL_DATE;
+        try {
+            return LocalDate.parse(valor, formato);
+        } catch (DateTimeParseException e) {
+            throw leitor.erro("Data inválida: " + valor);
+        }
+    }
+
+    /**
+     * Leitor de um objeto JSON plano. Valores de texto, número, true/false e
+     * null são devolvidos como String (null para null).
+     */
+    private static final class Leitor {
+
+        private final CharSequence texto;
+        private int pos;
+
+        Leitor(CharSequence texto) {
+            this.texto = texto;
+        }
+
+        void esperar(char c) throws ParseException {
+            if (!consumir(c)) {
+                throw erro("Esperado '" + c + "'");
+            }
+        }
+
+        boolean consumir(char c) {
+            pularEspacos();
+            if (pos < texto.length() && texto.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void esperarFim() throws ParseException {
+            pularEspacos();
+            if (pos < texto.length()) {
+                throw erro("Conteúdo após o fim do objeto");
+            }
+        }
+
+        String lerValor() throws ParseException {
+            pularEspacos();
+            if (pos >= texto.length()) {
+                throw erro("Valor esperado");
+            }
+
+            char c = texto.charAt(pos);
+            if (c == '"') {
+                return lerTexto();
+            }
+            if (c == '{' || c == '[') {
+                throw erro("Objetos e listas aninhados não são aceitos");
+            }
+
+            // Número, true, false ou null: vai até o próximo separador
+            int inicio = pos;
+            while (pos < texto.length() && ",}] \t\r\n".indexOf(texto.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = texto.subSequence(inicio, pos).toString();
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false") || ehNumero(literal)) {
+                return literal;
+            }
+            throw erro("Valor inválido: " + literal);
+        }
+
+        String lerTexto() throws ParseException {
+            esperar('"');
+            StringBuilder valor = new StringBuilder();
+            while (pos < texto.length()) {
+                char c = texto.charAt(pos++);
+                if (c == '"') {
+                    return valor.toString();
+                }
+                if (c != '\\') {
+                    valor.append(c);
+                    continue;
+                }
+                if (pos >= texto.length()) {
+                    break;
+                }
+                char escape = texto.charAt(pos++);
+                switch (escape) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        valor.append(escape);
+                        break;
+                    case 'b':
+                        valor.append('\b');
+                        break;
+                    case 'f':
+                        valor.append('\f');
+                        break;
+                    case 'n':
+                        valor.append('\n');
+                        break;
+                    case 'r':
+                        valor.append('\r');
+                        break;
+                    case 't':
+                        valor.append('\t');
+                        break;
+                    case 'u':
+                        valor.append(lerUnicode());
+                        break;
+                    default:
+                        throw erro("Escape inválido: \\" + escape);
+                }
+            }
+            throw erro("Texto sem aspas de fechamento");
+        }
+
+        private char lerUnicode() throws ParseException {
+            if (pos + 4 > texto.length()) {
+                throw erro("Escape \\u incompleto");
+            }
+            int codigo = 0;
+            for (int i = 0; i < 4; i++) {
+                int digito = Character.digit(texto.charAt(pos++), 16);
+                if (digito < 0) {
+                    throw erro("Escape \\u inválido");
+                }
+                codigo = codigo * 16 + digito;
+            }
+            return (char) codigo;
+        }
+
+        private static boolean ehNumero(String literal) {
+            try {
+                Double.parseDouble(literal);
+                return !literal.isEmpty() && literal.charAt(literal.length() - 1) != '.';
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private void pularEspacos() {
+            while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        ParseException erro(String mensagem) {
+            return new ParseException(mensagem + " (posição " + pos + ")", pos);
+        }
+    }
+
+    // ==================== ESCRITA ====================
+
+    /**
+     * Gera o objeto JSON do aluno, em uma única linha.
+     */
+    public static String codificar(Aluno aluno) {
+        StringBuilder json = new StringBuilder(160);
+        try {
+            codificar(aluno, json);
+        } catch (IOException e) {
+            // StringBuilder não lança IOException
+            throw new IllegalStateException(e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Escreve o objeto JSON do aluno no destino, em uma única linha.
+     */
+    public static void codificar(Aluno aluno, Appendable destino) throws IOException {
+        destino.append("{\"matricula\":");
+        escreverTexto(aluno.getMatricula(), destino);
+        destino.append(",\"nome\":");
+        escreverTexto(aluno.getNome(), destino);
+        destino.append(",\"dataNascimento\":");
+        LocalDate data = aluno.getDataNascimento();
+        escreverTexto(data == null ? null : data.toString(), destino);
+        destino.append(",\"idade\":").append(Integer.toString(aluno.getIdade()));
+        destino.append(",\"telefone\":");
+        escreverTexto(aluno.getTelefone(), destino);
+        destino.append(",\"cpf\":");
+        escreverTexto(aluno.getCpf(), destino);
+        destino.append('}');
+    }
+
+    /**
+     * Escreve um texto JSON entre aspas, com escape de aspas, barras e
+     * caracteres de controle. null é escrito como null.
+     */
+    public static void escreverTexto(String valor, Appendable destino) throws IOException {
+        if (valor == null) {
+            destino.append("null");
+            return;
+        }
+
+        destino.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"':
+                    destino.append("\\\"");
+                    break;
+                case '\\':
+                    destino.append("\\\\");
+                    break;
+                case '\n':
+                    destino.append("\\n");
+                    break;
+                case '\r':
+                    destino.append("\\r");
+                    break;
+                case '\t':
+                    destino.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        destino.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        destino.append(c);
+                    }
+            }
+        }
+        destino.append('"');
+    }
+}
@@ -0,0 +1,361 @@
+package com.sistema.util;
+
+import com.sistema.model.Aluno;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Carregador paralelo do arquivo CSV de alunos.
+ *
+ * O arquivo é mapeado em memória (NIO) e dividido em pedaços que sempre
+ * terminam em uma quebra de linha. Cada pedaço é decodificado e convertido em
+ * alunos em paralelo no ForkJoinPool comum, e os resultados são juntados na
+ * ordem do arquivo. Os mapeamentos são liberados ao fim de cada janela lida,
+ * para que o arquivo possa ser substituído logo depois da carga. Os erros guardam o número da linha no arquivo inteiro, como
+ * na leitura linha a linha.
+ */
+public class CarregadorCSV {
+
+    // Tamanho aproximado de cada pedaço processado por uma tarefa
+    private static final int TAMANHO_PEDACO = 8 * 1024 * 1024;
+
+    /**
+     * Linha do arquivo que não pôde ser convertida em aluno.
+     */
+    public static class ErroLinha {
+
+        private final int linha;
+        private final String mensagem;
+
+        ErroLinha(int linha, String mensagem) {
+            this.linha = linha;
+            this.mensagem = mensagem;
+        }
+
+        public int getLinha() {
+            return linha;
+        }
+
+        public String getMensagem() {
+            return mensagem;
+        }
+    }
+
+    /**
+     * Resultado da carga: os alunos na ordem do arquivo, a linha de cada um e os erros.
+     */
+    public static class Resultado {
+
+        private final List<Aluno> alunos = new ArrayList<>();
+        private int[] linhas = new int[16];
+        private final List<ErroLinha> erros = new ArrayList<>();
+        private int totalLinhas;
+
+        private void adicionar(Aluno aluno, int linha) {
+            if (alunos.size() == linhas.length) {
+                linhas = Arrays.copyOf(linhas, linhas.length * 2);
+            }
+            linhas[alunos.size()] = linha;
+            alunos.add(aluno);
+        }
+
+        /**
+         * Acrescenta o resultado do pedaço seguinte, ajustando os números de linha.
+         */
+        private void juntar(Resultado seguinte) {
+            int deslocamento = totalLinhas;
+            for (int i = 0; i < seguinte.alunos.size(); i++) {
+                adicionar(seguinte.alunos.get(i), seguinte.linhas[i] + deslocamento);
+            }
+            for (ErroLinha erro : seguinte.erros) {
+                erros.add(new ErroLinha(erro.linha + deslocamento, erro.mensagem));
+            }
+            totalLinhas += seguinte.totalLinhas;
+        }
+
+        public List<Aluno> getAlunos() {
+            return alunos;
+        }
+
+        /**
+         * Número da linha (a partir de 1) de onde veio o aluno na posição indicada.
+         */
+        public int getLinha(int indiceAluno) {
+            return linhas[indiceAluno];
+        }
+
+        public List<ErroLinha> getErros() {
+            return erros;
+        }
+
+        public int getTotalLinhas() {
+            return totalLinhas;
+        }
+    }
+
+    private CarregadorCSV() {
+    }
+
+    /**
+     * Lê e converte todas as linhas do arquivo usando o charset padrão da plataforma,
+     * o mesmo usado na gravação do CSV.
+     */
+    public static Resultado carregar(Path arquivo) throws IOException {
+        return carregar(arquivo, Charset.defaultCharset());
+    }
+
+    public static Resultado carregar(Path arquivo, Charset charset) throws IOException {
+        return carregar(arquivo, charset, TAMANHO_PEDACO);
+    }
+
+    static Resultado carregar(Path arquivo, Charset charset, int tamanhoPedaco) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            tamanhoPedaco = Math.max(tamanhoPedaco, 16);
+            long[] limites = dividirEmPedacos(canal, charset, tamanhoPedaco);
+            return ForkJoinPool.commonPool().invoke(
+                    new TarefaCarga(canal, charset, tamanhoPedaco, limites, 0, limites.length - 1));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Calcula os limites dos pedaços: cada limite (exceto o primeiro) fica logo
+     * depois de um '\n', para que nenhuma linha seja dividida entre dois pedaços.
+     */
+    private static long[] dividirEmPedacos(FileChannel canal, Charset charset, int tamanhoPedaco)
+            throws IOException {
+        long tamanho = canal.size();
+
+        // Só divide quando '\n' e ',' ocupam um byte cada (UTF-8, ISO-8859-1, ...).
+        // Nos outros (UTF-16, ...) um byte '\n' pode ser metade de um caractere:
+        // o arquivo fica em um pedaço só, lido em janelas (ver carregarPedaco)
+        boolean divisivel = Arrays.equals("\n,".getBytes(charset), new byte[]{'\n', ','});
+        if (!divisivel || tamanho <= tamanhoPedaco) {
+            return new long[]{0, tamanho};
+        }
+
+        List<Long> limites = new ArrayList<>();
+        limites.add(0L);
+
+        ByteBuffer busca = ByteBuffer.allocate(4096);
+        long posicao = tamanhoPedaco;
+
+        while (posicao < tamanho) {
+            long fimLinha = procurarQuebraLinha(canal, busca, posicao);
+            if (fimLinha < 0) {
+                break;
+            }
+            limites.add(fimLinha + 1);
+            posicao = fimLinha + 1 + tamanhoPedaco;
+        }
+
+        if (limites.get(limites.size() - 1) < tamanho) {
+            limites.add(tamanho);
+        }
+
+        long[] resultado = new long[limites.size()];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = limites.get(i);
+        }
+        return resultado;
+    }
+
+    private static long procurarQuebraLinha(FileChannel canal, ByteBuffer busca, long inicio) throws IOException {
+        long posicao = inicio;
+        while (true) {
+            busca.clear();
+            int lidos = canal.read(busca, posicao);
+            if (lidos <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < lidos; i++) {
+                if (busca.get(i) == '\n') {
+                    return posicao + i;
+                }
+            }
+            posicao += lidos;
+        }
+    }
+
+    /**
+     * Carrega os pedaços [primeiro, ultimo) dividindo o intervalo ao meio até
+     * restar um único pedaço.
+     */
+    private static class TarefaCarga extends RecursiveTask<Resultado> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel canal;
+        private final transient Charset charset;
+        private final int tamanhoJanela;
+        private final long[] limites;
+        private final int primeiro;
+        private final int ultimo;
+
+        TarefaCarga(FileChannel canal, Charset charset, int tamanhoJanela, long[] limites, int primeiro, int ultimo) {
+            this.canal = canal;
+            this.charset = charset;
+            this.tamanhoJanela = tamanhoJanela;
+            this.limites = limites;
+            this.primeiro = primeiro;
+            this.ultimo = ultimo;
+        }
+
+        @Override
+        protected Resultado compute() {
+            if (ultimo - primeiro <= 1) {
+                return carregarPedaco(limites[primeiro], limites[ultimo]);
+            }
+
+            int meio = (primeiro + ultimo) >>> 1;
+            TarefaCarga esquerda = new TarefaCarga(canal, charset, tamanhoJanela, limites, primeiro, meio);
+            TarefaCarga direita = new TarefaCarga(canal, charset, tamanhoJanela, limites, meio, ultimo);
+            esquerda.fork();
+
+            Resultado resultadoDireita = direita.compute();
+            Resultado resultado = esquerda.join();
+            resultado.juntar(resultadoDireita);
+            return resultado;
+        }
+
+        /**
+         * Decodifica o pedaço em janelas de até tamanhoJanela bytes, mapeando e
+         * liberando uma de cada vez: um pedaço grande (o arquivo inteiro, quando
+         * o charset não permite dividir) não fica todo na memória nem passa do
+         * limite de 2 GB de um mapeamento. As linhas completas são convertidas a
+         * cada janela; a linha incompleta continua na seguinte.
+         */
+        private Resultado carregarPedaco(long inicio, long fim) {
+            Resultado resultado = new Resultado();
+            if (fim <= inicio) {
+                return resultado;
+            }
+
+            // Bytes inválidos viram caractere de substituição, como no FileReader
+            CharsetDecoder decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer texto = CharBuffer.allocate(
+                    (int) (Math.min(fim - inicio, tamanhoJanela) * decoder.averageCharsPerByte()) + 16);
+
+            try {
+                long posicao = inicio;
+                boolean ultima = false;
+                while (!ultima) {
+                    int tamanho = (int) Math.min(fim - posicao, tamanhoJanela);
+                    ultima = posicao + tamanho == fim;
+                    ByteBuffer janela = lerJanela(posicao, tamanho);
+                    try {
+                        while (decoder.decode(janela, texto, ultima).isOverflow()) {
+                            texto = abrirEspaco(texto, resultado);
+                        }
+                        // Bytes de um caractere cortado no fim da janela começam a próxima
+                        posicao += janela.position();
+                    } finally {
+                        MemoriaMapeada.liberar(janela);
+                    }
+                }
+                while (decoder.flush(texto).isOverflow()) {
+                    texto = abrirEspaco(texto, resultado);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            texto.flip();
+            int inicioUltima = converterLinhas(texto, resultado);
+            if (inicioUltima < texto.limit()) {
+                converterLinha(texto, inicioUltima, texto.limit(), resultado);
+            }
+            return resultado;
+        }
+
+        /**
+         * Mapeia os bytes [posicao, posicao + tamanho). Se o mapeamento não for
+         * possível (sistema de arquivos sem suporte, espaço de endereços
+         * esgotado), lê os bytes com o FileChannel, sem mapear.
+         */
+        private ByteBuffer lerJanela(long posicao, int tamanho) throws IOException {
+            try {
+                return canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanho);
+            } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+                ByteBuffer janela = ByteBuffer.allocate(tamanho);
+                while (janela.hasRemaining()) {
+                    if (canal.read(janela, posicao + janela.position()) < 0) {
+                        throw new IOException("Arquivo terminou antes do esperado", e);
+                    }
+                }
+                return janela.flip();
+            }
+        }
+    }
+
+    /**
+     * Converte as linhas completas do texto (em modo de escrita, como o deixa o
+     * decoder) e devolve o buffer de novo em modo de escrita, só com a linha
+     * incompleta no início. Se não havia linha completa, o buffer dobra.
+     */
+    private static CharBuffer abrirEspaco(CharBuffer texto, Resultado resultado) {
+        texto.flip();
+        texto.position(converterLinhas(texto, resultado));
+        if (texto.position() == 0) {
+            return CharBuffer.allocate(texto.capacity() * 2).put(texto);
+        }
+        return texto.compact();
+    }
+
+    /**
+     * Converte as linhas terminadas em '\n' do texto (em modo de leitura, a
+     * partir da posição 0) e devolve onde começa a linha sem '\n'.
+     */
+    private static int converterLinhas(CharBuffer texto, Resultado resultado) {
+        int inicioLinha = 0;
+        int tamanho = texto.limit();
+
+        while (inicioLinha < tamanho) {
+            int fimLinha = inicioLinha;
+            while (fimLinha < tamanho && texto.get(fimLinha) != '\n') {
+                fimLinha++;
+            }
+            if (fimLinha == tamanho) {
+                break;
+            }
+
+            converterLinha(texto, inicioLinha, fimLinha, resultado);
+            inicioLinha = fimLinha + 1;
+        }
+        return inicioLinha;
+    }
+
+    private static void converterLinha(CharBuffer texto, int inicio, int fim, Resultado resultado) {
+        int fimConteudo = fim;
+        if (fimConteudo > inicio && texto.get(fimConteudo - 1) == '\r') {
+            fimConteudo--;
+        }
+
+        resultado.totalLinhas++;
+
+        try {
+            // Converte direto do buffer, sem criar uma String para a linha
+            resultado.adicionar(AlunoCSVCodec.decodificar(texto, inicio, fimConteudo), resultado.totalLinhas);
+        } catch (ParseException | IllegalArgumentException e) {
+            resultado.erros.add(new ErroLinha(resultado.totalLinhas, e.getMessage()));
+        }
+    }
+}
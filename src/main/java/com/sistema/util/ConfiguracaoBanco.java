@@ -0,0 +1,226 @@
+package com.sistema.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Configuração do banco e do pool de conexões, organizada em perfis.
+ *
+ * Cada valor é procurado, nesta ordem:
+ * 1. na propriedade de sistema "alunos.db.chave" (ex.: -Dalunos.db.pool=hikari);
+ * 2. no arquivo de configuração, como "perfil.chave" (ex.: producao.pool.maximo=40);
+ * 3. no perfil embutido de mesmo nome (padrao ou desenvolvimento);
+ * 4. no perfil embutido "padrao".
+ *
+ * O arquivo é "alunos.properties" no diretório atual (ou o indicado em
+ * -Dalunos.config) e é opcional. O perfil vem de -Dalunos.perfil, da chave
+ * "perfil" do arquivo ou é "padrao". Exemplo em alunos_EXEMPLO.properties.
+ *
+ * Chaves:
+ * url, usuario, senha               conexão JDBC
+ * pool                              c3p0 ou hikari
+ * pool.minimo, pool.maximo          conexões mantidas e limite do pool
+ * pool.esperaMs                     espera máxima por uma conexão livre (0 = sem limite, só c3p0)
+ * pool.ociosoMs                     tempo até fechar uma conexão ociosa acima do mínimo
+ * pool.statements                   PreparedStatements guardados pelo pool (só c3p0)
+ * mostrarSql, formatarSql           SQL gerado pelo Hibernate no console
+ * esquema                           migrar, validar, atualizar ou nenhum (ver {@link #getEsquema()})
+ */
+public final class ConfiguracaoBanco {
+
+    public static final String PROP_ARQUIVO = "alunos.config";
+    public static final String PROP_PERFIL = "alunos.perfil";
+    public static final String PREFIXO_SISTEMA = "alunos.db.";
+
+    public static final String ARQUIVO_PADRAO = "alunos.properties";
+    public static final String PERFIL_PADRAO = "padrao";
+
+    public static final String POOL_C3P0 = "c3p0";
+    public static final String POOL_HIKARI = "hikari";
+
+    public static final String ESQUEMA_MIGRAR = "migrar";
+    public static final String ESQUEMA_VALIDAR = "validar";
+    public static final String ESQUEMA_ATUALIZAR = "atualizar";
+    public static final String ESQUEMA_NENHUM = "nenhum";
+
+    private static final Properties EMBUTIDOS = new Properties();
+
+    static {
+        // Perfil padrão: c3p0 como antes, sem o SQL no console
+        EMBUTIDOS.setProperty("padrao.url", "jdbc:hsqldb:file:./data/alunosdb");
+        EMBUTIDOS.setProperty("padrao.usuario", "SA");
+        EMBUTIDOS.setProperty("padrao.senha", "");
+        EMBUTIDOS.setProperty("padrao.pool", POOL_C3P0);
+        EMBUTIDOS.setProperty("padrao.pool.minimo", "5");
+        EMBUTIDOS.setProperty("padrao.pool.maximo", "20");
+        EMBUTIDOS.setProperty("padrao.pool.esperaMs", "30000");
+        EMBUTIDOS.setProperty("padrao.pool.ociosoMs", "300000");
+        EMBUTIDOS.setProperty("padrao.pool.statements", "50");
+        EMBUTIDOS.setProperty("padrao.mostrarSql", "false");
+        EMBUTIDOS.setProperty("padrao.formatarSql", "false");
+        EMBUTIDOS.setProperty("padrao.esquema", ESQUEMA_MIGRAR);
+
+        // Desenvolvimento: o SQL formatado no console, como era o comportamento antigo
+        EMBUTIDOS.setProperty("desenvolvimento.mostrarSql", "true");
+        EMBUTIDOS.setProperty("desenvolvimento.formatarSql", "true");
+        EMBUTIDOS.setProperty("desenvolvimento.esquema", ESQUEMA_VALIDAR);
+    }
+
+    private final String perfil;
+    private final Properties arquivo;
+    private final String origem;
+
+    private ConfiguracaoBanco(String perfil, Properties arquivo, String origem) {
+        this.perfil = perfil;
+        this.arquivo = arquivo;
+        this.origem = origem;
+    }
+
+    /**
+     * Lê o arquivo de configuração (se existir) e escolhe o perfil.
+     */
+    public static ConfiguracaoBanco carregar() {
+        Path caminho = Paths.get(System.getProperty(PROP_ARQUIVO, ARQUIVO_PADRAO));
+        Properties arquivo = new Properties();
+        String origem = "perfis embutidos";
+
+        if (Files.isRegularFile(caminho)) {
+            try (Reader reader = Files.newBufferedReader(caminho, StandardCharsets.UTF_8)) {
+                arquivo.load(reader);
+                origem = caminho.toString();
+            } catch (IOException e) {
+                System.err.println("Erro ao ler a configuração " + caminho + ": " + e.getMessage()
+                        + ". Usando os perfis embutidos.");
+                arquivo.clear();
+            }
+        } else if (System.getProperty(PROP_ARQUIVO) != null) {
+            System.err.println("Arquivo de configuração não encontrado: " + caminho + ". Usando os perfis embutidos.");
+        }
+
+        String perfil = System.getProperty(PROP_PERFIL, arquivo.getProperty("perfil", PERFIL_PADRAO)).trim();
+        return new ConfiguracaoBanco(perfil, arquivo, origem);
+    }
+
+    public String getPerfil() {
+        return perfil;
+    }
+
+    /**
+     * Arquivo de onde veio a configuração, ou "perfis embutidos".
+     */
+    public String getOrigem() {
+        return origem;
+    }
+
+    /**
+     * Valor da chave no perfil atual, seguindo a ordem de procura da classe.
+     */
+    public String get(String chave) {
+        String valor = System.getProperty(PREFIXO_SISTEMA + chave);
+        if (valor == null) {
+            valor = arquivo.getProperty(perfil + "." + chave);
+        }
+        if (valor == null) {
+            valor = EMBUTIDOS.getProperty(perfil + "." + chave);
+        }
+        if (valor == null) {
+            valor = EMBUTIDOS.getProperty(PERFIL_PADRAO + "." + chave);
+        }
+        return valor == null ? null : valor.trim();
+    }
+
+    public int getInt(String chave) {
+        String valor = get(chave);
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Valor inválido para " + chave + " no perfil " + perfil + ": " + valor);
+        }
+    }
+
+    public boolean getBoolean(String chave) {
+        return Boolean.parseBoolean(get(chave));
+    }
+
+    public String getUrl() {
+        return get("url");
+    }
+
+    public String getUsuario() {
+        return get("usuario");
+    }
+
+    public String getSenha() {
+        return get("senha");
+    }
+
+    /**
+     * c3p0 ou hikari.
+     */
+    public String getPool() {
+        String pool = get("pool").toLowerCase();
+        if (!pool.equals(POOL_C3P0) && !pool.equals(POOL_HIKARI)) {
+            throw new IllegalArgumentException("Pool desconhecido no perfil " + perfil + ": " + pool
+                    + " (use " + POOL_C3P0 + " ou " + POOL_HIKARI + ")");
+        }
+        return pool;
+    }
+
+    public int getPoolMinimo() {
+        return getInt("pool.minimo");
+    }
+
+    public int getPoolMaximo() {
+        return getInt("pool.maximo");
+    }
+
+    public int getPoolEsperaMs() {
+        return getInt("pool.esperaMs");
+    }
+
+    public int getPoolOciosoMs() {
+        return getInt("pool.ociosoMs");
+    }
+
+    public int getPoolStatements() {
+        return getInt("pool.statements");
+    }
+
+    public boolean isMostrarSql() {
+        return getBoolean("mostrarSql");
+    }
+
+    public boolean isFormatarSql() {
+        return getBoolean("formatarSql");
+    }
+
+    /**
+     * Tratamento do esquema ao criar a SessionFactory:
+     * - migrar: aplica as migrações pendentes (MigradorEsquema) e só valida o
+     *   mapeamento quando alguma foi aplicada;
+     * - validar: aplica as migrações e sempre valida o mapeamento;
+     * - atualizar: hbm2ddl=update, sem migrações (comportamento antigo);
+     * - nenhum: não toca no esquema.
+     */
+    public String getEsquema() {
+        String esquema = get("esquema").toLowerCase();
+        if (!Arrays.asList(ESQUEMA_MIGRAR, ESQUEMA_VALIDAR, ESQUEMA_ATUALIZAR, ESQUEMA_NENHUM).contains(esquema)) {
+            throw new IllegalArgumentException("Esquema desconhecido no perfil " + perfil + ": " + esquema
+                    + " (use " + ESQUEMA_MIGRAR + ", " + ESQUEMA_VALIDAR + ", " + ESQUEMA_ATUALIZAR
+                    + " ou " + ESQUEMA_NENHUM + ")");
+        }
+        return esquema;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("perfil %s (%s): %s, pool %s %d-%d, esquema %s", perfil, origem, getUrl(),
+                getPool(), getPoolMinimo(), getPoolMaximo(), getEsquema());
+    }
+}
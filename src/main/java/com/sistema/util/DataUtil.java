@@ -0,0 +1,91 @@
+package com.sistema.util;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.TimeZone;
+
+/**
+ * Aritmética de datas sem alocação de objetos.
+ *
+ * As datas são representadas pelo dia da época (dias desde 01/01/1970) e as
+ * conversões de/para ano, mês e dia usam os algoritmos de calendário civil de
+ * Howard Hinnant, somente com operações inteiras.
+ */
+public class DataUtil {
+
+    private static final long MILIS_POR_DIA = 86_400_000L;
+
+    /**
+     * Formato de data do sistema (dd/MM/yyyy). É imutável e pode ser
+     * compartilhado entre threads.
+     */
+    public static final DateTimeFormatter FORMATO_DATA =
+            DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT);
+
+    // Fuso usado para converter instantes em dia local
+    private static final TimeZone ZONA = TimeZone.getDefault();
+
+    private DataUtil() {
+    }
+
+    /**
+     * Converte ano, mês (1-12) e dia em dia da época.
+     */
+    public static long diaEpoca(int ano, int mes, int dia) {
+        int a = mes <= 2 ? ano - 1 : ano;
+        int era = Math.floorDiv(a, 400);
+        int anoDaEra = a - era * 400;
+        int diaDoAno = (153 * (mes + (mes > 2 ? -3 : 9)) + 2) / 5 + dia - 1;
+        int diaDaEra = anoDaEra * 365 + anoDaEra / 4 - anoDaEra / 100 + diaDoAno;
+        return (long) era * 146097 + diaDaEra - 719468;
+    }
+
+    /**
+     * Converte um dia da época em um inteiro no formato aaaammdd.
+     */
+    public static int dataCompacta(long diaEpoca) {
+        long z = diaEpoca + 719468;
+        long era = Math.floorDiv(z, 146097);
+        int diaDaEra = (int) (z - era * 146097);
+        int anoDaEra = (diaDaEra - diaDaEra / 1460 + diaDaEra / 36524 - diaDaEra / 146096) / 365;
+        int diaDoAno = diaDaEra - (365 * anoDaEra + anoDaEra / 4 - anoDaEra / 100);
+        int mp = (5 * diaDoAno + 2) / 153;
+        int dia = diaDoAno - (153 * mp + 2) / 5 + 1;
+        int mes = mp < 10 ? mp + 3 : mp - 9;
+        int ano = (int) (anoDaEra + era * 400) + (mes <= 2 ? 1 : 0);
+        return ano * 10000 + mes * 100 + dia;
+    }
+
+    /**
+     * Indica se ano, mês e dia formam uma data existente no calendário.
+     */
+    public static boolean dataValida(int ano, int mes, int dia) {
+        if (mes < 1 || mes > 12 || dia < 1 || dia > 31) {
+            return false;
+        }
+        return dataCompacta(diaEpoca(ano, mes, dia)) == ano * 10000 + mes * 100 + dia;
+    }
+
+    /**
+     * Dia da época, no fuso local, do instante informado em milissegundos.
+     */
+    public static long diaEpocaLocal(long milis) {
+        return Math.floorDiv(milis + ZONA.getOffset(milis), MILIS_POR_DIA);
+    }
+
+    /**
+     * Dia da época de hoje no fuso local.
+     */
+    public static long hoje() {
+        return diaEpocaLocal(System.currentTimeMillis());
+    }
+
+    /**
+     * Idade em anos completos, na data de referência, de quem nasceu no dia
+     * informado. Compara as datas no formato aaaammdd, o que trata anos
+     * bissextos corretamente (quem nasceu em 29/02 completa anos em 01/03).
+     */
+    public static int idade(long diaNascimento, long diaReferencia) {
+        return (dataCompacta(diaReferencia) - dataCompacta(diaNascimento)) / 10000;
+    }
+}
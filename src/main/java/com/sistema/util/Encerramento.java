@@ -0,0 +1,95 @@
+package com.sistema.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Etapas de encerramento executadas em ordem por um único shutdown hook.
+ *
+ * A JVM executa os shutdown hooks em paralelo e sem ordem definida; com um
+ * hook por componente, o Hibernate podia ser fechado enquanto o AlunoService
+ * ainda gravava o que estava pendente. Aqui cada componente registra a sua
+ * etapa em uma fase, e as fases rodam em sequência: primeiro para a entrada
+ * de requisições, depois o serviço grava o pendente, por último o banco
+ * fecha.
+ */
+public final class Encerramento {
+
+    public enum Fase {
+        /** Para de aceitar requisições (API). */
+        ENTRADA,
+        /** Grava o pendente no banco, no CSV e no snapshot. */
+        SERVICO,
+        /** Fecha o Hibernate e o pool de conexões. */
+        BANCO
+    }
+
+    /**
+     * Etapa registrada; serve para retirá-la (ver remover).
+     */
+    public static final class Etapa {
+        final Fase fase;
+        final String nome;
+        final Runnable acao;
+
+        Etapa(Fase fase, String nome, Runnable acao) {
+            this.fase = fase;
+            this.nome = nome;
+            this.acao = acao;
+        }
+    }
+
+    private static final Encerramento APLICACAO = new Encerramento();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(APLICACAO::executar, "encerramento"));
+    }
+
+    private final List<Etapa> etapas = new ArrayList<>();
+
+    Encerramento() {
+    }
+
+    /**
+     * Encerramento da aplicação, executado pelo shutdown hook da JVM.
+     */
+    public static Encerramento daAplicacao() {
+        return APLICACAO;
+    }
+
+    public synchronized Etapa registrar(Fase fase, String nome, Runnable acao) {
+        Etapa etapa = new Etapa(fase, nome, acao);
+        etapas.add(etapa);
+        return etapa;
+    }
+
+    /**
+     * Retira uma etapa que já foi executada por quem a registrou (ex.: um
+     * serviço encerrado antes da JVM), liberando o componente para o coletor
+     * de lixo. Sem efeito se a etapa já saiu.
+     */
+    public synchronized void remover(Etapa etapa) {
+        etapas.remove(etapa);
+    }
+
+    /**
+     * Executa as etapas registradas em ordem de fase (na mesma fase, em ordem
+     * de registro), uma vez cada. Uma etapa que falha não impede as seguintes.
+     */
+    public void executar() {
+        List<Etapa> pendentes;
+        synchronized (this) {
+            pendentes = new ArrayList<>(etapas);
+            etapas.clear();
+        }
+        pendentes.sort(Comparator.comparing(etapa -> etapa.fase));
+        for (Etapa etapa : pendentes) {
+            try {
+                etapa.acao.run();
+            } catch (RuntimeException e) {
+                System.err.println("Erro ao encerrar " + etapa.nome + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,10 +1,25 @@
 package com.sistema.util;
 
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.sistema.metricas.MetricaOperacao;
+import com.sistema.metricas.RegistroMetricas;
 import com.sistema.model.Aluno;
 import org.hibernate.SessionFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cache.spi.RegionFactory;
 import org.hibernate.cfg.Configuration;
-import org.hibernate.service.ServiceRegistry;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.sql.SQLException;
+import java.util.OptionalLong;
 
 public class HibernateUtil {
     
@@ -13,6 +28,40 @@ public class HibernateUtil {
      */
     private static SessionFactory sessionFactory;
     
+    // Região do cache de segundo nível da entidade Aluno (ver @Cache em Aluno)
+    public static final String REGIAO_ALUNO = "aluno";
+    
+    // ===== AJUSTES DO CACHE (propriedades de sistema, ex.: -Dalunos.cache.maxAlunos=50000) =====
+    
+    // Liga/desliga o cache de segundo nível e o de consultas (padrão: ligado)
+    public static final String PROP_CACHE_HABILITADO = "alunos.cache.habilitado";
+    
+    // Máximo de alunos no cache; deve comportar a lista inteira, senão uma
+    // consulta em cache recarrega um a um os alunos que foram descartados
+    public static final String PROP_CACHE_MAX_ALUNOS = "alunos.cache.maxAlunos";
+    
+    // Máximo de resultados de consultas guardados
+    public static final String PROP_CACHE_MAX_CONSULTAS = "alunos.cache.maxConsultas";
+    
+    // Coleta de estatísticas do Hibernate (acertos/falhas do cache), padrão: ligada
+    public static final String PROP_ESTATISTICAS = "alunos.cache.estatisticas";
+    
+    // Fuso em que o Hibernate grava e lê datas e horas no JDBC
+    public static final String FUSO_JDBC = "America/Fortaleza";
+    
+    // Classes cujos métodos o HSQLDB pode chamar em funções SQL (ver MigradorEsquema)
+    private static final String PROP_CLASSES_HSQLDB = "hsqldb.method_class_names";
+    private static final String CLASSES_FUNCOES = "com.sistema.dao.HashAluno.*";
+    
+    private static final long PADRAO_MAX_ALUNOS = 100_000;
+    private static final long PADRAO_MAX_CONSULTAS = 1_000;
+    
+    // Tempos de cada etapa da criação da SessionFactory, no JMX (camada "inicializacao")
+    private static final MetricaOperacao INICIO_ESQUEMA = RegistroMetricas.operacao("inicializacao", "esquema");
+    private static final MetricaOperacao INICIO_SERVICOS = RegistroMetricas.operacao("inicializacao", "servicos");
+    private static final MetricaOperacao INICIO_METADADOS = RegistroMetricas.operacao("inicializacao", "metadados");
+    private static final MetricaOperacao INICIO_FABRICA = RegistroMetricas.operacao("inicializacao", "sessionFactory");
+    
     /**
      * Construtor privado para prevenir instanciação
      */
@@ -30,6 +79,8 @@ public class HibernateUtil {
             synchronized (HibernateUtil.class) {
                 if (sessionFactory == null) {
                     sessionFactory = buildSessionFactory();
+                    // Última etapa do encerramento, depois das gravações pendentes
+                    Encerramento.daAplicacao().registrar(Encerramento.Fase.BANCO, "hibernate", HibernateUtil::shutdown);
                 }
             }
         }
@@ -37,61 +88,92 @@ public class HibernateUtil {
     }
     
     private static SessionFactory buildSessionFactory() {
+        StandardServiceRegistry serviceRegistry = null;
         try {
             // Cria a configuração do Hibernate
             Configuration configuration = new Configuration();
             
+            // Perfil do banco e do pool (ver ConfiguracaoBanco)
+            ConfiguracaoBanco banco = ConfiguracaoBanco.carregar();
+            System.out.println("Configuração do banco: " + banco);
+            
+            // Migrações antes do Hibernate, por uma conexão fora do pool
+            long inicio = System.nanoTime();
+            liberarFuncoesJava();
+            String hbm2ddl = prepararEsquema(banco);
+            long fimEsquema = System.nanoTime();
+            
             // ===== CONFIGURAÇÕES DE CONEXÃO COM O BANCO DE DADOS =====
             
             // HSQLDB (banco de dados em memória )
             configuration.setProperty("hibernate.connection.driver_class", "org.hsqldb.jdbcDriver");
-            configuration.setProperty("hibernate.connection.url", "jdbc:hsqldb:file:./data/alunosdb");
-            configuration.setProperty("hibernate.connection.username", "SA");
-            configuration.setProperty("hibernate.connection.password", "");
+            configuration.setProperty("hibernate.connection.url", banco.getUrl());
+            configuration.setProperty("hibernate.connection.username", banco.getUsuario());
+            configuration.setProperty("hibernate.connection.password", banco.getSenha());
             configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.HSQLDialect");
             
             // ===== CONFIGURAÇÕES DO HIBERNATE =====
             
             // Pool de conexões
-            configuration.setProperty("hibernate.c3p0.min_size", "5");
-            configuration.setProperty("hibernate.c3p0.max_size", "20");
-            configuration.setProperty("hibernate.c3p0.timeout", "300");
-            configuration.setProperty("hibernate.c3p0.max_statements", "50");
-            configuration.setProperty("hibernate.c3p0.idle_test_period", "3000");
+            configurarPool(configuration, banco);
+            
+            // Agrupa INSERTs/UPDATEs em lotes JDBC (usado nas cargas em lote)
+            configuration.setProperty("hibernate.jdbc.batch_size", "50");
+            configuration.setProperty("hibernate.order_inserts", "true");
+            configuration.setProperty("hibernate.order_updates", "true");
             
-            // Configuração de DDL (criação automática de tabelas)
-            // update: atualiza o schema do banco sem apagar dados
-            configuration.setProperty("hibernate.hbm2ddl.auto", "update");
+            // Configuração de DDL: o esquema vem das migrações; o Hibernate só
+            // valida o mapeamento quando preciso (ver prepararEsquema)
+            configuration.setProperty("hibernate.hbm2ddl.auto", hbm2ddl);
             
-            // Mostrar SQL no console (útil para debug)
-            configuration.setProperty("hibernate.show_sql", "true");
-            configuration.setProperty("hibernate.format_sql", "true");
+            // Mostrar SQL no console (útil para debug; perfil desenvolvimento)
+            configuration.setProperty("hibernate.show_sql", Boolean.toString(banco.isMostrarSql()));
+            configuration.setProperty("hibernate.format_sql", Boolean.toString(banco.isFormatarSql()));
             
             // Usar comentários SQL
-            configuration.setProperty("hibernate.use_sql_comments", "true");
+            configuration.setProperty("hibernate.use_sql_comments", Boolean.toString(banco.isFormatarSql()));
             
             // Timezone
-            configuration.setProperty("hibernate.jdbc.time_zone", "America/Fortaleza");
+            configuration.setProperty("hibernate.jdbc.time_zone", FUSO_JDBC);
             
+            // Cache de segundo nível e de consultas
+            configurarCache(configuration);
             
+            // Estatísticas (acertos e falhas do cache, ver resumoCache())
+            configuration.setProperty("hibernate.generate_statistics",
+                    System.getProperty(PROP_ESTATISTICAS, "true"));
             
-            // Registra a classe Aluno como entidade mapeada
-            configuration.addAnnotatedClass(Aluno.class);
-            
-            
-            // Cria o ServiceRegistry
-            ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+            // Cria o ServiceRegistry (inclui abrir o pool de conexões)
+            serviceRegistry = new StandardServiceRegistryBuilder()
                     .applySettings(configuration.getProperties())
                     .build();
+            long fimServicos = System.nanoTime();
             
-            // Constrói e retorna a SessionFactory
-            SessionFactory factory = configuration.buildSessionFactory(serviceRegistry);
+            // Registra a classe Aluno como entidade mapeada e monta os metadados
+            Metadata metadata = new MetadataSources(serviceRegistry)
+                    .addAnnotatedClass(Aluno.class)
+                    .buildMetadata();
+            long fimMetadados = System.nanoTime();
             
-            System.out.println("SessionFactory do Hibernate criada com sucesso!");
+            // Constrói e retorna a SessionFactory (e valida o esquema, se pedido)
+            SessionFactory factory = metadata.buildSessionFactory();
+            long fim = System.nanoTime();
+            
+            INICIO_ESQUEMA.registrarDuracao(fimEsquema - inicio);
+            INICIO_SERVICOS.registrarDuracao(fimServicos - fimEsquema);
+            INICIO_METADADOS.registrarDuracao(fimMetadados - fimServicos);
+            INICIO_FABRICA.registrarDuracao(fim - fimMetadados);
+            System.out.printf("SessionFactory do Hibernate criada com sucesso em %d ms"
+                            + " (esquema %d ms, serviços e pool %d ms, metadados %d ms, fábrica %d ms)%n",
+                    ms(fim - inicio), ms(fimEsquema - inicio), ms(fimServicos - fimEsquema),
+                    ms(fimMetadados - fimServicos), ms(fim - fimMetadados));
             
             return factory;
             
         } catch (Exception e) {
+            if (serviceRegistry != null) {
+                StandardServiceRegistryBuilder.destroy(serviceRegistry);
+            }
             System.err.println("Erro ao criar SessionFactory do Hibernate!");
             System.err.println("Verifique as configurações do banco de dados e as dependências do projeto.");
             e.printStackTrace();
@@ -99,8 +181,145 @@ public class HibernateUtil {
         }
     }
     
+    /**
+     * Aplica as migrações conforme o modo de esquema do perfil e devolve o
+     * valor de hibernate.hbm2ddl.auto. Com o banco já na última versão só a
+     * tabela de versões é lida, e o Hibernate não inspeciona o esquema.
+     */
+    private static String prepararEsquema(ConfiguracaoBanco banco) throws SQLException {
+        String esquema = banco.getEsquema();
+        if (esquema.equals(ConfiguracaoBanco.ESQUEMA_ATUALIZAR)) {
+            return "update";
+        }
+        if (esquema.equals(ConfiguracaoBanco.ESQUEMA_NENHUM)) {
+            return "none";
+        }
+        
+        int aplicadas = MigradorEsquema.migrar(banco);
+        if (aplicadas == 0) {
+            System.out.println("Esquema na versão " + MigradorEsquema.getVersaoAtual() + ".");
+        }
+        // Depois de uma migração, confere se ela bate com o mapeamento de Aluno
+        return aplicadas > 0 || esquema.equals(ConfiguracaoBanco.ESQUEMA_VALIDAR) ? "validate" : "none";
+    }
+    
+    /**
+     * O HSQLDB recusa chamar métodos Java que não estejam na lista
+     * hsqldb.method_class_names; acrescenta a da função hash_aluno. Precisa
+     * valer antes da primeira conexão.
+     */
+    static void liberarFuncoesJava() {
+        String liberadas = System.getProperty(PROP_CLASSES_HSQLDB);
+        if (liberadas == null || liberadas.isEmpty()) {
+            System.setProperty(PROP_CLASSES_HSQLDB, CLASSES_FUNCOES);
+        } else if (!liberadas.contains(CLASSES_FUNCOES)) {
+            System.setProperty(PROP_CLASSES_HSQLDB, liberadas + ";" + CLASSES_FUNCOES);
+        }
+    }
+    
+    private static long ms(long nanos) {
+        return nanos / 1_000_000;
+    }
+    
+    /**
+     * Configura o pool escolhido no perfil. O ProvedorConexoes cria o pool e
+     * publica as métricas de espera e de uso das conexões.
+     */
+    private static void configurarPool(Configuration configuration, ConfiguracaoBanco banco) {
+        configuration.setProperty("hibernate.connection.provider_class", ProvedorConexoes.class.getName());
+        configuration.setProperty(ProvedorConexoes.PROP_POOL, banco.getPool());
+        
+        if (banco.getPool().equals(ConfiguracaoBanco.POOL_HIKARI)) {
+            configuration.setProperty("hibernate.hikari.poolName", "alunos");
+            configuration.setProperty("hibernate.hikari.minimumIdle", Integer.toString(banco.getPoolMinimo()));
+            configuration.setProperty("hibernate.hikari.maximumPoolSize", Integer.toString(banco.getPoolMaximo()));
+            configuration.setProperty("hibernate.hikari.connectionTimeout", Integer.toString(banco.getPoolEsperaMs()));
+            configuration.setProperty("hibernate.hikari.idleTimeout", Integer.toString(banco.getPoolOciosoMs()));
+            if (banco.getPoolStatements() > 0) {
+                // O HikariCP deixa o cache de statements para o driver JDBC
+                System.out.println("pool.statements é ignorado com o HikariCP");
+            }
+            return;
+        }
+        
+        configuration.setProperty("hibernate.c3p0.min_size", Integer.toString(banco.getPoolMinimo()));
+        configuration.setProperty("hibernate.c3p0.max_size", Integer.toString(banco.getPoolMaximo()));
+        configuration.setProperty("hibernate.c3p0.timeout", Integer.toString(banco.getPoolOciosoMs() / 1000));
+        configuration.setProperty("hibernate.c3p0.max_statements", Integer.toString(banco.getPoolStatements()));
+        configuration.setProperty("hibernate.c3p0.idle_test_period", "3000");
+        // Repassado ao c3p0 como checkoutTimeout (0 = espera sem limite)
+        configuration.setProperty("hibernate.c3p0.checkoutTimeout", Integer.toString(banco.getPoolEsperaMs()));
+    }
+    
+    /**
+     * Configura o cache de segundo nível via JCache (Caffeine), com regiões de
+     * tamanho limitado: os itens menos usados são descartados ao passar do limite.
+     */
+    private static void configurarCache(Configuration configuration) {
+        boolean habilitado = Boolean.parseBoolean(System.getProperty(PROP_CACHE_HABILITADO, "true"));
+        configuration.setProperty("hibernate.cache.use_second_level_cache", Boolean.toString(habilitado));
+        configuration.setProperty("hibernate.cache.use_query_cache", Boolean.toString(habilitado));
+        
+        if (!habilitado) {
+            System.out.println("Cache de segundo nível desligado (" + PROP_CACHE_HABILITADO + "=false)");
+            return;
+        }
+        
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(),
+                HibernateUtil.class.getClassLoader());
+        
+        criarRegiao(cacheManager, REGIAO_ALUNO,
+                OptionalLong.of(Long.getLong(PROP_CACHE_MAX_ALUNOS, PADRAO_MAX_ALUNOS)));
+        criarRegiao(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                OptionalLong.of(Long.getLong(PROP_CACHE_MAX_CONSULTAS, PADRAO_MAX_CONSULTAS)));
+        // Uma entrada por tabela; não pode ser descartada, senão as consultas em cache ficam desatualizadas
+        criarRegiao(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                OptionalLong.empty());
+        
+        configuration.setProperty("hibernate.cache.region.factory_class", "jcache");
+        configuration.getProperties().put("hibernate.javax.cache.cache_manager", cacheManager);
+    }
+    
+    private static void criarRegiao(CacheManager cacheManager, String nome, OptionalLong tamanhoMaximo) {
+        if (cacheManager.getCache(nome) != null) {
+            return;
+        }
+        
+        CaffeineConfiguration<Object, Object> regiao = new CaffeineConfiguration<>();
+        regiao.setMaximumSize(tamanhoMaximo);
+        // O Hibernate já guarda cópias desmontadas das entidades: não precisa serializar de novo
+        regiao.setStoreByValue(false);
+        cacheManager.createCache(nome, regiao);
+    }
+    
+    /**
+     * Resumo das estatísticas do cache de segundo nível e do cache de consultas.
+     */
+    public static String resumoCache() {
+        if (!isSessionFactoryOpen()) {
+            return "Cache: SessionFactory não iniciada";
+        }
+        
+        Statistics estatisticas = sessionFactory.getStatistics();
+        if (!estatisticas.isStatisticsEnabled()) {
+            return "Cache: estatísticas desligadas (" + PROP_ESTATISTICAS + "=false)";
+        }
+        if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return "Cache: desligado (" + PROP_CACHE_HABILITADO + "=false)";
+        }
+        
+        CacheRegionStatistics alunos = estatisticas.getDomainDataRegionStatistics(REGIAO_ALUNO);
+        return String.format("Cache de alunos: %d acertos, %d falhas, %d inserções"
+                        + " | Cache de consultas: %d acertos, %d falhas, %d inserções",
+                alunos.getHitCount(), alunos.getMissCount(), alunos.getPutCount(),
+                estatisticas.getQueryCacheHitCount(), estatisticas.getQueryCacheMissCount(),
+                estatisticas.getQueryCachePutCount());
+    }
+    
     public static void shutdown() {
         if (sessionFactory != null && !sessionFactory.isClosed()) {
+            System.out.println(resumoCache());
             sessionFactory.close();
             System.out.println("SessionFactory do Hibernate encerrada.");
         }
@@ -0,0 +1,55 @@
+package com.sistema.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Liberação de arquivos mapeados na memória (FileChannel.map).
+ *
+ * Sem isso o mapeamento só sai quando o coletor de lixo recolhe o buffer, e
+ * até lá o arquivo continua em uso: no Windows ele não pode ser substituído
+ * (o Files.move da compactação falha) nem apagado. O JDK só libera o
+ * mapeamento na hora pelo sun.misc.Unsafe.invokeCleaner; quando ele não está
+ * disponível, fica a cargo do coletor de lixo, como antes.
+ */
+public final class MemoriaMapeada {
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> classe = Class.forName("sun.misc.Unsafe");
+            Field campo = classe.getDeclaredField("theUnsafe");
+            campo.setAccessible(true);
+            unsafe = campo.get(null);
+            invokeCleaner = classe.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("Mapeamentos liberados só pelo coletor de lixo: " + e);
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private MemoriaMapeada() {
+    }
+
+    /**
+     * Libera o mapeamento devolvido por FileChannel.map. O buffer (e as cópias
+     * feitas com duplicate/slice) não pode mais ser lido depois disso. Buffers
+     * que não são mapeados (heap) são ignorados.
+     */
+    public static void liberar(ByteBuffer mapa) {
+        if (mapa == null || !mapa.isDirect() || INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, mapa);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("Mapeamento não liberado: " + e);
+        }
+    }
+}
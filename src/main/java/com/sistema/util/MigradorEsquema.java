@@ -0,0 +1,180 @@
+package com.sistema.util;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Migrações versionadas do esquema do banco, aplicadas antes de criar a
+ * SessionFactory.
+ *
+ * A versão do banco fica na tabela {@link #TABELA_VERSAO}, uma linha por
+ * migração aplicada. Quando o banco já está na última versão, só essa
+ * tabela é lida; o Hibernate não precisa inspecionar o esquema.
+ *
+ * Para mudar o esquema, acrescente uma migração no fim de MIGRACOES (nunca
+ * altere uma já publicada) e ajuste o mapeamento de Aluno.
+ */
+public final class MigradorEsquema {
+
+    public static final String TABELA_VERSAO = "schema_versao";
+
+    /**
+     * Uma versão do esquema e os comandos que levam o banco até ela.
+     */
+    static final class Migracao {
+        final int versao;
+        final String descricao;
+        final String[] comandos;
+
+        Migracao(int versao, String descricao, String... comandos) {
+            this.versao = versao;
+            this.descricao = descricao;
+            this.comandos = comandos;
+        }
+    }
+
+    // Em ordem de versão, começando em 1
+    private static final List<Migracao> MIGRACOES = Arrays.asList(
+            // A tabela que o hbm2ddl=update cria a partir de Aluno. O hbm2ddl
+            // antigo, com @Temporal(DATE), criava data_nascimento como date
+            // (ver versão 3)
+            new Migracao(1, "cria a tabela alunos",
+                    "create table alunos ("
+                            + " matricula varchar(255) not null,"
+                            + " cpf varchar(14) not null,"
+                            + " data_nascimento timestamp not null,"
+                            + " idade integer not null,"
+                            + " nome varchar(200) not null,"
+                            + " telefone varchar(20) not null,"
+                            + " primary key (matricula))",
+                    "alter table alunos add constraint uk_alunos_cpf unique (cpf)"),
+            // Resumo das faixas de matrícula calculado no banco (HashAluno.hashLinha)
+            new Migracao(2, "cria a função hash_aluno usada na reconciliação",
+                    "create function hash_aluno(matricula varchar(255), nome varchar(200),"
+                            + " data_nascimento timestamp, telefone varchar(20), cpf varchar(14))"
+                            + " returns bigint language java deterministic no sql"
+                            + " external name 'CLASSPATH:com.sistema.dao.HashAluno.hashLinha'"),
+            // O Hibernate espera timestamp (DataNascimentoConverter) e o
+            // validate recusa a coluna date dos bancos registrados como versão 1
+            // a partir do hbm2ddl; nos criados pela versão 1 nada muda
+            new Migracao(3, "troca data_nascimento de date para timestamp nos bancos do hbm2ddl",
+                    "alter table alunos alter column data_nascimento set data type timestamp")
+    );
+
+    private MigradorEsquema() {
+    }
+
+    /**
+     * Última versão conhecida pela aplicação.
+     */
+    public static int getVersaoAtual() {
+        return MIGRACOES.get(MIGRACOES.size() - 1).versao;
+    }
+
+    /**
+     * Abre uma conexão direta (fora do pool) e aplica as migrações pendentes.
+     *
+     * @return quantidade de migrações aplicadas; 0 quando o banco já estava atualizado
+     */
+    public static int migrar(ConfiguracaoBanco banco) throws SQLException {
+        try (Connection conexao = DriverManager.getConnection(banco.getUrl(), banco.getUsuario(), banco.getSenha())) {
+            return migrar(conexao);
+        }
+    }
+
+    static int migrar(Connection conexao) throws SQLException {
+        if (!existeTabela(conexao, TABELA_VERSAO)) {
+            criarTabelaVersao(conexao);
+
+            // Banco criado pelo antigo hbm2ddl=update: a tabela alunos já
+            // existe, então a versão 1 é só registrada, não executada
+            if (existeTabela(conexao, "alunos")) {
+                registrarVersao(conexao, MIGRACOES.get(0), 0);
+                System.out.println("Esquema existente registrado como versão 1.");
+            }
+        }
+
+        int versaoBanco = lerVersao(conexao);
+        if (versaoBanco > getVersaoAtual()) {
+            System.err.println("O banco está na versão " + versaoBanco + " do esquema, mais nova que a da aplicação ("
+                    + getVersaoAtual() + ").");
+            return 0;
+        }
+
+        int aplicadas = 0;
+        for (Migracao migracao : MIGRACOES) {
+            if (migracao.versao > versaoBanco) {
+                aplicar(conexao, migracao);
+                aplicadas++;
+            }
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Versão registrada no banco; 0 quando nenhuma migração foi aplicada.
+     */
+    static int lerVersao(Connection conexao) throws SQLException {
+        try (Statement stmt = conexao.createStatement();
+             ResultSet rs = stmt.executeQuery("select max(versao) from " + TABELA_VERSAO)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void aplicar(Connection conexao, Migracao migracao) throws SQLException {
+        long inicio = System.nanoTime();
+        boolean autoCommit = conexao.getAutoCommit();
+        conexao.setAutoCommit(false);
+        try (Statement stmt = conexao.createStatement()) {
+            for (String comando : migracao.comandos) {
+                stmt.execute(comando);
+            }
+            registrarVersao(conexao, migracao, (System.nanoTime() - inicio) / 1_000_000);
+            conexao.commit();
+        } catch (SQLException e) {
+            conexao.rollback();
+            throw new SQLException("Falha na migração " + migracao.versao + " (" + migracao.descricao + "): "
+                    + e.getMessage(), e);
+        } finally {
+            conexao.setAutoCommit(autoCommit);
+        }
+        System.out.println("Migração " + migracao.versao + " aplicada: " + migracao.descricao);
+    }
+
+    private static void criarTabelaVersao(Connection conexao) throws SQLException {
+        try (Statement stmt = conexao.createStatement()) {
+            stmt.execute("create table " + TABELA_VERSAO + " ("
+                    + " versao integer not null primary key,"
+                    + " descricao varchar(200) not null,"
+                    + " aplicada_em timestamp not null,"
+                    + " duracao_ms bigint not null)");
+        }
+    }
+
+    private static void registrarVersao(Connection conexao, Migracao migracao, long duracaoMs) throws SQLException {
+        try (PreparedStatement stmt = conexao.prepareStatement(
+                "insert into " + TABELA_VERSAO + " (versao, descricao, aplicada_em, duracao_ms) values (?, ?, ?, ?)")) {
+            stmt.setInt(1, migracao.versao);
+            stmt.setString(2, migracao.descricao);
+            stmt.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            stmt.setLong(4, duracaoMs);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static boolean existeTabela(Connection conexao, String tabela) throws SQLException {
+        DatabaseMetaData metadados = conexao.getMetaData();
+        // O HSQLDB guarda os nomes sem aspas em maiúsculas
+        try (ResultSet rs = metadados.getTables(null, null, tabela.toUpperCase(), new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+}
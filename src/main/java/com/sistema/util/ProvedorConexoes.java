@@ -0,0 +1,174 @@
+package com.sistema.util;
+
+import com.mchange.v2.c3p0.PooledDataSource;
+import com.sistema.metricas.MetricaOperacao;
+import com.sistema.metricas.RegistroMetricas;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.hibernate.c3p0.internal.C3P0ConnectionProvider;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * ConnectionProvider do Hibernate que escolhe o pool (c3p0 ou HikariCP) pela
+ * configuração e mede o uso das conexões.
+ *
+ * Publica no JMX (ver RegistroMetricas):
+ * - pool.obterConexao: tempo de espera por uma conexão; as falhas são, em
+ *   geral, esperas que passaram de pool.esperaMs;
+ * - poolConexoesAtivas, poolConexoesOciosas, poolConexoesTotal e
+ *   poolThreadsAguardando, lidos do pool na hora da consulta.
+ *
+ * O pool é escolhido pela propriedade {@link #PROP_POOL} das configurações
+ * do Hibernate, preenchida pelo HibernateUtil a partir do perfil.
+ */
+public class ProvedorConexoes implements ConnectionProvider, Configurable, Stoppable, ServiceRegistryAwareService {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String PROP_POOL = "alunos.pool";
+
+    private static final MetricaOperacao METRICA_OBTER = RegistroMetricas.operacao("pool", "obterConexao");
+
+    private ConnectionProvider pool;
+    private ServiceRegistryImplementor servicos;
+    private final AtomicInteger ativas = new AtomicInteger();
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor servicos) {
+        this.servicos = servicos;
+    }
+
+    @Override
+    public void configure(Map configuracoes) {
+        String tipo = String.valueOf(configuracoes.get(PROP_POOL));
+        pool = ConfiguracaoBanco.POOL_HIKARI.equals(tipo)
+                ? new HikariCPConnectionProvider()
+                : new C3P0ConnectionProvider();
+
+        if (pool instanceof ServiceRegistryAwareService) {
+            ((ServiceRegistryAwareService) pool).injectServices(servicos);
+        }
+        ((Configurable) pool).configure(configuracoes);
+
+        publicarMedidores();
+        System.out.println("Pool de conexões: " + tipo);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            Connection conexao = pool.getConnection();
+            ativas.incrementAndGet();
+            return conexao;
+        } catch (SQLException | RuntimeException e) {
+            METRICA_OBTER.falha();
+            throw e;
+        } finally {
+            METRICA_OBTER.registrar(inicio);
+        }
+    }
+
+    @Override
+    public void closeConnection(Connection conexao) throws SQLException {
+        ativas.decrementAndGet();
+        pool.closeConnection(conexao);
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return pool.supportsAggressiveRelease();
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return unwrapType.isInstance(this) || pool.isUnwrappableAs(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return (T) this;
+        }
+        if (pool.isUnwrappableAs(unwrapType)) {
+            return pool.unwrap(unwrapType);
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        if (pool instanceof Stoppable) {
+            ((Stoppable) pool).stop();
+        }
+    }
+
+    // ==================== MÉTRICAS DO POOL ====================
+
+    /**
+     * Conexões entregues ao Hibernate e ainda não devolvidas.
+     */
+    public int getConexoesAtivas() {
+        return ativas.get();
+    }
+
+    private void publicarMedidores() {
+        RegistroMetricas.medidor("poolConexoesAtivas", ativas::get);
+
+        if (pool instanceof HikariCPConnectionProvider) {
+            HikariDataSource dataSource = pool.unwrap(HikariDataSource.class);
+            RegistroMetricas.medidor("poolConexoesOciosas", hikari(dataSource, HikariPoolMXBean::getIdleConnections));
+            RegistroMetricas.medidor("poolConexoesTotal", hikari(dataSource, HikariPoolMXBean::getTotalConnections));
+            RegistroMetricas.medidor("poolThreadsAguardando", hikari(dataSource, HikariPoolMXBean::getThreadsAwaitingConnection));
+            return;
+        }
+
+        DataSource dataSource = pool.unwrap(DataSource.class);
+        if (dataSource instanceof PooledDataSource) {
+            PooledDataSource c3p0 = (PooledDataSource) dataSource;
+            RegistroMetricas.medidor("poolConexoesOciosas", c3p0(c3p0::getNumIdleConnectionsDefaultUser));
+            RegistroMetricas.medidor("poolConexoesTotal", c3p0(c3p0::getNumConnectionsDefaultUser));
+            RegistroMetricas.medidor("poolThreadsAguardando", c3p0(c3p0::getNumThreadsAwaitingCheckoutDefaultUser));
+        }
+    }
+
+    private interface ContadorHikari {
+        int ler(HikariPoolMXBean pool);
+    }
+
+    private interface ContadorC3p0 {
+        int ler() throws SQLException;
+    }
+
+    private static LongSupplier hikari(HikariDataSource dataSource, ContadorHikari contador) {
+        return () -> {
+            // Nulo enquanto o pool não foi iniciado ou depois de fechado
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : contador.ler(pool);
+        };
+    }
+
+    private static LongSupplier c3p0(ContadorC3p0 contador) {
+        return () -> {
+            try {
+                return contador.ler();
+            } catch (SQLException e) {
+                return -1;
+            }
+        };
+    }
+}
@@ -2,11 +2,12 @@ package com.sistema.view;
 
 import com.sistema.model.Aluno;
 import com.sistema.service.AlunoService;
+import com.sistema.service.OrdemListagem;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
-import java.util.List;
 
 
 public class FormularioListagem extends JFrame {
@@ -16,8 +17,13 @@ public class FormularioListagem extends JFrame {
     
     // Componentes da interface
     private JTable tabelaAlunos;
-    private DefaultTableModel modeloTabela;
+    private ModeloTabelaAlunos modeloTabela;
     private JLabel lblTotal;
+    private JTextField txtBusca;
+    
+    // Espera o usuário parar de digitar antes de filtrar
+    private static final int ESPERA_BUSCA_MS = 250;
+    private Timer timerBusca;
 
     public FormularioListagem(AlunoService alunoService) {
         this.alunoService = alunoService;
@@ -80,18 +86,11 @@ public class FormularioListagem extends JFrame {
     private JPanel criarPainelTabela() {
         JPanel painel = new JPanel(new BorderLayout());
         
-        // Define as colunas da tabela
-        String[] colunas = {
-            "Matrícula", "Nome", "Idade", "Data Nasc.", "Telefone", "CPF"
-        };
+        // Campo de busca por nome, filtrado enquanto se digita
+        painel.add(criarPainelBusca(), BorderLayout.NORTH);
         
-        // (não editável)
-        modeloTabela = new DefaultTableModel(colunas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; 
-            }
-        };
+        // Modelo (não editável) que busca os alunos sob demanda
+        modeloTabela = new ModeloTabelaAlunos(alunoService);
         
         // Cria a tabela
         tabelaAlunos = new JTable(modeloTabela);
@@ -114,10 +113,57 @@ public class FormularioListagem extends JFrame {
         JScrollPane scrollPane = new JScrollPane(tabelaAlunos);
         scrollPane.setBorder(BorderFactory.createTitledBorder("Alunos Cadastrados"));
         
+        // Carrega antecipadamente os alunos ao redor da área visível
+        scrollPane.getViewport().addChangeListener(e -> prefetchLinhasVisiveis());
+        
         painel.add(scrollPane, BorderLayout.CENTER);
         return painel;
     }
     
+    private JPanel criarPainelBusca() {
+        JPanel painel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        
+        JLabel lblBusca = new JLabel("Buscar por nome:");
+        lblBusca.setFont(new Font("Arial", Font.BOLD, 12));
+        
+        txtBusca = new JTextField(30);
+        txtBusca.setToolTipText("Parte do nome, sem diferenciar maiúsculas e acentos");
+        
+        timerBusca = new Timer(ESPERA_BUSCA_MS, e -> filtrar());
+        timerBusca.setRepeats(false);
+        
+        txtBusca.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                timerBusca.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                timerBusca.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                timerBusca.restart();
+            }
+        });
+        
+        // Enter filtra na hora, sem esperar
+        txtBusca.addActionListener(e -> {
+            timerBusca.stop();
+            filtrar();
+        });
+        
+        JButton btnLimpar = new JButton("Limpar");
+        btnLimpar.addActionListener(e -> txtBusca.setText(""));
+        
+        painel.add(lblBusca);
+        painel.add(txtBusca);
+        painel.add(btnLimpar);
+        return painel;
+    }
+    
     /**
      * Cria o painel com os botões de ação.
      */
@@ -130,17 +176,21 @@ public class FormularioListagem extends JFrame {
         JButton btnAtualizar = criarBotao("Atualizar", new Color(46, 139, 87));
         btnAtualizar.addActionListener(e -> carregarDados());
         
+        // Botão Ordem de Cadastro (ordem da lista)
+        JButton btnOrdemCadastro = criarBotao("Ordem de Cadastro", new Color(70, 130, 180));
+        btnOrdemCadastro.addActionListener(e -> ordenarPor(OrdemListagem.INSERCAO));
+        
         // Botão Ordenar por Nome
         JButton btnOrdenarNome = criarBotao("Ordenar por Nome", new Color(70, 130, 180));
-        btnOrdenarNome.addActionListener(e -> ordenarPorNome());
+        btnOrdenarNome.addActionListener(e -> ordenarPor(OrdemListagem.NOME));
         
         // Botão Ordenar por Matrícula
         JButton btnOrdenarMatricula = criarBotao("Ordenar por Matrícula", new Color(70, 130, 180));
-        btnOrdenarMatricula.addActionListener(e -> ordenarPorMatricula());
+        btnOrdenarMatricula.addActionListener(e -> ordenarPor(OrdemListagem.MATRICULA));
         
         // Botão Ordenar por Idade
         JButton btnOrdenarIdade = criarBotao("Ordenar por Idade", new Color(70, 130, 180));
-        btnOrdenarIdade.addActionListener(e -> ordenarPorIdade());
+        btnOrdenarIdade.addActionListener(e -> ordenarPor(OrdemListagem.IDADE));
         
         // Botão Ver Detalhes
         JButton btnDetalhes = criarBotao("Ver Detalhes", new Color(255, 140, 0));
@@ -157,6 +207,8 @@ public class FormularioListagem extends JFrame {
         // Adiciona os botões com espaçamento
         painel.add(btnAtualizar);
         painel.add(Box.createRigidArea(new Dimension(0, 10)));
+        painel.add(btnOrdemCadastro);
+        painel.add(Box.createRigidArea(new Dimension(0, 5)));
         painel.add(btnOrdenarNome);
         painel.add(Box.createRigidArea(new Dimension(0, 5)));
         painel.add(btnOrdenarMatricula);
@@ -197,63 +249,63 @@ public class FormularioListagem extends JFrame {
     }
     
     private void carregarDados() {
-        // Limpa a tabela
-        modeloTabela.setRowCount(0);
-        
-        // Obtém a lista de alunos
-        List<Aluno> alunos = alunoService.listarTodosAlunos();
-        
-        // Adiciona cada aluno na tabela
-        for (Aluno aluno : alunos) {
-            Object[] linha = {
-                aluno.getMatricula(),
-                aluno.getNome(),
-                aluno.getIdade(),
-                aluno.getDataNascimentoFormatada(),
-                aluno.getTelefone(),
-                aluno.getCpf()
-            };
-            modeloTabela.addRow(linha);
-        }
+        // Os alunos são lidos do serviço só quando as linhas aparecem na tela
+        modeloTabela.recarregar();
         
         // Atualiza o total
-        lblTotal.setText("Total de alunos: " + alunos.size());
+        if (modeloTabela.isFiltrado()) {
+            int encontrados = modeloTabela.getRowCount();
+            lblTotal.setText("Alunos encontrados: " + encontrados
+                    + (encontrados == ModeloTabelaAlunos.LIMITE_FILTRO ? " (exibindo os primeiros)" : "")
+                    + "   |   Nome contém: \"" + modeloTabela.getFiltro() + "\"");
+        } else {
+            lblTotal.setText("Total de alunos: " + modeloTabela.getRowCount()
+                    + "   |   Ordem: " + modeloTabela.getOrdem().getDescricao());
+        }
     }
-
-    private void ordenarPorNome() {
-        alunoService.ordenarPorNome();
+    
+    private void filtrar() {
+        modeloTabela.setFiltro(txtBusca.getText());
         carregarDados();
-        JOptionPane.showMessageDialog(
-            this,
-            "Alunos ordenados por nome!",
-            "Ordenação",
-            JOptionPane.INFORMATION_MESSAGE
-        );
+        tabelaAlunos.scrollRectToVisible(tabelaAlunos.getCellRect(0, 0, true));
     }
     
-    private void ordenarPorMatricula() {
-        alunoService.ordenarPorMatricula();
-        carregarDados();
-        JOptionPane.showMessageDialog(
-            this,
-            "Alunos ordenados por matrícula!",
-            "Ordenação",
-            JOptionPane.INFORMATION_MESSAGE
-        );
+    private void prefetchLinhasVisiveis() {
+        Rectangle visivel = tabelaAlunos.getVisibleRect();
+        int primeira = tabelaAlunos.rowAtPoint(visivel.getLocation());
+        if (primeira < 0) {
+            return;
+        }
+        
+        int ultima = tabelaAlunos.rowAtPoint(new Point(visivel.x, visivel.y + visivel.height - 1));
+        if (ultima < 0) {
+            ultima = modeloTabela.getRowCount() - 1;
+        }
+        
+        modeloTabela.prefetch(primeira, ultima);
     }
 
-    private void ordenarPorIdade() {
-        alunoService.ordenarPorIdade();
+    /**
+     * Troca a ordem exibida. A lista do serviço não é reordenada: a tabela
+     * passa a ler o índice correspondente.
+     */
+    private void ordenarPor(OrdemListagem ordem) {
+        // A ordem vale para a lista completa; a busca é desfeita
+        txtBusca.setText("");
+        timerBusca.stop();
+        modeloTabela.setFiltro("");
+        modeloTabela.setOrdem(ordem);
         carregarDados();
-        JOptionPane.showMessageDialog(
-            this,
-            "Alunos ordenados por idade!",
-            "Ordenação",
-            JOptionPane.INFORMATION_MESSAGE
-        );
+        tabelaAlunos.scrollRectToVisible(tabelaAlunos.getCellRect(0, 0, true));
     }
     
 
+    @Override
+    public void dispose() {
+        timerBusca.stop();
+        super.dispose();
+    }
+
     private void verDetalhes() {
         int linhaSelecionada = tabelaAlunos.getSelectedRow();
         
@@ -271,7 +323,7 @@ public class FormularioListagem extends JFrame {
         String matricula = (String) modeloTabela.getValueAt(linhaSelecionada, 0);
         
         // Busca o aluno completo
-        Aluno aluno = alunoService.obterAlunoPorMatricula(matricula);
+        Aluno aluno = matricula != null ? alunoService.obterAlunoPorMatricula(matricula) : null;
         
         if (aluno != null) {
             String mensagem = String.format(
@@ -307,6 +359,8 @@ public class FormularioListagem extends JFrame {
             "  Adiciona um novo aluno\n" +
             "  Remove um aluno\n" +
             "  Atualiza dados de um aluno\n\n" +
+            "As alterações recentes ficam em ListagemAlunos.txt.journal\n" +
+            "e são incorporadas ao CSV automaticamente.\n\n" +
             "Formato do arquivo:\n" +
             "matricula,nome,dataNascimento,telefone,cpf\n\n" +
             "Exemplo:\n" +
@@ -1,22 +1,49 @@
 package com.sistema.view;
 
+import com.sistema.api.ServidorApi;
+import com.sistema.exception.CpfDuplicadoException;
 import com.sistema.exception.MatriculaDuplicadaException;
 import com.sistema.model.Aluno;
 import com.sistema.service.AlunoService;
+import com.sistema.util.DataUtil;
+import com.sistema.util.HibernateUtil;
 
 import javax.swing.*;
 import javax.swing.text.MaskFormatter;
 import java.awt.*;
+import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FormularioPrincipal extends JFrame {
 
-    // Serviço para gerenciar alunos
+    // Serviço para gerenciar alunos (null até o CSV terminar de carregar)
     private AlunoService alunoService;
     private Integer posicaoInsercao = null;
 
+    // Ações que só leem a lista: liberadas quando o CSV termina de carregar
+    private final List<JComponent> acoesLeitura = new ArrayList<>();
+
+    // Ações que alteram alunos: precisam também do banco de dados iniciado
+    private final List<JComponent> acoesGravacao = new ArrayList<>();
+
+    // Etapas da inicialização em segundo plano
+    private static final int ETAPAS_INICIALIZACAO = 2;
+    private int etapasConcluidas;
+    private boolean bancoIniciado;
+    private Throwable erroLista;
+    private Throwable erroBanco;
+    private JProgressBar barraProgresso;
+    private JLabel lblStatus;
+
     // Componentes do formulário
     private JTextField txtMatricula;
     private JTextField txtNome;
@@ -24,13 +51,8 @@ public class FormularioPrincipal extends JFrame {
     private JFormattedTextField txtTelefone;
     private JFormattedTextField txtCPF;
 
-    // Formato de data
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy");
-
     public FormularioPrincipal() {
 
-        alunoService = new AlunoService();
-
         setTitle("Sistema de Gerenciamento de Alunos");
         setSize(700, 600);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -38,7 +60,106 @@ public class FormularioPrincipal extends JFrame {
         setResizable(false);
         criarMenu();
         criarComponentes();
+        atualizarAcoes();
         setVisible(true);
+
+        // A janela aparece na hora; os dados chegam em segundo plano
+        iniciarEmSegundoPlano();
+    }
+
+    // ==================== INICIALIZAÇÃO ====================
+
+    /**
+     * Carrega o CSV (AlunoService) e cria a SessionFactory do Hibernate em
+     * paralelo, fora da thread de eventos do Swing. Cada ação é liberada assim
+     * que os dados de que depende estão prontos.
+     */
+    private void iniciarEmSegundoPlano() {
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService inicializacao = Executors.newFixedThreadPool(ETAPAS_INICIALIZACAO, r -> {
+            Thread thread = new Thread(r, "inicializacao-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture<AlunoService> lista = CompletableFuture.supplyAsync(AlunoService::new, inicializacao);
+        CompletableFuture<Void> banco = CompletableFuture.runAsync(HibernateUtil::getSessionFactory, inicializacao);
+
+        lista.whenComplete((servico, erro) -> SwingUtilities.invokeLater(() -> listaCarregada(servico, erro)));
+        banco.whenComplete((nada, erro) -> SwingUtilities.invokeLater(() -> bancoIniciado(erro)));
+
+        CompletableFuture.allOf(lista, banco).whenComplete((nada, erro) -> inicializacao.shutdown());
+    }
+
+    private void listaCarregada(AlunoService servico, Throwable erro) {
+        if (erro != null) {
+            erroLista = erro;
+            concluirEtapa();
+            JOptionPane.showMessageDialog(
+                    this,
+                    "Erro ao carregar os alunos:\n" + erro.getMessage(),
+                    "Erro",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        alunoService = servico;
+        concluirEtapa();
+    }
+
+    private void bancoIniciado(Throwable erro) {
+        // Sem banco as alterações continuam valendo na lista e no CSV
+        bancoIniciado = true;
+        if (erro != null) {
+            erroBanco = erro;
+            System.err.println("Banco de dados indisponível: " + erro.getMessage());
+        }
+        concluirEtapa();
+    }
+
+    private void concluirEtapa() {
+        etapasConcluidas++;
+        barraProgresso.setValue(etapasConcluidas);
+        barraProgresso.setVisible(etapasConcluidas < ETAPAS_INICIALIZACAO);
+        atualizarAcoes();
+        lblStatus.setText(textoStatus());
+    }
+
+    /**
+     * Texto da barra de status, montado sempre a partir do estado das duas
+     * etapas, independentemente da ordem em que elas terminam.
+     */
+    private String textoStatus() {
+        String lista;
+        if (erroLista != null) {
+            lista = "Erro ao carregar os alunos";
+        } else if (alunoService != null) {
+            lista = "Alunos carregados: " + alunoService.getQuantidadeAlunos();
+        } else {
+            lista = "Carregando alunos...";
+        }
+
+        String banco;
+        if (!bancoIniciado) {
+            banco = "conectando ao banco de dados...";
+        } else if (erroBanco != null) {
+            banco = "banco de dados indisponível";
+        } else {
+            banco = "banco de dados conectado";
+        }
+        return lista + " | " + banco;
+    }
+
+    /**
+     * Habilita cada ação conforme os dados de que ela depende.
+     */
+    private void atualizarAcoes() {
+        boolean listaPronta = alunoService != null;
+        for (JComponent acao : acoesLeitura) {
+            acao.setEnabled(listaPronta);
+        }
+        for (JComponent acao : acoesGravacao) {
+            acao.setEnabled(listaPronta && bancoIniciado);
+        }
     }
 
     private void criarMenu() {
@@ -78,6 +199,12 @@ public class FormularioPrincipal extends JFrame {
         JMenuItem itemInserirPosicao = new JMenuItem("Inserir em Posição");
         itemInserirPosicao.addActionListener(e -> inserirNaPosicao());
 
+        acoesLeitura.add(itemListar);
+        acoesLeitura.add(itemBuscar);
+        acoesLeitura.add(itemMaisNovoVelho);
+        acoesGravacao.add(itemRemover);
+        acoesGravacao.add(itemInserirPosicao);
+
         menuAlunos.add(itemListar);
         menuAlunos.add(itemBuscar);
         menuAlunos.addSeparator();
@@ -126,6 +253,25 @@ public class FormularioPrincipal extends JFrame {
 
         // Adiciona o painel principal à janela
         add(painelPrincipal);
+        add(criarPainelStatus(), BorderLayout.SOUTH);
+    }
+
+    /**
+     * Barra de status com o andamento da inicialização.
+     */
+    private JPanel criarPainelStatus() {
+        JPanel painel = new JPanel(new BorderLayout(10, 0));
+        painel.setBorder(BorderFactory.createEmptyBorder(0, 10, 5, 10));
+
+        lblStatus = new JLabel("Carregando alunos e conectando ao banco de dados...");
+        lblStatus.setFont(new Font("Arial", Font.PLAIN, 12));
+
+        barraProgresso = new JProgressBar(0, ETAPAS_INICIALIZACAO);
+        barraProgresso.setPreferredSize(new Dimension(150, 16));
+
+        painel.add(lblStatus, BorderLayout.CENTER);
+        painel.add(barraProgresso, BorderLayout.EAST);
+        return painel;
     }
 
     private JPanel criarPainelFormulario() {
@@ -232,6 +378,9 @@ public class FormularioPrincipal extends JFrame {
         btnListar.setPreferredSize(new Dimension(150, 40));
         btnListar.addActionListener(e -> abrirListagemAlunos());
 
+        acoesGravacao.add(btnSalvar);
+        acoesLeitura.add(btnListar);
+
         painel.add(btnSalvar);
         painel.add(btnLimpar);
         painel.add(btnListar);
@@ -252,7 +401,7 @@ public class FormularioPrincipal extends JFrame {
             aluno.setNome(txtNome.getText().trim());
 
             // Converte a data de nascimento
-            Date dataNascimento = DATE_FORMAT.parse(txtDataNascimento.getText());
+            LocalDate dataNascimento = LocalDate.parse(txtDataNascimento.getText(), DataUtil.FORMATO_DATA);
             aluno.setDataNascimento(dataNascimento);
 
             aluno.setTelefone(txtTelefone.getText().trim());
@@ -294,7 +443,17 @@ public class FormularioPrincipal extends JFrame {
             posicaoInsercao = null;
             txtMatricula.requestFocus();
 
-        } catch (ParseException e) {
+        } catch (CpfDuplicadoException e) {
+            JOptionPane.showMessageDialog(
+                    this,
+                    e.getMessage(),
+                    "CPF Duplicado",
+                    JOptionPane.ERROR_MESSAGE);
+
+            posicaoInsercao = null;
+            txtCPF.requestFocus();
+
+        } catch (DateTimeParseException e) {
             JOptionPane.showMessageDialog(
                     this,
                     "Data de nascimento inválida!\nUse o formato: dd/mm/aaaa",
@@ -567,7 +726,17 @@ public class FormularioPrincipal extends JFrame {
                 JOptionPane.INFORMATION_MESSAGE);
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // A API HTTP só sobe quando pedida explicitamente
+        if (Arrays.asList(args).contains("--api")) {
+            ServidorApi.main(args);
+            return;
+        }
+        if (GraphicsEnvironment.isHeadless()) {
+            System.err.println("Sem interface gráfica disponível. Use --api para iniciar só a API HTTP.");
+            System.exit(1);
+        }
+
         // Define o Look and Feel do sistema operacional
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -0,0 +1,169 @@
+package com.sistema.view;
+
+import com.sistema.model.Aluno;
+import com.sistema.service.AlunoService;
+import com.sistema.service.OrdemListagem;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Modelo da tabela de alunos que busca os dados sob demanda no AlunoService.
+ *
+ * Em vez de copiar a lista inteira para linhas de Object[], guarda apenas uma
+ * janela de alunos ao redor da área visível da tabela e calcula cada célula na
+ * hora em que é desenhada. Abrir a listagem custa o mesmo para qualquer
+ * quantidade de alunos.
+ */
+class ModeloTabelaAlunos extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] COLUNAS = {
+        "Matrícula", "Nome", "Idade", "Data Nasc.", "Telefone", "CPF"
+    };
+
+    // Quantidade de alunos mantidos na janela
+    private static final int TAMANHO_JANELA = 500;
+
+    // Linhas carregadas antes da primeira linha pedida, para a rolagem para cima
+    private static final int MARGEM = 100;
+
+    // Máximo de alunos exibidos quando há um filtro por nome
+    static final int LIMITE_FILTRO = 1000;
+
+    private final transient AlunoService alunoService;
+
+    private OrdemListagem ordem = OrdemListagem.INSERCAO;
+
+    // Trecho do nome procurado; vazio mostra todos os alunos
+    private String filtro = "";
+
+    private int quantidade;
+    private int inicioJanela;
+    private transient List<Aluno> janela = Collections.emptyList();
+
+    ModeloTabelaAlunos(AlunoService alunoService) {
+        this.alunoService = alunoService;
+    }
+
+    OrdemListagem getOrdem() {
+        return ordem;
+    }
+
+    /**
+     * Troca a ordem das linhas. Vale a partir do próximo recarregar().
+     */
+    void setOrdem(OrdemListagem ordem) {
+        this.ordem = ordem;
+    }
+
+    String getFiltro() {
+        return filtro;
+    }
+
+    boolean isFiltrado() {
+        return !filtro.isEmpty();
+    }
+
+    /**
+     * Mostra só os alunos cujo nome contém o texto (até LIMITE_FILTRO, os que
+     * começam com o texto primeiro). Vale a partir do próximo recarregar().
+     */
+    void setFiltro(String filtro) {
+        this.filtro = filtro == null ? "" : filtro.trim();
+    }
+
+    /**
+     * Descarta a janela e relê a quantidade de alunos. Deve ser chamado sempre
+     * que a lista do serviço mudar.
+     */
+    void recarregar() {
+        inicioJanela = 0;
+        if (isFiltrado()) {
+            // O resultado do filtro é pequeno: fica inteiro na janela
+            janela = alunoService.buscarPorNome(filtro, LIMITE_FILTRO);
+            quantidade = janela.size();
+        } else {
+            janela = Collections.emptyList();
+            quantidade = alunoService.getQuantidadeAlunos();
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Garante que as linhas [primeira, ultima] (a área visível) estejam na janela.
+     */
+    void prefetch(int primeira, int ultima) {
+        if (!naJanela(primeira) || !naJanela(ultima)) {
+            carregarJanela(primeira - MARGEM);
+        }
+    }
+
+    /**
+     * Aluno exibido na linha, ou null se a linha não existir mais.
+     */
+    Aluno getAluno(int linha) {
+        if (!naJanela(linha)) {
+            carregarJanela(linha - MARGEM);
+        }
+        int indice = linha - inicioJanela;
+        return indice >= 0 && indice < janela.size() ? janela.get(indice) : null;
+    }
+
+    private boolean naJanela(int linha) {
+        return linha >= inicioJanela && linha < inicioJanela + janela.size();
+    }
+
+    private void carregarJanela(int inicio) {
+        if (isFiltrado()) {
+            return;
+        }
+        inicioJanela = Math.max(0, Math.min(inicio, quantidade - TAMANHO_JANELA));
+        janela = alunoService.listarIntervalo(ordem, inicioJanela, TAMANHO_JANELA);
+    }
+
+    @Override
+    public int getRowCount() {
+        return quantidade;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int coluna) {
+        return COLUNAS[coluna];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int coluna) {
+        return coluna == 2 ? Integer.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int linha, int coluna) {
+        Aluno aluno = getAluno(linha);
+        if (aluno == null) {
+            return null;
+        }
+
+        switch (coluna) {
+            case 0:
+                return aluno.getMatricula();
+            case 1:
+                return aluno.getNome();
+            case 2:
+                return aluno.getIdade();
+            case 3:
+                return aluno.getDataNascimentoFormatada();
+            case 4:
+                return aluno.getTelefone();
+            default:
+                return aluno.getCpf();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.sistema.api;
+
+import com.sistema.service.AlunoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServidorApiTest {
+
+    private static final int ALUNOS = 2_500;
+
+    @TempDir
+    Path diretorio;
+
+    private AlunoService servico;
+    private ServidorApi servidor;
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void iniciar() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < ALUNOS; i++) {
+            csv.append(String.format("M%05d,Aluno %d,01/01/2000,,%011d%n", i, i, i));
+        }
+        Path arquivo = diretorio.resolve("alunos.csv");
+        Files.write(arquivo, csv.toString().getBytes(Charset.defaultCharset()));
+
+        System.setProperty(AlunoService.PROPRIEDADE_ARQUIVO_CSV, arquivo.toString());
+        try {
+            servico = new AlunoService(false);
+            servidor = new ServidorApi(servico, 0, Executors.newFixedThreadPool(2));
+        } finally {
+            System.clearProperty(AlunoService.PROPRIEDADE_ARQUIVO_CSV);
+        }
+        servidor.iniciar();
+    }
+
+    @AfterEach
+    void parar() {
+        servidor.parar(0);
+        servico.encerrar();
+    }
+
+    private HttpResponse<String> get(String caminho) throws IOException, InterruptedException {
+        HttpRequest requisicao = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + servidor.getPorta() + caminho)).build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void exportacaoEnviaTodosOsAlunosEmJanelas() throws Exception {
+        HttpResponse<String> resposta = get("/exportacao");
+
+        assertEquals(200, resposta.statusCode());
+        String[] linhas = resposta.body().split("\n");
+        assertEquals(ALUNOS, linhas.length);
+        assertTrue(linhas[0].contains("M00000"));
+        assertTrue(linhas[ALUNOS - 1].contains("M0" + (ALUNOS - 1)));
+    }
+
+    @Test
+    void buscaPorNomeComInicioMuitoGrandeEhRejeitada() throws Exception {
+        assertEquals(400, get("/alunos?nome=aluno&inicio=2147483000&quantidade=1000").statusCode());
+
+        HttpResponse<String> resposta = get("/alunos?nome=aluno&inicio=10&quantidade=5");
+        assertEquals(200, resposta.statusCode());
+        assertTrue(resposta.body().contains("\"quantidade\":5"), resposta.body());
+    }
+}
@@ -0,0 +1,215 @@
+package com.sistema.dao;
+
+import com.sistema.metricas.MetricaOperacao;
+import com.sistema.metricas.RegistroMetricas;
+import com.sistema.model.Aluno;
+import com.sistema.util.HibernateUtil;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consultas do DAO contra o HSQLDB em memória dos testes.
+ */
+class RemocaoAlunoDAOTest {
+
+    private final RemocaoAlunoDAO dao = new RemocaoAlunoDAO();
+    private final List<String> gravados = new ArrayList<>();
+
+    @AfterEach
+    void limpar() {
+        dao.removerPorMatriculas(gravados);
+    }
+
+    private static Aluno aluno(String matricula, int diaNascimento, String telefone) {
+        Aluno aluno = new Aluno();
+        aluno.setMatricula(matricula);
+        aluno.setNome("Aluno " + matricula);
+        aluno.setDiaNascimento(diaNascimento);
+        aluno.setTelefone(telefone);
+        aluno.setCpf("cpf " + matricula);
+        return aluno;
+    }
+
+    private Aluno gravar(String matricula, int diaNascimento, String telefone) {
+        Aluno aluno = aluno(matricula, diaNascimento, telefone);
+        dao.salvar(aluno);
+        gravados.add(matricula);
+        return aluno;
+    }
+
+    private static List<String> matriculas(List<Aluno> alunos) {
+        List<String> matriculas = new ArrayList<>();
+        for (Aluno aluno : alunos) {
+            matriculas.add(aluno.getMatricula());
+        }
+        return matriculas;
+    }
+
+    @Test
+    void resumoDoBancoCoincideComOHashEmJava() {
+        long soma = 0;
+        soma += HashAluno.hash(gravar("RES-1", 10_000, "11 5555-0000"));
+        soma += HashAluno.hash(gravar("RES-2", 0, ""));
+        soma += HashAluno.hash(gravar("RES-3", -4_000, "85 3333-1111"));
+        gravar("RET-1", 10_000, "");
+
+        assertArrayEquals(new long[] {soma, 3}, dao.resumirFaixa("RES", "RET"));
+        assertArrayEquals(new long[] {0, 0}, dao.resumirFaixa("RES-4", "RET"));
+    }
+
+    @Test
+    void operacoesEmLoteGravamAtualizamERemovemTodos() {
+        // Mais alunos que um lote JDBC (TAMANHO_LOTE)
+        List<Aluno> alunos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            alunos.add(aluno(String.format("LOT-%03d", i), 10_000 + i, "85 0000-" + i));
+        }
+        dao.salvarTodos(alunos);
+        gravados.addAll(matriculas(alunos));
+        assertEquals(matriculas(alunos), matriculas(dao.listarFaixa("LOT-", "LOU")));
+
+        for (Aluno aluno : alunos) {
+            aluno.setNome("Renomeado " + aluno.getMatricula());
+        }
+        dao.atualizarTodos(alunos);
+        for (Aluno aluno : dao.listarFaixa("LOT-", "LOU")) {
+            assertEquals("Renomeado " + aluno.getMatricula(), aluno.getNome());
+        }
+
+        List<String> pares = new ArrayList<>();
+        for (int i = 0; i < alunos.size(); i += 2) {
+            pares.add(alunos.get(i).getMatricula());
+        }
+        assertEquals(60, dao.removerPorMatriculas(pares));
+        assertEquals(0, dao.removerPorMatriculas(pares));
+        assertEquals(60, dao.listarFaixa("LOT-", "LOU").size());
+
+        // Uma matrícula repetida desfaz o lote inteiro
+        assertThrows(RuntimeException.class,
+                () -> dao.salvarTodos(List.of(aluno("LOT-200", 0, ""), aluno("LOT-001", 0, ""))));
+        assertNull(dao.buscarPorMatricula("LOT-200"));
+    }
+
+    @Test
+    void segundaBuscaVemDoCacheEAAtualizacaoOInvalida() {
+        Statistics estatisticas = HibernateUtil.getSessionFactory().getStatistics();
+        CacheRegionStatistics regiao = estatisticas.getDomainDataRegionStatistics(HibernateUtil.REGIAO_ALUNO);
+        Aluno aluno = gravar("CAC-1", 10_000, "85 1111-2222");
+        HibernateUtil.getSessionFactory().getCache().evictEntityData(Aluno.class);
+
+        long falhas = regiao.getMissCount();
+        long acertos = regiao.getHitCount();
+        assertEquals("Aluno CAC-1", dao.buscarPorMatricula("CAC-1").getNome());
+        assertEquals(falhas + 1, regiao.getMissCount());
+        assertEquals("Aluno CAC-1", dao.buscarPorMatricula("CAC-1").getNome());
+        assertEquals(acertos + 1, regiao.getHitCount());
+
+        // O resultado de FROM Aluno também fica no cache de consultas
+        dao.listarTodos();
+        long acertosConsulta = estatisticas.getQueryCacheHitCount();
+        dao.listarTodos();
+        assertEquals(acertosConsulta + 1, estatisticas.getQueryCacheHitCount());
+
+        // A atualização chega ao cache da entidade e descarta a consulta em cache
+        aluno.setNome("Renomeado");
+        dao.atualizar(aluno);
+        assertEquals("Renomeado", dao.buscarPorMatricula("CAC-1").getNome());
+        long falhasConsulta = estatisticas.getQueryCacheMissCount();
+        Aluno listado = dao.listarTodos().stream()
+                .filter(a -> a.getMatricula().equals("CAC-1")).findFirst().orElseThrow();
+        assertEquals("Renomeado", listado.getNome());
+        assertEquals(falhasConsulta + 1, estatisticas.getQueryCacheMissCount());
+
+        // A remoção em massa (HQL) também
+        dao.removerPorMatriculas(List.of("CAC-1"));
+        assertNull(dao.buscarPorMatricula("CAC-1"));
+    }
+
+    @Test
+    void paginasCobremTodosOsAlunosSemRepetir() {
+        List<String> esperado = new ArrayList<>();
+        // Gravados fora de ordem; as páginas vêm em ordem de matrícula
+        for (int i = 24; i >= 0; i--) {
+            esperado.add(0, gravar(String.format("PAG-%02d", i), 10_000, "").getMatricula());
+        }
+
+        List<String> lidos = new ArrayList<>();
+        String ultima = "PAG-";
+        List<Aluno> pagina;
+        do {
+            pagina = dao.listarPagina(ultima, 7);
+            for (Aluno aluno : pagina) {
+                if (!aluno.getMatricula().startsWith("PAG-")) {
+                    pagina = List.of();
+                    break;
+                }
+                lidos.add(aluno.getMatricula());
+                ultima = aluno.getMatricula();
+            }
+        } while (!pagina.isEmpty());
+
+        assertEquals(esperado, lidos);
+        assertEquals(List.of("PAG-00", "PAG-01"), matriculas(dao.listarPagina("PAG-", 2)));
+        assertEquals(List.of("PAG-24"), matriculas(dao.listarPagina("PAG-23", 1)));
+    }
+
+    @Test
+    void fluxoTrazTodosOsAlunosEFechaASessao() {
+        List<String> esperado = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            esperado.add(gravar(String.format("FLX-%02d", i), 10_000, "").getMatricula());
+        }
+        Statistics estatisticas = HibernateUtil.getSessionFactory().getStatistics();
+        long abertas = estatisticas.getSessionOpenCount() - estatisticas.getSessionCloseCount();
+
+        List<String> lidos = new ArrayList<>();
+        // Busca menor que a quantidade de alunos: a sessão é limpa no meio da leitura
+        try (Stream<Aluno> fluxo = dao.listarEmFluxo(4)) {
+            fluxo.map(Aluno::getMatricula).filter(m -> m.startsWith("FLX-")).forEach(lidos::add);
+            assertEquals(abertas + 1, estatisticas.getSessionOpenCount() - estatisticas.getSessionCloseCount());
+        }
+
+        assertEquals(esperado, lidos);
+        assertEquals(abertas, estatisticas.getSessionOpenCount() - estatisticas.getSessionCloseCount());
+    }
+
+    private static long medidor(String nome) throws JMException {
+        return (Long) ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(RegistroMetricas.DOMINIO + ":type=Medidor,nome=" + nome), "Valor");
+    }
+
+    @Test
+    void medidoresDoPoolAcompanhamAsConexoes() throws JMException {
+        gravar("POL-1", 10_000, "");
+        MetricaOperacao obterConexao = RegistroMetricas.operacao("pool", "obterConexao");
+        long obtidas = obterConexao.getQuantidade();
+        assertEquals(0, medidor("poolConexoesAtivas"));
+
+        // O fluxo segura uma conexão até ser fechado
+        try (Stream<Aluno> fluxo = dao.listarEmFluxo()) {
+            assertTrue(fluxo.findFirst().isPresent());
+            assertEquals(1, medidor("poolConexoesAtivas"));
+            assertTrue(medidor("poolConexoesTotal") >= 1);
+            assertEquals(0, medidor("poolThreadsAguardando"));
+        }
+
+        assertEquals(0, medidor("poolConexoesAtivas"));
+        assertTrue(medidor("poolConexoesOciosas") >= 1);
+        assertEquals(obtidas + 1, obterConexao.getQuantidade());
+    }
+}
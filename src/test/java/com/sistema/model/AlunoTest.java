@@ -0,0 +1,61 @@
+package com.sistema.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AlunoTest {
+
+    private static int idadeEsperada(LocalDate nascimento) {
+        return Period.between(nascimento, LocalDate.now()).getYears();
+    }
+
+    @Test
+    void idadeEmCacheAcompanhaATrocaDaDataDeNascimento() {
+        LocalDate antiga = LocalDate.now().minusYears(30);
+        LocalDate nova = LocalDate.of(1950, 6, 15);
+        Aluno aluno = new Aluno("1", "Ana", 0, antiga, null, null);
+
+        assertEquals(30, aluno.getIdade());
+        assertEquals(30, aluno.getIdade());
+
+        aluno.setDataNascimento(nova);
+        assertEquals(idadeEsperada(nova), aluno.getIdade());
+
+        aluno.setDataNascimento(null);
+        assertEquals(0, aluno.getIdade());
+    }
+
+    @Test
+    void leitoresConcorrentesNaoVeemIdadeDeOutraData() throws InterruptedException {
+        LocalDate[] datas = {LocalDate.of(1960, 1, 1), LocalDate.of(2005, 12, 31)};
+        int[] idades = {idadeEsperada(datas[0]), idadeEsperada(datas[1])};
+        Aluno aluno = new Aluno("1", "Ana", 0, datas[0], null, null);
+
+        Thread escritor = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                aluno.setDataNascimento(datas[i % 2]);
+            }
+        });
+        int[] erradas = new int[1];
+        Thread leitor = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                int idade = aluno.getIdade();
+                if (idade != idades[0] && idade != idades[1]) {
+                    erradas[0]++;
+                }
+            }
+        });
+        escritor.start();
+        leitor.start();
+        escritor.join();
+        leitor.join();
+
+        assertEquals(0, erradas[0]);
+        // A última data gravada foi a segunda; nenhuma idade antiga ficou em cache
+        assertEquals(idades[1], aluno.getIdade());
+    }
+}
@@ -0,0 +1,193 @@
+package com.sistema.service;
+
+import com.sistema.dao.AlunoDAO;
+import com.sistema.dao.HashAluno;
+import com.sistema.model.Aluno;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * AlunoDAO em memória para os testes do serviço: uma tabela ordenada por
+ * matrícula, com transações de tudo ou nada nas operações em lote.
+ */
+class AlunoDAOMemoria implements AlunoDAO {
+
+    final TreeMap<String, Aluno> tabela = new TreeMap<>();
+
+    // Quantidade de alunos que ainda podem ser inseridos antes de uma falha (-1 = sem limite)
+    int insercoesAteFalhar = -1;
+
+    // Simula um banco sem a função hash_aluno
+    boolean semResumo;
+
+    // Quantidade de consultas de resumo feitas
+    int resumos;
+
+    // Simula um banco fora do ar nas leituras
+    boolean leiturasFalham;
+
+    private static Aluno copia(Aluno aluno) {
+        return ArmazemAlunos.copiar(aluno);
+    }
+
+    private void inserir(Aluno aluno) {
+        if (insercoesAteFalhar == 0) {
+            throw new IllegalStateException("banco indisponível");
+        }
+        if (insercoesAteFalhar > 0) {
+            insercoesAteFalhar--;
+        }
+        if (tabela.containsKey(aluno.getMatricula())) {
+            throw new IllegalStateException("chave duplicada: " + aluno.getMatricula());
+        }
+        tabela.put(aluno.getMatricula(), copia(aluno));
+    }
+
+    @Override
+    public List<Aluno> removerAluno(List<Aluno> alunos, Aluno a) {
+        alunos.remove(a);
+        return alunos;
+    }
+
+    @Override
+    public synchronized void salvar(Aluno aluno) {
+        inserir(aluno);
+    }
+
+    @Override
+    public synchronized void atualizar(Aluno aluno) {
+        if (tabela.containsKey(aluno.getMatricula())) {
+            tabela.put(aluno.getMatricula(), copia(aluno));
+        }
+    }
+
+    @Override
+    public synchronized void remover(Aluno aluno) {
+        tabela.remove(aluno.getMatricula());
+    }
+
+    @Override
+    public synchronized Aluno buscarPorMatricula(String matricula) {
+        Aluno aluno = tabela.get(matricula);
+        return aluno == null ? null : copia(aluno);
+    }
+
+    @Override
+    public synchronized List<Aluno> listarTodos() {
+        return listarFaixa(null, null);
+    }
+
+    @Override
+    public synchronized List<Aluno> listarPagina(String aposMatricula, int limite) {
+        if (leiturasFalham) {
+            throw new IllegalStateException("banco indisponível");
+        }
+        List<Aluno> pagina = new ArrayList<>();
+        Map<String, Aluno> depois = aposMatricula == null ? tabela : tabela.tailMap(aposMatricula, false);
+        for (Aluno aluno : depois.values()) {
+            if (pagina.size() == limite) {
+                break;
+            }
+            pagina.add(copia(aluno));
+        }
+        return pagina;
+    }
+
+    @Override
+    public synchronized List<Aluno> listarFaixa(String de, String ate) {
+        Map<String, Aluno> faixa = tabela;
+        if (de != null) {
+            faixa = tabela.tailMap(de, true);
+        }
+        List<Aluno> alunos = new ArrayList<>();
+        for (Aluno aluno : faixa.values()) {
+            if (ate != null && aluno.getMatricula().compareTo(ate) >= 0) {
+                break;
+            }
+            alunos.add(copia(aluno));
+        }
+        return alunos;
+    }
+
+    @Override
+    public synchronized long[] resumirFaixa(String de, String ate) {
+        if (semResumo) {
+            throw new IllegalStateException("função hash_aluno não existe");
+        }
+        resumos++;
+        long[] resumo = new long[2];
+        for (Aluno aluno : listarFaixa(de, ate)) {
+            resumo[0] += HashAluno.hash(aluno);
+            resumo[1]++;
+        }
+        return resumo;
+    }
+
+    @Override
+    public Stream<Aluno> listarEmFluxo() {
+        return listarTodos().stream();
+    }
+
+    @Override
+    public Stream<Aluno> listarEmFluxo(int tamanhoBusca) {
+        return listarEmFluxo();
+    }
+
+    @Override
+    public synchronized boolean existePorMatricula(String matricula) {
+        return tabela.containsKey(matricula);
+    }
+
+    @Override
+    public synchronized void salvarEmFluxo(Iterator<Aluno> alunos) {
+        List<Aluno> lote = new ArrayList<>();
+        alunos.forEachRemaining(lote::add);
+        salvarTodos(lote);
+    }
+
+    @Override
+    public synchronized void salvarTodos(Collection<Aluno> alunos) {
+        TreeMap<String, Aluno> antes = new TreeMap<>(tabela);
+        try {
+            for (Aluno aluno : alunos) {
+                inserir(aluno);
+            }
+        } catch (RuntimeException e) {
+            // Desfaz a transação inteira
+            tabela.clear();
+            tabela.putAll(antes);
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void atualizarTodos(Collection<Aluno> alunos) {
+        for (Aluno aluno : alunos) {
+            atualizar(aluno);
+        }
+    }
+
+    @Override
+    public synchronized int removerPorMatriculas(Collection<String> matriculas) {
+        int removidos = 0;
+        for (String matricula : matriculas) {
+            if (tabela.remove(matricula) != null) {
+                removidos++;
+            }
+        }
+        return removidos;
+    }
+
+    @Override
+    public synchronized int removerTodos() {
+        int removidos = tabela.size();
+        tabela.clear();
+        return removidos;
+    }
+}
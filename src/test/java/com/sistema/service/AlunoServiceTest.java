@@ -0,0 +1,188 @@
+package com.sistema.service;
+
+import com.sistema.exception.CpfDuplicadoException;
+import com.sistema.exception.MatriculaDuplicadaException;
+import com.sistema.metricas.MetricaOperacao;
+import com.sistema.metricas.RegistroMetricas;
+import com.sistema.model.Aluno;
+import com.sistema.util.DataUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlunoServiceTest {
+
+    @TempDir
+    Path diretorio;
+
+    /**
+     * Serviço com gravação síncrona, CSV no diretório temporário e o DAO em memória.
+     */
+    static AlunoService servico(Path diretorio, AlunoDAOMemoria dao) {
+        System.setProperty(AlunoService.PROPRIEDADE_ARQUIVO_CSV, diretorio.resolve("alunos.csv").toString());
+        try {
+            return new AlunoService(false, dao);
+        } finally {
+            System.clearProperty(AlunoService.PROPRIEDADE_ARQUIVO_CSV);
+        }
+    }
+
+    private final List<AlunoService> abertos = new ArrayList<>();
+
+    private AlunoService servico(AlunoDAOMemoria dao) {
+        AlunoService servico = servico(diretorio, dao);
+        abertos.add(servico);
+        return servico;
+    }
+
+    @AfterEach
+    void encerrar() {
+        // Sem isso a compactação em segundo plano roda sobre o diretório já apagado
+        for (AlunoService servico : abertos) {
+            servico.encerrar();
+        }
+    }
+
+    static List<String> matriculas(List<Aluno> alunos) {
+        List<String> matriculas = new ArrayList<>();
+        for (Aluno aluno : alunos) {
+            matriculas.add(aluno.getMatricula());
+        }
+        return matriculas;
+    }
+
+    @Test
+    void falhaNoBancoInterrompeAImportacaoSemDivergirDaLista() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 12_000; i++) {
+            csv.append(String.format("M%05d,Aluno %d,01/01/2000,,%011d%n", i, i, i));
+        }
+        Path arquivo = diretorio.resolve("importar.csv");
+        Files.write(arquivo, csv.toString().getBytes(Charset.defaultCharset()));
+
+        AlunoDAOMemoria dao = new AlunoDAOMemoria();
+        // O primeiro lote é gravado; o segundo falha no meio e é desfeito
+        dao.insercoesAteFalhar = 7_000;
+        AlunoService servico = servico(dao);
+
+        ResultadoImportacao resultado = servico.importar(arquivo);
+
+        assertEquals(12_000, resultado.getLinhasLidas());
+        assertEquals(dao.tabela.size(), resultado.getImportados());
+        assertEquals(12_000 - resultado.getImportados(), resultado.getRejeitados());
+        assertEquals(new ArrayList<>(dao.tabela.keySet()), matriculas(servico.listarTodosAlunos()));
+
+        // As linhas não importadas podem ser importadas de novo a partir do arquivo de rejeitadas
+        List<String> rejeitadas = Files.readAllLines(resultado.getArquivoRejeitados(), Charset.defaultCharset());
+        assertEquals(resultado.getRejeitados() + 1, rejeitadas.size());
+        assertTrue(rejeitadas.get(rejeitadas.size() - 1).contains("M11999"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void ordenarPorNomePassaAValerComoOrdemDeCadastro() throws Exception {
+        AlunoDAOMemoria dao = new AlunoDAOMemoria();
+        AlunoService servico = servico(dao);
+        for (String[] dados : new String[][] {{"1", "Caio"}, {"2", "ana"}, {"3", "Bia"}}) {
+            Aluno aluno = ArmazemAlunosTest.aluno(dados[0], null);
+            aluno.setNome(dados[1]);
+            servico.adicionarAluno(aluno);
+        }
+
+        servico.ordenarPorNome();
+
+        assertEquals(List.of("2", "3", "1"), matriculas(servico.listarTodosAlunos()));
+        // O CSV foi reescrito na nova ordem
+        servico.encerrar();
+        assertEquals(List.of("2", "3", "1"), matriculas(servico(dao).listarTodosAlunos()));
+    }
+
+    @Test
+    void escritasContamFalhasSoQuandoLancamExcecao() throws Exception {
+        MetricaOperacao inserir = RegistroMetricas.operacao("servico", "inserirAlunoNaPosicao");
+        MetricaOperacao adicionar = RegistroMetricas.operacao("servico", "adicionarAluno");
+        long falhasInserir = inserir.getFalhas();
+        long falhasAdicionar = adicionar.getFalhas();
+        AlunoService servico = servico(new AlunoDAOMemoria());
+
+        // Lista curta: vai para o fim sem passar pela posição inválida
+        servico.inserirAlunoNaTerceiraPosicao(ArmazemAlunosTest.aluno("1", null));
+        assertEquals(falhasInserir, inserir.getFalhas());
+
+        assertThrows(MatriculaDuplicadaException.class,
+                () -> servico.adicionarAluno(ArmazemAlunosTest.aluno("1", null)));
+        assertEquals(falhasAdicionar + 1, adicionar.getFalhas());
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> servico.inserirAlunoNaPosicao(ArmazemAlunosTest.aluno("2", null), 5));
+        assertEquals(falhasInserir + 1, inserir.getFalhas());
+    }
+
+    @Test
+    void importacaoRejeitaRepetidosDentroDoMesmoLote() throws IOException {
+        Path arquivo = diretorio.resolve("importar.csv");
+        Files.write(arquivo, ("1,Ana,01/01/2000,,111\n"
+                + "1,Ana de novo,01/01/2000,,222\n"
+                + "2,Bia,01/01/2000,,111.\n"
+                + "3,Caio,01/01/2000,,333\n").getBytes(Charset.defaultCharset()));
+
+        AlunoDAOMemoria dao = new AlunoDAOMemoria();
+        ResultadoImportacao resultado = servico(dao).importar(arquivo);
+
+        assertEquals(2, resultado.getImportados());
+        assertEquals(2, resultado.getRejeitados());
+        assertEquals(List.of("1", "3"), new ArrayList<>(dao.tabela.keySet()));
+    }
+
+    @Test
+    void faixasDeIdadeEDataForaDoLimiteNaoEstouram() throws Exception {
+        AlunoService servico = servico(new AlunoDAOMemoria());
+        Aluno novo = ArmazemAlunosTest.aluno("1", "111");
+        novo.setDiaNascimento((int) LocalDate.ofEpochDay(DataUtil.hoje()).minusYears(20).toEpochDay());
+        Aluno antigo = ArmazemAlunosTest.aluno("2", "222");
+        antigo.setDiaNascimento((int) LocalDate.of(-5000, 1, 1).toEpochDay());
+        Aluno semData = ArmazemAlunosTest.aluno("3", "333");
+        semData.setDiaNascimento(Aluno.SEM_DATA);
+        servico.adicionarAluno(novo);
+        servico.adicionarAluno(antigo);
+        servico.adicionarAluno(semData);
+
+        assertEquals(List.of("1"), matriculas(servico.listarPorIdade(20, Integer.MAX_VALUE)));
+        assertEquals(List.of("1"), matriculas(servico.listarPorIdade(Integer.MIN_VALUE, 20)));
+        assertEquals(List.of("1", "2"), matriculas(servico.listarNascidosEntre(LocalDate.MIN, LocalDate.MAX)));
+        assertThrows(IllegalArgumentException.class, () -> servico.listarPorIdade(30, 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> servico.listarNascidosEntre(LocalDate.of(2001, 1, 1), LocalDate.of(2000, 1, 1)));
+    }
+
+    @Test
+    void alunoComCpfRepetidoNoCsvPodeSerAtualizado() throws Exception {
+        // CSV antigo, gravado antes de o CPF ser único
+        Files.write(diretorio.resolve("alunos.csv"), ("1,Ana,01/01/2000,,111.111.111-11\n"
+                + "2,Bia,01/01/2000,,11111111111\n").getBytes(Charset.defaultCharset()));
+        AlunoService servico = servico(new AlunoDAOMemoria());
+        assertEquals(2, servico.getQuantidadeAlunos());
+
+        Aluno bia = ArmazemAlunosTest.aluno("2", "11111111111");
+        bia.setNome("Bia Souza");
+        servico.atualizarAluno(bia);
+        assertEquals("Bia Souza", servico.obterAlunoPorMatricula("2").getNome());
+
+        // Um terceiro aluno continua sem poder usar o CPF
+        Aluno caio = ArmazemAlunosTest.aluno("3", "333");
+        servico.adicionarAluno(caio);
+        caio.setCpf("111.111.111-11");
+        assertThrows(CpfDuplicadoException.class, () -> servico.atualizarAluno(caio));
+    }
+}
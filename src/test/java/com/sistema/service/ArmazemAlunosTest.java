@@ -0,0 +1,138 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regras comuns às duas implementações de ArmazemAlunos.
+ */
+class ArmazemAlunosTest {
+
+    static Stream<Supplier<ArmazemAlunos>> armazens() {
+        return Stream.of(ArmazemObjetos::new, ArmazemColunar::new);
+    }
+
+    static Aluno aluno(String matricula, String cpf) {
+        Aluno aluno = new Aluno();
+        aluno.setMatricula(matricula);
+        aluno.setNome("Aluno " + matricula);
+        aluno.setDiaNascimento(10_000);
+        aluno.setCpf(cpf);
+        return aluno;
+    }
+
+    @ParameterizedTest
+    @MethodSource("armazens")
+    void cpfRepetidoContinuaIndexadoQuandoOPrimeiroDonoSai(Supplier<ArmazemAlunos> fabrica) {
+        ArmazemAlunos armazem = fabrica.get();
+        // Como no CSV carregado, que pode repetir CPFs
+        armazem.inserir(0, aluno("1", "123.456.789-00"));
+        armazem.inserir(1, aluno("2", "12345678900"));
+
+        armazem.remover(aluno("1", null));
+
+        assertTrue(armazem.contemCpf("123.456.789-00"));
+        assertTrue(armazem.cpfDeOutroAluno("12345678900", "3"));
+        assertFalse(armazem.cpfDeOutroAluno("12345678900", "2"));
+
+        armazem.remover(aluno("2", null));
+        assertFalse(armazem.contemCpf("12345678900"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("armazens")
+    void cpfRepetidoNaoBarraNenhumDosDonos(Supplier<ArmazemAlunos> fabrica) {
+        ArmazemAlunos armazem = fabrica.get();
+        armazem.inserir(0, aluno("1", "111"));
+        armazem.inserir(1, aluno("2", "111"));
+        armazem.inserir(2, aluno("3", "111"));
+
+        // Cada dono pode manter o CPF; outro aluno não pode usá-lo
+        assertFalse(armazem.cpfDeOutroAluno("111", "1"));
+        assertFalse(armazem.cpfDeOutroAluno("111", "2"));
+        assertFalse(armazem.cpfDeOutroAluno("111", "3"));
+        assertTrue(armazem.cpfDeOutroAluno("111", "4"));
+
+        // Um dono que não é o indexado sai; o CPF segue com os outros
+        armazem.remover(aluno("2", null));
+        armazem.remover(aluno("1", null));
+        assertTrue(armazem.contemCpf("111"));
+        assertFalse(armazem.cpfDeOutroAluno("111", "3"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("armazens")
+    void atualizarOCpfLiberaOAntigoSoQuandoNinguemMaisOUsa(Supplier<ArmazemAlunos> fabrica) {
+        ArmazemAlunos armazem = fabrica.get();
+        armazem.inserir(0, aluno("1", "111"));
+        armazem.inserir(1, aluno("2", "111"));
+
+        armazem.atualizar(aluno("1", "222"));
+        assertTrue(armazem.contemCpf("111"));
+        assertTrue(armazem.contemCpf("222"));
+
+        armazem.atualizar(aluno("2", "333"));
+        assertFalse(armazem.contemCpf("111"));
+        assertEquals(2, armazem.tamanho());
+    }
+
+    @ParameterizedTest
+    @MethodSource("armazens")
+    void atualizarNaoAlteraOAlunoJaDevolvido(Supplier<ArmazemAlunos> fabrica) {
+        ArmazemAlunos armazem = fabrica.get();
+        armazem.inserir(0, aluno("1", "111"));
+        Aluno antes = armazem.obter("1");
+        Aluno lista = armazem.copia(OrdemListagem.INSERCAO).get(0);
+
+        Aluno dados = aluno("1", "222");
+        dados.setNome("Outro nome");
+        Aluno depois = armazem.atualizar(dados);
+
+        assertEquals("111", antes.getCpf());
+        assertEquals("Aluno 1", antes.getNome());
+        assertEquals("111", lista.getCpf());
+        assertEquals("222", depois.getCpf());
+        assertEquals("Outro nome", armazem.obter("1").getNome());
+        assertEquals("Outro nome", armazem.copia(OrdemListagem.INSERCAO).get(0).getNome());
+        assertEquals("Outro nome", armazem.copia(OrdemListagem.NOME).get(0).getNome());
+
+        // A instância de dados não passa a fazer parte do armazém
+        dados.setNome("Alterado depois");
+        assertEquals("Outro nome", armazem.obter("1").getNome());
+    }
+
+    @Test
+    void buscaPorMatriculaSemTravaNaoPerdeOAlunoDuranteAAtualizacao() throws InterruptedException {
+        ArmazemObjetos armazem = new ArmazemObjetos();
+        armazem.inserir(0, aluno("1", "111"));
+
+        AtomicBoolean parar = new AtomicBoolean();
+        AtomicInteger naoEncontrado = new AtomicInteger();
+        Thread leitor = new Thread(() -> {
+            while (!parar.get()) {
+                if (armazem.obter("1") == null) {
+                    naoEncontrado.incrementAndGet();
+                }
+            }
+        });
+        leitor.start();
+        for (int i = 0; i < 100_000; i++) {
+            armazem.atualizar(aluno("1", String.valueOf(i)));
+        }
+        parar.set(true);
+        leitor.join();
+
+        assertEquals(0, naoEncontrado.get());
+    }
+}
@@ -0,0 +1,218 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArmazemColunarTest {
+
+    @TempDir
+    Path diretorio;
+
+    /**
+     * Campos do aluno em texto, para comparar alunos de armazéns diferentes.
+     */
+    private static List<String> campos(List<Aluno> alunos) {
+        List<String> campos = new ArrayList<>();
+        for (Aluno aluno : alunos) {
+            campos.add(aluno == null ? null : aluno.getMatricula() + "|" + aluno.getNome() + "|"
+                    + aluno.getDiaNascimento() + "|" + aluno.getTelefone() + "|" + aluno.getCpf());
+        }
+        return campos;
+    }
+
+    private static String matricula(int numero) {
+        // Matrículas com máscara numérica e fora dela
+        return numero % 7 == 0 ? "EXT-" + numero : String.format("2023%05d", numero);
+    }
+
+    /**
+     * Nome longo e sempre diferente, para descartar caracteres da arena a cada atualização.
+     */
+    private static Aluno aluno(Random aleatorio, int numero, int versao) {
+        Aluno aluno = ArmazemAlunosTest.aluno(matricula(numero), String.format("%03d.%03d.%03d-%02d",
+                numero / 1000, numero % 1000, versao % 1000, numero % 100));
+        // Nomes com acentos do Latin-1 e fora dele, guardados na arena com 1 e 2 bytes por caractere
+        String[] inicios = {"Ana ", "bruno ", "Álvaro ", "ÉRICA ", "Zoë ", "Łukasz ", "Ông "};
+        StringBuilder nome = new StringBuilder(inicios[aleatorio.nextInt(inicios.length)]);
+        for (int i = 0; i < 20; i++) {
+            nome.append((char) ('a' + aleatorio.nextInt(26)));
+        }
+        aluno.setNome(nome.append(" Silva Sauro ").append(numero).append('v').append(versao).toString());
+        aluno.setDiaNascimento(aleatorio.nextInt(10) == 0 ? Aluno.SEM_DATA : 5_000 + aleatorio.nextInt(400));
+        aluno.setTelefone(aleatorio.nextBoolean()
+                ? String.format("(85) 9%04d-%04d", numero % 10_000, versao % 10_000)
+                : "ramal " + versao);
+        return aluno;
+    }
+
+    private static void comparar(ArmazemAlunos esperado, ArmazemAlunos colunar, Random aleatorio) {
+        assertEquals(esperado.tamanho(), colunar.tamanho());
+        for (OrdemListagem ordem : OrdemListagem.values()) {
+            assertEquals(campos(esperado.copia(ordem)), campos(colunar.copia(ordem)), ordem.name());
+            int inicio = aleatorio.nextInt(esperado.tamanho() + 2);
+            assertEquals(campos(esperado.intervalo(ordem, inicio, 37)),
+                    campos(colunar.intervalo(ordem, inicio, 37)), ordem.name());
+        }
+        for (int k : new int[] {0, 1, 25, Integer.MAX_VALUE}) {
+            assertEquals(campos(esperado.maisNovos(k)), campos(colunar.maisNovos(k)));
+            assertEquals(campos(esperado.maisVelhos(k)), campos(colunar.maisVelhos(k)));
+        }
+        int dia = 5_000 + aleatorio.nextInt(400);
+        assertEquals(campos(esperado.nascidosEntre(dia, dia + 30)), campos(colunar.nascidosEntre(dia, dia + 30)));
+        assertEquals(campos(esperado.porNome("ana", "Ana")), campos(colunar.porNome("ana", "Ana")));
+        assertEquals(campos(esperado.porNome("B", "bz")), campos(colunar.porNome("B", "bz")));
+        assertEquals(campos(esperado.porMatricula("202300100", "202300900")),
+                campos(colunar.porMatricula("202300100", "202300900")));
+        assertEquals(campos(esperado.porMatricula("EXT-", "EXT-9")), campos(colunar.porMatricula("EXT-", "EXT-9")));
+        assertEquals(campos(esperado.buscarPorNome("sauro 1", 500)), campos(colunar.buscarPorNome("sauro 1", 500)));
+    }
+
+    @Test
+    void respondeComoOArmazemObjetos() {
+        ArmazemAlunos esperado = new ArmazemObjetos();
+        ArmazemAlunos colunar = new ArmazemColunar();
+        Random aleatorio = new Random(25);
+        List<Integer> presentes = new ArrayList<>();
+        int proximo = 0;
+
+        // Atualizações de nomes longos suficientes para passar várias vezes do
+        // limite de caracteres descartados e compactar a arena
+        for (int rodada = 0; rodada < 20; rodada++) {
+            for (int i = 0; i < 500; i++) {
+                int operacao = aleatorio.nextInt(10);
+                if (presentes.isEmpty() || operacao < 3) {
+                    int posicao = aleatorio.nextInt(presentes.size() + 1);
+                    Aluno novo = aluno(aleatorio, proximo, 0);
+                    esperado.inserir(posicao, ArmazemAlunos.copiar(novo));
+                    colunar.inserir(posicao, novo);
+                    presentes.add(proximo++);
+                } else if (operacao < 9) {
+                    int numero = presentes.get(aleatorio.nextInt(presentes.size()));
+                    Aluno dados = aluno(aleatorio, numero, rodada * 500 + i);
+                    esperado.atualizar(ArmazemAlunos.copiar(dados));
+                    colunar.atualizar(dados);
+                } else {
+                    int numero = presentes.remove(aleatorio.nextInt(presentes.size()));
+                    esperado.remover(ArmazemAlunosTest.aluno(matricula(numero), null));
+                    colunar.remover(ArmazemAlunosTest.aluno(matricula(numero), null));
+                    assertNull(colunar.obter(matricula(numero)));
+                }
+            }
+            comparar(esperado, colunar, aleatorio);
+        }
+
+        for (int numero : presentes) {
+            assertEquals(campos(List.of(esperado.obter(matricula(numero)))),
+                    campos(List.of(colunar.obter(matricula(numero)))));
+        }
+    }
+
+    @Test
+    void textosLivresNaoEsgotamAsMascaras() {
+        ArmazemColunar.ColunaTexto coluna = new ArmazemColunar.ColunaTexto();
+        // Cada um teria uma máscara própria; ficam na lista de textos
+        for (int i = 0; i < 100; i++) {
+            long codigo = coluna.codificar("ligar depois das " + i + "h");
+            assertTrue(codigo < 0);
+            assertEquals(codigo, coluna.codificar("ligar depois das " + i + "h", codigo));
+        }
+
+        long telefone = coluna.codificar("(85) 91234-5678");
+        assertTrue(telefone >= 0);
+        assertEquals("(85) 91234-5678", coluna.decodificar(telefone));
+        assertEquals("ligar depois das 7h", coluna.decodificar(coluna.codificar("ligar depois das 7h")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {AlunoService.ARMAZENAMENTO_COLUNAR, AlunoService.ARMAZENAMENTO_OBJETOS})
+    void leiturasConcorrentesNaoVeemAlunosMisturados(String armazenamento) throws Exception {
+        System.setProperty(AlunoService.PROPRIEDADE_ARMAZENAMENTO, armazenamento);
+        AlunoService servico;
+        try {
+            servico = AlunoServiceTest.servico(diretorio, new AlunoDAOMemoria());
+        } finally {
+            System.clearProperty(AlunoService.PROPRIEDADE_ARMAZENAMENTO);
+        }
+
+        AtomicBoolean parar = new AtomicBoolean();
+        AtomicReference<Throwable> erro = new AtomicReference<>();
+        AtomicInteger leituras = new AtomicInteger();
+        List<Thread> leitores = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            Thread leitor = new Thread(() -> {
+                try {
+                    while (!parar.get()) {
+                        // Leituras otimistas (ordem de cadastro, busca por nome) e travadas (nome);
+                        // os campos são lidos depois que a consulta devolve os objetos, enquanto
+                        // os mesmos alunos podem estar sendo atualizados
+                        for (List<Aluno> alunos : List.of(servico.listarTodosAlunos(),
+                                servico.listarIntervalo(OrdemListagem.NOME, 0, 50),
+                                servico.buscarPorNome("sauro", 50))) {
+                            for (Aluno aluno : alunos) {
+                                // O nome e o CPF são gerados a partir da matrícula
+                                String numero = aluno.getMatricula().replaceFirst("^(2023|EXT-)0*(?=\\d)", "");
+                                String nome = aluno.getNome();
+                                String cpf = aluno.getCpf();
+                                // ...e a versão do nome e do CPF é a mesma, da mesma atualização
+                                int versao = Integer.parseInt(nome.substring(nome.lastIndexOf('v') + 1));
+                                if (!nome.contains(" Sauro " + numero + "v")
+                                        || !cpf.startsWith(String.format("%03d.%03d.%03d-",
+                                                Integer.parseInt(numero) / 1000, Integer.parseInt(numero) % 1000,
+                                                versao % 1000))) {
+                                    throw new AssertionError("Aluno misturado: " + campos(List.of(aluno)));
+                                }
+                            }
+                        }
+                        servico.getQuantidadeAlunos();
+                        leituras.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    erro.compareAndSet(null, e);
+                }
+            });
+            leitor.start();
+            leitores.add(leitor);
+        }
+
+        Random aleatorio = new Random(7);
+        List<Integer> presentes = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3_000 && erro.get() == null; i++) {
+                if (presentes.size() < 50 || aleatorio.nextInt(4) == 0) {
+                    servico.adicionarAluno(aluno(aleatorio, i, 0));
+                    presentes.add(i);
+                } else if (aleatorio.nextInt(10) == 0) {
+                    servico.removerAlunoPorMatricula(matricula(presentes.remove(aleatorio.nextInt(presentes.size()))));
+                } else {
+                    servico.atualizarAluno(aluno(aleatorio, presentes.get(aleatorio.nextInt(presentes.size())), i));
+                }
+            }
+        } finally {
+            parar.set(true);
+            for (Thread leitor : leitores) {
+                leitor.join(10_000);
+            }
+            // Espera a compactação do CSV em segundo plano antes de o diretório ser apagado
+            servico.encerrar();
+        }
+
+        assertNull(erro.get(), () -> "Leitura falhou: " + erro.get());
+        assertTrue(leituras.get() > 0);
+        assertEquals(presentes.size(), servico.getQuantidadeAlunos());
+    }
+}
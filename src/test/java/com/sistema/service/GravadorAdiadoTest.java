@@ -0,0 +1,127 @@
+package com.sistema.service;
+
+import com.sistema.metricas.MetricaOperacao;
+import com.sistema.metricas.RegistroMetricas;
+import com.sistema.model.Aluno;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GravadorAdiadoTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final AlunoDAOMemoria dao = new AlunoDAOMemoria();
+    private GravadorAdiado gravador;
+
+    @BeforeEach
+    void criar() {
+        String csv = diretorio.resolve("alunos.csv").toString();
+        gravador = new GravadorAdiado(dao, new JournalCSV(csv, new SnapshotAlunos(csv)));
+    }
+
+    @AfterEach
+    void encerrar() {
+        gravador.encerrar();
+    }
+
+    private static Aluno aluno(String matricula, String nome) {
+        Aluno aluno = ArmazemAlunosTest.aluno(matricula, null);
+        aluno.setNome(nome);
+        return aluno;
+    }
+
+    private void registrar(GravadorAdiado.Tipo tipo, Aluno aluno) {
+        gravador.registrar(tipo, aluno, journal -> { });
+    }
+
+    @Test
+    void remocaoEInclusaoGravamOAlunoMesmoSemALinhaNoBanco() {
+        // A inclusão original nunca chegou ao banco (por exemplo, falhou)
+        registrar(GravadorAdiado.Tipo.REMOCAO, aluno("1", "Ana"));
+        registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("1", "Ana Maria"));
+        gravador.flush();
+
+        assertEquals("Ana Maria", dao.tabela.get("1").getNome());
+    }
+
+    @Test
+    void remocaoEInclusaoSubstituemALinhaExistente() {
+        dao.salvar(aluno("1", "Ana"));
+
+        registrar(GravadorAdiado.Tipo.REMOCAO, aluno("1", "Ana"));
+        registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("1", "Ana Maria"));
+        registrar(GravadorAdiado.Tipo.ATUALIZACAO, aluno("1", "Ana Maria Souza"));
+        gravador.flush();
+
+        assertEquals("Ana Maria Souza", dao.tabela.get("1").getNome());
+        assertEquals(1, dao.tabela.size());
+    }
+
+    @Test
+    void remocaoDepoisDeUmaSubstituicaoApagaALinha() {
+        dao.salvar(aluno("1", "Ana"));
+
+        registrar(GravadorAdiado.Tipo.REMOCAO, aluno("1", "Ana"));
+        registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("1", "Ana Maria"));
+        registrar(GravadorAdiado.Tipo.REMOCAO, aluno("1", "Ana Maria"));
+        gravador.flush();
+
+        assertFalse(dao.tabela.containsKey("1"));
+    }
+
+    @Test
+    void inclusaoRemocaoEInclusaoNoMesmoLote() {
+        registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("1", "Ana"));
+        registrar(GravadorAdiado.Tipo.REMOCAO, aluno("1", "Ana"));
+        registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("1", "Bia"));
+        registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("2", "Caio"));
+        registrar(GravadorAdiado.Tipo.REMOCAO, aluno("2", "Caio"));
+        gravador.flush();
+
+        assertEquals(List.of("1"), List.copyOf(dao.tabela.keySet()));
+        assertEquals("Bia", dao.tabela.get("1").getNome());
+    }
+
+    @Test
+    void falhaNoJournalNaoParaAGravacao() {
+        MetricaOperacao journal = RegistroMetricas.operacao("gravador", "journal");
+        long falhas = journal.getFalhas();
+
+        gravador.registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("1", "Ana"), j -> {
+            throw new IllegalStateException("disco cheio");
+        });
+        registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("2", "Bia"));
+        gravador.flush();
+
+        assertEquals(falhas + 1, journal.getFalhas());
+        assertEquals(List.of("1", "2"), List.copyOf(dao.tabela.keySet()));
+
+        // A thread continua gravando os lotes seguintes
+        registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("3", "Caio"));
+        gravador.flush();
+        assertEquals(3, dao.tabela.size());
+    }
+
+    @Test
+    void flushFalhaSeAThreadDeGravacaoParou() {
+        gravador.registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("1", "Ana"), j -> {
+            throw new AssertionError("erro fatal");
+        });
+
+        assertThrows(IllegalStateException.class, gravador::flush);
+
+        // As alterações seguintes não são dadas por gravadas
+        registrar(GravadorAdiado.Tipo.INCLUSAO, aluno("2", "Bia"));
+        assertThrows(IllegalStateException.class, gravador::flush);
+    }
+}
@@ -0,0 +1,103 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IndiceNomesTest {
+
+    private static Aluno aluno(String matricula, String nome) {
+        Aluno aluno = ArmazemAlunosTest.aluno(matricula, null);
+        aluno.setNome(nome);
+        return aluno;
+    }
+
+    private static IndiceNomes indice(Aluno... alunos) {
+        IndiceNomes indice = new IndiceNomes();
+        for (Aluno aluno : alunos) {
+            indice.adicionar(aluno);
+        }
+        return indice;
+    }
+
+    @Test
+    void ignoraMaiusculasAcentosEEspacosRepetidos() {
+        IndiceNomes indice = indice(aluno("1", "  JOÃO  da Conceição"), aluno("2", "Zoë Łukasz"), aluno("3", "Maria"));
+
+        assertEquals("joao da conceicao", IndiceNomes.normalizar("  JOÃO  da Conceição"));
+        assertEquals(List.of("1"), AlunoServiceTest.matriculas(indice.buscar("joao da CONCEICAO", 10)));
+        assertEquals(List.of("1"), AlunoServiceTest.matriculas(indice.buscar("Conceiçao", 10)));
+        // Ł não se decompõe: só passa a minúscula
+        assertEquals(List.of("2"), AlunoServiceTest.matriculas(indice.buscar("ZOE ŁUK", 10)));
+        assertEquals(List.of(), AlunoServiceTest.matriculas(indice.buscar("zoe luk", 10)));
+        assertEquals(List.of(), AlunoServiceTest.matriculas(indice.buscar("joana", 10)));
+    }
+
+    @Test
+    void textosCurtosTrazemPrimeiroQuemComecaComEles() {
+        IndiceNomes indice = indice(aluno("1", "Bruno Alves"), aluno("2", "Ana"), aluno("3", "Al"),
+                aluno("4", "Natália"), aluno("5", "Álvaro"), aluno("6", "Zé"));
+
+        // Começam com "al" (na ordem de indexação), depois os que só contêm
+        assertEquals(List.of("3", "5", "1", "4"), AlunoServiceTest.matriculas(indice.buscar("AL", 10)));
+        assertEquals(List.of("3", "5"), AlunoServiceTest.matriculas(indice.buscar("al", 2)));
+        assertEquals(List.of("2", "3", "5", "1", "4"), AlunoServiceTest.matriculas(indice.buscar("a", 10)));
+        // Nomes com menos de três caracteres não têm trigramas
+        assertEquals(List.of("6"), AlunoServiceTest.matriculas(indice.buscar("ze", 10)));
+        assertEquals(List.of("1", "6"), AlunoServiceTest.matriculas(indice.buscar("é", 10)));
+        assertEquals(List.of(), AlunoServiceTest.matriculas(indice.buscar("x", 10)));
+    }
+
+    @Test
+    void alunoRemovidoOuRenomeadoSaiDaBusca() {
+        Aluno bruno = aluno("1", "Bruno");
+        Aluno ana = aluno("2", "Ana");
+        IndiceNomes indice = indice(bruno, ana, aluno("3", "Bruna"));
+
+        indice.remover(bruno);
+        assertEquals(List.of("3"), AlunoServiceTest.matriculas(indice.buscar("brun", 10)));
+        assertEquals(List.of("3"), AlunoServiceTest.matriculas(indice.buscar("b", 10)));
+
+        // Renomear é remover e indexar de novo (ver ArmazemObjetos.atualizar)
+        indice.remover(ana);
+        Aluno anaBeatriz = aluno("2", "Ana Beatriz");
+        indice.adicionar(anaBeatriz);
+        assertEquals(List.of("2"), AlunoServiceTest.matriculas(indice.buscar("beatriz", 10)));
+        assertEquals(List.of("2", "3"), AlunoServiceTest.matriculas(indice.buscar("a", 10)));
+
+        // Muitas remoções compactam o índice sem perder os que ficaram
+        List<Aluno> outros = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Aluno outro = aluno("x" + i, "Outro " + i);
+            outros.add(outro);
+            indice.adicionar(outro);
+        }
+        outros.forEach(indice::remover);
+        assertEquals(List.of("2", "3"), AlunoServiceTest.matriculas(indice.buscar("a", 10)));
+        assertEquals(List.of(), AlunoServiceTest.matriculas(indice.buscar("outro", 10)));
+    }
+
+    @Test
+    void listaSemAlunosSaiDaTabela() {
+        IndiceNomes.TabelaTrigramas tabela = new IndiceNomes.TabelaTrigramas();
+        tabela.adicionar("xyz abc", 0);
+        tabela.adicionar("abc", 1);
+
+        tabela.remover("xyz abc");
+        assertNull(tabela.obter(IndiceNomes.trigrama("xyz", 0)));
+        assertNotNull(tabela.obter(IndiceNomes.trigrama("abc", 0)));
+
+        // Nem o trecho "y" nem "yz" trazem mais candidatos
+        List<Integer> candidatos = new ArrayList<>();
+        tabela.percorrerCandidatos("yz", candidatos::add);
+        assertEquals(List.of(), candidatos);
+        tabela.percorrerCandidatos("b", candidatos::add);
+        assertEquals(List.of(0, 1), candidatos);
+    }
+}
@@ -0,0 +1,67 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndiceOrdenadoTest {
+
+    private static final Comparator<Aluno> POR_NASCIMENTO = Comparator.comparingInt(Aluno::getDiaNascimento);
+
+    private static Aluno aluno(int matricula, int diaNascimento) {
+        Aluno aluno = ArmazemAlunosTest.aluno(String.format("%06d", matricula), null);
+        aluno.setDiaNascimento(diaNascimento);
+        return aluno;
+    }
+
+    @Test
+    void paginasEFaixasCoincidemComUmaOrdenacaoCompleta() {
+        IndiceOrdenado indice = new IndiceOrdenado(POR_NASCIMENTO);
+        TreeSet<Aluno> referencia = new TreeSet<>(POR_NASCIMENTO
+                .thenComparing(Aluno::getMatricula, Comparator.nullsFirst(Comparator.naturalOrder())));
+        List<Aluno> presentes = new ArrayList<>();
+        Random aleatorio = new Random(13);
+
+        // Inclusões e remoções suficientes para dividir e esvaziar blocos
+        for (int i = 0; i < 20_000; i++) {
+            if (!presentes.isEmpty() && aleatorio.nextInt(3) == 0) {
+                Aluno saindo = presentes.remove(aleatorio.nextInt(presentes.size()));
+                indice.remover(saindo);
+                referencia.remove(saindo);
+            } else {
+                Aluno entrando = aluno(i, aleatorio.nextInt(500));
+                presentes.add(entrando);
+                indice.adicionar(entrando);
+                referencia.add(entrando);
+            }
+        }
+
+        List<Aluno> ordenados = new ArrayList<>(referencia);
+        assertEquals(ordenados.size(), indice.tamanho());
+        assertEquals(ordenados, indice.intervalo(0, Integer.MAX_VALUE));
+        for (int inicio = 0; inicio < ordenados.size(); inicio += 997) {
+            assertEquals(ordenados.subList(inicio, Math.min(ordenados.size(), inicio + 50)),
+                    indice.intervalo(inicio, 50));
+        }
+        assertEquals(List.of(), indice.intervalo(Integer.MAX_VALUE - 1, 10));
+
+        Aluno de = aluno(0, 100);
+        de.setMatricula(null);
+        Aluno ate = aluno(999_999, 120);
+        List<Aluno> faixa = new ArrayList<>();
+        indice.faixa(de, ate, faixa);
+        assertEquals(new ArrayList<>(referencia.subSet(de, true, ate, true)), faixa);
+        for (int dia = -1; dia <= 501; dia += 17) {
+            Aluno limite = aluno(0, dia);
+            limite.setMatricula(null);
+            assertEquals(referencia.headSet(limite).size(), indice.contar(limite), "dia " + dia);
+        }
+    }
+}
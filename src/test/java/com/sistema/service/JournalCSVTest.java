@@ -0,0 +1,108 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JournalCSVTest {
+
+    @TempDir
+    Path diretorio;
+
+    /**
+     * Anota as operações reproduzidas como texto.
+     */
+    static class Gravacao implements JournalCSV.Reproducao {
+
+        final List<String> operacoes = new ArrayList<>();
+
+        @Override
+        public void adicionar(Aluno aluno) {
+            operacoes.add("A " + aluno.getMatricula() + " " + aluno.getTelefone());
+        }
+
+        @Override
+        public void inserir(int posicao, Aluno aluno) {
+            operacoes.add("I " + posicao + " " + aluno.getMatricula());
+        }
+
+        @Override
+        public void atualizar(Aluno aluno) {
+            operacoes.add("U " + aluno.getMatricula());
+        }
+
+        @Override
+        public void remover(String matricula) {
+            operacoes.add("R " + matricula);
+        }
+
+        @Override
+        public void limpar() {
+            operacoes.add("L");
+        }
+    }
+
+    private JournalCSV journal(Path csv) {
+        return new JournalCSV(csv.toString(), new SnapshotAlunos(csv.toString()));
+    }
+
+    private void escreverJournal(Path csv, String conteudo) throws IOException {
+        Files.write(Path.of(csv + ".journal"), conteudo.getBytes(Charset.defaultCharset()));
+    }
+
+    @Test
+    void registroInterrompidoNoFimEhDescartadoENaoGrudaNoProximo() throws IOException {
+        Path csv = diretorio.resolve("alunos.csv");
+        // A queda aconteceu no meio do telefone do segundo aluno
+        escreverJournal(csv, "A,1,Ana,01/01/2000,(85)99999-0000,111\n"
+                + "A,2,Bia,01/01/2000,(85)99");
+
+        Gravacao primeira = new Gravacao();
+        journal(csv).reproduzir(primeira);
+        assertEquals(Arrays.asList("A 1 (85)99999-0000"), primeira.operacoes);
+
+        JournalCSV journal = journal(csv);
+        journal.reproduzir(new Gravacao());
+        journal.registrarRemocao("1");
+
+        Gravacao segunda = new Gravacao();
+        journal(csv).reproduzir(segunda);
+        assertEquals(Arrays.asList("A 1 (85)99999-0000", "R 1"), segunda.operacoes);
+    }
+
+    @Test
+    void soALinhaLLimpaALista() throws IOException {
+        Path csv = diretorio.resolve("alunos.csv");
+        escreverJournal(csv, "L\nLixo,1,2\nR,7\n\nI,3,9,Caio,01/01/2000,,\n");
+
+        Gravacao gravacao = new Gravacao();
+        journal(csv).reproduzir(gravacao);
+
+        assertEquals(Arrays.asList("L", "R 7", "I 3 9"), gravacao.operacoes);
+    }
+
+    @Test
+    void geracoesPendentesSaoReproduzidasAntesDoJournalAtual() throws IOException {
+        Path csv = diretorio.resolve("alunos.csv");
+        Files.write(Path.of(csv + ".journal.2"), "R,2\n".getBytes(Charset.defaultCharset()));
+        Files.write(Path.of(csv + ".journal.1"), "R,1\n".getBytes(Charset.defaultCharset()));
+        escreverJournal(csv, "R,3\n");
+
+        Gravacao gravacao = new Gravacao();
+        JournalCSV journal = journal(csv);
+        journal.reproduzir(gravacao);
+
+        assertEquals(Arrays.asList("R 1", "R 2", "R 3"), gravacao.operacoes);
+        assertEquals(true, journal.temRegistros());
+    }
+}
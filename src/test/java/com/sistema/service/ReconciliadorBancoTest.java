@@ -0,0 +1,144 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReconciliadorBancoTest {
+
+    @TempDir
+    Path diretorio;
+
+    private static List<Aluno> alunos(int quantidade) {
+        List<Aluno> alunos = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            alunos.add(ArmazemAlunosTest.aluno(String.format("M%05d", i), String.format("%011d", i)));
+        }
+        return alunos;
+    }
+
+    /**
+     * Banco com os mesmos alunos da memória, menos um, com um alterado e um a mais.
+     */
+    private static AlunoDAOMemoria bancoDivergente(List<Aluno> memoria) {
+        AlunoDAOMemoria dao = new AlunoDAOMemoria();
+        dao.salvarTodos(memoria);
+        dao.tabela.remove("M00010");
+        dao.tabela.get("M02000").setNome("Nome antigo");
+        dao.salvar(ArmazemAlunosTest.aluno("M04000x", null));
+        return dao;
+    }
+
+    @Test
+    void corrigeSoOsBaldesDiferentes() {
+        List<Aluno> memoria = alunos(5_000);
+        AlunoDAOMemoria dao = bancoDivergente(memoria);
+
+        ResultadoReconciliacao resultado = new ReconciliadorBanco(dao, Integer.MAX_VALUE).reconciliar(memoria);
+
+        assertTrue(resultado.isResumoNoBanco());
+        assertEquals(8, resultado.getBaldes());
+        assertEquals(3, resultado.getBaldesDiferentes());
+        assertEquals(1, resultado.getInseridos());
+        assertEquals(1, resultado.getAtualizados());
+        assertEquals(1, resultado.getRemovidos());
+        assertEquals(AlunoServiceTest.matriculas(memoria), new ArrayList<>(dao.tabela.keySet()));
+        assertEquals("Aluno M02000", dao.tabela.get("M02000").getNome());
+
+        // Banco consistente: só a raiz é consultada
+        dao.resumos = 0;
+        resultado = new ReconciliadorBanco(dao, Integer.MAX_VALUE).reconciliar(memoria);
+        assertEquals(1, resultado.getComparacoes());
+        assertEquals(1, dao.resumos);
+        assertEquals(5_000, resultado.getAlunosBanco());
+    }
+
+    @Test
+    void semAFuncaoNoBancoLeATabela() {
+        List<Aluno> memoria = alunos(3_000);
+        AlunoDAOMemoria dao = bancoDivergente(memoria);
+        dao.semResumo = true;
+
+        ResultadoReconciliacao resultado = new ReconciliadorBanco(dao, Integer.MAX_VALUE).reconciliar(memoria);
+
+        assertFalse(resultado.isResumoNoBanco());
+        assertEquals(3, resultado.getInseridos() + resultado.getAtualizados() + resultado.getRemovidos());
+        assertEquals(AlunoServiceTest.matriculas(memoria), new ArrayList<>(dao.tabela.keySet()));
+    }
+
+    @Test
+    void remocoesPassandoDoLimiteFicamParaAProxima() {
+        List<Aluno> memoria = alunos(100);
+        AlunoDAOMemoria dao = new AlunoDAOMemoria();
+        dao.salvarTodos(alunos(125));
+
+        ResultadoReconciliacao resultado = new ReconciliadorBanco(dao, 10).reconciliar(memoria);
+
+        assertEquals(10, resultado.getRemovidos());
+        assertEquals(15, resultado.getRemocoesAdiadas());
+        assertEquals(115, dao.tabela.size());
+    }
+
+    @Test
+    void memoriaVaziaSoEsvaziaOBancoQuandoForcado() {
+        AlunoDAOMemoria dao = new AlunoDAOMemoria();
+        dao.salvarTodos(alunos(3));
+        AlunoService servico = servico(dao);
+
+        assertThrows(IllegalStateException.class, servico::reconciliarBanco);
+        assertEquals(3, dao.tabela.size());
+
+        // Sem conseguir ler o banco, não dá para saber se ele está vazio
+        dao.leiturasFalham = true;
+        assertEquals("banco indisponível",
+                assertThrows(IllegalStateException.class, servico::reconciliarBanco).getMessage());
+        assertEquals(3, dao.tabela.size());
+        dao.leiturasFalham = false;
+
+        assertEquals(3, servico.reconciliarBanco(true).getRemovidos());
+        assertTrue(dao.tabela.isEmpty());
+    }
+
+    @Test
+    void servicoRespeitaOLimiteDeRemocoesConfigurado() throws Exception {
+        AlunoDAOMemoria dao = new AlunoDAOMemoria();
+        AlunoService servico = servico(dao);
+        servico.adicionarAluno(ArmazemAlunosTest.aluno("M00000", null));
+        dao.salvarTodos(alunos(6).subList(1, 6));
+
+        System.setProperty(AlunoService.PROPRIEDADE_MAXIMO_REMOCOES, "2");
+        try {
+            assertEquals(3, servico.reconciliarBanco().getRemocoesAdiadas());
+            assertEquals(4, dao.tabela.size());
+            assertEquals(0, servico.reconciliarBanco(true).getRemocoesAdiadas());
+            assertEquals(List.of("M00000"), new ArrayList<>(dao.tabela.keySet()));
+        } finally {
+            System.clearProperty(AlunoService.PROPRIEDADE_MAXIMO_REMOCOES);
+        }
+    }
+
+    private final List<AlunoService> abertos = new ArrayList<>();
+
+    private AlunoService servico(AlunoDAOMemoria dao) {
+        AlunoService servico = AlunoServiceTest.servico(diretorio, dao);
+        abertos.add(servico);
+        return servico;
+    }
+
+    @AfterEach
+    void encerrar() {
+        for (AlunoService servico : abertos) {
+            servico.encerrar();
+        }
+    }
+}
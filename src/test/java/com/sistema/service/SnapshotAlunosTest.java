@@ -0,0 +1,77 @@
+package com.sistema.service;
+
+import com.sistema.model.Aluno;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotAlunosTest {
+
+    @TempDir
+    Path diretorio;
+
+    private Path csv;
+    private SnapshotAlunos snapshot;
+
+    private void gravar(String conteudo) throws IOException {
+        csv = diretorio.resolve("alunos.csv");
+        Files.write(csv, conteudo.getBytes(StandardCharsets.UTF_8));
+        snapshot = new SnapshotAlunos(csv.toString());
+        snapshot.gravar(List.of(ArmazemAlunosTest.aluno("1", "111"), ArmazemAlunosTest.aluno("2", "222")));
+    }
+
+    private List<String> carregar() {
+        List<Aluno> alunos = new ArrayList<>();
+        return new SnapshotAlunos(csv.toString()).carregar(alunos::add)
+                ? AlunoServiceTest.matriculas(alunos)
+                : null;
+    }
+
+    @Test
+    void csvAlteradoComMesmoTamanhoEDataInvalidaOSnapshot() throws IOException {
+        gravar("1,Aluno 1\n2,Aluno 2\n");
+        assertEquals(List.of("1", "2"), carregar());
+        assertTrue(snapshot.isAtualizado());
+
+        // Outro conteúdo, mesmo tamanho e mesma data de modificação
+        FileTime modificacao = Files.getLastModifiedTime(csv);
+        Files.write(csv, "1,Aluno 1\n3,Aluno 3\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(csv, modificacao);
+
+        assertNull(carregar());
+        assertFalse(snapshot.isAtualizado());
+    }
+
+    @Test
+    void csvSoTocadoContinuaRepresentado() throws IOException {
+        gravar("1,Aluno 1\n2,Aluno 2\n");
+
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 60_000));
+
+        assertEquals(List.of("1", "2"), carregar());
+        assertTrue(snapshot.isAtualizado());
+    }
+
+    @Test
+    void snapshotCarregadoPodeSerRegravado() throws IOException {
+        gravar("1,Aluno 1\n2,Aluno 2\n");
+        SnapshotAlunos carregado = new SnapshotAlunos(csv.toString());
+        assertTrue(carregado.carregar(aluno -> { }));
+
+        // A carga já liberou o mapeamento: a gravação substitui o arquivo
+        carregado.gravar(List.of(ArmazemAlunosTest.aluno("3", "333")));
+        assertEquals(List.of("3"), carregar());
+    }
+}
@@ -0,0 +1,55 @@
+package com.sistema.util;
+
+import com.sistema.model.Aluno;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AlunoCSVCodecTest {
+
+    @Test
+    void linhaNaoTerminaEmVirgulaQuandoOCpfEstaVazio() throws ParseException {
+        Aluno aluno = new Aluno("1", "Ana", 0, LocalDate.of(2000, 1, 1), "(86)3232-2525", null);
+
+        String linha = AlunoCSVCodec.codificar(aluno);
+
+        assertFalse(linha.endsWith(","), linha);
+        assertEquals(5, linha.split(",").length);
+        assertEquals("", AlunoCSVCodec.decodificar(linha).getCpf());
+    }
+
+    @Test
+    void linhaAntigaTerminadaEmVirgulaContinuaValida() throws ParseException {
+        Aluno aluno = AlunoCSVCodec.decodificar("1,Ana,01/01/2000,(86)3232-2525,");
+
+        assertEquals("", aluno.getCpf());
+        assertEquals("(86)3232-2525", aluno.getTelefone());
+    }
+
+    @Test
+    void camposComVirgulaEAspasFazemIdaEVolta() throws ParseException {
+        Aluno aluno = new Aluno("7", "João \"Jota\", Filho", 0, LocalDate.of(1999, 12, 31),
+                " 86 9999 ", "123.456.789-00");
+
+        String linha = AlunoCSVCodec.codificar(aluno);
+        Aluno lido = AlunoCSVCodec.decodificar(linha);
+
+        assertEquals("7,\"João \"\"Jota\"\", Filho\",31/12/1999,\" 86 9999 \",123.456.789-00", linha);
+        assertEquals(aluno.getNome(), lido.getNome());
+        assertEquals(aluno.getTelefone(), lido.getTelefone());
+        assertEquals(aluno.getDiaNascimento(), lido.getDiaNascimento());
+    }
+
+    @Test
+    void rejeitaLinhaComCamposAMaisOuDataInexistente() {
+        assertThrows(IllegalArgumentException.class,
+                () -> AlunoCSVCodec.decodificar("1,Ana,01/01/2000,1,2,3"));
+        assertThrows(ParseException.class,
+                () -> AlunoCSVCodec.decodificar("1,Ana,31/02/2000,1,2"));
+    }
+}
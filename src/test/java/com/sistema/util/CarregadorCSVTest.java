@@ -0,0 +1,70 @@
+package com.sistema.util;
+
+import com.sistema.model.Aluno;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CarregadorCSVTest {
+
+    @TempDir
+    Path diretorio;
+
+    private static List<String> linhas(CarregadorCSV.Resultado resultado) {
+        List<String> linhas = new ArrayList<>();
+        for (int i = 0; i < resultado.getAlunos().size(); i++) {
+            Aluno aluno = resultado.getAlunos().get(i);
+            linhas.add(resultado.getLinha(i) + ":" + aluno.getMatricula() + "|" + aluno.getNome() + "|"
+                    + aluno.getDiaNascimento() + "|" + aluno.getTelefone() + "|" + aluno.getCpf());
+        }
+        for (CarregadorCSV.ErroLinha erro : resultado.getErros()) {
+            linhas.add(erro.getLinha() + ": erro");
+        }
+        linhas.add("total " + resultado.getTotalLinhas());
+        return linhas;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTF-8", "ISO-8859-1", "UTF-16", "UTF-16LE"})
+    void pedacosEJanelasPequenosLeemOMesmoQueOArquivoInteiro(String nomeCharset) throws IOException {
+        Charset charset = Charset.forName(nomeCharset);
+        StringBuilder texto = new StringBuilder();
+        for (int i = 1; i <= 300; i++) {
+            if (i % 50 == 0) {
+                texto.append("linha inválida ").append(i).append('\n');
+            } else if (i == 120) {
+                // Linha bem maior que os pedaços e as janelas
+                texto.append(i).append(",\"").append("Conceição ".repeat(200)).append("\",01/01/2000,1,2\n");
+            } else {
+                texto.append(i).append(",João Ávila ").append(i).append(",15/03/2001,(85) 9999-")
+                        .append(i).append(',').append(i % 3 == 0 ? "\r\n" : "\n");
+            }
+        }
+        texto.append("301,Última sem quebra,02/02/2002,1,2");
+        Path arquivo = diretorio.resolve("alunos.csv");
+        Files.write(arquivo, texto.toString().getBytes(charset));
+
+        List<String> esperado = linhas(CarregadorCSV.carregar(arquivo, charset, Integer.MAX_VALUE));
+        assertEquals(302, esperado.size());
+        assertEquals("total 301", esperado.get(esperado.size() - 1));
+        for (int tamanho : new int[] {16, 100, 1000}) {
+            assertEquals(esperado, linhas(CarregadorCSV.carregar(arquivo, charset, tamanho)), "pedaço " + tamanho);
+        }
+
+        // A carga não segura o arquivo: ele pode ser substituído logo em seguida
+        Path novo = diretorio.resolve("novo.csv");
+        Files.write(novo, "1,Ana,01/01/2000,1,2\n".getBytes(charset));
+        Files.move(novo, arquivo, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(1, CarregadorCSV.carregar(arquivo, charset).getAlunos().size());
+    }
+}
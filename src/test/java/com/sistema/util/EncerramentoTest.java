@@ -0,0 +1,44 @@
+package com.sistema.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EncerramentoTest {
+
+    @Test
+    void executaAsFasesEmOrdemUmaVezCada() {
+        Encerramento encerramento = new Encerramento();
+        List<String> executadas = new ArrayList<>();
+        encerramento.registrar(Encerramento.Fase.BANCO, "banco", () -> executadas.add("banco"));
+        encerramento.registrar(Encerramento.Fase.SERVICO, "servico", () -> {
+            executadas.add("servico");
+            throw new IllegalStateException("falha ao gravar");
+        });
+        encerramento.registrar(Encerramento.Fase.ENTRADA, "api", () -> executadas.add("api"));
+        encerramento.registrar(Encerramento.Fase.SERVICO, "outro servico", () -> executadas.add("outro servico"));
+
+        encerramento.executar();
+        encerramento.executar();
+
+        // A falha de uma etapa não impede o banco de fechar
+        assertEquals(List.of("api", "servico", "outro servico", "banco"), executadas);
+    }
+
+    @Test
+    void etapaRemovidaNaoRoda() {
+        Encerramento encerramento = new Encerramento();
+        List<String> executadas = new ArrayList<>();
+        Encerramento.Etapa servico = encerramento.registrar(Encerramento.Fase.SERVICO, "servico",
+                () -> executadas.add("servico"));
+        encerramento.registrar(Encerramento.Fase.BANCO, "banco", () -> executadas.add("banco"));
+
+        encerramento.remover(servico);
+        encerramento.executar();
+
+        assertEquals(List.of("banco"), executadas);
+    }
+}
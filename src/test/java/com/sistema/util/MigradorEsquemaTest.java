@@ -0,0 +1,92 @@
+package com.sistema.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migrações contra bancos HSQLDB em memória próprios, fora do usado pelo Hibernate nos testes.
+ */
+class MigradorEsquemaTest {
+
+    private Connection conexao;
+
+    @BeforeAll
+    static void liberarFuncoes() {
+        // A migração 2 cria a função hash_aluno, em Java
+        HibernateUtil.liberarFuncoesJava();
+    }
+
+    @AfterEach
+    void fechar() throws SQLException {
+        try (Statement stmt = conexao.createStatement()) {
+            stmt.execute("shutdown");
+        }
+        conexao.close();
+    }
+
+    private Connection conectar(String banco) throws SQLException {
+        conexao = DriverManager.getConnection("jdbc:hsqldb:mem:" + banco, "SA", "");
+        return conexao;
+    }
+
+    private static String tipoDataNascimento(Connection conexao) throws SQLException {
+        try (ResultSet rs = conexao.getMetaData().getColumns(null, null, "ALUNOS", "DATA_NASCIMENTO")) {
+            assertTrue(rs.next());
+            return rs.getString("TYPE_NAME");
+        }
+    }
+
+    private static int contar(Connection conexao, String tabela) throws SQLException {
+        try (Statement stmt = conexao.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(*) from " + tabela)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void migrarDeNovoNaoAplicaNada() throws SQLException {
+        Connection conexao = conectar("migracao_nova");
+
+        assertEquals(MigradorEsquema.getVersaoAtual(), MigradorEsquema.migrar(conexao));
+        assertEquals(0, MigradorEsquema.migrar(conexao));
+
+        assertEquals(MigradorEsquema.getVersaoAtual(), MigradorEsquema.lerVersao(conexao));
+        assertEquals(MigradorEsquema.getVersaoAtual(), contar(conexao, MigradorEsquema.TABELA_VERSAO));
+        assertEquals("TIMESTAMP", tipoDataNascimento(conexao));
+    }
+
+    @Test
+    void bancoDoHbm2ddlPassaATerDataNascimentoTimestamp() throws SQLException {
+        Connection conexao = conectar("migracao_hbm2ddl");
+        // Como o hbm2ddl=update criava a tabela com @Temporal(DATE)
+        try (Statement stmt = conexao.createStatement()) {
+            stmt.execute("create table alunos (matricula varchar(255) not null, cpf varchar(14) not null,"
+                    + " data_nascimento date not null, idade integer not null, nome varchar(200) not null,"
+                    + " telefone varchar(20) not null, primary key (matricula))");
+            stmt.execute("insert into alunos values ('1', '111', date '2001-03-15', 20, 'Ana', '85')");
+        }
+
+        // A versão 1 só é registrada
+        assertEquals(MigradorEsquema.getVersaoAtual() - 1, MigradorEsquema.migrar(conexao));
+        assertEquals(0, MigradorEsquema.migrar(conexao));
+
+        assertEquals("TIMESTAMP", tipoDataNascimento(conexao));
+        try (Statement stmt = conexao.createStatement();
+             ResultSet rs = stmt.executeQuery("select data_nascimento from alunos")) {
+            assertTrue(rs.next());
+            assertEquals(Timestamp.valueOf("2001-03-15 00:00:00"), rs.getTimestamp(1));
+        }
+    }
+}